@@ -108,6 +108,14 @@ public interface OBinaryRequestExecutor {
 
   OBinaryResponse executeQueryNextPage(OQueryNextPageRequest request);
 
+  OBinaryResponse executePrepareStatement(OPrepareStatementRequest request);
+
+  OBinaryResponse executePreparedStatement(OExecutePreparedStatementRequest request);
+
+  OBinaryResponse executeClosePreparedStatement(OClosePreparedStatementRequest request);
+
+  OBinaryResponse executeReadChanges(OReadChangesRequest request);
+
   OBinaryResponse executeBeginTransaction(OBeginTransactionRequest request);
 
   OBinaryResponse executeCommit37(OCommit37Request request);
@@ -140,6 +148,8 @@ public interface OBinaryRequestExecutor {
 
   OBinaryResponse executeSubscribeSequences(OSubscribeSequencesRequest request);
 
+  OBinaryResponse executeSubscribeRecordInvalidation(OSubscribeRecordInvalidationRequest request);
+
   OBinaryResponse executeExperimental(OExperimentalRequest request);
 
   OBinaryResponse executeLockRecord(OLockRecordRequest request);
@@ -28,6 +28,8 @@ import com.orientechnologies.orient.client.remote.OStorageRemoteNodeSession;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
 import com.orientechnologies.orient.client.remote.message.OError37Response;
 import com.orientechnologies.orient.core.OConstants;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.enterprise.channel.OSocketFactory;
@@ -96,7 +98,7 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
         writeShort((short) iProtocolVersion);
         writeString("Java Client");
         writeString(OConstants.getVersion());
-        writeByte(OChannelBinaryProtocol.ENCODING_DEFAULT);
+        writeByte(requestedEncoding(iConfig));
         writeByte(OChannelBinaryProtocol.ERROR_MESSAGE_JAVA);
         flush();
       } catch (IOException e) {
@@ -124,6 +126,17 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     }
   }
 
+  /**
+   * Compressed responses are asked only to servers speaking at least the protocol 39, older servers
+   * do not know the encoding byte of the handshake.
+   */
+  private byte requestedEncoding(final OContextConfiguration config) {
+    return config.getValueAsBoolean(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION)
+            && srvProtocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39
+        ? OChannelBinaryProtocol.ENCODING_GZIP
+        : OChannelBinaryProtocol.ENCODING_DEFAULT;
+  }
+
   @SuppressWarnings("unchecked")
   private static RuntimeException createException(
       final String iClassName, final String iMessage, final Exception iPrevious) {
@@ -206,6 +219,10 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
       else tokenBytes = null;
 
       currentMessage = readByte();
+      if (currentStatus == OChannelBinaryProtocol.RESPONSE_STATUS_OK_COMPRESSED) {
+        readCompressed();
+        currentStatus = OChannelBinaryProtocol.RESPONSE_STATUS_OK;
+      }
       handleStatus(currentStatus, currentSessionId);
       return tokenBytes;
     } catch (OLockException e) {
@@ -216,6 +233,14 @@ public class OChannelBinaryAsynchClient extends OChannelBinary {
     return null;
   }
 
+  /**
+   * Reads the content of a response compressed by the server, the encoding asked in the handshake
+   * is the only one supported.
+   */
+  public void readCompressed() throws IOException {
+    readCompressed(OCompressionFactory.INSTANCE.getCompression(OGZIPCompression.NAME, null));
+  }
+
   public void endResponse() throws IOException {
     // WAKE UP ALL THE WAITING THREADS
     try {
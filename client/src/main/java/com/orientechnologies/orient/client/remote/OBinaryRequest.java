@@ -2,6 +2,7 @@ package com.orientechnologies.orient.client.remote;
 
 import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
 import java.io.IOException;
@@ -33,4 +34,9 @@ public interface OBinaryRequest<T extends OBinaryResponse> {
   default String requiredServerRole() {
     return "";
   }
+
+  /** @return the oldest protocol version of the server that can execute the request */
+  default int requiredProtocolVersion() {
+    return OChannelBinaryProtocol.OLDEST_SUPPORTED_PROTOCOL_VERSION;
+  }
 }
@@ -0,0 +1,29 @@
+package com.orientechnologies.orient.client.remote;
+
+/**
+ * A query prepared on the server, which keeps it parsed and planned for the session that prepared
+ * it. The query is prepared again when it is executed on a different server session.
+ */
+public class ORemotePreparedStatement {
+  private final String statement;
+  private String session;
+  private int statementId;
+
+  public ORemotePreparedStatement(String statement) {
+    this.statement = statement;
+  }
+
+  public String getStatement() {
+    return statement;
+  }
+
+  /** @return the handle of the statement on the given server session, null if not prepared */
+  protected synchronized Integer getStatementId(String session) {
+    return session != null && session.equals(this.session) ? statementId : null;
+  }
+
+  protected synchronized void prepared(String session, int statementId) {
+    this.session = session;
+    this.statementId = statementId;
+  }
+}
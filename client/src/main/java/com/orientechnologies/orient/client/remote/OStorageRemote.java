@@ -32,6 +32,8 @@ import com.orientechnologies.orient.client.ONotSendRequestException;
 import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.client.remote.message.OAddClusterRequest;
 import com.orientechnologies.orient.client.remote.message.OAddClusterResponse;
+import com.orientechnologies.orient.client.remote.message.OBatchOperationsRequest;
+import com.orientechnologies.orient.client.remote.message.OBatchOperationsResponse;
 import com.orientechnologies.orient.client.remote.message.OBeginTransaction38Request;
 import com.orientechnologies.orient.client.remote.message.OBeginTransactionResponse;
 import com.orientechnologies.orient.client.remote.message.OBinaryPushRequest;
@@ -40,6 +42,7 @@ import com.orientechnologies.orient.client.remote.message.OCeilingPhysicalPositi
 import com.orientechnologies.orient.client.remote.message.OCeilingPhysicalPositionsResponse;
 import com.orientechnologies.orient.client.remote.message.OCleanOutRecordRequest;
 import com.orientechnologies.orient.client.remote.message.OCleanOutRecordResponse;
+import com.orientechnologies.orient.client.remote.message.OClosePreparedStatementRequest;
 import com.orientechnologies.orient.client.remote.message.OCloseQueryRequest;
 import com.orientechnologies.orient.client.remote.message.OCommandRequest;
 import com.orientechnologies.orient.client.remote.message.OCommandResponse;
@@ -55,6 +58,7 @@ import com.orientechnologies.orient.client.remote.message.ODeleteRecordRequest;
 import com.orientechnologies.orient.client.remote.message.ODeleteRecordResponse;
 import com.orientechnologies.orient.client.remote.message.ODropClusterRequest;
 import com.orientechnologies.orient.client.remote.message.ODropClusterResponse;
+import com.orientechnologies.orient.client.remote.message.OExecutePreparedStatementRequest;
 import com.orientechnologies.orient.client.remote.message.OExperimentalRequest;
 import com.orientechnologies.orient.client.remote.message.OExperimentalResponse;
 import com.orientechnologies.orient.client.remote.message.OFetchTransaction38Request;
@@ -80,15 +84,20 @@ import com.orientechnologies.orient.client.remote.message.OLowerPhysicalPosition
 import com.orientechnologies.orient.client.remote.message.OLowerPhysicalPositionsResponse;
 import com.orientechnologies.orient.client.remote.message.OOpen37Request;
 import com.orientechnologies.orient.client.remote.message.OOpen37Response;
+import com.orientechnologies.orient.client.remote.message.OPrepareStatementRequest;
+import com.orientechnologies.orient.client.remote.message.OPrepareStatementResponse;
 import com.orientechnologies.orient.client.remote.message.OPushDistributedConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushFunctionsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushIndexManagerRequest;
+import com.orientechnologies.orient.client.remote.message.OPushRecordInvalidationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OPushStorageConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OQueryNextPageRequest;
 import com.orientechnologies.orient.client.remote.message.OQueryRequest;
 import com.orientechnologies.orient.client.remote.message.OQueryResponse;
+import com.orientechnologies.orient.client.remote.message.OReadChangesRequest;
+import com.orientechnologies.orient.client.remote.message.OReadChangesResponse;
 import com.orientechnologies.orient.client.remote.message.OReadRecordIfVersionIsNotLatestRequest;
 import com.orientechnologies.orient.client.remote.message.OReadRecordIfVersionIsNotLatestResponse;
 import com.orientechnologies.orient.client.remote.message.OReadRecordRequest;
@@ -108,6 +117,8 @@ import com.orientechnologies.orient.client.remote.message.OSubscribeFunctionsReq
 import com.orientechnologies.orient.client.remote.message.OSubscribeIndexManagerRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeLiveQueryRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeLiveQueryResponse;
+import com.orientechnologies.orient.client.remote.message.OSubscribeRecordInvalidationRequest;
+import com.orientechnologies.orient.client.remote.message.OSubscribeRecordInvalidationResponse;
 import com.orientechnologies.orient.client.remote.message.OSubscribeSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OSubscribeStorageConfigurationRequest;
@@ -139,12 +150,14 @@ import com.orientechnologies.orient.core.db.record.OCurrentStorageComponentsFact
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.OPreparedStatementNotFoundException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.metadata.security.OTokenException;
+import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.ORecordVersionHelper;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -152,7 +165,9 @@ import com.orientechnologies.orient.core.security.OCredentialInterceptor;
 import com.orientechnologies.orient.core.security.OSecurityManager;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37Client;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.query.OLiveQuery;
 import com.orientechnologies.orient.core.storage.OCluster;
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
@@ -163,7 +178,9 @@ import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.OStorageOperationResult;
 import com.orientechnologies.orient.core.storage.OStorageProxy;
 import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
+import com.orientechnologies.orient.core.storage.impl.local.OCommittedChanges;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordSerializationContext;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.tx.OTransactionAbstract;
@@ -176,23 +193,29 @@ import com.orientechnologies.orient.enterprise.channel.binary.OTokenSecurityExce
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /** This object is bound to each remote ODatabase instances. */
 public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStorage {
@@ -215,6 +238,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   private final ORemoteURLs serverURLs;
   private final Map<String, OCluster> clusterMap = new ConcurrentHashMap<String, OCluster>();
   private final ExecutorService asynchExecutor;
+  private final ExecutorService prefetchExecutor;
   private final ODocument clusterConfiguration = new ODocument();
   private final AtomicInteger users = new AtomicInteger(0);
   private final OContextConfiguration clientConfiguration;
@@ -229,6 +253,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   private final Map<Integer, OLiveQueryClientListener> liveQueryListener =
       new ConcurrentHashMap<>();
   private volatile OStorageRemotePushThread pushThread;
+  private volatile OStorageRemoteNearCache nearCache;
   protected final OrientDBRemote context;
   protected OSharedContext sharedContext = null;
   protected final String url;
@@ -291,6 +316,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     serverURLs = hosts;
 
     asynchExecutor = OThreadPoolExecutors.newSingleThreadScheduledPool("OStorageRemote Async");
+    prefetchExecutor = OThreadPoolExecutors.newCachedThreadPool("OStorageRemote Prefetch");
 
     this.connectionManager = connectionManager;
     this.context = context;
@@ -412,37 +438,49 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
 
   public <T extends OBinaryResponse> T networkOperationRetryTimeout(
       final OBinaryRequest<T> request, final String errorMessage, int retry, int timeout) {
-    return baseNetworkOperation(
-        (network, session) -> {
-          try {
-            try {
-              network.beginRequest(request.getCommand(), session);
-              request.write(network, session);
-            } finally {
-              network.endRequest();
-            }
-          } catch (IOException e) {
-            if (network.isConnected()) {
-              OLogManager.instance().warn(this, "Error Writing request on the network", e);
-            }
-            throw new ONotSendRequestException("Cannot send request on this channel");
-          }
+    return baseNetworkOperation(requestOperation(request, timeout), errorMessage, retry);
+  }
+
+  private <T extends OBinaryResponse> OStorageRemoteOperation<T> requestOperation(
+      final OBinaryRequest<T> request, int timeout) {
+    return (network, session) -> {
+      if (network.getSrvProtocolVersion() < request.requiredProtocolVersion()) {
+        throw new OStorageException(
+            String.format(
+                "%s is not supported by the server %s with protocol version %d, version %d is"
+                    + " required",
+                request.getDescription(),
+                network.getServerURL(),
+                network.getSrvProtocolVersion(),
+                request.requiredProtocolVersion()));
+      }
+      try {
+        try {
+          network.beginRequest(request.getCommand(), session);
+          request.write(network, session);
+        } finally {
+          network.endRequest();
+        }
+      } catch (IOException e) {
+        if (network.isConnected()) {
+          OLogManager.instance().warn(this, "Error Writing request on the network", e);
+        }
+        throw new ONotSendRequestException("Cannot send request on this channel");
+      }
 
-          int prev = network.getSocketTimeout();
-          T response = request.createResponse();
-          try {
-            if (timeout > 0) network.setSocketTimeout(timeout);
-            beginResponse(network, session);
-            response.read(network, session);
-          } finally {
-            endResponse(network);
-            if (timeout > 0) network.setSocketTimeout(prev);
-          }
-          connectionManager.release(network);
-          return response;
-        },
-        errorMessage,
-        retry);
+      int prev = network.getSocketTimeout();
+      T response = request.createResponse();
+      try {
+        if (timeout > 0) network.setSocketTimeout(timeout);
+        beginResponse(network, session);
+        response.read(network, session);
+      } finally {
+        endResponse(network);
+        if (timeout > 0) network.setSocketTimeout(prev);
+      }
+      connectionManager.release(network);
+      return response;
+    };
   }
 
   public <T extends OBinaryResponse> T networkOperationNoRetry(
@@ -458,6 +496,15 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   public <T> T baseNetworkOperation(
       final OStorageRemoteOperation<T> operation, final String errorMessage, int retry) {
     OStorageRemoteSession session = getCurrentSession();
+    session.waitPendingRequest();
+    return baseNetworkOperation(session, operation, errorMessage, retry);
+  }
+
+  private <T> T baseNetworkOperation(
+      final OStorageRemoteSession session,
+      final OStorageRemoteOperation<T> operation,
+      final String errorMessage,
+      int retry) {
     if (session.commandExecuting)
       throw new ODatabaseException(
           "Cannot execute the request because an asynchronous operation is in progress. Please use a different connection");
@@ -859,10 +906,56 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
       // PENDING NETWORK OPERATION, CAN'T EXECUTE IT NOW
       return new OStorageOperationResult<ORawBuffer>(null);
 
-    OReadRecordRequest request = new OReadRecordRequest(iIgnoreCache, iRid, iFetchPlan, false);
+    // RECORDS LOADED WITH A FETCH PLAN ALSO BRING THE LINKED RECORDS, SO THEY ARE ALWAYS READ
+    final ODatabaseDocumentInternal database = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    final OStorageRemoteNearCache cache =
+        iIgnoreCache || (iFetchPlan != null && !iFetchPlan.isEmpty())
+            ? null
+            : getNearCache(database, iRid);
+    final String cacheUser = cache != null ? getNearCacheUser(database) : null;
+    long stamp = 0;
+    if (cache != null) {
+      final ORawBuffer cached = cache.get(iRid, cacheUser);
+      if (cached != null) return new OStorageOperationResult<ORawBuffer>(cached);
+      stamp = cache.getStamp();
+    }
+
+    OReadRecordRequest request =
+        new OReadRecordRequest(
+            iIgnoreCache,
+            iRid,
+            iFetchPlan,
+            false,
+            clientConfiguration.getValueAsBoolean(
+                OGlobalConfiguration.CLIENT_STORED_RECORD_FORMAT));
     OReadRecordResponse response = networkOperation(request, "Error on read record " + iRid);
 
-    return new OStorageOperationResult<ORawBuffer>(response.getResult());
+    ORawBuffer result = response.getResult();
+    if (result != null && response.isStoredFormat()) {
+      result = fromStoredFormat(result);
+    }
+    if (cache != null && result != null) {
+      cache.put(iRid, cacheUser, result, stamp);
+    }
+    return new OStorageOperationResult<ORawBuffer>(result);
+  }
+
+  /**
+   * Converts a record sent in the format it is stored with on the server to the format of the
+   * client records. It is done once the response is read, because the deserialization can reload
+   * the schema when it finds properties that are not in the snapshot of the client.
+   */
+  private static ORawBuffer fromStoredFormat(final ORawBuffer buffer) {
+    if (buffer.recordType != ODocument.RECORD_TYPE) {
+      // BLOBS AND FLAT RECORDS ARE SENT AS THEY ARE ANYWAY
+      return buffer;
+    }
+    final ODocument document = new ODocument();
+    ORecordSerializerBinary.INSTANCE.fromStream(buffer.buffer, document, null);
+    return new ORawBuffer(
+        ORecordSerializerNetworkV37Client.INSTANCE.toStream(document),
+        buffer.version,
+        buffer.recordType);
   }
 
   public String incrementalBackup(final String backupDirectory, OCallable<Void, Void> started) {
@@ -915,6 +1008,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
           };
     }
 
+    invalidateNearCache(iRid);
     OUpdateRecordRequest request =
         new OUpdateRecordRequest(iRid, iContent, iVersion, updateContent, iRecordType);
     OUpdateRecordResponse response =
@@ -939,6 +1033,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     if (iCallback != null)
       realCallback = (iRID, response) -> iCallback.call(iRID, response.getResult());
 
+    invalidateNearCache(iRid);
     final ODeleteRecordRequest request = new ODeleteRecordRequest(iRid, iVersion);
     final ODeleteRecordResponse response =
         asyncNetworkOperationNoRetry(
@@ -958,6 +1053,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     if (callback != null)
       realCallback = (iRID, response) -> callback.call(iRID, response.getResult());
 
+    invalidateNearCache(recordId);
     final OCleanOutRecordRequest request = new OCleanOutRecordRequest(recordVersion, recordId);
     final OCleanOutRecordResponse response =
         asyncNetworkOperationNoRetry(
@@ -1114,7 +1210,12 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
+    final OStorageRemoteNearCache cache = getNearCache(db, null);
+    final long stamp = cache != null ? cache.getStamp() : 0;
     OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    if (cache != null) {
+      cacheResults(db, cache, stamp, response.getResult());
+    }
     ORemoteResultSet rs =
         new ORemoteResultSet(
             db,
@@ -1139,7 +1240,12 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     OQueryRequest request =
         new OQueryRequest(
             "sql", query, args, OQueryRequest.QUERY, db.getSerializer(), recordsPerPage);
+    final OStorageRemoteNearCache cache = getNearCache(db, null);
+    final long stamp = cache != null ? cache.getStamp() : 0;
     OQueryResponse response = networkOperation(request, "Error on executing command: " + query);
+    if (cache != null) {
+      cacheResults(db, cache, stamp, response.getResult());
+    }
 
     ORemoteResultSet rs =
         new ORemoteResultSet(
@@ -1157,6 +1263,128 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     return new ORemoteQueryResult(rs, response.isTxChanges(), response.isReloadMetadata());
   }
 
+  /**
+   * Prepares the statement on the server. Servers older than the protocol 39 do not support
+   * prepared statements, in such case the statement is left not prepared and it is executed as a
+   * plain query.
+   */
+  public void prepareStatement(ORemotePreparedStatement statement) {
+    final OPrepareStatementRequest request = new OPrepareStatementRequest(statement.getStatement());
+    final OStorageRemoteOperation<OPrepareStatementResponse> prepare = requestOperation(request, 0);
+    final OPrepareStatementResponse response =
+        baseNetworkOperation(
+            (network, session) -> {
+              if (network.getSrvProtocolVersion() < request.requiredProtocolVersion()) {
+                connectionManager.release(network);
+                return null;
+              }
+              return prepare.execute(network, session);
+            },
+            "Error on preparing query: " + statement.getStatement(),
+            connectionRetry);
+    if (response != null) {
+      statement.prepared(getPreparedStatementSession(), response.getStatementId());
+    }
+  }
+
+  public void closePreparedStatement(ORemotePreparedStatement statement) {
+    Integer statementId = statement.getStatementId(getPreparedStatementSession());
+    statement.prepared(null, 0);
+    if (statementId != null) {
+      networkOperation(
+          new OClosePreparedStatementRequest(statementId),
+          "Error closing prepared query: " + statement.getStatement());
+    }
+  }
+
+  public ORemoteQueryResult query(
+      ODatabaseDocumentRemote db, ORemotePreparedStatement statement, Object[] args) {
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    return query(
+        db,
+        statement,
+        (id) -> new OExecutePreparedStatementRequest(id, args, db.getSerializer(), recordsPerPage),
+        () -> query(db, statement.getStatement(), args));
+  }
+
+  public ORemoteQueryResult query(
+      ODatabaseDocumentRemote db, ORemotePreparedStatement statement, Map args) {
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    return query(
+        db,
+        statement,
+        (id) -> new OExecutePreparedStatementRequest(id, args, db.getSerializer(), recordsPerPage),
+        () -> query(db, statement.getStatement(), args));
+  }
+
+  private ORemoteQueryResult query(
+      ODatabaseDocumentRemote db,
+      ORemotePreparedStatement statement,
+      IntFunction<OExecutePreparedStatementRequest> request,
+      Supplier<ORemoteQueryResult> notPrepared) {
+    final String errorMessage = "Error on executing prepared query: " + statement.getStatement();
+    Integer statementId = statement.getStatementId(getPreparedStatementSession());
+    if (statementId == null) {
+      prepareStatement(statement);
+      statementId = statement.getStatementId(getPreparedStatementSession());
+      if (statementId == null) {
+        return notPrepared.get();
+      }
+    }
+    final OStorageRemoteNearCache cache = getNearCache(db, null);
+    final long stamp = cache != null ? cache.getStamp() : 0;
+    OQueryResponse response;
+    try {
+      response = networkOperation(request.apply(statementId), errorMessage);
+    } catch (OPreparedStatementNotFoundException e) {
+      // THE SERVER DROPS PREPARED STATEMENTS WITH ITS SESSION OR WHEN IT KEEPS TOO MANY OF THEM:
+      // PREPARE AGAIN AND RETRY ONCE
+      prepareStatement(statement);
+      statementId = statement.getStatementId(getPreparedStatementSession());
+      response = networkOperation(request.apply(statementId), errorMessage);
+    }
+    if (cache != null) {
+      cacheResults(db, cache, stamp, response.getResult());
+    }
+
+    ORemoteResultSet rs =
+        new ORemoteResultSet(
+            db,
+            response.getQueryId(),
+            response.getResult(),
+            response.getExecutionPlan(),
+            response.getQueryStats(),
+            response.isHasNextPage());
+    if (response.isHasNextPage()) {
+      stickToSession();
+    } else {
+      db.queryClosed(response.getQueryId());
+    }
+    return new ORemoteQueryResult(rs, response.isTxChanges(), response.isReloadMetadata());
+  }
+
+  private String getPreparedStatementSession() {
+    return getServerURL() + "/" + getSessionId();
+  }
+
+  /**
+   * Reads ids of records changed by operations committed after given position in WAL of the
+   * server, only the records readable by the current user are returned.
+   *
+   * <p>Unlike a change stream opened on the server, the position is not retained between calls:
+   * the server can truncate WAL after it, so a consumer slower than the WAL retention of the server
+   * gets an exception and has to resynchronize from the data.
+   *
+   * @throws OStorageException if the server is older than the protocol 39, which does not know the
+   *     request; the request is refused by the client without breaking the connection
+   */
+  public List<OCommittedChanges> readChanges(OLogSequenceNumber from, int limit) {
+    OReadChangesResponse response =
+        networkOperation(
+            new OReadChangesRequest(from, limit), "Error on reading changes after " + from);
+    return response.getChanges();
+  }
+
   public ORemoteQueryResult command(ODatabaseDocumentRemote db, String query, Object[] args) {
     int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
     if (recordsPerPage <= 0) {
@@ -1334,25 +1562,173 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   }
 
   public void fetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
-    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
-    if (recordsPerPage <= 0) {
-      recordsPerPage = 100;
+    OQueryResponse response;
+    final Future<OQueryResponse> prefetched = rs.getPrefetchedPage();
+    final long begin = System.nanoTime();
+    if (prefetched != null) {
+      try {
+        response = prefetched.get();
+        final OStorageRemoteNearCache cache = getNearCache(database, null);
+        if (cache != null) {
+          cacheResults(database, cache, rs.getPrefetchStamp(), response.getResult());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw OException.wrapException(new OInterruptedException(e.getMessage()), e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw OException.wrapException(
+            new OStorageException("Error on fetching next page for statment: " + rs.getQueryId()),
+            e.getCause());
+      }
+    } else {
+      OQueryNextPageRequest request =
+          new OQueryNextPageRequest(rs.getQueryId(), getNextPageSize(rs));
+      final OStorageRemoteNearCache cache = getNearCache(database, null);
+      final long stamp = cache != null ? cache.getStamp() : 0;
+      response =
+          networkOperation(
+              request, "Error on fetching next page for statment: " + rs.getQueryId());
+      if (cache != null) {
+        cacheResults(database, cache, stamp, response.getResult());
+      }
     }
-    OQueryNextPageRequest request = new OQueryNextPageRequest(rs.getQueryId(), recordsPerPage);
-    OQueryResponse response =
-        networkOperation(request, "Error on fetching next page for statment: " + rs.getQueryId());
 
     rs.fetched(
         response.getResult(),
         response.isHasNextPage(),
         response.getExecutionPlan(),
-        response.getQueryStats());
+        response.getQueryStats(),
+        prefetched != null ? rs.getPrefetchLatency() : System.nanoTime() - begin);
     if (!response.isHasNextPage()) {
       unstickToSession();
       database.queryClosed(response.getQueryId());
     }
   }
 
+  /**
+   * Requests the next page of the result set in background. Any other request on the same session
+   * waits for the page to be received, the page is consumed by the next {@link
+   * #fetchNextPage(ODatabaseDocumentRemote, ORemoteResultSet)}. Only the bytes of the page are
+   * received in background: the database is not thread safe, so the records are deserialized by
+   * the thread that consumes them.
+   */
+  public void prefetchNextPage(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
+    final OStorageRemoteSession session = getCurrentSession();
+    session.waitPendingRequest();
+    final OQueryNextPageRequest request =
+        new OQueryNextPageRequest(rs.getQueryId(), getNextPageSize(rs)).deferResults();
+    final String errorMessage = "Error on fetching next page for statment: " + rs.getQueryId();
+    final OStorageRemoteNearCache cache = getNearCache(database, null);
+    final long stamp = cache != null ? cache.getStamp() : 0;
+    final Future<OQueryResponse> page =
+        prefetchExecutor.submit(
+            () -> {
+              final long begin = System.nanoTime();
+              final OQueryResponse response =
+                  baseNetworkOperation(
+                      session, requestOperation(request, 0), errorMessage, connectionRetry);
+              rs.setPrefetchLatency(System.nanoTime() - begin);
+              return response;
+            });
+    session.setPendingRequest(page);
+    rs.setPrefetchedPage(page, stamp);
+  }
+
+  /**
+   * Drops the page prefetched for a result set closed before consuming it. A request not sent yet
+   * is cancelled, otherwise only the bytes of the page in flight are received, to keep the
+   * connection usable, without deserializing them.
+   *
+   * @return true if the query is still open on the server
+   */
+  public boolean cancelPrefetch(ODatabaseDocumentRemote database, ORemoteResultSet rs) {
+    final Future<OQueryResponse> page = rs.getPrefetchedPage();
+    rs.setPrefetchedPage(null, 0);
+    if (page == null || page.cancel(false)) {
+      return rs.hasNextPage();
+    }
+    try {
+      if (!page.get().isHasNextPage()) {
+        // THE SERVER ALREADY CLOSED THE QUERY SENDING ITS LAST PAGE
+        unstickToSession();
+        database.queryClosed(rs.getQueryId());
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      OLogManager.instance()
+          .debug(this, "Error on prefetching next page for statment: %s", e, rs.getQueryId());
+    }
+    return rs.hasNextPage();
+  }
+
+  public OStorageRemoteNearCache getNearCache() {
+    return nearCache;
+  }
+
+  /**
+   * Returns the near cache usable by the current operation, if enabled. Inside a transaction the
+   * server can return records changed by the transaction, so the cache is never used.
+   */
+  private OStorageRemoteNearCache getNearCache(final ODatabaseDocumentInternal database, ORID rid) {
+    final OStorageRemoteNearCache cache = nearCache;
+    if (cache == null || database == null || database.getTransaction().isActive()) return null;
+    // THE RECORDS OF THE INTERNAL CLUSTER ARE KEPT UPDATED BY THE METADATA PUSHES
+    if (rid != null && (!rid.isPersistent() || rid.getClusterId() == 0)) return null;
+    return cache;
+  }
+
+  /**
+   * The server filters the records by the user of the session, so the cached records are served
+   * only to the user that read them.
+   */
+  private static String getNearCacheUser(final ODatabaseDocumentInternal database) {
+    final ODatabaseDocumentRemote remote =
+        (ODatabaseDocumentRemote) ODatabaseDocumentTxInternal.getInternal(database);
+    final OStorageRemoteSession session = remote != null ? remote.getSessionMetadata() : null;
+    return session != null ? session.connectionUserName : null;
+  }
+
+  private static void cacheResults(
+      final ODatabaseDocumentInternal database,
+      final OStorageRemoteNearCache cache,
+      final long stamp,
+      final List<OResultInternal> results) {
+    final String user = getNearCacheUser(database);
+    if (user == null) return;
+    for (OResultInternal result : results) {
+      if (!result.isElement()) continue;
+      final ORecord record = result.getElement().get().getRecord();
+      final ORID rid = record.getIdentity();
+      if (record instanceof ODocument && rid.isPersistent() && rid.getClusterId() != 0) {
+        final byte[] content = database.getSerializer().toStream(record);
+        cache.put(
+            rid, user, new ORawBuffer(content, record.getVersion(), ODocument.RECORD_TYPE), stamp);
+      }
+    }
+  }
+
+  private void invalidateNearCache(final ORID rid) {
+    final OStorageRemoteNearCache cache = nearCache;
+    if (cache != null) {
+      cache.invalidate(rid);
+    }
+  }
+
+  private static int getNextPageSize(ORemoteResultSet rs) {
+    int recordsPerPage = OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PAGE_SIZE.getValueAsInteger();
+    if (recordsPerPage <= 0) {
+      recordsPerPage = 100;
+    }
+    int maxRecordsPerPage =
+        OGlobalConfiguration.QUERY_REMOTE_RESULTSET_MAX_PAGE_SIZE.getValueAsInteger();
+    return rs.getNextPageSize(recordsPerPage, Math.max(recordsPerPage, maxRecordsPerPage));
+  }
+
   public List<ORecordOperation> commit(final OTransactionInternal iTx) {
     unstickToSession();
     final OCommit38Request request =
@@ -1363,6 +1739,18 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
             iTx.getRecordOperations(),
             iTx.getIndexOperations());
 
+    final OStorageRemoteNearCache cache = nearCache;
+    if (cache != null) {
+      final List<ORID> changed = new ArrayList<>();
+      for (ORecordOperation operation : iTx.getRecordOperations()) {
+        if (operation.type == ORecordOperation.UPDATED
+            || operation.type == ORecordOperation.DELETED) {
+          changed.add(operation.getRID());
+        }
+      }
+      cache.invalidate(changed);
+    }
+
     final OCommit37Response response = networkOperationNoRetry(request, "Error on commit");
     for (OCommit37Response.OCreatedRecordResponse created : response.getCreated()) {
       iTx.updateIdentityAfterCommit(created.getCurrentRid(), created.getCreatedRid());
@@ -1395,6 +1783,53 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     return null;
   }
 
+  public Map<Integer, String> executeBatch(
+      ODatabaseDocumentRemote database, List<ORecordOperation> operations) {
+    for (ORecordOperation operation : operations) {
+      if (operation.type != ORecordOperation.CREATED) {
+        invalidateNearCache(operation.getRID());
+      }
+    }
+    final OBatchOperationsRequest request = new OBatchOperationsRequest(0, operations);
+    final OBatchOperationsResponse response =
+        networkOperationNoRetry(request, "Error on batch operations");
+
+    final Map<Integer, String> failed = new HashMap<>();
+    for (OBatchOperationsResponse.OFailedOperationResponse operation : response.getFailed()) {
+      failed.put(operation.getIndex(), operation.getMessage());
+    }
+    // THE RESULTS OF THE APPLIED OPERATIONS ARE SENT IN THE ORDER OF THE REQUEST
+    final Iterator<OCommit37Response.OCreatedRecordResponse> created =
+        response.getCreated().iterator();
+    final Iterator<OCommit37Response.OUpdatedRecordResponse> updated =
+        response.getUpdated().iterator();
+    for (int i = 0; i < operations.size(); i++) {
+      if (failed.containsKey(i)) continue;
+      final ORecordOperation operation = operations.get(i);
+      final ORecord record = operation.getRecord();
+      switch (operation.type) {
+        case ORecordOperation.CREATED:
+          final OCommit37Response.OCreatedRecordResponse createdRecord = created.next();
+          ORecordInternal.onBeforeIdentityChanged(record);
+          ((ORecordId) record.getIdentity()).copyFrom(createdRecord.getCreatedRid());
+          ORecordInternal.onAfterIdentityChanged(record);
+          ORecordInternal.setVersion(record, createdRecord.getVersion());
+          ORecordInternal.unsetDirty(record);
+          database.getLocalCache().updateRecord(record);
+          break;
+        case ORecordOperation.UPDATED:
+          ORecordInternal.setVersion(record, updated.next().getVersion());
+          ORecordInternal.unsetDirty(record);
+          database.getLocalCache().updateRecord(record);
+          break;
+        case ORecordOperation.DELETED:
+          database.getLocalCache().deleteRecord(operation.getRID());
+          break;
+      }
+    }
+    return failed;
+  }
+
   public void rollback(OTransactionInternal iTx) {
     try {
       if (((OTransactionOptimistic) iTx).isAlreadyCleared()
@@ -1829,6 +2264,7 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
           subscribeIndexManager(session);
           subscribeFunctions(session);
           subscribeSequences(session);
+          subscribeRecordInvalidation(session);
         }
       } finally {
         stateLock.writeLock().unlock();
@@ -1860,6 +2296,16 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     pushThread.subscribe(new OSubscribeIndexManagerRequest(), nodeSession);
   }
 
+  private void subscribeRecordInvalidation(OStorageRemoteSession nodeSession) {
+    final int size =
+        clientConfiguration.getValueAsInteger(OGlobalConfiguration.CLIENT_NEAR_CACHE_SIZE);
+    if (size <= 0) return;
+    OSubscribeRecordInvalidationResponse response =
+        pushThread.subscribe(new OSubscribeRecordInvalidationRequest(), nodeSession);
+    // WITHOUT THE INVALIDATIONS FROM THE SERVER THE CACHED RECORDS WOULD BECOME STALE
+    nearCache = response != null ? new OStorageRemoteNearCache(size) : null;
+  }
+
   protected void openRemoteDatabase(String currentURL) {
     do {
       do {
@@ -2212,6 +2658,8 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
         return new OPushFunctionsRequest();
       case OChannelBinaryProtocol.REQUEST_PUSH_SEQUENCES:
         return new OPushSequencesRequest();
+      case OChannelBinaryProtocol.REQUEST_PUSH_RECORD_INVALIDATION:
+        return new OPushRecordInvalidationRequest();
     }
     return null;
   }
@@ -2232,7 +2680,20 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     return null;
   }
 
+  public OBinaryPushResponse executeRecordInvalidation(OPushRecordInvalidationRequest request) {
+    final OStorageRemoteNearCache cache = nearCache;
+    if (cache != null) {
+      cache.invalidate(request.getRids());
+    }
+    return null;
+  }
+
   public OBinaryPushResponse executeUpdateStorageConfig(OPushStorageConfigurationRequest payload) {
+    // CLUSTERS CAN BE DROPPED OR TRUNCATED WITHOUT A PUSH OF THEIR RECORDS
+    final OStorageRemoteNearCache cache = nearCache;
+    if (cache != null) {
+      cache.clear();
+    }
     final OStorageConfiguration storageConfiguration =
         new OStorageConfigurationRemote(
             ORecordSerializerFactory.instance().getDefaultRecordSerializer().toString(),
@@ -2332,7 +2793,9 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
     if (aValidSession != null) {
       subscribeDistributedConfiguration(aValidSession);
       subscribeStorageConfiguration(aValidSession);
+      subscribeRecordInvalidation(aValidSession);
     } else {
+      nearCache = null;
       OLogManager.instance()
           .warn(
               this,
@@ -2351,6 +2814,8 @@ public class OStorageRemote implements OStorageProxy, ORemotePushHandler, OStora
   }
 
   public void onPushDisconnect(OChannelBinary network, Exception e) {
+    // INVALIDATIONS ARE LOST UNTIL THE PUSH CONNECTION IS RESTORED
+    nearCache = null;
     if (this.connectionManager.getPool(((OChannelBinaryAsynchClient) network).getServerURL())
         != null) {
       this.connectionManager.remove((OChannelBinaryAsynchClient) network);
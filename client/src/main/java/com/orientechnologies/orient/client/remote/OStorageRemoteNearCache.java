@@ -0,0 +1,104 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote;
+
+import com.orientechnologies.common.collection.OLRUCache;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client side cache of the records read from a remote database, shared by all the sessions of the
+ * storage. The records are kept serialized up to a maximum number, evicting the least recently
+ * used, and are removed as soon as the server pushes their invalidation after a commit.
+ *
+ * <p>The sessions of a storage can be opened by different users, and the server decides which
+ * records each of them can read (cluster permissions, restricted records, security policies). A
+ * copy is therefore kept for each user that read the record and it is served only to that user.
+ *
+ * <p>Every invalidation increments a stamp: a record read from the server is cached only if the
+ * stamp taken before the read did not change, so a response that crossed an invalidation never
+ * brings back a stale copy.
+ */
+public class OStorageRemoteNearCache {
+  private final OLRUCache<ORID, Map<String, ORawBuffer>> records;
+  private long stamp;
+
+  public OStorageRemoteNearCache(final int size) {
+    // THE LRU CACHE EVICTS WHEN THE SIZE REACHES ITS CAPACITY
+    this.records = new OLRUCache<>(size + 1);
+  }
+
+  /** @return the copy of the record read by the given user, null if not cached */
+  public synchronized ORawBuffer get(final ORID rid, final String user) {
+    if (user == null) {
+      return null;
+    }
+    final Map<String, ORawBuffer> copies = records.get(rid);
+    final ORawBuffer buffer = copies != null ? copies.get(user) : null;
+    if (buffer == null) {
+      return null;
+    }
+    return new ORawBuffer(buffer.buffer, buffer.version, buffer.recordType);
+  }
+
+  public synchronized boolean contains(final ORID rid) {
+    return records.containsKey(rid);
+  }
+
+  public synchronized long getStamp() {
+    return stamp;
+  }
+
+  public synchronized void put(
+      final ORID rid, final String user, final ORawBuffer buffer, final long stamp) {
+    if (this.stamp == stamp && user != null) {
+      Map<String, ORawBuffer> copies = records.get(rid);
+      if (copies == null) {
+        copies = new HashMap<>(2);
+        records.put(rid.copy(), copies);
+      }
+      copies.put(user, buffer);
+    }
+  }
+
+  public synchronized void invalidate(final Collection<? extends ORID> rids) {
+    stamp++;
+    for (ORID rid : rids) {
+      records.remove(rid);
+    }
+  }
+
+  public synchronized void invalidate(final ORID rid) {
+    stamp++;
+    records.remove(rid);
+  }
+
+  public synchronized void clear() {
+    stamp++;
+    records.clear();
+  }
+
+  public synchronized int size() {
+    return records.size();
+  }
+}
@@ -51,10 +51,14 @@ public class OStorageRemotePushThread extends Thread {
       try {
         network.setWaitResponseTimeout();
         byte res = network.readByte();
-        if (res == OChannelBinaryProtocol.RESPONSE_STATUS_OK) {
+        if (res == OChannelBinaryProtocol.RESPONSE_STATUS_OK
+            || res == OChannelBinaryProtocol.RESPONSE_STATUS_OK_COMPRESSED) {
           int currentSessionId = network.readInt();
           byte[] token = network.readBytes();
           byte messageId = network.readByte();
+          if (res == OChannelBinaryProtocol.RESPONSE_STATUS_OK_COMPRESSED) {
+            ((OChannelBinaryAsynchClient) network).readCompressed();
+          }
           OBinaryResponse response = currentRequest.createResponse();
           response.read(network, null);
           blockingQueue.put(response);
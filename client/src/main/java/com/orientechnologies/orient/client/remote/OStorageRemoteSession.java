@@ -33,6 +33,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /** Created by tglman on 31/03/16. */
 public class OStorageRemoteSession {
@@ -55,6 +58,8 @@ public class OStorageRemoteSession {
    * there anymore.
    */
   private int stickToSession = 0;
+  /** Request running in background on this session, like the prefetch of a query page. */
+  private volatile Future<?> pendingRequest;
 
   protected String currentUrl;
 
@@ -84,8 +89,32 @@ public class OStorageRemoteSession {
     connections.add(connection);
   }
 
+  public void setPendingRequest(final Future<?> pendingRequest) {
+    this.pendingRequest = pendingRequest;
+  }
+
+  /**
+   * Waits for the completion of the request running in background on this session, if any, so the
+   * caller can use the session channel. The outcome of the request is reported to the code that
+   * started it.
+   */
+  public void waitPendingRequest() {
+    final Future<?> pending = pendingRequest;
+    if (pending != null) {
+      try {
+        pending.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | CancellationException ignore) {
+        // REPORTED BY THE FUTURE OWNER
+      }
+      pendingRequest = null;
+    }
+  }
+
   public void close() {
     commandExecuting = false;
+    pendingRequest = null;
     serverURLIndex = -1;
     connections = new HashSet<OChannelBinary>();
     sessions = new HashMap<String, OStorageRemoteNodeSession>();
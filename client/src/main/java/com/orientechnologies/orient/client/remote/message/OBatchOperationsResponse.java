@@ -19,10 +19,12 @@
  */
 package com.orientechnologies.orient.client.remote.message;
 
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
 import java.io.IOException;
@@ -37,16 +39,46 @@ public class OBatchOperationsResponse implements OBinaryResponse {
   private List<OCommit37Response.OCreatedRecordResponse> created;
   private List<OCommit37Response.OUpdatedRecordResponse> updated;
   private List<OCommit37Response.ODeletedRecordResponse> deleted;
+  private List<OFailedOperationResponse> failed;
+
+  /** An operation of the batch that was not applied, by its position in the request. */
+  public static class OFailedOperationResponse {
+    private final int index;
+    private final String message;
+
+    public OFailedOperationResponse(int index, String message) {
+      this.index = index;
+      this.message = message;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
 
   public OBatchOperationsResponse(
       int txId,
       List<OCommit37Response.OCreatedRecordResponse> created,
       List<OCommit37Response.OUpdatedRecordResponse> updated,
       List<OCommit37Response.ODeletedRecordResponse> deleted) {
+    this(txId, created, updated, deleted, new ArrayList<>());
+  }
+
+  public OBatchOperationsResponse(
+      int txId,
+      List<OCommit37Response.OCreatedRecordResponse> created,
+      List<OCommit37Response.OUpdatedRecordResponse> updated,
+      List<OCommit37Response.ODeletedRecordResponse> deleted,
+      List<OFailedOperationResponse> failed) {
     this.txId = txId;
     this.created = created;
     this.updated = updated;
     this.deleted = deleted;
+    this.failed = failed;
   }
 
   public OBatchOperationsResponse() {}
@@ -73,6 +105,14 @@ public class OBatchOperationsResponse implements OBinaryResponse {
     for (OCommit37Response.ODeletedRecordResponse deleteRecord : deleted) {
       channel.writeRID(deleteRecord.getRid());
     }
+
+    if (protocolVersion >= OChannelBinaryProtocol.PROTOCOL_VERSION_39) {
+      channel.writeInt(failed.size());
+      for (OFailedOperationResponse failedOperation : failed) {
+        channel.writeInt(failedOperation.getIndex());
+        channel.writeString(failedOperation.getMessage());
+      }
+    }
   }
 
   @Override
@@ -105,6 +145,20 @@ public class OBatchOperationsResponse implements OBinaryResponse {
       ORecordId rid = network.readRID();
       deleted.add(new OCommit37Response.ODeletedRecordResponse(rid));
     }
+
+    failed = new ArrayList<>();
+    if (network instanceof OChannelBinaryAsynchClient
+        && ((OChannelBinaryAsynchClient) network).getSrvProtocolVersion()
+            < OChannelBinaryProtocol.PROTOCOL_VERSION_39) {
+      // OLDER SERVERS DO NOT REPORT FAILED OPERATIONS
+      return;
+    }
+    final int failedOperations = network.readInt();
+    for (int i = 0; i < failedOperations; ++i) {
+      int index = network.readInt();
+      String message = network.readString();
+      failed.add(new OFailedOperationResponse(index, message));
+    }
   }
 
   public int getTxId() {
@@ -122,4 +176,8 @@ public class OBatchOperationsResponse implements OBinaryResponse {
   public List<OCommit37Response.ODeletedRecordResponse> getDeleted() {
     return deleted;
   }
+
+  public List<OFailedOperationResponse> getFailed() {
+    return failed;
+  }
 }
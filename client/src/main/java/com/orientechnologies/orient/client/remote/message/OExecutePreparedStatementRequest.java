@@ -0,0 +1,169 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemote;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Executes a query prepared with {@link OPrepareStatementRequest}. The parameters are encoded as
+ * in {@link OQueryRequest}, and the first page of the result is returned as a {@link
+ * OQueryResponse}, so the following pages are fetched with {@link OQueryNextPageRequest}.
+ */
+public final class OExecutePreparedStatementRequest implements OBinaryRequest<OQueryResponse> {
+
+  private int statementId;
+  private int recordsPerPage = 100;
+  private ORecordSerializer serializer;
+  private Map<String, Object> params;
+  private byte[] paramsBytes;
+  private boolean namedParams;
+
+  public OExecutePreparedStatementRequest(
+      int statementId,
+      Object[] positionalParams,
+      ORecordSerializer serializer,
+      int recordsPerPage) {
+    this(
+        statementId,
+        OStorageRemote.paramsArrayToParamsMap(positionalParams),
+        false,
+        serializer,
+        recordsPerPage);
+  }
+
+  public OExecutePreparedStatementRequest(
+      int statementId,
+      Map<String, Object> namedParams,
+      ORecordSerializer serializer,
+      int recordsPerPage) {
+    this(statementId, namedParams, true, serializer, recordsPerPage);
+  }
+
+  private OExecutePreparedStatementRequest(
+      int statementId,
+      Map<String, Object> params,
+      boolean namedParams,
+      ORecordSerializer serializer,
+      int recordsPerPage) {
+    this.statementId = statementId;
+    this.params = params;
+    this.namedParams = namedParams;
+    this.serializer = serializer;
+    this.recordsPerPage = recordsPerPage;
+    if (this.recordsPerPage <= 0) {
+      this.recordsPerPage = 100;
+    }
+    ODocument parms = new ODocument();
+    parms.field("params", this.params);
+
+    paramsBytes = OMessageHelper.getRecordBytes(parms, serializer);
+  }
+
+  public OExecutePreparedStatementRequest() {}
+
+  @Override
+  public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    network.writeInt(statementId);
+    network.writeInt(recordsPerPage);
+    network.writeBytes(paramsBytes);
+    network.writeBoolean(namedParams);
+  }
+
+  public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    this.statementId = channel.readInt();
+    this.recordsPerPage = channel.readInt();
+    this.paramsBytes = channel.readBytes();
+    this.namedParams = channel.readBoolean();
+    this.serializer = serializer;
+  }
+
+  @Override
+  public byte getCommand() {
+    return OChannelBinaryProtocol.REQUEST_EXECUTE_PREPARED_STATEMENT;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Execute remote prepared query";
+  }
+
+  @Override
+  public int requiredProtocolVersion() {
+    return OChannelBinaryProtocol.PROTOCOL_VERSION_39;
+  }
+
+  @Override
+  public OQueryResponse createResponse() {
+    return new OQueryResponse();
+  }
+
+  @Override
+  public OBinaryResponse execute(OBinaryRequestExecutor executor) {
+    return executor.executePreparedStatement(this);
+  }
+
+  public int getStatementId() {
+    return statementId;
+  }
+
+  public int getRecordsPerPage() {
+    return recordsPerPage;
+  }
+
+  public boolean isNamedParams() {
+    return namedParams;
+  }
+
+  public Map<String, Object> getParams() {
+    if (params == null && this.paramsBytes != null) {
+      ODocument paramsDoc = new ODocument();
+      paramsDoc.setTrackingChanges(false);
+      serializer.fromStream(this.paramsBytes, paramsDoc, null);
+      this.params = paramsDoc.field("params");
+    }
+    return params;
+  }
+
+  /** @return the parameters keyed by name, or by position (Integer keys) if they are positional */
+  public Map<Object, Object> getInputParameters() {
+    Map<Object, Object> result = new HashMap<>();
+    Map<String, Object> params = getParams();
+    if (params != null) {
+      for (Map.Entry<String, Object> entry : params.entrySet()) {
+        Object key = namedParams ? entry.getKey() : Integer.valueOf(entry.getKey());
+        result.put(key, entry.getValue());
+      }
+    }
+    return result;
+  }
+}
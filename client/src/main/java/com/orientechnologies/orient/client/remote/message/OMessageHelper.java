@@ -19,6 +19,7 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37Client;
 import com.orientechnologies.orient.core.serialization.serializer.result.binary.OResultSerializerNetwork;
@@ -406,7 +407,11 @@ public class OMessageHelper {
     final ORecordId rid = network.readRID();
     final int version = network.readVersion();
     final byte[] content = network.readBytes();
+    return toRecord(rec, rid, version, content, serializer);
+  }
 
+  private static ORecord toRecord(
+      byte rec, ORecordId rid, int version, byte[] content, ORecordSerializer serializer) {
     ORecord record =
         Orient.instance()
             .getRecordFactoryManager()
@@ -520,4 +525,69 @@ public class OMessageHelper {
     OResultSerializerNetwork ser = new OResultSerializerNetwork();
     return ser.fromStream(channel);
   }
+
+  /**
+   * Reads a result written by {@link #writeResult(OResult, OChannelDataOutput, ORecordSerializer)}
+   * without deserializing its content, so it can be received by a thread that does not own the
+   * database. The result is built later by {@link #toResult(RawResult)}.
+   */
+  public static RawResult readRawResult(OChannelDataInput channel) throws IOException {
+    final RawResult raw = new RawResult();
+    raw.type = channel.readByte();
+    switch (raw.type) {
+      case OQueryResponse.RECORD_TYPE_BLOB:
+      case OQueryResponse.RECORD_TYPE_VERTEX:
+      case OQueryResponse.RECORD_TYPE_EDGE:
+      case OQueryResponse.RECORD_TYPE_ELEMENT:
+        raw.classId = channel.readShort();
+        if (raw.classId == OChannelBinaryProtocol.RECORD_NULL) {
+          break;
+        }
+        if (raw.classId == OChannelBinaryProtocol.RECORD_RID) {
+          raw.rid = channel.readRID();
+        } else {
+          raw.recordType = channel.readByte();
+          raw.rid = channel.readRID();
+          raw.version = channel.readVersion();
+          raw.content = channel.readBytes();
+        }
+        break;
+      case OQueryResponse.RECORD_TYPE_PROJECTION:
+        raw.content = channel.readBytes();
+        break;
+    }
+    return raw;
+  }
+
+  /** Builds the result read by {@link #readRawResult(OChannelDataInput)}. */
+  public static OResultInternal toResult(RawResult raw) {
+    switch (raw.type) {
+      case OQueryResponse.RECORD_TYPE_BLOB:
+        return new OResultInternal(toIdentifiable(raw, ORecordSerializerNetworkV37.INSTANCE));
+      case OQueryResponse.RECORD_TYPE_VERTEX:
+      case OQueryResponse.RECORD_TYPE_EDGE:
+      case OQueryResponse.RECORD_TYPE_ELEMENT:
+        return new OResultInternal(
+            (ORecord) toIdentifiable(raw, ORecordSerializerNetworkV37Client.INSTANCE));
+      case OQueryResponse.RECORD_TYPE_PROJECTION:
+        return new OResultSerializerNetwork().deserialize(new BytesContainer(raw.content));
+    }
+    return new OResultInternal();
+  }
+
+  private static OIdentifiable toIdentifiable(RawResult raw, ORecordSerializer serializer) {
+    if (raw.classId == OChannelBinaryProtocol.RECORD_NULL) return null;
+    if (raw.classId == OChannelBinaryProtocol.RECORD_RID) return raw.rid;
+    return toRecord(raw.recordType, raw.rid, raw.version, raw.content, serializer);
+  }
+
+  /** A result received from the network and not deserialized yet. */
+  public static final class RawResult {
+    private byte type;
+    private int classId;
+    private byte recordType;
+    private ORecordId rid;
+    private int version;
+    private byte[] content;
+  }
 }
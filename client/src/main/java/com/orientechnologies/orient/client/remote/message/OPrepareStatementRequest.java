@@ -0,0 +1,84 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+
+/**
+ * Asks the server to parse and plan a query once, returning a handle to execute it with {@link
+ * OExecutePreparedStatementRequest}.
+ */
+public final class OPrepareStatementRequest implements OBinaryRequest<OPrepareStatementResponse> {
+
+  private String statement;
+
+  public OPrepareStatementRequest(String statement) {
+    this.statement = statement;
+  }
+
+  public OPrepareStatementRequest() {}
+
+  @Override
+  public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    network.writeString(statement);
+  }
+
+  public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    this.statement = channel.readString();
+  }
+
+  @Override
+  public byte getCommand() {
+    return OChannelBinaryProtocol.REQUEST_PREPARE_STATEMENT;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Prepare remote query";
+  }
+
+  @Override
+  public int requiredProtocolVersion() {
+    return OChannelBinaryProtocol.PROTOCOL_VERSION_39;
+  }
+
+  @Override
+  public OPrepareStatementResponse createResponse() {
+    return new OPrepareStatementResponse();
+  }
+
+  @Override
+  public OBinaryResponse execute(OBinaryRequestExecutor executor) {
+    return executor.executePrepareStatement(this);
+  }
+
+  public String getStatement() {
+    return statement;
+  }
+}
@@ -0,0 +1,69 @@
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.remote.ORemotePushHandler;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Notifies the client of the records updated or deleted on the server since the last push. */
+public class OPushRecordInvalidationRequest implements OBinaryPushRequest<OBinaryPushResponse> {
+
+  private Collection<ORID> rids;
+
+  public OPushRecordInvalidationRequest() {}
+
+  public OPushRecordInvalidationRequest(Collection<ORID> rids) {
+    this.rids = new LinkedHashSet<>(rids);
+  }
+
+  /** Adds the records of a later request, so that a single push invalidates both. */
+  public OPushRecordInvalidationRequest merge(OPushRecordInvalidationRequest other) {
+    final Set<ORID> merged = new LinkedHashSet<>(rids);
+    merged.addAll(other.rids);
+    return new OPushRecordInvalidationRequest(merged);
+  }
+
+  @Override
+  public void write(OChannelDataOutput channel) throws IOException {
+    channel.writeInt(rids.size());
+    for (ORID rid : rids) {
+      channel.writeRID(rid);
+    }
+  }
+
+  @Override
+  public void read(OChannelDataInput network) throws IOException {
+    int size = network.readInt();
+    final List<ORID> rids = new ArrayList<>(size);
+    while (size-- > 0) {
+      rids.add(network.readRID());
+    }
+    this.rids = rids;
+  }
+
+  @Override
+  public OBinaryPushResponse execute(ORemotePushHandler pushHandler) {
+    return pushHandler.executeRecordInvalidation(this);
+  }
+
+  @Override
+  public OBinaryPushResponse createResponse() {
+    return null;
+  }
+
+  @Override
+  public byte getPushCommand() {
+    return OChannelBinaryProtocol.REQUEST_PUSH_RECORD_INVALIDATION;
+  }
+
+  public Collection<ORID> getRids() {
+    return rids;
+  }
+}
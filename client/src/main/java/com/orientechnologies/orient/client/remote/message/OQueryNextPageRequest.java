@@ -33,6 +33,7 @@ public final class OQueryNextPageRequest implements OBinaryRequest<OQueryRespons
 
   private String queryId;
   private int recordsPerPage;
+  private boolean deferResults;
 
   public OQueryNextPageRequest(String queryId, int recordsPerPage) {
     this.queryId = queryId;
@@ -41,6 +42,15 @@ public final class OQueryNextPageRequest implements OBinaryRequest<OQueryRespons
 
   public OQueryNextPageRequest() {}
 
+  /**
+   * Makes the response keep the received results serialized, so the page can be received by a
+   * thread other than the one of the database. Client side only, not sent to the server.
+   */
+  public OQueryNextPageRequest deferResults() {
+    this.deferResults = true;
+    return this;
+  }
+
   @Override
   public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
     network.writeString(queryId);
@@ -65,7 +75,7 @@ public final class OQueryNextPageRequest implements OBinaryRequest<OQueryRespons
 
   @Override
   public OQueryResponse createResponse() {
-    return new OQueryResponse();
+    return new OQueryResponse(deferResults);
   }
 
   @Override
@@ -35,6 +35,9 @@ public class OQueryResponse implements OBinaryResponse {
   private boolean hasNextPage;
   private Map<String, Long> queryStats;
   private boolean reloadMetadata;
+  private boolean deferred;
+  private List<OMessageHelper.RawResult> rawResult;
+  private OMessageHelper.RawResult rawExecutionPlan;
 
   public OQueryResponse(
       String queryId,
@@ -55,6 +58,14 @@ public class OQueryResponse implements OBinaryResponse {
 
   public OQueryResponse() {}
 
+  /**
+   * @param deferred if true the results are read without being deserialized, they are built by the
+   *     first {@link #getResult()} on the thread of the database
+   */
+  public OQueryResponse(boolean deferred) {
+    this.deferred = deferred;
+  }
+
   @Override
   public void write(OChannelDataOutput channel, int protocolVersion, ORecordSerializer serializer)
       throws IOException {
@@ -76,13 +87,24 @@ public class OQueryResponse implements OBinaryResponse {
   public void read(OChannelDataInput network, OStorageRemoteSession session) throws IOException {
     queryId = network.readString();
     txChanges = network.readBoolean();
-    executionPlan = readExecutionPlan(network);
+    if (deferred) {
+      rawExecutionPlan = network.readBoolean() ? OMessageHelper.readRawResult(network) : null;
+    } else {
+      executionPlan = readExecutionPlan(network);
+    }
     // THIS IS A PREFETCHED COLLECTION NOT YET HERE
     int prefetched = network.readInt();
     int size = network.readInt();
-    this.result = new ArrayList<>(size);
-    while (size-- > 0) {
-      result.add(OMessageHelper.readResult(network));
+    if (deferred) {
+      this.rawResult = new ArrayList<>(size);
+      while (size-- > 0) {
+        rawResult.add(OMessageHelper.readRawResult(network));
+      }
+    } else {
+      this.result = new ArrayList<>(size);
+      while (size-- > 0) {
+        result.add(OMessageHelper.readResult(network));
+      }
     }
     this.hasNextPage = network.readBoolean();
     this.queryStats = readQueryStats(network);
@@ -132,8 +154,11 @@ public class OQueryResponse implements OBinaryResponse {
     if (!present) {
       return Optional.empty();
     }
+    return toExecutionPlan(OMessageHelper.readResult(network));
+  }
+
+  private Optional<OExecutionPlan> toExecutionPlan(OResult read) {
     OInfoExecutionPlan result = new OInfoExecutionPlan();
-    OResult read = OMessageHelper.readResult(network);
     result.setCost(((Number) read.getProperty("cost")).intValue());
     result.setType(read.getProperty("type"));
     result.setJavaType(read.getProperty("javaType"));
@@ -151,10 +176,24 @@ public class OQueryResponse implements OBinaryResponse {
   }
 
   public List<OResultInternal> getResult() {
+    if (rawResult != null) {
+      result = new ArrayList<>(rawResult.size());
+      for (OMessageHelper.RawResult raw : rawResult) {
+        result.add(OMessageHelper.toResult(raw));
+      }
+      rawResult = null;
+    }
     return result;
   }
 
   public Optional<OExecutionPlan> getExecutionPlan() {
+    if (deferred && executionPlan == null) {
+      executionPlan =
+          rawExecutionPlan != null
+              ? toExecutionPlan(OMessageHelper.toResult(rawExecutionPlan))
+              : Optional.empty();
+      rawExecutionPlan = null;
+    }
     return executionPlan;
   }
 
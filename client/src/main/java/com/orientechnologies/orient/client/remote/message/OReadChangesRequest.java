@@ -0,0 +1,96 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+
+/** Asks the server for the ids of records changed by operations committed after a WAL position. */
+public final class OReadChangesRequest implements OBinaryRequest<OReadChangesResponse> {
+
+  private OLogSequenceNumber from;
+  private int limit;
+
+  public OReadChangesRequest(OLogSequenceNumber from, int limit) {
+    this.from = from;
+    this.limit = limit;
+  }
+
+  public OReadChangesRequest() {}
+
+  @Override
+  public void write(OChannelDataOutput network, OStorageRemoteSession session) throws IOException {
+    network.writeBoolean(from != null);
+    if (from != null) {
+      network.writeLong(from.getSegment());
+      network.writeInt(from.getPosition());
+    }
+    network.writeInt(limit);
+  }
+
+  public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    if (channel.readBoolean()) {
+      this.from = new OLogSequenceNumber(channel.readLong(), channel.readInt());
+    }
+    this.limit = channel.readInt();
+  }
+
+  @Override
+  public byte getCommand() {
+    return OChannelBinaryProtocol.REQUEST_READ_CHANGES;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Read changes";
+  }
+
+  @Override
+  public int requiredProtocolVersion() {
+    return OChannelBinaryProtocol.PROTOCOL_VERSION_39;
+  }
+
+  @Override
+  public OReadChangesResponse createResponse() {
+    return new OReadChangesResponse();
+  }
+
+  @Override
+  public OBinaryResponse execute(OBinaryRequestExecutor executor) {
+    return executor.executeReadChanges(this);
+  }
+
+  public OLogSequenceNumber getFrom() {
+    return from;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+}
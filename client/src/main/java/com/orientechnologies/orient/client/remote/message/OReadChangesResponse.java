@@ -0,0 +1,78 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.client.remote.message;
+
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OCommittedChanges;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataInput;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class OReadChangesResponse implements OBinaryResponse {
+
+  private List<OCommittedChanges> changes;
+
+  public OReadChangesResponse(List<OCommittedChanges> changes) {
+    this.changes = changes;
+  }
+
+  public OReadChangesResponse() {}
+
+  @Override
+  public void write(OChannelDataOutput channel, int protocolVersion, ORecordSerializer serializer)
+      throws IOException {
+    channel.writeInt(changes.size());
+    for (OCommittedChanges change : changes) {
+      channel.writeLong(change.getLsn().getSegment());
+      channel.writeInt(change.getLsn().getPosition());
+      channel.writeInt(change.getRids().size());
+      for (ORID rid : change.getRids()) {
+        channel.writeRID(rid);
+      }
+    }
+  }
+
+  @Override
+  public void read(OChannelDataInput network, OStorageRemoteSession session) throws IOException {
+    int size = network.readInt();
+    changes = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      OLogSequenceNumber lsn = new OLogSequenceNumber(network.readLong(), network.readInt());
+      int ridsSize = network.readInt();
+      Set<ORID> rids = new HashSet<>(ridsSize);
+      for (int j = 0; j < ridsSize; j++) {
+        rids.add(network.readRID());
+      }
+      changes.add(new OCommittedChanges(lsn, rids));
+    }
+  }
+
+  public List<OCommittedChanges> getChanges() {
+    return changes;
+  }
+}
@@ -20,6 +20,7 @@
 package com.orientechnologies.orient.client.remote.message;
 
 import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
 import com.orientechnologies.orient.client.remote.OBinaryRequest;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
@@ -31,17 +32,37 @@ import com.orientechnologies.orient.enterprise.channel.binary.OChannelDataOutput
 import java.io.IOException;
 
 public final class OReadRecordRequest implements OBinaryRequest<OReadRecordResponse> {
+  // FLAGS SENT IN THE SAME BYTE. SERVERS OLDER THAN PROTOCOL 39 READ IT AS A BOOLEAN FOR THE
+  // TOMBSTONES, SO THE STORED FORMAT IS ASKED ONLY TO NEWER SERVERS
+  private static final byte LOAD_TOMBSTONE = 1;
+  private static final byte STORED_FORMAT = 2;
+
   private boolean ignoreCache;
   private ORecordId rid;
   private String fetchPlan;
   private boolean loadTumbstone;
+  private boolean storedFormat;
 
   public OReadRecordRequest(
       boolean iIgnoreCache, ORecordId iRid, String iFetchPlan, boolean iLoadTumbstone) {
+    this(iIgnoreCache, iRid, iFetchPlan, iLoadTumbstone, false);
+  }
+
+  /**
+   * @param iStoredFormat true if the record can be sent in the format it is stored with, see {@link
+   *     OReadRecordResponse#isStoredFormat()}
+   */
+  public OReadRecordRequest(
+      boolean iIgnoreCache,
+      ORecordId iRid,
+      String iFetchPlan,
+      boolean iLoadTumbstone,
+      boolean iStoredFormat) {
     this.ignoreCache = iIgnoreCache;
     this.rid = iRid;
     this.fetchPlan = iFetchPlan;
     this.loadTumbstone = iLoadTumbstone;
+    this.storedFormat = iStoredFormat;
   }
 
   public OReadRecordRequest() {}
@@ -51,7 +72,13 @@ public final class OReadRecordRequest implements OBinaryRequest<OReadRecordRespo
     network.writeRID(rid);
     network.writeString(fetchPlan != null ? fetchPlan : "");
     network.writeByte((byte) (ignoreCache ? 1 : 0));
-    network.writeByte((byte) (loadTumbstone ? 1 : 0));
+    final boolean askStoredFormat =
+        storedFormat
+            && (!(network instanceof OChannelBinaryAsynchClient)
+                || ((OChannelBinaryAsynchClient) network).getSrvProtocolVersion()
+                    >= OChannelBinaryProtocol.PROTOCOL_VERSION_39);
+    network.writeByte(
+        (byte) ((loadTumbstone ? LOAD_TOMBSTONE : 0) | (askStoredFormat ? STORED_FORMAT : 0)));
   }
 
   public void read(OChannelDataInput channel, int protocolVersion, ORecordSerializer serializer)
@@ -59,7 +86,9 @@ public final class OReadRecordRequest implements OBinaryRequest<OReadRecordRespo
     rid = channel.readRID();
     fetchPlan = channel.readString();
     ignoreCache = channel.readByte() != 0;
-    loadTumbstone = channel.readByte() != 0;
+    final byte flags = channel.readByte();
+    loadTumbstone = (flags & LOAD_TOMBSTONE) != 0;
+    storedFormat = (flags & STORED_FORMAT) != 0;
   }
 
   @Override
@@ -88,6 +117,10 @@ public final class OReadRecordRequest implements OBinaryRequest<OReadRecordRespo
     return loadTumbstone;
   }
 
+  public boolean isStoredFormat() {
+    return storedFormat;
+  }
+
   @Override
   public OReadRecordResponse createResponse() {
     return new OReadRecordResponse();
@@ -25,6 +25,7 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37Client;
 import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
@@ -34,27 +35,41 @@ import java.io.IOException;
 import java.util.Set;
 
 public final class OReadRecordResponse implements OBinaryResponse {
+  private static final byte RECORD = 1;
+  private static final byte LINKED_RECORD = 2;
+  private static final byte STORED_RECORD = 3;
 
   private byte recordType;
   private int version;
   private byte[] record;
   private Set<ORecord> recordsToSend;
+  private boolean storedFormat;
   private ORawBuffer result;
 
   public OReadRecordResponse() {}
 
   public OReadRecordResponse(
       byte recordType, int version, byte[] record, Set<ORecord> recordsToSend) {
+    this(recordType, version, record, recordsToSend, false);
+  }
+
+  public OReadRecordResponse(
+      byte recordType,
+      int version,
+      byte[] record,
+      Set<ORecord> recordsToSend,
+      boolean storedFormat) {
     this.recordType = recordType;
     this.version = version;
     this.record = record;
     this.recordsToSend = recordsToSend;
+    this.storedFormat = storedFormat;
   }
 
   public void write(OChannelDataOutput network, int protocolVersion, ORecordSerializer serializer)
       throws IOException {
     if (record != null) {
-      network.writeByte((byte) 1);
+      network.writeByte(storedFormat ? STORED_RECORD : RECORD);
       if (protocolVersion <= OChannelBinaryProtocol.PROTOCOL_VERSION_27) {
         network.writeBytes(record);
         network.writeVersion(version);
@@ -66,7 +81,7 @@ public final class OReadRecordResponse implements OBinaryResponse {
       }
       for (ORecord d : recordsToSend) {
         if (d.getIdentity().isValid()) {
-          network.writeByte((byte) 2); // CLIENT CACHE
+          network.writeByte(LINKED_RECORD); // CLIENT CACHE
           // RECORD. IT ISN'T PART OF THE RESULT SET
           OMessageHelper.writeRecord(network, d, serializer);
         }
@@ -79,7 +94,9 @@ public final class OReadRecordResponse implements OBinaryResponse {
   @Override
   public void read(OChannelDataInput network, OStorageRemoteSession session) throws IOException {
     ORecordSerializerNetworkV37Client serializer = ORecordSerializerNetworkV37Client.INSTANCE;
-    if (network.readByte() == 0) return;
+    final byte status = network.readByte();
+    if (status == 0) return;
+    storedFormat = status == STORED_RECORD;
 
     final ORawBuffer buffer;
     final byte type = network.readByte();
@@ -90,7 +107,7 @@ public final class OReadRecordResponse implements OBinaryResponse {
     // TODO: This should not be here, move it in a callback or similar
     final ODatabaseDocument database = ODatabaseRecordThreadLocal.instance().getIfDefined();
     ORecord record;
-    while (network.readByte() == 2) {
+    while (network.readByte() == LINKED_RECORD) {
       record = (ORecord) OMessageHelper.readIdentifiable(network, serializer);
 
       if (database != null)
@@ -107,4 +124,12 @@ public final class OReadRecordResponse implements OBinaryResponse {
   public ORawBuffer getResult() {
     return result;
   }
+
+  /**
+   * @return true if the record was sent in the format it is stored with on the server, the one of
+   *     {@link ORecordSerializerBinary}, instead of the network format
+   */
+  public boolean isStoredFormat() {
+    return storedFormat;
+  }
 }
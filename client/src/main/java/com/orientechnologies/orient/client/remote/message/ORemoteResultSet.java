@@ -9,6 +9,7 @@ import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Future;
 
 /** Created by luigidellaquila on 05/12/16. */
 public class ORemoteResultSet implements OResultSet {
@@ -20,6 +21,14 @@ public class ORemoteResultSet implements OResultSet {
   private Map<String, Long> queryStats;
   private boolean hasNextPage;
 
+  private Future<OQueryResponse> prefetchedPage;
+  private long prefetchStamp;
+  private volatile long prefetchLatency;
+  private int pageSize;
+  private int consumed;
+  private long pageReceivedAt;
+  private long fetchLatency;
+
   public ORemoteResultSet(
       ODatabaseDocumentRemote db,
       String queryId,
@@ -33,6 +42,8 @@ public class ORemoteResultSet implements OResultSet {
     this.executionPlan = executionPlan;
     this.queryStats = queryStats;
     this.hasNextPage = hasNextPage;
+    this.pageSize = currentPage.size();
+    this.pageReceivedAt = System.nanoTime();
     if (db != null) {
       db.queryStarted(queryId, this);
       for (OResultInternal result : currentPage) {
@@ -71,6 +82,11 @@ public class ORemoteResultSet implements OResultSet {
       throw new IllegalStateException();
     }
     OResultInternal internal = currentPage.remove(0);
+    consumed++;
+    if (hasNextPage && prefetchedPage == null && db != null && currentPage.size() <= pageSize / 2) {
+      // REQUEST THE NEXT PAGE WHILE THE SECOND HALF OF THIS ONE IS CONSUMED
+      db.prefetchNextPage(this);
+    }
 
     if (internal.isRecord() && db != null && db.getTransaction().isActive()) {
       ORecord record = db.getTransaction().getRecord(internal.getRecord().get().getIdentity());
@@ -83,7 +99,11 @@ public class ORemoteResultSet implements OResultSet {
 
   @Override
   public void close() {
-    if (hasNextPage && db != null) {
+    boolean open = hasNextPage;
+    if (prefetchedPage != null && db != null) {
+      open = db.cancelPrefetch(this);
+    }
+    if (open && db != null) {
       // CLOSES THE QUERY SERVER SIDE ONLY IF THERE IS ANOTHER PAGE. THE SERVER ALREADY
       // AUTOMATICALLY CLOSES THE QUERY AFTER SENDING THE LAST PAGE
       db.closeQuery(queryId);
@@ -117,12 +137,66 @@ public class ORemoteResultSet implements OResultSet {
       boolean hasNextPage,
       Optional<OExecutionPlan> executionPlan,
       Map<String, Long> queryStats) {
+    fetched(result, hasNextPage, executionPlan, queryStats, 0);
+  }
+
+  public void fetched(
+      List<OResultInternal> result,
+      boolean hasNextPage,
+      Optional<OExecutionPlan> executionPlan,
+      Map<String, Long> queryStats,
+      long fetchLatency) {
     this.currentPage = result;
     this.hasNextPage = hasNextPage;
+    this.prefetchedPage = null;
+    this.pageSize = result.size();
+    this.consumed = 0;
+    this.pageReceivedAt = System.nanoTime();
+    this.fetchLatency = fetchLatency;
 
     if (queryStats != null) {
       this.queryStats = queryStats;
     }
     executionPlan.ifPresent(x -> this.executionPlan = executionPlan);
   }
+
+  /**
+   * Returns the number of records to request with the next page: enough records to keep the
+   * consumer busy for two round trips at the rate it consumed the current page, so the prefetched
+   * page arrives before the current one is exhausted. The size at most doubles at every page.
+   */
+  public int getNextPageSize(int minSize, int maxSize) {
+    final long elapsed = System.nanoTime() - pageReceivedAt;
+    if (consumed == 0 || elapsed <= 0 || fetchLatency <= 0) {
+      return minSize;
+    }
+    final double nanosPerRecord = (double) elapsed / consumed;
+    final double size = Math.min(2 * fetchLatency / nanosPerRecord, 2d * Math.max(pageSize, 1));
+    return (int) Math.max(minSize, Math.min(maxSize, size));
+  }
+
+  public Future<OQueryResponse> getPrefetchedPage() {
+    return prefetchedPage;
+  }
+
+  /**
+   * @param prefetchStamp the stamp of the near cache taken before requesting the page, the
+   *     records of the page are cached only if none was invalidated meanwhile
+   */
+  public void setPrefetchedPage(Future<OQueryResponse> prefetchedPage, long prefetchStamp) {
+    this.prefetchedPage = prefetchedPage;
+    this.prefetchStamp = prefetchStamp;
+  }
+
+  public long getPrefetchStamp() {
+    return prefetchStamp;
+  }
+
+  public long getPrefetchLatency() {
+    return prefetchLatency;
+  }
+
+  public void setPrefetchLatency(long prefetchLatency) {
+    this.prefetchLatency = prefetchLatency;
+  }
 }
@@ -54,6 +54,8 @@ public class OSubscribeRequest implements OBinaryRequest<OSubscribeResponse> {
         return new OSubscribeFunctionsRequest();
       case OChannelBinaryProtocol.SUBSCRIBE_PUSH_SEQUENCES:
         return new OSubscribeSequencesRequest();
+      case OChannelBinaryProtocol.SUBSCRIBE_PUSH_RECORD_INVALIDATION:
+        return new OSubscribeRecordInvalidationRequest();
     }
 
     throw new ODatabaseException("Unknown message response for code:" + message);
@@ -26,6 +26,7 @@ import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.client.remote.OLiveQueryClientListener;
+import com.orientechnologies.orient.client.remote.ORemotePreparedStatement;
 import com.orientechnologies.orient.client.remote.ORemoteQueryResult;
 import com.orientechnologies.orient.client.remote.OStorageRemote;
 import com.orientechnologies.orient.client.remote.OStorageRemoteSession;
@@ -40,6 +41,7 @@ import com.orientechnologies.orient.core.conflict.ORecordConflictStrategy;
 import com.orientechnologies.orient.core.db.*;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordElement;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
@@ -68,6 +70,8 @@ import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.storage.*;
 import com.orientechnologies.orient.core.storage.cluster.OOfflineClusterException;
+import com.orientechnologies.orient.core.storage.impl.local.OCommittedChanges;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.tx.*;
 import java.io.IOException;
@@ -307,7 +311,8 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
         currentTx = new OTransactionOptimisticClient(this);
         break;
       case PESSIMISTIC:
-        throw new UnsupportedOperationException("Pessimistic transaction");
+        throw new UnsupportedOperationException(
+            "Pessimistic transactions are supported only by embedded databases");
     }
     currentTx.begin();
     return this;
@@ -374,6 +379,61 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     return result.getResult();
   }
 
+  /**
+   * Prepares a query on the server, that keeps it parsed and planned to execute it many times with
+   * {@link #query(ORemotePreparedStatement, Object...)} without sending and planning it again.
+   * Servers older than the protocol 39 do not support prepared queries, on them the query is sent
+   * as text on each execution.
+   *
+   * @param query the SQL query, must be idempotent
+   * @return the prepared query
+   */
+  public ORemotePreparedStatement prepare(String query) {
+    checkOpenness();
+    ORemotePreparedStatement statement = new ORemotePreparedStatement(query);
+    storage.prepareStatement(statement);
+    return statement;
+  }
+
+  public OResultSet query(ORemotePreparedStatement statement, Object... args) {
+    checkOpenness();
+    checkAndSendTransaction();
+    ORemoteQueryResult result = storage.query(this, statement, args);
+    if (result.isTransactionUpdated()) fetchTransacion();
+    if (result.isReloadMetadata()) reload();
+    return result.getResult();
+  }
+
+  public OResultSet query(ORemotePreparedStatement statement, Map args) {
+    checkOpenness();
+    checkAndSendTransaction();
+    ORemoteQueryResult result = storage.query(this, statement, args);
+    if (result.isTransactionUpdated()) fetchTransacion();
+    if (result.isReloadMetadata()) reload();
+    return result.getResult();
+  }
+
+  /** Releases a query prepared with {@link #prepare(String)} on the server. */
+  public void close(ORemotePreparedStatement statement) {
+    checkOpenness();
+    storage.closePreparedStatement(statement);
+  }
+
+  /**
+   * Reads ids of records changed by operations committed after given position in WAL of the
+   * server. Changes are tracked only if "storage.trackChangedRecordsInWAL" setting is enabled on
+   * the server. WAL is retained only while changes are read, so a consumer should read them often
+   * enough to not miss the changes removed together with old WAL segments.
+   *
+   * @param from LSN of the last processed operation, or null to read all changes contained in WAL
+   * @param limit maximum amount of operations to return
+   * @return committed operations in commit order, empty list if there are no new operations
+   */
+  public List<OCommittedChanges> readChanges(OLogSequenceNumber from, int limit) {
+    checkOpenness();
+    return storage.readChanges(from, limit);
+  }
+
   @Override
   public OResultSet indexQuery(String indexName, String query, Object... args) {
     checkOpenness();
@@ -411,6 +471,25 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     return result.getResult();
   }
 
+  /**
+   * Creates, updates and deletes the records of the given operations with a single request to the
+   * server. The operations are independent: they are not part of a transaction and each one is
+   * applied or fails on its own, so a large ingestion does not pay a round trip for each record.
+   * The server applies them in groups of {@link
+   * OGlobalConfiguration#NETWORK_BINARY_BATCH_GROUP_SIZE} operations.
+   *
+   * @param operations the operations, of type {@link ORecordOperation#CREATED}, {@link
+   *     ORecordOperation#UPDATED} or {@link ORecordOperation#DELETED}
+   * @return the error messages of the operations that failed, by their position in the list
+   */
+  public Map<Integer, String> executeBatch(List<ORecordOperation> operations) {
+    checkOpenness();
+    if (getTransaction().isActive()) {
+      throw new ODatabaseException("Batch operations cannot be executed in a transaction");
+    }
+    return storage.executeBatch(this, operations);
+  }
+
   @Override
   public OResultSet execute(String language, String script, Object... args)
       throws OCommandExecutionException, OCommandScriptException {
@@ -444,6 +523,29 @@ public class ODatabaseDocumentRemote extends ODatabaseDocumentAbstract {
     storage.fetchNextPage(this, rs);
   }
 
+  /**
+   * Starts fetching the next page of the result set in background. The prefetch is skipped in
+   * transactions, where the next page has to see the changes done while consuming the current one.
+   */
+  public void prefetchNextPage(ORemoteResultSet rs) {
+    if (getTransaction().isActive()
+        || !getConfiguration()
+            .getValueAsBoolean(OGlobalConfiguration.QUERY_REMOTE_RESULTSET_PREFETCH)) {
+      return;
+    }
+    checkOpenness();
+    storage.prefetchNextPage(this, rs);
+  }
+
+  /**
+   * Drops the page prefetched for a result set closed before consuming it.
+   *
+   * @return true if the query is still open on the server
+   */
+  public boolean cancelPrefetch(ORemoteResultSet rs) {
+    return storage.cancelPrefetch(this, rs);
+  }
+
   @Override
   public OLiveQueryMonitor live(String query, OLiveQueryResultListener listener, Object... args) {
     return storage.liveQuery(
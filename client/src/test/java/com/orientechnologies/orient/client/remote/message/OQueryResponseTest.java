@@ -52,4 +52,41 @@ public class OQueryResponseTest {
     Assert.assertTrue(newResponse.isReloadMetadata());
     Assert.assertTrue(newResponse.isTxChanges());
   }
+
+  @Test
+  public void testDeferredRead() throws IOException {
+    List<OResultInternal> resuls = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      OResultInternal item = new OResultInternal();
+      item.setProperty("name", "foo");
+      item.setProperty("counter", i);
+      resuls.add(item);
+    }
+    OQueryResponse response =
+        new OQueryResponse("query", false, resuls, Optional.empty(), true, new HashMap<>(), false);
+
+    MockChannel channel = new MockChannel();
+    response.write(
+        channel,
+        OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION,
+        ORecordSerializerNetworkFactory.INSTANCE.current());
+
+    channel.close();
+
+    OQueryResponse newResponse = new OQueryResponse(true);
+
+    newResponse.read(channel, null);
+    Assert.assertTrue(newResponse.isHasNextPage());
+    Assert.assertFalse(newResponse.getExecutionPlan().isPresent());
+    Iterator<OResultInternal> responseRs = newResponse.getResult().iterator();
+
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(responseRs.hasNext());
+      OResult item = responseRs.next();
+      Assert.assertEquals("foo", item.getProperty("name"));
+      Assert.assertEquals((Integer) i, item.getProperty("counter"));
+    }
+    Assert.assertFalse(responseRs.hasNext());
+    Assert.assertSame(newResponse.getResult(), newResponse.getResult());
+  }
 }
@@ -0,0 +1,260 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.common.concur.lock;
+
+import com.orientechnologies.common.exception.OException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Read-write lock manager which remembers owners of the acquired locks and keeps graph of owners
+ * which wait for each other. If owner is going to wait for the lock and this wait closes cycle in
+ * the graph, {@link OLockException} is thrown instead of waiting forever, so one of the
+ * participants of deadlock may release its locks and let others proceed.
+ *
+ * <p>Like {@link ONotThreadRWLockManager} locks are not bound to threads: the owner of the lock is
+ * provided by the owner supplier, for record locks it is the database session, so a lock may be
+ * acquired and released by different threads serving the same session. Lock acquired by the owner
+ * once more is reentrant in any mode, so the owner which holds the only shared lock may acquire the
+ * exclusive one and the owner of the exclusive lock may acquire the shared one. Lock may be
+ * released by other owner, in such case owner which is removed from the graph is chosen
+ * arbitrarily.
+ */
+public class ODeadlockDetectingRWLockManager<T> implements OSimpleRWLockManager<T> {
+  private static final class LockGuard {
+    private final Condition condition;
+    private final Map<Object, Integer> sharedOwners = new HashMap<>(2);
+    private Object exclusiveOwner;
+    private int exclusiveCount;
+
+    private LockGuard(final Condition condition) {
+      this.condition = condition;
+    }
+
+    /** Returns owners other than the given one which prevent it from acquiring the lock. */
+    private Set<Object> blockers(final Object owner, final boolean shared) {
+      final Set<Object> blockers = new HashSet<>(2);
+      if (exclusiveOwner != null && !exclusiveOwner.equals(owner)) {
+        blockers.add(exclusiveOwner);
+      }
+      if (!shared) {
+        for (final Object sharedOwner : sharedOwners.keySet()) {
+          if (!sharedOwner.equals(owner)) {
+            blockers.add(sharedOwner);
+          }
+        }
+      }
+      return blockers;
+    }
+
+    private void acquire(final Object owner, final boolean shared) {
+      if (shared) {
+        sharedOwners.merge(owner, 1, Integer::sum);
+      } else {
+        exclusiveOwner = owner;
+        exclusiveCount++;
+      }
+    }
+
+    private boolean release(final Object owner, final boolean shared) {
+      if (shared) {
+        if (sharedOwners.isEmpty()) {
+          return false;
+        }
+        final Object releasedOwner =
+            sharedOwners.containsKey(owner) ? owner : sharedOwners.keySet().iterator().next();
+        final int ownerCount = sharedOwners.get(releasedOwner);
+        if (ownerCount == 1) {
+          sharedOwners.remove(releasedOwner);
+        } else {
+          sharedOwners.put(releasedOwner, ownerCount - 1);
+        }
+      } else {
+        if (exclusiveCount == 0) {
+          return false;
+        }
+        if (--exclusiveCount == 0) {
+          exclusiveOwner = null;
+        }
+      }
+      return true;
+    }
+
+    private boolean isFree() {
+      return exclusiveCount == 0 && sharedOwners.isEmpty();
+    }
+  }
+
+  private static final class Wait<T> {
+    private final T key;
+    private final boolean shared;
+
+    private Wait(final T key, final boolean shared) {
+      this.key = key;
+      this.shared = shared;
+    }
+  }
+
+  private final Lock lock = new ReentrantLock();
+  private final Map<T, LockGuard> map = new HashMap<>();
+  private final Map<Object, Wait<T>> waiters = new HashMap<>();
+  private final Supplier<Object> ownerSupplier;
+
+  /** Creates lock manager which locks are owned by the threads which acquired them. */
+  public ODeadlockDetectingRWLockManager() {
+    this(Thread::currentThread);
+  }
+
+  /**
+   * @param ownerSupplier provides owner of the locks acquired and released by the current thread,
+   *     owners are compared by {@link Object#equals(Object)}
+   */
+  public ODeadlockDetectingRWLockManager(final Supplier<Object> ownerSupplier) {
+    this.ownerSupplier = ownerSupplier;
+  }
+
+  public void lock(final T key, final boolean shared, final long timeout) {
+    final Object owner = ownerSupplier.get();
+
+    lock.lock();
+    try {
+      long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+      while (true) {
+        LockGuard guard = map.get(key);
+        if (guard == null) {
+          guard = new LockGuard(lock.newCondition());
+          map.put(key, guard);
+        } else {
+          final Set<Object> blockers = guard.blockers(owner, shared);
+          if (!blockers.isEmpty()) {
+            if (isDeadlocked(owner, blockers)) {
+              throw new OLockException(
+                  String.format("Deadlock detected on acquire lock for resource: '%s' ", key));
+            }
+
+            waiters.put(owner, new Wait<>(key, shared));
+            try {
+              if (timeout == 0) {
+                guard.condition.await();
+              } else {
+                if (nanos <= 0) {
+                  throw new OLockException(
+                      String.format("Time out acquire lock for resource: '%s' ", key));
+                }
+
+                nanos = guard.condition.awaitNanos(nanos);
+              }
+            } finally {
+              waiters.remove(owner);
+            }
+
+            continue;
+          }
+        }
+
+        guard.acquire(owner, shared);
+        return;
+      }
+    } catch (InterruptedException e) {
+      throw OException.wrapException(new OInterruptedException("Interrupted Lock"), e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void unlock(final T key, final boolean shared) {
+    final Object owner = ownerSupplier.get();
+
+    lock.lock();
+    try {
+      final LockGuard guard = map.get(key);
+      if (guard == null || !guard.release(owner, shared)) {
+        throw new OLockException("Impossible to release a not acquired lock");
+      }
+
+      if (guard.isFree()) {
+        map.remove(key);
+      }
+      // waiters of the other mode may proceed even if the lock is still held, eg. readers after
+      // the exclusive lock of the owner which holds the shared one as well is released
+      guard.condition.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Walks through the graph of owners which wait for each other starting from the owners which
+   * block the lock requested by the given owner.
+   */
+  private boolean isDeadlocked(final Object owner, final Set<Object> blockers) {
+    final ArrayDeque<Object> toVisit = new ArrayDeque<>(blockers);
+    final Set<Object> visited = new HashSet<>();
+
+    while (!toVisit.isEmpty()) {
+      final Object holder = toVisit.poll();
+      if (holder.equals(owner)) {
+        return true;
+      }
+
+      if (!visited.add(holder)) {
+        continue;
+      }
+
+      final Wait<T> wait = waiters.get(holder);
+      if (wait != null) {
+        final LockGuard awaitedGuard = map.get(wait.key);
+        if (awaitedGuard != null) {
+          toVisit.addAll(awaitedGuard.blockers(holder, wait.shared));
+        }
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public void acquireReadLock(final T key, final long timeout) {
+    lock(key, true, timeout);
+  }
+
+  @Override
+  public void acquireWriteLock(final T key, final long timeout) {
+    lock(key, false, timeout);
+  }
+
+  @Override
+  public void releaseReadLock(final T key) {
+    unlock(key, true);
+  }
+
+  @Override
+  public void releaseWriteLock(final T key) {
+    unlock(key, false);
+  }
+}
@@ -449,10 +449,10 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       10),
 
-  @Deprecated
   STORAGE_TRACK_CHANGED_RECORDS_IN_WAL(
       "storage.trackChangedRecordsInWAL",
-      "If this flag is set metadata which contains rids of changed records is added at the end of each atomic operation",
+      "If this flag is set metadata which contains rids of changed records is added at the end of each atomic operation, "
+          + "so committed changes can be read from WAL as a stream of changes",
       Boolean.class,
       false),
 
@@ -469,6 +469,15 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       String.class,
       "none"),
 
+  STORAGE_READ_SNAPSHOTS(
+      "storage.readSnapshots",
+      "Keep previous versions of changed records in memory while there are opened read snapshots, "
+          + "so read-only work can see the records as they were when the snapshot was opened, "
+          + "without locks. Index lookups are not affected by snapshots. Every update and delete "
+          + "reads the previous version of the record while it is enabled (false by default)",
+      Boolean.class,
+      false),
+
   /**
    * @deprecated WAL can not be disabled because that is very unsafe for consistency and durability
    */
@@ -695,7 +704,8 @@ public enum OGlobalConfiguration { // ENVIRONMENT
 
   STORAGE_RECORD_LOCK_TIMEOUT(
       "storage.record.lockTimeout",
-      "Maximum of time (in ms) to lock a shared record",
+      "Maximum of time (in ms) to wait for the lock of a record acquired by pessimistic locking, "
+          + "0 means wait till the lock is released or deadlock is detected",
       Integer.class,
       2000),
 
@@ -887,6 +897,22 @@ public enum OGlobalConfiguration { // ENVIRONMENT
   INDEX_CURSOR_PREFETCH_SIZE(
       "index.stream.prefetchSize", "Default prefetch size of index stream", Integer.class, 10),
 
+  INDEX_BLOOM_FILTER_ENABLED(
+      "index.bloomFilter.enabled",
+      "Maintain in-memory Bloom filter for hash and unique indexes, so lookups of absent keys "
+          + "do not need to load index pages. Filter is built in background after the first lookup "
+          + "of the opened index, lookups do not use it until it is built "
+          + "(false by default)",
+      Boolean.class,
+      false),
+
+  INDEX_BLOOM_FILTER_BITS_PER_KEY(
+      "index.bloomFilter.bitsPerKey",
+      "Amount of bits of Bloom filter allocated per index key, 10 bits give about 1% of false positives "
+          + "(10 by default)",
+      Integer.class,
+      10),
+
   // SBTREE
   SBTREE_MAX_DEPTH(
       "sbtree.maxDepth",
@@ -951,6 +977,13 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       -1,
       true),
 
+  RID_BAG_ADJACENCY_INDEX(
+      "ridBag.adjacencyIndex",
+      "Create in background, when the database is created or opened, an internal index of the vertices connected by the regular edges, built from the existing edges and then maintained with them. It allows to check if two vertices are connected without a scan of all the edges of supernodes",
+      Boolean.class,
+      false,
+      true),
+
   RID_BAG_SBTREEBONSAI_DELETE_DELAY(
       "ridBag.sbtreeBonsaiDeleteDelay",
       "How long should pass from last access before delete an already converted ridbag",
@@ -1084,6 +1117,33 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       26,
       false),
 
+  NETWORK_BINARY_BATCH_GROUP_SIZE(
+      "network.binary.batchGroupSize",
+      "Number of the operations of a batch request applied in the same atomic operation, when the batch is not part of a transaction. If one of them fails, the operations of the group are applied one by one to report the failed ones",
+      Integer.class,
+      100,
+      true),
+
+  NETWORK_BINARY_COMPRESSION(
+      "network.binary.compression",
+      "Ask the server to compress the content of the big responses, to use less bandwidth on slow links. Older servers ignore it",
+      Boolean.class,
+      false),
+
+  NETWORK_BINARY_COMPRESSION_THRESHOLD(
+      "network.binary.compressionThreshold",
+      "Minimum size in bytes of the responses compressed for the clients that asked for compression, the smaller ones are sent as they are to not add latency. 0 = compression disabled",
+      Integer.class,
+      8192,
+      true),
+
+  NETWORK_BINARY_MAX_PREPARED_STATEMENTS(
+      "network.binary.maxPreparedStatements",
+      "Maximum number of prepared statements kept by the server for each client session. The least recently used ones are dropped, the client prepares them again on their next execution",
+      Integer.class,
+      100,
+      true),
+
   NETWORK_BINARY_DEBUG(
       "network.binary.debug",
       "Debug mode: print all data incoming on the binary channel",
@@ -1320,6 +1380,20 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Integer.class,
       1000),
 
+  QUERY_REMOTE_RESULTSET_MAX_PAGE_SIZE(
+      "query.remoteResultSet.maxPageSize",
+      "The maximum size of a remote ResultSet page. Pages grow from the page size up to this size when"
+          + " the records are consumed faster than a page is fetched. This has to be set on the client.",
+      Integer.class,
+      10000),
+
+  QUERY_REMOTE_RESULTSET_PREFETCH(
+      "query.remoteResultSet.prefetch",
+      "Fetches the next page of a remote ResultSet in background once half of the current page has"
+          + " been consumed. This has to be set on the client.",
+      Boolean.class,
+      true),
+
   QUERY_REMOTE_SEND_EXECUTION_PLAN(
       "query.remoteResultSet.sendExecutionPlan",
       "Send the execution plan details or not. False by default",
@@ -1383,6 +1457,30 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       Boolean.class,
       true),
 
+  QUERY_LIVE_DISPATCH_THREADS(
+      "query.live.dispatchThreads",
+      "Number of threads that evaluate the live query subscriptions and push their results. Each subscription is always served by the same thread, so its events are kept in order",
+      Integer.class,
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+
+  QUERY_GRAPH_DEGREE_STATISTICS(
+      "query.graph.degreeStatistics",
+      "Maintain on commit the distribution of degrees of vertices, used by MATCH planner to choose the order of traversals. (Use false to disable)",
+      Boolean.class,
+      true),
+
+  QUERY_GRAPH_DEGREE_STATISTICS_SAVE_INTERVAL(
+      "query.graph.degreeStatisticsSaveInterval",
+      "Interval (in ms) between saves of changed degree statistics in the storage configuration, besides the save on close. (Use 0 to save only on close)",
+      Long.class,
+      60000),
+
+  QUERY_GRAPH_SUPERNODE_THRESHOLD(
+      "query.graph.supernodeThreshold",
+      "Minimum number of edges of the same class and direction, for a vertex to be tracked as a supernode by degree statistics",
+      Integer.class,
+      1000),
+
   STATEMENT_CACHE_SIZE(
       "statement.cacheSize",
       "Number of parsed SQL statements kept in cache. Zero means cache disabled",
@@ -1446,6 +1544,18 @@ public enum OGlobalConfiguration { // ENVIRONMENT
       false,
       true),
 
+  CLIENT_NEAR_CACHE_SIZE(
+      "client.nearCache.size",
+      "Maximum number of records kept in the client side cache shared by the sessions of a remote database, the server pushes the invalidation of the records changed by each commit. 0 = disabled",
+      Integer.class,
+      0),
+
+  CLIENT_STORED_RECORD_FORMAT(
+      "client.storedRecordFormat",
+      "Ask the server to send the records loaded by RID in the format they are stored with, so it does not deserialize and serialize them again when nothing prevents sending them as they are. The client converts them to the network format",
+      Boolean.class,
+      false),
+
   // SERVER
   SERVER_OPEN_ALL_DATABASES_AT_STARTUP(
       "server.openAllDatabasesAtStartup",
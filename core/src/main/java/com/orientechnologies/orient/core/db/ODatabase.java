@@ -786,6 +786,11 @@ public interface ODatabase<T> extends OBackupable, Closeable {
    * a nested call counter is incremented. A transaction once begun has to be closed by calling the
    * {@link #commit()} or {@link #rollback()}.
    *
+   * <p>A {@link OTransaction.TXTYPE#PESSIMISTIC} transaction exclusively locks every record it
+   * reads, updates or deletes till it is committed or rolled back, waiting at most {@link
+   * OGlobalConfiguration#STORAGE_RECORD_LOCK_TIMEOUT} for each lock. It is supported only by
+   * embedded databases.
+   *
    * @return The Database instance itself giving a "fluent interface". Useful to call multiple
    *     methods in chain.
    */
@@ -37,8 +37,10 @@ import com.orientechnologies.orient.core.serialization.serializer.binary.OBinary
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.parser.OPreparedStatement;
 import com.orientechnologies.orient.core.storage.ORecordCallback;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.impl.local.snapshot.OReadSnapshot;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.tx.OTransaction;
@@ -248,6 +250,18 @@ public interface ODatabaseDocumentInternal extends ODatabaseSession, ODatabaseIn
     return command(query, args);
   }
 
+  /**
+   * executes a query prepared with {@link OPreparedStatement}, reusing its parsed statement and,
+   * when possible, its execution plan
+   *
+   * @param statement the prepared query
+   * @param args the positional (Integer keys) or named (String keys) parameters
+   * @return the query result set
+   */
+  default OResultSet query(OPreparedStatement statement, Map<Object, Object> args) {
+    throw new UnsupportedOperationException();
+  }
+
   OView getViewFromCluster(int cluster);
 
   void internalLockRecord(OIdentifiable iRecord, OStorage.LOCKING_STRATEGY lockingStrategy);
@@ -280,6 +294,14 @@ public interface ODatabaseDocumentInternal extends ODatabaseSession, ODatabaseIn
     return getName();
   }
 
+  /**
+   * @return read snapshot opened by this session, used by the storage to serve its reads, or
+   *     <code>null</code> if there is none
+   */
+  default OReadSnapshot getReadSnapshot() {
+    return null;
+  }
+
   long[] getClusterDataRange(int currentClusterId);
 
   void setDefaultClusterId(int addCluster);
@@ -20,6 +20,7 @@
 
 package com.orientechnologies.orient.core.db;
 
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.enterprise.OEnterpriseEndpoint;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.metadata.security.OToken;
@@ -144,6 +145,13 @@ public interface ODatabaseInternal<T> extends ODatabase<T> {
 
   default void addRidbagPrefetchStats(long execTimeMs) {}
 
+  /**
+   * Loads the records that are going to be used soon in the local cache, with one batched read from
+   * the storage. Records that are already in the cache or in the current transaction are skipped.
+   * Hooks and security checks are executed when records are actually loaded.
+   */
+  default void prefetchRecords(Collection<? extends OIdentifiable> records) {}
+
   /**
    * creates an interrupt timer task for this db instance (without scheduling it!)
    *
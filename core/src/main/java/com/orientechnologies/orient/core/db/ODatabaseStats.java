@@ -14,6 +14,9 @@ public class ODatabaseStats {
   public long minRidbagPrefetchTimeMs;
   public long maxRidbagPrefetchTimeMs;
 
+  public long prefetchedRecordsCount;
+  public long recordPrefetchTimeMs;
+
   public OResult toResult() {
     OResultInternal result = new OResultInternal();
     result.setProperty("loadedRecords", loadedRecords);
@@ -24,6 +27,8 @@ public class ODatabaseStats {
     result.setProperty("ridbagPrefetchTimeMs", ridbagPrefetchTimeMs);
     result.setProperty("minRidbagPrefetchTimeMs", minRidbagPrefetchTimeMs);
     result.setProperty("maxRidbagPrefetchTimeMs", maxRidbagPrefetchTimeMs);
+    result.setProperty("prefetchedRecordsCount", prefetchedRecordsCount);
+    result.setProperty("recordPrefetchTimeMs", recordPrefetchTimeMs);
 
     return result;
   }
@@ -1,8 +1,10 @@
 package com.orientechnologies.orient.core.db;
 
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+import java.util.Set;
 
 public interface OMetadataUpdateListener {
 
@@ -15,4 +17,18 @@ public interface OMetadataUpdateListener {
   void onSequenceLibraryUpdate(String database);
 
   void onStorageConfigurationUpdate(String database, OStorageConfiguration update);
+
+  /**
+   * Called after a commit with the identities of the records updated or deleted by it, used to
+   * invalidate copies of the records kept outside of the database.
+   */
+  default void onRecordsUpdate(String database, Set<ORID> rids) {}
+
+  /**
+   * @return true if {@link #onRecordsUpdate(String, Set)} has to be called for the database, the
+   *     updated records are not collected when no listener needs them
+   */
+  default boolean isRecordsUpdateListened(String database) {
+    return false;
+  }
 }
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.db;
 
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.viewmanager.ViewManager;
 import com.orientechnologies.orient.core.id.ORID;
@@ -19,6 +20,7 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
+import com.orientechnologies.orient.core.sql.executor.ODegreeStatistics;
 import com.orientechnologies.orient.core.sql.executor.OQueryStats;
 import com.orientechnologies.orient.core.sql.parser.OExecutionPlanCache;
 import com.orientechnologies.orient.core.sql.parser.OStatementCache;
@@ -26,12 +28,14 @@ import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TimerTask;
 
 /** Created by tglman on 13/06/17. */
 public class OSharedContextEmbedded extends OSharedContext {
 
   protected Map<String, DistributedQueryContext> activeDistributedQueries;
   protected ViewManager viewManager;
+  private TimerTask degreeStatisticsSaver;
 
   public OSharedContextEmbedded(OStorage storage, OrientDBEmbedded orientDB) {
     this.orientDB = orientDB;
@@ -92,6 +96,8 @@ public class OSharedContextEmbedded extends OSharedContext {
         sequenceLibrary.load(database);
         schema.onPostIndexManagement();
         viewManager.load();
+        loadDegreeStatistics();
+        scheduleDegreeStatisticsSave();
         loaded = true;
       }
     } finally {
@@ -105,6 +111,11 @@ public class OSharedContextEmbedded extends OSharedContext {
 
   @Override
   public synchronized void close() {
+    if (degreeStatisticsSaver != null) {
+      degreeStatisticsSaver.cancel();
+      degreeStatisticsSaver = null;
+    }
+    saveDegreeStatistics();
     viewManager.close();
     schema.close();
     security.close();
@@ -120,6 +131,87 @@ public class OSharedContextEmbedded extends OSharedContext {
     loaded = false;
   }
 
+  private void loadDegreeStatistics() {
+    final ODegreeStatistics statistics = queryStats.getDegreeStatistics();
+    final String json = storage.getConfiguration().getProperty(ODegreeStatistics.STORAGE_PROPERTY);
+    if (json != null) {
+      try {
+        statistics.fromJSON(json);
+      } catch (RuntimeException e) {
+        OLogManager.instance()
+            .warn(this, "Cannot load degree statistics of database '%s'", e, storage.getName());
+        statistics.clear();
+      }
+    }
+    if (!statistics.isComplete()) {
+      buildDegreeStatistics();
+    }
+  }
+
+  /**
+   * Builds the statistics of a database that does not have them yet in background, the planner
+   * ignores them until they are complete.
+   */
+  private void buildDegreeStatistics() {
+    final boolean enabled =
+        storage
+            .getConfiguration()
+            .getContextConfiguration()
+            .getValueAsBoolean(OGlobalConfiguration.QUERY_GRAPH_DEGREE_STATISTICS);
+    if (!enabled) {
+      return;
+    }
+    orientDB.executeNoAuthorization(
+        storage.getName(),
+        (db) -> {
+          try {
+            queryStats.getDegreeStatistics().build((ODatabaseDocumentInternal) db);
+          } catch (RuntimeException e) {
+            OLogManager.instance()
+                .warn(
+                    this, "Cannot build degree statistics of database '%s'", e, storage.getName());
+          }
+          return null;
+        });
+  }
+
+  /** Saves the changed statistics periodically, so a crash loses only the last changes. */
+  private void scheduleDegreeStatisticsSave() {
+    final long interval =
+        storage
+            .getConfiguration()
+            .getContextConfiguration()
+            .getValueAsLong(OGlobalConfiguration.QUERY_GRAPH_DEGREE_STATISTICS_SAVE_INTERVAL);
+    if (interval <= 0 || degreeStatisticsSaver != null) {
+      return;
+    }
+    degreeStatisticsSaver =
+        new TimerTask() {
+          @Override
+          public void run() {
+            synchronized (OSharedContextEmbedded.this) {
+              if (degreeStatisticsSaver == this) {
+                saveDegreeStatistics();
+              }
+            }
+          }
+        };
+    ((OrientDBEmbedded) orientDB).schedule(degreeStatisticsSaver, interval, interval);
+  }
+
+  private void saveDegreeStatistics() {
+    final ODegreeStatistics statistics = queryStats.getDegreeStatistics();
+    if (!statistics.isDirty() || ((OStorage) storage).isClosed()) {
+      return;
+    }
+    try {
+      ((OStorage) storage).setProperty(ODegreeStatistics.STORAGE_PROPERTY, statistics.toJSON());
+    } catch (RuntimeException e) {
+      OLogManager.instance()
+          .warn(this, "Cannot save degree statistics of database '%s'", e, storage.getName());
+    }
+  }
+
   public synchronized void reload(ODatabaseDocumentInternal database) {
     schema.reload(database);
     indexManager.reload();
@@ -156,6 +248,8 @@ public class OSharedContextEmbedded extends OSharedContext {
       // the index does not exist
     }
 
+    queryStats.getDegreeStatistics().initEmpty();
+    scheduleDegreeStatisticsSave();
     loaded = true;
   }
 
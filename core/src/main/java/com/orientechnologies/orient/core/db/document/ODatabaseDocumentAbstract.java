@@ -115,6 +115,8 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
   protected long totalRidbagPrefetchMs;
   protected long minRidbagPrefetchMs;
   protected long maxRidbagPrefetchMs;
+  protected long prefetchedRecordsCount;
+  protected long totalRecordPrefetchMs;
 
   protected ODatabaseDocumentAbstract() {
     // DO NOTHING IS FOR EXTENDED OBJECTS
@@ -966,7 +968,10 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
       throw new IllegalStateException("Cannot begin a transaction while a hook is executing");
 
     if (currentTx.isActive()) {
-      if (iType == OTransaction.TXTYPE.OPTIMISTIC && currentTx instanceof OTransactionOptimistic) {
+      if (currentTx instanceof OTransactionOptimistic
+          && (iType == OTransaction.TXTYPE.OPTIMISTIC
+              || iType == OTransaction.TXTYPE.PESSIMISTIC
+                  && ((OTransactionOptimistic) currentTx).isPessimistic())) {
         currentTx.begin();
         return this;
       }
@@ -991,7 +996,8 @@ public abstract class ODatabaseDocumentAbstract extends OListenerManger<ODatabas
         break;
 
       case PESSIMISTIC:
-        throw new UnsupportedOperationException("Pessimistic transaction");
+        currentTx = new OTransactionOptimistic(this, true);
+        break;
     }
 
     currentTx.begin();
@@ -37,6 +37,7 @@ import com.orientechnologies.orient.core.db.ODatabaseLifecycleListener;
 import com.orientechnologies.orient.core.db.ODatabaseListener;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.ODatabaseStats;
+import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
 import com.orientechnologies.orient.core.db.OHookReplacedRecordThreadLocal;
 import com.orientechnologies.orient.core.db.OLiveQueryMonitor;
 import com.orientechnologies.orient.core.db.OLiveQueryResultListener;
@@ -93,17 +94,20 @@ import com.orientechnologies.orient.core.record.ORecordVersionHelper;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.record.impl.OEdgeDelegate;
+import com.orientechnologies.orient.core.record.impl.OVertexAdjacencyIndex;
 import com.orientechnologies.orient.core.record.impl.OVertexDelegate;
 import com.orientechnologies.orient.core.schedule.OScheduledEvent;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
 import com.orientechnologies.orient.core.sql.executor.LiveQueryListenerImpl;
+import com.orientechnologies.orient.core.sql.executor.ODegreeStatistics;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalResultSet;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.parser.OPreparedStatement;
 import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.core.storage.ORecordCallback;
@@ -112,8 +116,11 @@ import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.OStorageInfo;
 import com.orientechnologies.orient.core.storage.cluster.OOfflineClusterException;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.OChangeStream;
 import com.orientechnologies.orient.core.storage.impl.local.OFreezableStorageComponent;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordSerializationContext;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import com.orientechnologies.orient.core.storage.impl.local.snapshot.OReadSnapshot;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.tx.OTransactionAbstract;
 import com.orientechnologies.orient.core.tx.OTransactionInternal;
@@ -122,8 +129,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -142,6 +152,9 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
 
   private OrientDBConfig config;
   private OStorage storage;
+  private Set<ORID> changedRecords;
+  private OReadSnapshot readSnapshot;
+  private boolean changedRecordsChecked;
 
   public ODatabaseDocumentEmbedded(final OStorage storage) {
     activateOnCurrentThread();
@@ -203,6 +216,8 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
 
       installHooksEmbedded();
 
+      OVertexAdjacencyIndex.createInBackgroundIfNeeded(this);
+
       user = null;
 
       initialized = true;
@@ -310,6 +325,7 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     metadata = new OMetadataDefault(this);
     installHooksEmbedded();
     createMetadata(ctx);
+    OVertexAdjacencyIndex.createInBackgroundIfNeeded(this);
   }
 
   public void callOnCreateListeners() {
@@ -603,6 +619,22 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     }
   }
 
+  @Override
+  public OResultSet query(OPreparedStatement statement, Map<Object, Object> args) {
+    checkOpenness();
+    checkIfActive();
+    getSharedContext().getOrientDB().startCommand(Optional.empty());
+    try {
+      OResultSet original = statement.execute(this, args);
+      OLocalResultSetLifecycleDecorator result = new OLocalResultSetLifecycleDecorator(original);
+      this.queryStarted(result.getQueryId(), result);
+      result.addLifecycleListener(this);
+      return result;
+    } finally {
+      getSharedContext().getOrientDB().endCommand();
+    }
+  }
+
   @Override
   public OResultSet command(String query, Object[] args) {
     checkOpenness();
@@ -1067,6 +1099,10 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
         if (clazz.isTriggered()) {
           OClassTrigger.onRecordAfterCreate(doc, this);
         }
+        if (clazz.isEdgeType()) {
+          ODegreeStatistics.addEdgeOp(doc, ORecordOperation.CREATED, this);
+          OVertexAdjacencyIndex.addEdgeOp(doc, ORecordOperation.CREATED, this);
+        }
         getSharedContext().getViewManager().recordAdded(clazz, doc, this);
       }
       OLiveQueryHook.addOp(doc, ORecordOperation.CREATED, this);
@@ -1097,12 +1133,16 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
         if (clazz.isTriggered()) {
           OClassTrigger.onRecordAfterUpdate(doc, this);
         }
+        if (clazz.isEdgeType()) {
+          OVertexAdjacencyIndex.addEdgeOp(doc, ORecordOperation.UPDATED, this);
+        }
 
         getSharedContext().getViewManager().recordUpdated(clazz, doc, this);
       }
       OLiveQueryHook.addOp(doc, ORecordOperation.UPDATED, this);
       OLiveQueryHookV2.addOp(doc, ORecordOperation.UPDATED, this);
     }
+    addChangedRecord(id);
     callbackHooks(ORecordHook.TYPE.AFTER_UPDATE, id);
   }
 
@@ -1127,14 +1167,48 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
         if (clazz.isTriggered()) {
           OClassTrigger.onRecordAfterDelete(doc, this);
         }
+        if (clazz.isEdgeType()) {
+          ODegreeStatistics.addEdgeOp(doc, ORecordOperation.DELETED, this);
+          OVertexAdjacencyIndex.addEdgeOp(doc, ORecordOperation.DELETED, this);
+        }
         getSharedContext().getViewManager().recordDeleted(clazz, doc, this);
       }
       OLiveQueryHook.addOp(doc, ORecordOperation.DELETED, this);
       OLiveQueryHookV2.addOp(doc, ORecordOperation.DELETED, this);
     }
+    addChangedRecord(id);
     callbackHooks(ORecordHook.TYPE.AFTER_DELETE, id);
   }
 
+  private void addChangedRecord(final OIdentifiable id) {
+    if (!changedRecordsChecked) {
+      // THE RECORDS ARE COLLECTED ONLY IF A LISTENER NEEDS THEM, CHECKED ONCE PER COMMIT
+      changedRecordsChecked = true;
+      for (OMetadataUpdateListener listener : getSharedContext().browseListeners()) {
+        if (listener.isRecordsUpdateListened(getName())) {
+          changedRecords = new HashSet<>();
+          break;
+        }
+      }
+    }
+    if (changedRecords != null) {
+      changedRecords.add(id.getIdentity().copy());
+    }
+  }
+
+  private void notifyChangedRecords() {
+    final Set<ORID> changed = changedRecords;
+    changedRecordsChecked = false;
+    if (changed == null) {
+      return;
+    }
+    changedRecords = null;
+    final Set<ORID> rids = Collections.unmodifiableSet(changed);
+    for (OMetadataUpdateListener listener : getSharedContext().browseListeners()) {
+      listener.onRecordsUpdate(getName(), rids);
+    }
+  }
+
   @Override
   public void afterReadOperations(OIdentifiable identifiable) {
     if (identifiable instanceof ODocument) {
@@ -1190,6 +1264,8 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     super.afterCommitOperations();
     OLiveQueryHook.notifyForTxChanges(this);
     OLiveQueryHookV2.notifyForTxChanges(this);
+    ODegreeStatistics.notifyForTxChanges(this);
+    notifyChangedRecords();
   }
 
   @Override
@@ -1197,6 +1273,9 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     super.afterRollbackOperations();
     OLiveQueryHook.removePendingDatabaseOps(this);
     OLiveQueryHookV2.removePendingDatabaseOps(this);
+    ODegreeStatistics.removePendingDatabaseOps(this);
+    changedRecords = null;
+    changedRecordsChecked = false;
   }
 
   @Override
@@ -1731,9 +1810,60 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     stats.minRidbagPrefetchTimeMs = minRidbagPrefetchMs;
     stats.maxRidbagPrefetchTimeMs = maxRidbagPrefetchMs;
     stats.ridbagPrefetchTimeMs = totalRidbagPrefetchMs;
+    stats.prefetchedRecordsCount = prefetchedRecordsCount;
+    stats.recordPrefetchTimeMs = totalRecordPrefetchMs;
     return stats;
   }
 
+  @Override
+  public void prefetchRecords(final Collection<? extends OIdentifiable> records) {
+    checkIfActive();
+    if (!(getStorage() instanceof OAbstractPaginatedStorage)) {
+      return;
+    }
+
+    final List<ORID> toLoad = new ArrayList<>(records.size());
+    for (OIdentifiable record : records) {
+      final ORID rid = record.getIdentity();
+      if (rid.isPersistent()
+          && getTransaction().getRecord(rid) == null
+          && getLocalCache().findRecord(rid) == null) {
+        toLoad.add(rid);
+      }
+    }
+    if (toLoad.size() < 2) {
+      // NOTHING TO GAIN
+      return;
+    }
+
+    final long begin = System.currentTimeMillis();
+    final Map<ORID, ORawBuffer> buffers =
+        ((OAbstractPaginatedStorage) getStorage()).loadRecords(toLoad);
+    for (Map.Entry<ORID, ORawBuffer> entry : buffers.entrySet()) {
+      final ORawBuffer buffer = entry.getValue();
+      if (buffer.buffer == null || ORecordVersionHelper.isTombstone(buffer.version)) {
+        continue;
+      }
+
+      final ORID rid = entry.getKey();
+      final ORecord record =
+          Orient.instance()
+              .getRecordFactoryManager()
+              .newInstance(buffer.recordType, rid.getClusterId(), this);
+      ORecordInternal.setRecordSerializer(record, getSerializer());
+      ORecordInternal.fill(record, rid, buffer.version, buffer.buffer, false, this);
+      if (record instanceof ODocument) {
+        ODocumentInternal.checkClass((ODocument) record, this);
+      }
+      record.fromStream(buffer.buffer);
+
+      // HOOKS AND SECURITY ARE CHECKED WHEN THE RECORD IS LOADED FROM THE CACHE
+      getLocalCache().updateRecord(record);
+      prefetchedRecordsCount++;
+    }
+    totalRecordPrefetchMs += System.currentTimeMillis() - begin;
+  }
+
   public void addRidbagPrefetchStats(long execTimeMs) {
     this.ridbagPrefetchCount++;
     totalRidbagPrefetchMs += execTimeMs;
@@ -1755,6 +1885,77 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
     this.totalRidbagPrefetchMs = 0L;
     this.minRidbagPrefetchMs = 0L;
     this.maxRidbagPrefetchMs = 0L;
+    this.prefetchedRecordsCount = 0L;
+    this.totalRecordPrefetchMs = 0L;
+  }
+
+  /**
+   * Opens point-in-time read snapshot of the records for this session. Till snapshot is closed
+   * record loads and cluster scans performed by this session see only changes committed before the
+   * snapshot was opened, without waiting for the commits in progress and without blocking them.
+   * Index lookups are not affected by the snapshot, they see the latest committed state, so the
+   * snapshot does not provide snapshot isolation to the queries which use indexes. Snapshot is
+   * intended for read-only work and requires "storage.readSnapshots" setting to be enabled.
+   *
+   * @return snapshot which should be closed once reads are completed, it is closed together with
+   *     the session otherwise
+   */
+  public OReadSnapshot openReadSnapshot() {
+    checkOpenness();
+    checkIfActive();
+
+    if (getTransaction().isActive()) {
+      throw new ODatabaseException("Read snapshot can not be opened inside of active transaction");
+    }
+
+    if (readSnapshot != null) {
+      throw new ODatabaseException("Read snapshot is already opened by the session");
+    }
+
+    final OStorage storage = getStorage();
+    if (!(storage instanceof OAbstractPaginatedStorage)) {
+      throw new UnsupportedOperationException(
+          "Read snapshots are not supported by storage " + storage.getName());
+    }
+
+    // records cached by the session may be newer or older than snapshot
+    getLocalCache().clear();
+
+    final OReadSnapshot snapshot = ((OAbstractPaginatedStorage) storage).openReadSnapshot();
+    snapshot.onClose(
+        () -> {
+          readSnapshot = null;
+          getLocalCache().clear();
+        });
+    readSnapshot = snapshot;
+    return snapshot;
+  }
+
+  @Override
+  public OReadSnapshot getReadSnapshot() {
+    return readSnapshot;
+  }
+
+  /**
+   * Opens stream of changes of records committed after given position in WAL. Stream reads ids of
+   * changed records, so the current state of the records should be loaded to process the changes.
+   * Changes are tracked only if "storage.trackChangedRecordsInWAL" setting is enabled.
+   *
+   * @param from position returned by {@link OChangeStream#getPosition()} once the last change was
+   *     processed, or null to read all changes contained in WAL
+   * @return stream which should be closed once changes are not needed any more
+   */
+  public OChangeStream openChangeStream(final OLogSequenceNumber from) {
+    checkOpenness();
+    checkIfActive();
+
+    final OStorage storage = getStorage();
+    if (!(storage instanceof OAbstractPaginatedStorage)) {
+      throw new UnsupportedOperationException(
+          "Change streams are not supported by storage " + storage.getName());
+    }
+
+    return ((OAbstractPaginatedStorage) storage).openChangeStream(from);
   }
 
   @Override
@@ -1904,6 +2105,9 @@ public class ODatabaseDocumentEmbedded extends ODatabaseDocumentAbstract
 
     try {
       closeActiveQueries();
+      if (readSnapshot != null) {
+        readSnapshot.close();
+      }
       localCache.shutdown();
 
       if (isClosed()) {
@@ -46,10 +46,12 @@ import com.orientechnologies.orient.core.serialization.serializer.record.ORecord
 import com.orientechnologies.orient.core.shutdown.OShutdownHandler;
 import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.parser.OPreparedStatement;
 import com.orientechnologies.orient.core.storage.ORecordCallback;
 import com.orientechnologies.orient.core.storage.ORecordMetadata;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.OStorageInfo;
+import com.orientechnologies.orient.core.storage.impl.local.snapshot.OReadSnapshot;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OBonsaiCollectionPointer;
 import com.orientechnologies.orient.core.storage.ridbag.sbtree.OSBTreeCollectionManager;
 import com.orientechnologies.orient.core.tx.OTransaction;
@@ -453,6 +455,12 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     return internal.getSharedContext();
   }
 
+  @Override
+  public void prefetchRecords(Collection<? extends OIdentifiable> records) {
+    checkOpenness();
+    internal.prefetchRecords(records);
+  }
+
   @Override
   public ORecordIteratorClass<ODocument> browseClass(String iClassName) {
     checkOpenness();
@@ -1357,6 +1365,12 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     return internal.query(query, args);
   }
 
+  @Override
+  public OResultSet query(OPreparedStatement statement, Map<Object, Object> args) {
+    checkOpenness();
+    return internal.query(statement, args);
+  }
+
   private OrientDBConfig buildConfig(final Map<OGlobalConfiguration, Object> iProperties) {
     Map<String, Object> pars = new HashMap<>(preopenProperties);
     if (iProperties != null) {
@@ -1618,6 +1632,11 @@ public class ODatabaseDocumentTx implements ODatabaseDocumentInternal {
     return internal.isRemote();
   }
 
+  @Override
+  public OReadSnapshot getReadSnapshot() {
+    return internal != null ? internal.getReadSnapshot() : null;
+  }
+
   @Override
   public OStorageInfo getStorageInfo() {
     return internal.getStorageInfo();
@@ -0,0 +1,38 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.exception;
+
+/**
+ * Thrown by the server when a prepared statement is executed with a handle it does not know, eg.
+ * because the statement was dropped with the session or to keep the number of the statements of
+ * the session bounded. The client can prepare the statement again and retry.
+ */
+public class OPreparedStatementNotFoundException extends ODatabaseException {
+
+  private static final long serialVersionUID = 1L;
+
+  public OPreparedStatementNotFoundException(OPreparedStatementNotFoundException exception) {
+    super(exception);
+  }
+
+  public OPreparedStatementNotFoundException(String message) {
+    super(message);
+  }
+}
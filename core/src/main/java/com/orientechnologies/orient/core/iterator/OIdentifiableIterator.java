@@ -277,7 +277,8 @@ public abstract class OIdentifiableIterator<REC extends OIdentifiable>
         if (iRecord != null) {
           ORecordInternal.setIdentity(
               iRecord, new ORecordId(current.getClusterId(), current.getClusterPosition()));
-          iRecord = database.load(iRecord, fetchPlan, false);
+          // THE REUSED RECORD IS RESET AT THE NEXT STEP: DO NOT PUT IT IN THE LOCAL CACHE
+          iRecord = database.load(iRecord, fetchPlan, iRecord == reusedRecord);
         } else iRecord = database.load(current, fetchPlan, false);
       } catch (ODatabaseException e) {
         if (Thread.interrupted() || database.isClosed())
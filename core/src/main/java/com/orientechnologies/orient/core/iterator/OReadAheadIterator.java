@@ -0,0 +1,89 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.iterator;
+
+import com.orientechnologies.common.util.OResettable;
+import com.orientechnologies.common.util.OSizeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Iterator that reads the items of another iterator in batches of fixed size and passes each batch
+ * to a listener before returning its items, so the records of the batch can be loaded in one call.
+ * The listener is not called for batches of a single item.
+ */
+public class OReadAheadIterator implements Iterator<Object>, OResettable, OSizeable {
+  private final Iterator<?> source;
+  private final int batchSize;
+  private final List<Object> batch;
+  private int position;
+  private Consumer<List<Object>> batchListener;
+
+  public OReadAheadIterator(final Iterator<?> source, final int batchSize) {
+    this.source = source;
+    this.batchSize = batchSize;
+    this.batch = new ArrayList<>(batchSize);
+  }
+
+  /** Sets the listener that receives each batch, the batch must not be modified. */
+  public void setBatchListener(final Consumer<List<Object>> batchListener) {
+    this.batchListener = batchListener;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return position < batch.size() || source.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    if (position >= batch.size()) {
+      batch.clear();
+      position = 0;
+      while (batch.size() < batchSize && source.hasNext()) {
+        batch.add(source.next());
+      }
+      if (batch.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      if (batchListener != null && batch.size() > 1) {
+        batchListener.accept(batch);
+      }
+    }
+    return batch.get(position++);
+  }
+
+  @Override
+  public void reset() {
+    if (source instanceof OResettable) {
+      ((OResettable) source).reset();
+    }
+    batch.clear();
+    position = 0;
+  }
+
+  @Override
+  public int size() {
+    return source instanceof OSizeable ? ((OSizeable) source).size() : 0;
+  }
+}
@@ -19,16 +19,21 @@
  */
 package com.orientechnologies.orient.core.query.live;
 
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_LIVE_DISPATCH_THREADS;
 import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_LIVE_SUPPORT;
 
 import com.orientechnologies.common.concur.resource.OCloseable;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.thread.OThreadPoolExecutors;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.ODatabaseInternal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentEntry;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
@@ -42,6 +47,7 @@ import java.util.*;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 
 public class OLiveQueryHookV2 {
@@ -51,6 +57,8 @@ public class OLiveQueryHookV2 {
     public OResult after;
     public byte type;
     protected ODocument originalDoc;
+    /** the lower case names of the class of the record and of its superclasses */
+    protected Set<String> classNames;
 
     OLiveQueryOp(ODocument originalDoc, OResult before, OResult after, byte type) {
       this.originalDoc = originalDoc;
@@ -70,6 +78,8 @@ public class OLiveQueryHookV2 {
     private BlockingQueue<OLiveQueryOp> queue = new LinkedBlockingQueue<OLiveQueryOp>();
     private ConcurrentMap<Integer, OLiveQueryListenerV2> subscribers =
         new ConcurrentHashMap<Integer, OLiveQueryListenerV2>();
+    private final OLiveQuerySubscriberIndex index = new OLiveQuerySubscriberIndex();
+    private volatile ExecutorService[] dispatchers;
 
     @Override
     public void close() {
@@ -80,6 +90,62 @@ public class OLiveQueryHookV2 {
         Thread.currentThread().interrupt();
       }
       pendingOps.clear();
+      synchronized (threadLock) {
+        if (dispatchers != null) {
+          for (ExecutorService dispatcher : dispatchers) {
+            dispatcher.shutdown();
+          }
+          dispatchers = null;
+        }
+      }
+    }
+
+    private void startDispatchers(int threads) {
+      if (dispatchers == null) {
+        ExecutorService[] result = new ExecutorService[Math.max(1, threads)];
+        for (int i = 0; i < result.length; i++) {
+          result[i] = OThreadPoolExecutors.newSingleThreadPool("LiveQueryDispatcher-" + i);
+        }
+        dispatchers = result;
+      }
+    }
+
+    /**
+     * Sends the operations to the subscribers that can match them. Each subscriber is always served
+     * by the same dispatcher thread, so it receives the operations in order, in one batch for all
+     * the operations it can match.
+     *
+     * @return the number of subscribers the operations were sent to
+     */
+    protected int dispatch(List<OLiveQueryOp> items) {
+      final ExecutorService[] dispatchers = this.dispatchers;
+      int count = 0;
+      for (Map.Entry<Integer, List<OLiveQueryOp>> batch : index.match(items).entrySet()) {
+        final OLiveQueryListenerV2 listener = subscribers.get(batch.getKey());
+        if (listener == null) {
+          continue;
+        }
+        if (dispatchers == null) {
+          deliver(batch.getKey(), listener, batch.getValue());
+        } else {
+          dispatchers[Math.floorMod(batch.getKey(), dispatchers.length)]
+              .execute(() -> deliver(batch.getKey(), listener, batch.getValue()));
+        }
+        count++;
+      }
+      return count;
+    }
+
+    private void deliver(Integer token, OLiveQueryListenerV2 listener, List<OLiveQueryOp> ops) {
+      // the subscriber could have been removed while the operations were waiting
+      if (subscribers.get(token) != listener) {
+        return;
+      }
+      try {
+        listener.onLiveResults(ops);
+      } catch (Exception e) {
+        OLogManager.instance().warn(this, "Error executing live query subscriber.", e);
+      }
     }
 
     public OLiveQueryQueueThreadV2 getQueueThread() {
@@ -99,17 +165,25 @@ public class OLiveQueryHookV2 {
     }
 
     public Integer subscribe(Integer id, OLiveQueryListenerV2 iListener) {
+      index.add(id, iListener);
       subscribers.put(id, iListener);
       return id;
     }
 
     public void unsubscribe(Integer id) {
-      OLiveQueryListenerV2 res = subscribers.remove(id);
+      OLiveQueryListenerV2 res = removeSubscriber(id);
       if (res != null) {
         res.onLiveResultEnd();
       }
     }
 
+    /** Removes a subscriber without notifying it the end of the live query. */
+    public OLiveQueryListenerV2 removeSubscriber(Integer id) {
+      OLiveQueryListenerV2 res = subscribers.remove(id);
+      index.remove(id);
+      return res;
+    }
+
     public boolean hasListeners() {
       return !subscribers.isEmpty();
     }
@@ -135,6 +209,7 @@ public class OLiveQueryHookV2 {
         ops.queueThread = ops.queueThread.clone();
         ops.queueThread.start();
       }
+      ops.startDispatchers(db.getConfiguration().getValueAsInteger(QUERY_LIVE_DISPATCH_THREADS));
     }
 
     return ops.subscribe(token, iListener);
@@ -206,6 +281,7 @@ public class OLiveQueryHookV2 {
         iType == ORecordOperation.DELETED ? null : calculateAfter(iDocument, projectionsToLoad);
 
     OLiveQueryOp result = new OLiveQueryOp(iDocument, before, after, iType);
+    result.classNames = calculateClassNames(iDocument, database);
     synchronized (ops.pendingOps) {
       List<OLiveQueryOp> list = ops.pendingOps.get(db);
       if (list == null) {
@@ -254,6 +330,20 @@ public class OLiveQueryHookV2 {
     return result;
   }
 
+  private static Set<String> calculateClassNames(ODocument iDocument, ODatabaseDocument database) {
+    OImmutableClass clazz =
+        ODocumentInternal.getImmutableSchemaClass((ODatabaseDocumentInternal) database, iDocument);
+    if (clazz == null) {
+      return null;
+    }
+    Set<String> result = new HashSet<>();
+    result.add(OLiveQuerySubscriberIndex.key(clazz.getName()));
+    for (OClass superClass : clazz.getAllSuperClasses()) {
+      result.add(OLiveQuerySubscriberIndex.key(superClass.getName()));
+    }
+    return result;
+  }
+
   private static OLiveQueryOp prevousUpdate(List<OLiveQueryOp> list, ODocument doc) {
     for (OLiveQueryOp oLiveQueryOp : list) {
       if (oLiveQueryOp.originalDoc == doc) {
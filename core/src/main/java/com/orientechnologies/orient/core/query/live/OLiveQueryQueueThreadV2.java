@@ -65,21 +65,14 @@ public class OLiveQueryQueueThreadV2 extends Thread {
         continue;
       }
 
-      for (OLiveQueryListenerV2 listener : ops.getSubscribers().values()) {
-        try {
-          listener.onLiveResults(items);
-        } catch (Exception e) {
-          OLogManager.instance().warn(this, "Error executing live query subscriber.", e);
-        }
-
-        totalEventsServed++;
-        if (totalEventsServed > 0 && totalEventsServed % 100_000 == 0) {
-          logger.info(
-              this.getClass(),
-              "LiveQuery events: %d served, %d in queue",
-              totalEventsServed,
-              queue.size());
-        }
+      final long served = totalEventsServed;
+      totalEventsServed += ops.dispatch(items);
+      if (totalEventsServed / 100_000 > served / 100_000) {
+        logger.info(
+            this.getClass(),
+            "LiveQuery events: %d served, %d in queue",
+            totalEventsServed,
+            queue.size());
       }
     }
   }
@@ -0,0 +1,150 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.query.live;
+
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.sql.executor.LiveQueryListenerImpl;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexes the live query subscribers by the class they are executed against and, when their WHERE
+ * clause requires a property to be equal to a string, by that string. It is used to find the
+ * subscribers that an operation can match without evaluating the WHERE clause of all of them.
+ * Subscribers that cannot be indexed (eg. queries on RIDs) receive all the operations.
+ */
+public class OLiveQuerySubscriberIndex {
+
+  private static class ClassSubscribers {
+    private final Set<Integer> all = new HashSet<>();
+    private final Map<String, Map<String, Set<Integer>>> byValue = new HashMap<>();
+  }
+
+  private final Map<String, ClassSubscribers> byClass = new HashMap<>();
+  private final Set<Integer> unindexed = new HashSet<>();
+  private final Map<Integer, LiveQueryListenerImpl> indexed = new HashMap<>();
+
+  public synchronized void add(Integer token, OLiveQueryListenerV2 listener) {
+    remove(token);
+    if (!(listener instanceof LiveQueryListenerImpl)
+        || ((LiveQueryListenerImpl) listener).getClassName() == null) {
+      unindexed.add(token);
+      return;
+    }
+    LiveQueryListenerImpl query = (LiveQueryListenerImpl) listener;
+    ClassSubscribers subscribers =
+        byClass.computeIfAbsent(key(query.getClassName()), (k) -> new ClassSubscribers());
+    if (query.getIndexedProperty() == null) {
+      subscribers.all.add(token);
+    } else {
+      subscribers
+          .byValue
+          .computeIfAbsent(query.getIndexedProperty(), (k) -> new HashMap<>())
+          .computeIfAbsent(query.getIndexedValue(), (k) -> new HashSet<>())
+          .add(token);
+    }
+    indexed.put(token, query);
+  }
+
+  public synchronized void remove(Integer token) {
+    unindexed.remove(token);
+    LiveQueryListenerImpl query = indexed.remove(token);
+    if (query == null) {
+      return;
+    }
+    String className = key(query.getClassName());
+    ClassSubscribers subscribers = byClass.get(className);
+    if (query.getIndexedProperty() == null) {
+      subscribers.all.remove(token);
+    } else {
+      Map<String, Set<Integer>> values = subscribers.byValue.get(query.getIndexedProperty());
+      Set<Integer> tokens = values.get(query.getIndexedValue());
+      tokens.remove(token);
+      if (tokens.isEmpty()) {
+        values.remove(query.getIndexedValue());
+      }
+      if (values.isEmpty()) {
+        subscribers.byValue.remove(query.getIndexedProperty());
+      }
+    }
+    if (subscribers.all.isEmpty() && subscribers.byValue.isEmpty()) {
+      byClass.remove(className);
+    }
+  }
+
+  /**
+   * @param ops the operations to dispatch
+   * @return for each subscriber that can match at least one operation, the operations it can
+   *     match in their original order
+   */
+  public synchronized Map<Integer, List<OLiveQueryHookV2.OLiveQueryOp>> match(
+      List<OLiveQueryHookV2.OLiveQueryOp> ops) {
+    Map<Integer, List<OLiveQueryHookV2.OLiveQueryOp>> result = new LinkedHashMap<>();
+    Set<Integer> candidates = new HashSet<>();
+    for (OLiveQueryHookV2.OLiveQueryOp op : ops) {
+      candidates.clear();
+      candidates.addAll(unindexed);
+      if (op.classNames != null) {
+        // the WHERE clause is evaluated on the record before a delete and after the other changes
+        OResult record = op.type == ORecordOperation.DELETED ? op.before : op.after;
+        for (String className : op.classNames) {
+          ClassSubscribers subscribers = byClass.get(className);
+          if (subscribers != null) {
+            addCandidates(subscribers, record, candidates);
+          }
+        }
+      }
+      for (Integer token : candidates) {
+        result.computeIfAbsent(token, (k) -> new ArrayList<>()).add(op);
+      }
+    }
+    return result;
+  }
+
+  private static void addCandidates(
+      ClassSubscribers subscribers, OResult record, Set<Integer> candidates) {
+    candidates.addAll(subscribers.all);
+    for (Map.Entry<String, Map<String, Set<Integer>>> entry : subscribers.byValue.entrySet()) {
+      Object value = record.getProperty(entry.getKey());
+      if (value instanceof String) {
+        Set<Integer> tokens = entry.getValue().get(value);
+        if (tokens != null) {
+          candidates.addAll(tokens);
+        }
+      } else if (value != null) {
+        // other types can be converted to be equal to a string, let the WHERE clause decide
+        for (Set<Integer> tokens : entry.getValue().values()) {
+          candidates.addAll(tokens);
+        }
+      }
+    }
+  }
+
+  static String key(String className) {
+    return className.toLowerCase(Locale.ENGLISH);
+  }
+}
@@ -0,0 +1,20 @@
+package com.orientechnologies.orient.core.record.impl;
+
+import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.Iterator;
+
+/**
+ * Creates the iterator over the content of one edge field of a vertex, the signature matches the
+ * constructors of {@link OEdgeIterator} and {@link OEdgeToVertexLazyIterator}.
+ */
+interface OConnectionIteratorFactory<T> {
+  Iterator<T> create(
+      OVertex sourceVertex,
+      Object multiValue,
+      Iterator<?> iterator,
+      OPair<ODirection, String> connection,
+      String[] labels,
+      int size);
+}
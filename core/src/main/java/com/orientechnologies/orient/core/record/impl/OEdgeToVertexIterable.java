@@ -10,20 +10,42 @@ import java.util.Iterator;
 /** Created by luigidellaquila on 02/07/16. */
 public class OEdgeToVertexIterable implements Iterable<OVertex>, OSizeable {
   private final Iterable<OEdge> edges;
+  private final Iterable<OVertex> vertices;
   private final ODirection direction;
 
   public OEdgeToVertexIterable(Iterable<OEdge> edges, ODirection direction) {
     this.edges = edges;
+    this.vertices = null;
     this.direction = direction;
   }
 
+  private OEdgeToVertexIterable(ODirection direction, Iterable<OVertex> vertices) {
+    this.edges = null;
+    this.vertices = vertices;
+    this.direction = direction;
+  }
+
+  /**
+   * Creates the iterable over the vertices that are already resolved from the edges, e.g. by
+   * {@link OEdgeToVertexLazyIterator}.
+   */
+  public static OEdgeToVertexIterable ofVertices(Iterable<OVertex> vertices, ODirection direction) {
+    return new OEdgeToVertexIterable(direction, vertices);
+  }
+
   @Override
   public Iterator<OVertex> iterator() {
+    if (vertices != null) {
+      return OEdgeToVertexIterator.ofVertices(vertices.iterator(), direction);
+    }
     return new OEdgeToVertexIterator(edges.iterator(), direction);
   }
 
   @Override
   public int size() {
+    if (vertices != null) {
+      return ((OSizeable) vertices).size();
+    }
     if (edges == null) {
       return 0;
     }
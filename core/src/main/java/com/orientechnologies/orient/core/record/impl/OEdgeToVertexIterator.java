@@ -8,24 +8,42 @@ import java.util.Iterator;
 /** Created by luigidellaquila on 02/07/16. */
 public class OEdgeToVertexIterator implements Iterator<OVertex> {
   private final Iterator<OEdge> edgeIterator;
+  private final Iterator<OVertex> vertexIterator;
   private final ODirection direction;
 
   public OEdgeToVertexIterator(Iterator<OEdge> iterator, ODirection direction) {
+    this(iterator, null, direction);
+  }
+
+  private OEdgeToVertexIterator(
+      Iterator<OEdge> edgeIterator, Iterator<OVertex> vertexIterator, ODirection direction) {
     if (direction == ODirection.BOTH) {
       throw new IllegalArgumentException(
           "edge to vertex iterator does not support BOTH as direction");
     }
-    this.edgeIterator = iterator;
+    this.edgeIterator = edgeIterator;
+    this.vertexIterator = vertexIterator;
     this.direction = direction;
   }
 
+  /** Creates the iterator over the vertices that are already resolved from the edges. */
+  public static OEdgeToVertexIterator ofVertices(Iterator<OVertex> vertices, ODirection direction) {
+    return new OEdgeToVertexIterator(null, vertices, direction);
+  }
+
   @Override
   public boolean hasNext() {
+    if (vertexIterator != null) {
+      return vertexIterator.hasNext();
+    }
     return edgeIterator.hasNext();
   }
 
   @Override
   public OVertex next() {
+    if (vertexIterator != null) {
+      return vertexIterator.next();
+    }
     OEdge edge = edgeIterator.next();
     switch (direction) {
       case OUT:
@@ -0,0 +1,296 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.record.impl;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OSecurityException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.iterator.OLazyWrapperIterator;
+import com.orientechnologies.orient.core.iterator.OReadAheadIterator;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.OVertex;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.BytesContainer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ODocumentSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Iterates over the vertices connected to a vertex through the links of one of its edge fields,
+ * without materializing the edges.
+ *
+ * <p>If the edge is not loaded yet, only its <code>in</code> or <code>out</code> field is read
+ * from the serialized record, the edge document is not created. Edges that are part of the current
+ * transaction or are already in the local cache, and edges whose class is protected by record
+ * level security, triggers or security policies are loaded as in {@link OEdgeIterator}.
+ *
+ * <p>Links are read ahead in batches: the edges of the batch are read from the storage in one call
+ * and the vertices they point to are prefetched in the local cache, so they are read in order of
+ * their physical position instead of one by one.
+ *
+ * @see OEdgeToVertexIterator
+ */
+public class OEdgeToVertexLazyIterator extends OLazyWrapperIterator<OVertex> {
+  private static final int PREFETCH_SIZE = 64;
+
+  private final OVertex sourceVertex;
+  private final OPair<ODirection, String> connection;
+  private final String[] labels;
+
+  /** Whether the edges of the cluster can be read without loading them, by cluster id. */
+  private final Map<Integer, Boolean> rawReadableClusters = new HashMap<>();
+
+  /** Vertices read by the last prefetch, by RID of the edge. */
+  private final Map<ORID, ORID> prefetchedLinks = new HashMap<>();
+
+  public OEdgeToVertexLazyIterator(
+      final OVertex iSourceVertex,
+      final Object iMultiValue,
+      final Iterator<?> iterator,
+      final OPair<ODirection, String> connection,
+      final String[] iLabels,
+      final int iSize) {
+    super(new OReadAheadIterator(iterator, PREFETCH_SIZE), iSize, iMultiValue);
+    ((OReadAheadIterator) this.iterator).setBatchListener(this::prefetch);
+    if (connection.getKey() == ODirection.BOTH) {
+      throw new IllegalArgumentException(
+          "edge to vertex iterator does not support BOTH as direction");
+    }
+    this.sourceVertex = iSourceVertex;
+    this.connection = connection;
+    this.labels = iLabels;
+  }
+
+  @Override
+  public OVertex createGraphElement(final Object iObject) {
+    if (iObject == null) {
+      // SKIP IT
+      return null;
+    }
+
+    if (!(iObject instanceof OElement) && iObject instanceof OIdentifiable) {
+      final ORID rid = ((OIdentifiable) iObject).getIdentity();
+      ORID linked = prefetchedLinks.remove(rid);
+      if (linked == null || !canReadRaw(getRawReadDatabase(), rid)) {
+        linked = readLinkedVertex(rid);
+      }
+      if (linked != null) {
+        final ORecord vertex = linked.getRecord();
+        if (vertex instanceof OElement && ((OElement) vertex).isVertex()) {
+          return ((OElement) vertex).asVertex().get();
+        }
+        // BROKEN OR FILTERED LINK: LET THE EDGE DECIDE
+      }
+    }
+
+    final ORecord record = ((OIdentifiable) iObject).getRecord();
+    if (!(record instanceof OElement)) {
+      // SKIP IT
+      OLogManager.instance()
+          .warn(
+              this,
+              "Found a record (%s) that is not an edge. Source vertex : %s",
+              iObject,
+              sourceVertex != null ? sourceVertex.getIdentity() : null);
+      return null;
+    }
+
+    final OElement value = (OElement) record;
+    if (value.isVertex()) {
+      // DIRECT VERTEX (LIGHTWEIGHT EDGE)
+      return value.asVertex().get();
+    } else if (value.isEdge()) {
+      final OEdge edge = value.asEdge().get();
+      if (!edge.isLabeled(labels)) {
+        return null;
+      }
+      return connection.getKey() == ODirection.OUT ? edge.getTo() : edge.getFrom();
+    }
+
+    throw new IllegalStateException(
+        "Invalid content found while iterating edges, value '" + value + "' is not an edge");
+  }
+
+  /**
+   * Reads the links of the edges of the batch with one call to the storage, and prefetches the
+   * vertices.
+   */
+  private void prefetch(final List<Object> batch) {
+    final ODatabaseDocumentInternal db = getRawReadDatabase();
+    prefetchedLinks.clear();
+    if (db == null || !(db.getStorage() instanceof OAbstractPaginatedStorage)) {
+      return;
+    }
+
+    final OImmutableSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    final List<ORID> edges = new ArrayList<>(batch.size());
+    final List<ORID> vertices = new ArrayList<>(batch.size());
+    for (Object item : batch) {
+      if (item instanceof OElement || !(item instanceof OIdentifiable)) {
+        continue;
+      }
+
+      final ORID rid = ((OIdentifiable) item).getIdentity();
+      if (canReadRaw(db, rid)) {
+        edges.add(rid);
+      } else if (rid != null && rid.isPersistent()) {
+        final OClass clazz = schema.getClassByClusterId(rid.getClusterId());
+        if (clazz != null && clazz.isVertexType()) {
+          // LIGHTWEIGHT EDGE
+          vertices.add(rid);
+        }
+      }
+    }
+
+    if (!edges.isEmpty()) {
+      final Map<ORID, ORawBuffer> buffers =
+          ((OAbstractPaginatedStorage) db.getStorage()).loadRecords(edges);
+      for (ORID edge : edges) {
+        final ORawBuffer buffer = buffers.get(edge);
+        final ORID linked = buffer != null ? readLink(buffer, schema) : null;
+        if (linked != null) {
+          prefetchedLinks.put(edge, linked);
+          vertices.add(linked);
+        }
+      }
+    }
+
+    db.prefetchRecords(vertices);
+  }
+
+  /**
+   * Reads the vertex on the other side of the edge from the serialized edge record.
+   *
+   * @return RID of the vertex or null if the edge has to be loaded
+   */
+  private ORID readLinkedVertex(final ORID rid) {
+    final ODatabaseDocumentInternal db = getRawReadDatabase();
+    if (!canReadRaw(db, rid)) {
+      return null;
+    }
+
+    final ORawBuffer buffer =
+        db.getStorage().readRecord((ORecordId) rid, null, false, false, null).getResult();
+    return buffer != null ? readLink(buffer, db.getMetadata().getImmutableSchemaSnapshot()) : null;
+  }
+
+  private ORID readLink(final ORawBuffer buffer, final OImmutableSchema schema) {
+    if (buffer.recordType != ODocument.RECORD_TYPE || buffer.buffer == null) {
+      return null;
+    }
+
+    final BytesContainer bytes = new BytesContainer(buffer.buffer);
+    final ODocumentSerializer serializer =
+        ORecordSerializerBinary.INSTANCE.getSerializer(bytes.bytes[bytes.offset++]);
+    final String field =
+        connection.getKey() == ODirection.OUT ? OEdge.DIRECTION_IN : OEdge.DIRECTION_OUT;
+    final Object link = serializer.deserializeFieldTyped(bytes, field, false, schema, null);
+    return link instanceof OIdentifiable ? ((OIdentifiable) link).getIdentity() : null;
+  }
+
+  /** @return current database if it supports reading of the serialized records, null otherwise */
+  private static ODatabaseDocumentInternal getRawReadDatabase() {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (db == null || db.isRemote() || !(db.getSerializer() instanceof ORecordSerializerBinary)) {
+      return null;
+    }
+    return db;
+  }
+
+  private boolean canReadRaw(final ODatabaseDocumentInternal db, final ORID rid) {
+    if (db == null
+        || rid == null
+        || !rid.isPersistent()
+        || db.getTransaction().getRecord(rid) != null
+        || db.getLocalCache().findRecord(rid) != null) {
+      return false;
+    }
+
+    return rawReadableClusters.computeIfAbsent(
+        rid.getClusterId(),
+        clusterId -> isRawReadable(db, db.getMetadata().getImmutableSchemaSnapshot(), clusterId));
+  }
+
+  /**
+   * Edges can be read without loading if nothing that runs on load of the record can hide it: the
+   * checks that do not depend on the content of the record are done here, the others disable the
+   * optimization.
+   */
+  private boolean isRawReadable(
+      final ODatabaseDocumentInternal db, final OImmutableSchema schema, final int clusterId) {
+    final OImmutableClass clazz = (OImmutableClass) schema.getClassByClusterId(clusterId);
+    if (clazz == null
+        || !clazz.isEdgeType()
+        || clazz.isRestricted()
+        || clazz.isTriggered()
+        || (labels != null && labels.length > 0 && !isLabeled(clazz))) {
+      return false;
+    }
+
+    try {
+      db.checkSecurity(
+          ORule.ResourceGeneric.CLUSTER, ORole.PERMISSION_READ, db.getClusterNameById(clusterId));
+      db.checkSecurity(ORule.ResourceGeneric.CLASS, ORole.PERMISSION_READ, clazz.getName());
+    } catch (OSecurityException e) {
+      return false;
+    }
+
+    return !db.getSharedContext()
+        .getSecurity()
+        .isReadRestrictedBySecurityPolicy(db, "database.class." + clazz.getName());
+  }
+
+  private boolean isLabeled(final OImmutableClass clazz) {
+    for (String label : labels) {
+      if (label != null && clazz.isSubClassOf(label)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean filter(final OVertex iObject) {
+    return true;
+  }
+
+  @Override
+  public boolean canUseMultiValueDirectly() {
+    return false;
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.record.impl;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
+import com.orientechnologies.orient.core.index.OSimpleKeyIndexDefinition;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.storage.OStorage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Adjacency index of the regular edges of the vertices.
+ *
+ * <p>The index is an internal NOTUNIQUE index named {@value #INDEX_NAME}, stored outside the
+ * vertices so it is not visible in their properties and does not depend on their schema. For each
+ * regular edge it contains two entries, one for each vertex, with the key <code>
+ * [vertex, connection field, opposite vertex]</code> and the edge as value, where the connection
+ * field is <code>out_&lt;Class&gt;</code> or <code>in_&lt;Class&gt;</code>. Checking if two
+ * vertices are connected is a lookup of the index instead of a scan of all the edges of the
+ * vertex.
+ *
+ * <p>The index is created in background, with the entries of the existing edges, when a database
+ * is created or opened with {@link OGlobalConfiguration#RID_BAG_ADJACENCY_INDEX} enabled. Once
+ * created it is maintained by the changes of the edge records, in the same transaction, regardless
+ * of the current setting. The lookups ignore it until all the existing edges have been added, so
+ * a partially built index never answers that two vertices are not connected. A build interrupted
+ * by a crash is completed when the database is opened again. Drop the index to remove it.
+ */
+public final class OVertexAdjacencyIndex {
+  public static final String INDEX_NAME = "OVertexAdjacency";
+
+  /** Storage property set to true once the index contains the entries of all the edges. */
+  static final String BUILT_PROPERTY = "vertexAdjacencyIndexBuilt";
+
+  private static final int BUILD_BATCH_SIZE = 1000;
+
+  /** Storages whose index is being built, or will be built by a task already submitted. */
+  private static final Set<OStorage> BUILDING =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private OVertexAdjacencyIndex() {}
+
+  /**
+   * Returns the adjacency index of the database, or null if it was not created. The index can be
+   * still being built.
+   */
+  public static OIndex getIndex(final ODatabaseDocumentInternal db) {
+    final OIndexManagerAbstract indexManager = db.getMetadata().getIndexManagerInternal();
+    if (!indexManager.existsIndex(INDEX_NAME)) {
+      return null;
+    }
+    return indexManager.getIndex(db, INDEX_NAME);
+  }
+
+  /** Returns the adjacency index if it contains the entries of all the edges, null otherwise. */
+  private static OIndex getBuiltIndex(final ODatabaseDocumentInternal db) {
+    final OIndex index = getIndex(db);
+    return index != null && isBuilt(db) ? index : null;
+  }
+
+  private static boolean isBuilt(final ODatabaseDocumentInternal db) {
+    return Boolean.parseBoolean(db.getStorage().getConfiguration().getProperty(BUILT_PROPERTY));
+  }
+
+  private static boolean isBuildNeeded(final ODatabaseDocumentInternal db) {
+    if (getIndex(db) == null) {
+      return db.getConfiguration().getValueAsBoolean(OGlobalConfiguration.RID_BAG_ADJACENCY_INDEX);
+    }
+    return !isBuilt(db);
+  }
+
+  /**
+   * (Internal only) Creates the adjacency index if it is enabled for the database and does not
+   * exist yet, or completes the build of an existing one, adding the entries of the existing
+   * edges. It cannot be called in a transaction. If the build fails the queries keep iterating
+   * over the edges.
+   */
+  public static void createIfNeeded(final ODatabaseDocumentInternal db) {
+    if (!isBuildNeeded(db) || !BUILDING.add(db.getStorage())) {
+      return;
+    }
+    try {
+      build(db);
+    } finally {
+      BUILDING.remove(db.getStorage());
+    }
+  }
+
+  /**
+   * (Internal only) Same as {@link #createIfNeeded(ODatabaseDocumentInternal)} but the index is
+   * built by a new session in background, so opening the database does not wait for the scan of
+   * the edges.
+   */
+  public static void createInBackgroundIfNeeded(final ODatabaseDocumentInternal db) {
+    final OStorage storage = db.getStorage();
+    if (!isBuildNeeded(db) || !BUILDING.add(storage)) {
+      return;
+    }
+    try {
+      db.getSharedContext()
+          .getOrientDB()
+          .executeNoAuthorization(
+              db.getName(),
+              session -> {
+                try {
+                  build((ODatabaseDocumentInternal) session);
+                } finally {
+                  BUILDING.remove(storage);
+                }
+                return null;
+              });
+    } catch (RuntimeException e) {
+      BUILDING.remove(storage);
+      OLogManager.instance()
+          .warn(
+              OVertexAdjacencyIndex.class,
+              "Cannot start the build of adjacency index of database %s",
+              e,
+              db.getName());
+    }
+  }
+
+  private static void build(final ODatabaseDocumentInternal db) {
+    try {
+      OIndex index = getIndex(db);
+      if (index == null) {
+        OLogManager.instance()
+            .info(
+                OVertexAdjacencyIndex.class,
+                "Creating adjacency index of database %s",
+                db.getName());
+        // THE PROPERTY CAN BE LEFT BY AN INDEX THAT WAS DROPPED
+        db.getStorage().setProperty(BUILT_PROPERTY, Boolean.FALSE.toString());
+        db.getMetadata()
+            .getIndexManagerInternal()
+            .createIndex(
+                db,
+                INDEX_NAME,
+                OClass.INDEX_TYPE.NOTUNIQUE.toString(),
+                new OSimpleKeyIndexDefinition(OType.LINK, OType.STRING, OType.LINK),
+                null,
+                null,
+                null);
+        index = getIndex(db);
+      } else if (isBuilt(db)) {
+        return;
+      }
+
+      // FROM NOW ON THE CHANGES OF THE EDGES ARE ADDED TO THE INDEX ALSO BY THE OTHER SESSIONS
+      if (db.getMetadata().getSchema().existsClass("E")) {
+        addEdges(db, index);
+        removeStaleEntries(db, index);
+      }
+      db.getStorage().setProperty(BUILT_PROPERTY, Boolean.TRUE.toString());
+    } catch (RuntimeException e) {
+      // AN INCOMPLETE INDEX IS MAINTAINED BUT IGNORED BY THE LOOKUPS TILL THE NEXT BUILD
+      OLogManager.instance()
+          .warn(
+              OVertexAdjacencyIndex.class,
+              "Cannot build adjacency index of database %s",
+              e,
+              db.getName());
+    }
+  }
+
+  private static void addEdges(final ODatabaseDocumentInternal db, final OIndex index) {
+    int batch = 0;
+    db.begin();
+    try {
+      for (ODocument edge : db.browseClass("E", true)) {
+        link(index, edge);
+        if (++batch % BUILD_BATCH_SIZE == 0) {
+          db.commit();
+          db.begin();
+        }
+      }
+      db.commit();
+    } catch (RuntimeException e) {
+      db.rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Removes the entries of the edges that were deleted, or moved to other vertices, by another
+   * session after they were read by the build but before their entries were added.
+   */
+  private static void removeStaleEntries(final ODatabaseDocumentInternal db, final OIndex index) {
+    final List<ORawPair<Object, ORID>> stale = new ArrayList<>();
+    try (Stream<ORawPair<Object, ORID>> entries = index.getInternal().stream()) {
+      entries.forEach(
+          entry -> {
+            if (!isLinked(db.load(entry.second), entry.first)) {
+              stale.add(entry);
+            }
+          });
+    }
+
+    int batch = 0;
+    db.begin();
+    try {
+      for (ORawPair<Object, ORID> entry : stale) {
+        // THE EDGE CAN BE MOVED BACK MEANWHILE
+        if (!isLinked(db.load(entry.second), entry.first)) {
+          index.remove(entry.first, entry.second);
+        }
+        if (++batch % BUILD_BATCH_SIZE == 0) {
+          db.commit();
+          db.begin();
+        }
+      }
+      db.commit();
+    } catch (RuntimeException e) {
+      db.rollback();
+      throw e;
+    }
+  }
+
+  private static boolean isLinked(final ORecord record, final Object key) {
+    if (!(record instanceof ODocument)) {
+      return false;
+    }
+    final ODocument edge = (ODocument) record;
+    final Object out = edge.rawField(OEdge.DIRECTION_OUT);
+    final Object in = edge.rawField(OEdge.DIRECTION_IN);
+    if (!(out instanceof OIdentifiable) || !(in instanceof OIdentifiable)) {
+      return false;
+    }
+    final String edgeClass = edge.getClassName();
+    return key.equals(getKey((OIdentifiable) out, outField(edgeClass), (OIdentifiable) in))
+        || key.equals(getKey((OIdentifiable) in, inField(edgeClass), (OIdentifiable) out));
+  }
+
+  /**
+   * (Internal only) Updates the entries of a regular edge that was created, updated or deleted in
+   * the current transaction.
+   */
+  public static void addEdgeOp(
+      final ODocument edge, final byte type, final ODatabaseDocumentInternal db) {
+    final OIndex index = getIndex(db);
+    if (index == null) {
+      return;
+    }
+
+    if (type == ORecordOperation.CREATED) {
+      link(index, edge);
+      return;
+    }
+
+    // THE ENTRIES TO REMOVE ARE THE ONES OF THE VERTICES BEFORE THE CHANGE, EG. BY moveTo()
+    final String[] dirtyFields = edge.getDirtyFields();
+    final boolean outChanged = Arrays.asList(dirtyFields).contains(OEdge.DIRECTION_OUT);
+    final boolean inChanged = Arrays.asList(dirtyFields).contains(OEdge.DIRECTION_IN);
+    if (type == ORecordOperation.UPDATED && !outChanged && !inChanged) {
+      return;
+    }
+    final Object out =
+        outChanged
+            ? edge.getOriginalValue(OEdge.DIRECTION_OUT)
+            : edge.rawField(OEdge.DIRECTION_OUT);
+    final Object in =
+        inChanged ? edge.getOriginalValue(OEdge.DIRECTION_IN) : edge.rawField(OEdge.DIRECTION_IN);
+    if (out instanceof OIdentifiable && in instanceof OIdentifiable) {
+      final String edgeClass = edge.getClassName();
+      index.remove(getKey((OIdentifiable) out, outField(edgeClass), (OIdentifiable) in), edge);
+      index.remove(getKey((OIdentifiable) in, inField(edgeClass), (OIdentifiable) out), edge);
+    }
+    if (type == ORecordOperation.UPDATED) {
+      link(index, edge);
+    }
+  }
+
+  private static void link(final OIndex index, final ODocument edge) {
+    final Object out = edge.rawField(OEdge.DIRECTION_OUT);
+    final Object in = edge.rawField(OEdge.DIRECTION_IN);
+    if (out instanceof OIdentifiable && in instanceof OIdentifiable) {
+      final String edgeClass = edge.getClassName();
+      index.put(getKey((OIdentifiable) out, outField(edgeClass), (OIdentifiable) in), edge);
+      index.put(getKey((OIdentifiable) in, inField(edgeClass), (OIdentifiable) out), edge);
+    }
+  }
+
+  private static String outField(final String edgeClass) {
+    return OVertexDocument.getConnectionFieldName(ODirection.OUT, edgeClass, true);
+  }
+
+  private static String inField(final String edgeClass) {
+    return OVertexDocument.getConnectionFieldName(ODirection.IN, edgeClass, true);
+  }
+
+  private static OCompositeKey getKey(
+      final OIdentifiable vertex, final String connectionFieldName, final OIdentifiable opposite) {
+    return new OCompositeKey(vertex.getIdentity(), connectionFieldName, opposite.getIdentity());
+  }
+
+  /**
+   * Checks if the vertex is connected to the opposite vertex through the edges of the connection
+   * field.
+   *
+   * @return {@link Boolean#TRUE} or {@link Boolean#FALSE} if the database has the adjacency index,
+   *     null if it has not or it is still being built, so the answer requires to iterate over the
+   *     edges
+   */
+  public static Boolean isAdjacent(
+      final ODocument vertex, final String connectionFieldName, final OIdentifiable opposite) {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    final OIndex index = db != null ? getBuiltIndex(db) : null;
+    if (index == null) {
+      return null;
+    }
+    try (Stream<ORID> edges =
+        index.getInternal().getRids(getKey(vertex, connectionFieldName, opposite))) {
+      return edges.findAny().isPresent();
+    }
+  }
+
+  /**
+   * Returns the vertices on the other side of the edges of the connection field, one for each
+   * edge, or null if the database has no adjacency index or it is still being built. The stream
+   * has to be closed.
+   */
+  public static Stream<ORID> getAdjacent(
+      final ODatabaseDocumentInternal db,
+      final OIdentifiable vertex,
+      final String connectionFieldName) {
+    final OIndex index = getBuiltIndex(db);
+    if (index == null) {
+      return null;
+    }
+    final OCompositeKey key = new OCompositeKey(vertex.getIdentity(), connectionFieldName);
+    return index
+        .getInternal()
+        .streamEntriesBetween(key, true, key, true, true)
+        .map(OVertexAdjacencyIndex::getOpposite);
+  }
+
+  private static ORID getOpposite(final ORawPair<Object, ORID> entry) {
+    return ((OIdentifiable) ((OCompositeKey) entry.first).getKeys().get(2)).getIdentity();
+  }
+}
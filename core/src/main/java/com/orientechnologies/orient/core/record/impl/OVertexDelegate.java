@@ -97,8 +97,15 @@ public class OVertexDelegate implements OVertex {
 
   @Override
   public Iterable<OEdge> getEdges(ODirection direction, String... labels) {
-    final OMultiCollectionIterator<OEdge> iterable =
-        new OMultiCollectionIterator<OEdge>().setEmbedded(true);
+    return getConnections(direction, labels, OEdgeIterator::new);
+  }
+
+  private <T> OMultiCollectionIterator<T> getConnections(
+      final ODirection direction,
+      String[] labels,
+      final OConnectionIteratorFactory<T> iteratorFactory) {
+    final OMultiCollectionIterator<T> iterable =
+        new OMultiCollectionIterator<T>().setEmbedded(true);
 
     Set<String> fieldNames = null;
     if (labels != null && labels.length > 0) {
@@ -132,7 +139,7 @@ public class OVertexDelegate implements OVertex {
           // CREATE LAZY Iterable AGAINST COLLECTION FIELD
           if (coll instanceof ORecordLazyMultiValue) {
             iterable.add(
-                new OEdgeIterator(
+                iteratorFactory.create(
                     this,
                     coll,
                     ((ORecordLazyMultiValue) coll).rawIterator(),
@@ -140,11 +147,12 @@ public class OVertexDelegate implements OVertex {
                     labels,
                     coll.size()));
           } else
-            iterable.add(new OEdgeIterator(this, coll, coll.iterator(), connection, labels, -1));
+            iterable.add(
+                iteratorFactory.create(this, coll, coll.iterator(), connection, labels, -1));
 
         } else if (fieldValue instanceof ORidBag) {
           iterable.add(
-              new OEdgeIterator(
+              iteratorFactory.create(
                   this,
                   fieldValue,
                   ((ORidBag) fieldValue).rawIterator(),
@@ -183,8 +191,9 @@ public class OVertexDelegate implements OVertex {
       result.add(getVertices(ODirection.IN, type));
       return result;
     } else {
-      Iterable<OEdge> edges = getEdges(direction, type);
-      return new OEdgeToVertexIterable(edges, direction);
+      // VERTICES ARE RESOLVED WITHOUT LOADING THE EDGES WHEN POSSIBLE
+      return OEdgeToVertexIterable.ofVertices(
+          getConnections(direction, type, OEdgeToVertexLazyIterator::new), direction);
     }
   }
 
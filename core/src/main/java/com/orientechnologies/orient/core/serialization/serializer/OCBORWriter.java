@@ -0,0 +1,242 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.serialization.serializer;
+
+import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.OElement;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes values in CBOR format (RFC 7049), a binary alternative to {@link OJSONWriter} that is
+ * faster to produce and to parse. Elements are written as maps with the rid, class and version
+ * attributes followed by their properties, persistent elements referenced by other values as their
+ * RID and dates as epoch-based date/time (tag 1). Collections of unknown size are written with
+ * indefinite length, so results can be written while they are produced.
+ */
+public class OCBORWriter {
+  private static final int MAJOR_UNSIGNED = 0;
+  private static final int MAJOR_NEGATIVE = 1;
+  private static final int MAJOR_BYTES = 2;
+  private static final int MAJOR_TEXT = 3;
+  private static final int MAJOR_ARRAY = 4;
+  private static final int MAJOR_MAP = 5;
+  private static final int MAJOR_TAG = 6;
+
+  private static final int INDEFINITE = 31;
+  private static final int FALSE = 0xf4;
+  private static final int TRUE = 0xf5;
+  private static final int NULL = 0xf6;
+  private static final int FLOAT = 0xfa;
+  private static final int DOUBLE = 0xfb;
+  private static final int BREAK = 0xff;
+
+  private static final int TAG_EPOCH_DATE_TIME = 1;
+  private static final int TAG_DECIMAL_FRACTION = 4;
+
+  private final OutputStream out;
+
+  public OCBORWriter(final OutputStream out) {
+    this.out = out;
+  }
+
+  public OCBORWriter beginMap() throws IOException {
+    out.write(MAJOR_MAP << 5 | INDEFINITE);
+    return this;
+  }
+
+  public OCBORWriter beginArray() throws IOException {
+    out.write(MAJOR_ARRAY << 5 | INDEFINITE);
+    return this;
+  }
+
+  /** Closes the last map or array opened with {@link #beginMap()} or {@link #beginArray()}. */
+  public OCBORWriter end() throws IOException {
+    out.write(BREAK);
+    return this;
+  }
+
+  public OCBORWriter writeAttribute(final String name, final Object value) throws IOException {
+    writeString(name);
+    return writeValue(value);
+  }
+
+  public OCBORWriter writeString(final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeHeader(MAJOR_TEXT, bytes.length);
+    out.write(bytes);
+    return this;
+  }
+
+  public OCBORWriter writeResult(final OResult result) throws IOException {
+    if (result.isElement()) {
+      return writeElement(result.getElement().get());
+    }
+    beginMap();
+    for (String name : result.getPropertyNames()) {
+      writeAttribute(name, result.getProperty(name));
+    }
+    return end();
+  }
+
+  public OCBORWriter writeElement(final OElement element) throws IOException {
+    beginMap();
+    final ORID rid = element.getIdentity();
+    if (rid != null && rid.isValid()) {
+      writeAttribute("@rid", rid.toString());
+    }
+    if (element.getSchemaType().isPresent()) {
+      writeAttribute("@class", element.getSchemaType().get().getName());
+    }
+    if (rid != null && rid.isPersistent()) {
+      writeAttribute("@version", element.getVersion());
+    }
+    for (String name : element.getPropertyNames()) {
+      writeAttribute(name, element.getProperty(name));
+    }
+    return end();
+  }
+
+  public OCBORWriter writeValue(final Object value) throws IOException {
+    if (value == null) {
+      out.write(NULL);
+    } else if (value instanceof Boolean) {
+      out.write((Boolean) value ? TRUE : FALSE);
+    } else if (value instanceof Long
+        || value instanceof Integer
+        || value instanceof Short
+        || value instanceof Byte) {
+      writeInteger(((Number) value).longValue());
+    } else if (value instanceof Float) {
+      out.write(FLOAT);
+      writeBigEndian(Float.floatToIntBits((Float) value), 4);
+    } else if (value instanceof Double) {
+      out.write(DOUBLE);
+      writeBigEndian(Double.doubleToLongBits((Double) value), 8);
+    } else if (value instanceof BigDecimal) {
+      writeDecimal((BigDecimal) value);
+    } else if (value instanceof String || value instanceof Character) {
+      writeString(value.toString());
+    } else if (value instanceof byte[]) {
+      writeHeader(MAJOR_BYTES, ((byte[]) value).length);
+      out.write((byte[]) value);
+    } else if (value instanceof Date) {
+      final long time = ((Date) value).getTime();
+      writeHeader(MAJOR_TAG, TAG_EPOCH_DATE_TIME);
+      if (time % 1000 == 0) {
+        writeInteger(time / 1000);
+      } else {
+        writeValue(time / 1000d);
+      }
+    } else if (value instanceof OResult) {
+      writeResult((OResult) value);
+    } else if (value instanceof OIdentifiable) {
+      final ORID rid = ((OIdentifiable) value).getIdentity();
+      if (rid.isPersistent() || !(value instanceof ORecord)) {
+        writeString(rid.toString());
+      } else {
+        final ORecord record = ((OIdentifiable) value).getRecord();
+        if (record instanceof OElement) {
+          writeElement((OElement) record);
+        } else {
+          writeString(rid.toString());
+        }
+      }
+    } else if (value instanceof Map<?, ?>) {
+      final Map<?, ?> map = (Map<?, ?>) value;
+      writeHeader(MAJOR_MAP, map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        writeAttribute(String.valueOf(entry.getKey()), entry.getValue());
+      }
+    } else if (value instanceof Collection<?>) {
+      final Collection<?> collection = (Collection<?>) value;
+      writeHeader(MAJOR_ARRAY, collection.size());
+      for (Object item : collection) {
+        writeValue(item);
+      }
+    } else if (OMultiValue.isMultiValue(value) || value instanceof Iterator<?>) {
+      beginArray();
+      final Iterator<Object> it = OMultiValue.getMultiValueIterator(value);
+      while (it.hasNext()) {
+        writeValue(it.next());
+      }
+      end();
+    } else {
+      writeString(value.toString());
+    }
+    return this;
+  }
+
+  private void writeDecimal(final BigDecimal value) throws IOException {
+    final BigInteger mantissa = value.unscaledValue();
+    if (mantissa.bitLength() > 63) {
+      writeString(value.toPlainString());
+      return;
+    }
+    writeHeader(MAJOR_TAG, TAG_DECIMAL_FRACTION);
+    writeHeader(MAJOR_ARRAY, 2);
+    writeInteger(-value.scale());
+    writeInteger(mantissa.longValue());
+  }
+
+  private void writeInteger(final long value) throws IOException {
+    if (value < 0) {
+      writeHeader(MAJOR_NEGATIVE, -1 - value);
+    } else {
+      writeHeader(MAJOR_UNSIGNED, value);
+    }
+  }
+
+  private void writeHeader(final int majorType, final long length) throws IOException {
+    final int type = majorType << 5;
+    if (length < 24) {
+      out.write(type | (int) length);
+    } else if (length < 0x100) {
+      out.write(type | 24);
+      out.write((int) length);
+    } else if (length < 0x10000) {
+      out.write(type | 25);
+      writeBigEndian(length, 2);
+    } else if (length < 0x100000000L) {
+      out.write(type | 26);
+      writeBigEndian(length, 4);
+    } else {
+      out.write(type | 27);
+      writeBigEndian(length, 8);
+    }
+  }
+
+  private void writeBigEndian(final long value, final int bytes) throws IOException {
+    for (int i = bytes - 1; i >= 0; i--) {
+      out.write((int) (value >>> (i * 8)));
+    }
+  }
+}
@@ -2,7 +2,6 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
-import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.sql.parser.OInteger;
 import com.orientechnologies.orient.core.sql.parser.OTraverseProjectionItem;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
@@ -10,7 +9,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,7 +22,7 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
   protected List<OResult> results = new ArrayList<>();
   private long cost = 0;
 
-  protected Set<ORID> traversed = new ORidSet();
+  protected ODirectRidSet traversed = new ODirectRidSet();
 
   public AbstractTraverseStep(
       List<OTraverseProjectionItem> projections,
@@ -108,6 +106,8 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
         fetchNextEntryPoints(ctx, nRecords);
       }
       if (this.entryPoints.isEmpty()) {
+        // traversal is completed, memory is released even if the result set is not closed
+        traversed.close();
         return;
       }
       long begin = profilingEnabled ? System.nanoTime() : 0;
@@ -129,6 +129,15 @@ public abstract class AbstractTraverseStep extends AbstractExecutionStep {
     return entryPoints != null && entryPoints.isEmpty() && results.isEmpty();
   }
 
+  @Override
+  public void close() {
+    try {
+      traversed.close();
+    } finally {
+      super.close();
+    }
+  }
+
   @Override
   public long getCost() {
     return cost;
@@ -86,7 +86,10 @@ public class BreadthFirstTraverseStep extends AbstractTraverseStep {
         Object nextStep = proj.execute(item, ctx);
         if (this.maxDepth == null || this.maxDepth.getValue().intValue() > item.depth) {
           addNextEntryPoints(
-              nextStep, item.depth + 1, (List<OIdentifiable>) item.getMetadata("$path"), ctx);
+              ORecordPrefetcher.prefetching(nextStep, ctx),
+              item.depth + 1,
+              (List<OIdentifiable>) item.getMetadata("$path"),
+              ctx);
         }
       }
     }
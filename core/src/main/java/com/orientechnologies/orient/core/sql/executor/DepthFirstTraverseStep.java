@@ -103,7 +103,7 @@ public class DepthFirstTraverseStep extends AbstractTraverseStep {
         Integer depth = item.depth != null ? item.depth : (Integer) item.getMetadata("$depth");
         if (this.maxDepth == null || this.maxDepth.getValue().intValue() > depth) {
           addNextEntryPoints(
-              nextStep,
+              ORecordPrefetcher.prefetching(nextStep, ctx),
               depth + 1,
               (List) item.getMetadata("$path"),
               (List) item.getMetadata("$stack"),
@@ -200,6 +200,35 @@ public class FetchFromClassExecutionStep extends AbstractExecutionStep {
     };
   }
 
+  /**
+   * Reads the batch from the batches of the clusters, moving to the next cluster once the current
+   * one is exhausted
+   */
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int batchSize)
+      throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, batchSize));
+    List<OResult> result = new ArrayList<>();
+    // records left by a previous syncPull() come first
+    while (result.size() < batchSize && currentResultSet != null && currentResultSet.hasNext()) {
+      result.add(currentResultSet.next());
+    }
+    while (result.size() < batchSize && currentStep < getSubSteps().size()) {
+      List<OResult> batch =
+          ((OExecutionStepInternal) getSubSteps().get(currentStep))
+              .syncPullBatch(ctx, batchSize - result.size());
+      if (batch.isEmpty()) {
+        currentStep++;
+      } else {
+        result.addAll(batch);
+      }
+    }
+    if (!result.isEmpty()) {
+      ctx.setVariable("$current", result.get(result.size() - 1));
+    }
+    return result;
+  }
+
   @Override
   public void sendTimeout() {
     for (OExecutionStep step : getSubSteps()) {
@@ -19,6 +19,8 @@ import com.orientechnologies.orient.core.sql.parser.OGtOperator;
 import com.orientechnologies.orient.core.sql.parser.OLeOperator;
 import com.orientechnologies.orient.core.sql.parser.OLtOperator;
 import com.orientechnologies.orient.core.sql.parser.ORid;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -55,19 +57,7 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     getPrev().ifPresent(x -> x.syncPull(ctx, nRecords));
     long begin = profilingEnabled ? System.nanoTime() : 0;
     try {
-      if (iterator == null) {
-        long minClusterPosition = calculateMinClusterPosition();
-        long maxClusterPosition = calculateMaxClusterPosition();
-        iterator =
-            new ORecordIteratorCluster(
-                (ODatabaseDocumentInternal) ctx.getDatabase(),
-                clusterId,
-                minClusterPosition,
-                maxClusterPosition);
-        if (ORDER_DESC.equals(order)) {
-          iterator.last();
-        }
-      }
+      initIterator(ctx);
       OResultSet rs =
           new OResultSet() {
 
@@ -154,6 +144,57 @@ public class FetchFromClusterExecutionStep extends AbstractExecutionStep {
     }
   }
 
+  /**
+   * Reads the batch straight from the cluster iterator, without wrapping it in a result set that
+   * is then drained record by record by the downstream step
+   */
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int batchSize)
+      throws OTimeoutException {
+    getPrev().ifPresent(x -> x.syncPull(ctx, batchSize));
+    long begin = profilingEnabled ? System.nanoTime() : 0;
+    try {
+      initIterator(ctx);
+      boolean desc = ORDER_DESC.equals(order);
+      List<OResult> batch = new ArrayList<>(Math.min(batchSize, 1024));
+      while (batch.size() < batchSize && (desc ? iterator.hasPrevious() : iterator.hasNext())) {
+        if (timedOut) {
+          throw new OTimeoutException("Command execution timeout");
+        }
+        if (batch.size() % 100 == 0 && OExecutionThreadLocal.isInterruptCurrentOperation()) {
+          throw new OCommandInterruptedException("The command has been interrupted");
+        }
+        OResultInternal result = new OResultInternal();
+        result.element = desc ? iterator.previous() : iterator.next();
+        batch.add(result);
+      }
+      if (!batch.isEmpty()) {
+        ctx.setVariable("$current", batch.get(batch.size() - 1));
+      }
+      return batch;
+    } finally {
+      if (profilingEnabled) {
+        cost += (System.nanoTime() - begin);
+      }
+    }
+  }
+
+  private void initIterator(OCommandContext ctx) {
+    if (iterator == null) {
+      long minClusterPosition = calculateMinClusterPosition();
+      long maxClusterPosition = calculateMaxClusterPosition();
+      iterator =
+          new ORecordIteratorCluster(
+              (ODatabaseDocumentInternal) ctx.getDatabase(),
+              clusterId,
+              minClusterPosition,
+              maxClusterPosition);
+      if (ORDER_DESC.equals(order)) {
+        iterator.last();
+      }
+    }
+  }
+
   private long calculateMinClusterPosition() {
     if (queryPlanning == null
         || queryPlanning.ridRangeConditions == null
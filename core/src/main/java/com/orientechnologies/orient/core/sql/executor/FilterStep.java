@@ -5,15 +5,18 @@ import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
-import java.util.Map;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Created by luigidellaquila on 12/07/16. */
 public class FilterStep extends AbstractExecutionStep {
+  /** Upper bound of the batches pulled from upstream */
+  private static final int MAX_BATCH_SIZE = 1024;
+
   private final long timeoutMillis;
   private OWhereClause whereClause;
 
-  private OResultSet prevResult = null;
+  private boolean finished = false;
 
   private long cost;
 
@@ -26,106 +29,50 @@ public class FilterStep extends AbstractExecutionStep {
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    OInternalResultSet result = new OInternalResultSet();
+    for (OResult item : syncPullBatch(ctx, nRecords)) {
+      result.add(item);
+    }
+    return result;
+  }
+
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int batchSize)
+      throws OTimeoutException {
     if (!prev.isPresent()) {
       throw new IllegalStateException("filter step requires a previous step");
     }
     OExecutionStepInternal prevStep = prev.get();
 
-    return new OResultSet() {
-      public boolean finished = false;
-
-      private OResult nextItem = null;
-      private int fetched = 0;
-
-      private void fetchNextItem() {
-        long timeoutBegin = System.currentTimeMillis();
-        nextItem = null;
-        if (finished) {
-          return;
-        }
-        if (prevResult == null) {
-          prevResult = prevStep.syncPull(ctx, nRecords);
-          if (!prevResult.hasNext()) {
-            finished = true;
-            return;
-          }
-        }
-        while (!finished) {
-          while (!prevResult.hasNext()) {
-            prevResult = prevStep.syncPull(ctx, nRecords);
-            if (!prevResult.hasNext()) {
-              finished = true;
-              return;
-            }
-          }
-          nextItem = prevResult.next();
-          long begin = profilingEnabled ? System.nanoTime() : 0;
-          try {
-            if (whereClause.matchesFilters(nextItem, ctx)) {
-              break;
-            }
-
-            nextItem = null;
-          } finally {
-            if (profilingEnabled) {
-              cost += (System.nanoTime() - begin);
-            }
-          }
-          if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
-            sendTimeout();
-          }
-        }
+    long timeoutBegin = System.currentTimeMillis();
+    List<OResult> result = null;
+    while (!finished && (result == null || result.size() < batchSize)) {
+      // never ask upstream for more records than still needed, so that the upstream is consumed
+      // lazily as in case of record by record execution
+      int missing = result == null ? batchSize : batchSize - result.size();
+      List<OResult> batch = prevStep.syncPullBatch(ctx, Math.min(missing, MAX_BATCH_SIZE));
+      if (batch.isEmpty()) {
+        finished = true;
+        break;
       }
-
-      @Override
-      public boolean hasNext() {
-
-        if (fetched >= nRecords || finished) {
-          return false;
-        }
-        if (nextItem == null) {
-          fetchNextItem();
+      long begin = profilingEnabled ? System.nanoTime() : 0;
+      try {
+        whereClause.filterBatch(batch, ctx);
+      } finally {
+        if (profilingEnabled) {
+          cost += (System.nanoTime() - begin);
         }
-
-        if (nextItem != null) {
-          return true;
-        }
-
-        return false;
       }
-
-      @Override
-      public OResult next() {
-        if (fetched >= nRecords || finished) {
-          throw new IllegalStateException();
-        }
-        if (nextItem == null) {
-          fetchNextItem();
-        }
-        if (nextItem == null) {
-          throw new IllegalStateException();
-        }
-        OResult result = nextItem;
-        nextItem = null;
-        fetched++;
-        return result;
+      if (result == null) {
+        result = batch;
+      } else {
+        result.addAll(batch);
       }
-
-      @Override
-      public void close() {
-        FilterStep.this.close();
-      }
-
-      @Override
-      public Optional<OExecutionPlan> getExecutionPlan() {
-        return Optional.empty();
+      if (timeoutMillis > 0 && timeoutBegin + timeoutMillis < System.currentTimeMillis()) {
+        sendTimeout();
       }
-
-      @Override
-      public Map<String, Long> getQueryStats() {
-        return null;
-      }
-    };
+    }
+    return result == null ? new ArrayList<>() : result;
   }
 
   @Override
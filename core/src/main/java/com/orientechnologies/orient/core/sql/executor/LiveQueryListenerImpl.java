@@ -1,6 +1,7 @@
 package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.util.OCallable;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.*;
@@ -9,12 +10,18 @@ import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OProperty;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.query.live.OLiveQueryListenerV2;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.parser.OAndBlock;
+import com.orientechnologies.orient.core.sql.parser.OBinaryCondition;
+import com.orientechnologies.orient.core.sql.parser.OBooleanExpression;
+import com.orientechnologies.orient.core.sql.parser.OEqualsCompareOperator;
 import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
 import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +38,8 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
   private final OSelectStatement statement;
   private String className;
   private List<ORecordId> rids;
+  private String indexedProperty;
+  private String indexedValue;
 
   private final Map<Object, Object> params;
 
@@ -80,6 +89,10 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
           }
         });
 
+    if (className != null) {
+      findIndexedFilter((ODatabaseDocumentInternal) db);
+    }
+
     synchronized (random) {
       token = random.nextInt(); // TODO do something better ;-)!
     }
@@ -118,6 +131,56 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
     }
   }
 
+  /**
+   * looks for a condition in the form <code>property = 'value'</code> that all the records matching
+   * the WHERE clause satisfy, so that the subscription can be indexed by that value
+   */
+  private void findIndexedFilter(ODatabaseDocumentInternal db) {
+    OWhereClause where = statement.getWhereClause();
+    if (where == null || where.getBaseExpression() == null) {
+      return;
+    }
+    List<OAndBlock> flattened = where.getBaseExpression().flatten();
+    if (flattened.size() != 1) {
+      return;
+    }
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setInputParameters(params);
+    for (OBooleanExpression condition : flattened.get(0).getSubBlocks()) {
+      if (!(condition instanceof OBinaryCondition)) {
+        continue;
+      }
+      OBinaryCondition binary = (OBinaryCondition) condition;
+      if (!(binary.getOperator() instanceof OEqualsCompareOperator)
+          || !binary.getLeft().isBaseIdentifier()
+          || !binary.getRight().isEarlyCalculated(ctx)) {
+        continue;
+      }
+      Object value = binary.getRight().execute((OResult) null, ctx);
+      String property = binary.getLeft().getDefaultAlias().getStringValue();
+      // a collate (eg. case insensitive) makes equal also values that are different strings
+      if (value instanceof String && hasDefaultCollate(db.getClass(className), property)) {
+        this.indexedProperty = property;
+        this.indexedValue = (String) value;
+        return;
+      }
+    }
+  }
+
+  private static boolean hasDefaultCollate(OClass clazz, String property) {
+    List<OClass> classes = new ArrayList<>(clazz.getAllSubclasses());
+    classes.add(clazz);
+    for (OClass item : classes) {
+      OProperty schemaProperty = item.getProperty(property);
+      if (schemaProperty != null
+          && schemaProperty.getCollate() != null
+          && !(schemaProperty.getCollate() instanceof ODefaultCollate)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public int getToken() {
     return token;
   }
@@ -257,4 +320,21 @@ public class LiveQueryListenerImpl implements OLiveQueryListenerV2 {
   public OSelectStatement getStatement() {
     return statement;
   }
+
+  /** @return the class the query is executed against, null if it is executed on RIDs */
+  public String getClassName() {
+    return className;
+  }
+
+  /**
+   * @return the property that has to be equal to {@link #getIndexedValue()} in all the records
+   *     matching the query, null if there is no such condition
+   */
+  public String getIndexedProperty() {
+    return indexedProperty;
+  }
+
+  public String getIndexedValue() {
+    return indexedValue;
+  }
 }
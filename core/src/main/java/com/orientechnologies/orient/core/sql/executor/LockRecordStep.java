@@ -2,12 +2,22 @@ package com.orientechnologies.orient.core.sql.executor;
 
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.tx.OTransaction;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Locks records returned by previous step. If transaction is active locks are held till the end of
+ * the transaction, otherwise they are released when execution of the statement is finished.
+ */
 public class LockRecordStep extends AbstractExecutionStep {
   private final OStorage.LOCKING_STRATEGY lockStrategy;
+  private final List<OIdentifiable> statementLocks = new ArrayList<>();
 
   public LockRecordStep(
       OStorage.LOCKING_STRATEGY lockStrategy, OCommandContext ctx, boolean enableProfiling) {
@@ -27,9 +37,7 @@ public class LockRecordStep extends AbstractExecutionStep {
       @Override
       public OResult next() {
         OResult result = upstream.next();
-        result
-            .getElement()
-            .ifPresent(x -> ctx.getDatabase().getTransaction().lockRecord(x, lockStrategy));
+        result.getElement().ifPresent(x -> lockRecord(ctx, x));
         return result;
       }
 
@@ -50,6 +58,37 @@ public class LockRecordStep extends AbstractExecutionStep {
     };
   }
 
+  private void lockRecord(OCommandContext ctx, OIdentifiable record) {
+    if (!record.getIdentity().isPersistent()) {
+      // record created by the statement itself, e.g. by upsert
+      return;
+    }
+
+    OTransaction transaction = ctx.getDatabase().getTransaction();
+    transaction.lockRecord(record, lockStrategy);
+    if (!transaction.isActive()) {
+      statementLocks.add(record.getIdentity());
+    }
+
+    // the record was loaded before the lock was acquired, so it may be stale
+    if (record instanceof ORecord && !((ORecord) record).isDirty()) {
+      ((ORecord) record).reload(null, true, false);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      OTransaction transaction = ctx.getDatabase().getTransaction();
+      for (OIdentifiable rid : statementLocks) {
+        transaction.unlockRecord(rid);
+      }
+      statementLocks.clear();
+    } finally {
+      super.close();
+    }
+  }
+
   @Override
   public String prettyPrint(int depth, int indent) {
     String spaces = OExecutionStepInternal.getIndent(depth, indent);
@@ -355,7 +355,8 @@ public class MatchEdgeTraverser {
       return Collections.singleton(new OResultInternal((OIdentifiable) qR));
     }
     if (qR instanceof Iterable) {
-      final Iterator<Object> iter = ((Iterable) qR).iterator();
+      final Iterator<Object> iter =
+          ((Iterable) ORecordPrefetcher.prefetching(qR, iCommandContext)).iterator();
       Iterable<OResultInternal> result =
           () ->
               new Iterator<OResultInternal>() {
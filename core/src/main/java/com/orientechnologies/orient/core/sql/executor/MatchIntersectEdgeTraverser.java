@@ -0,0 +1,123 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Traverses an edge that matches the last node of one or more cycles of the pattern, keeping only
+ * the nodes that are also reachable through the edges that close the cycles, starting from the
+ * other nodes of the cycles that are already matched.
+ *
+ * <p>Candidates reachable through the closing edges are collected (with the number of paths that
+ * reach them) before the main edge is traversed, so their intersection is calculated once for each
+ * upstream record, instead of materializing all the partial matches of the cycle and checking the
+ * closing edge for each of them.
+ */
+public class MatchIntersectEdgeTraverser extends MatchEdgeTraverser {
+  private final MatchEdgeTraverser main;
+  private final List<EdgeTraversal> closingEdges;
+  private final String endPointAlias;
+
+  /** number of paths through the closing edges that reach each candidate, null if not calculated */
+  private Map<ORID, Integer> candidates;
+
+  private OResult nextResult;
+  private int nextResultCount = 0;
+
+  public MatchIntersectEdgeTraverser(
+      OResult lastUpstreamRecord, EdgeTraversal edge, List<EdgeTraversal> closingEdges) {
+    super(lastUpstreamRecord, edge);
+    this.main =
+        edge.out
+            ? new MatchEdgeTraverser(lastUpstreamRecord, edge)
+            : new MatchReverseEdgeTraverser(lastUpstreamRecord, edge);
+    this.closingEdges = closingEdges;
+    this.endPointAlias = edge.out ? edge.edge.in.alias : edge.edge.out.alias;
+  }
+
+  @Override
+  public boolean hasNext(OCommandContext ctx) {
+    if (nextResultCount > 0) {
+      return true;
+    }
+    if (candidates == null) {
+      candidates = calculateCandidates(ctx);
+    }
+    if (candidates.isEmpty()) {
+      return false;
+    }
+    while (main.hasNext(ctx)) {
+      OResult result = main.next(ctx);
+      if (result == null) {
+        continue;
+      }
+      Integer count = candidates.get(toRid(result.getProperty(endPointAlias)));
+      if (count != null) {
+        nextResult = result;
+        nextResultCount = count;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public OResult next(OCommandContext ctx) {
+    if (!hasNext(ctx)) {
+      throw new IllegalStateException();
+    }
+    // THE MATCH IS RETURNED ONCE FOR EACH COMBINATION OF CLOSING EDGES, THE DOWNSTREAM STEPS CAN
+    // MODIFY EACH ROW SO ALL BUT THE LAST ONE ARE COPIES
+    nextResultCount--;
+    return nextResultCount == 0 ? nextResult : copy(nextResult);
+  }
+
+  private static OResult copy(OResult result) {
+    OResultInternal copy = new OResultInternal();
+    for (String prop : result.getPropertyNames()) {
+      copy.setProperty(prop, result.getProperty(prop));
+    }
+    return copy;
+  }
+
+  private Map<ORID, Integer> calculateCandidates(OCommandContext ctx) {
+    Map<ORID, Integer> result = null;
+    for (EdgeTraversal closingEdge : closingEdges) {
+      MatchEdgeTraverser traverser =
+          closingEdge.out
+              ? new MatchEdgeTraverser(sourceRecord, closingEdge)
+              : new MatchReverseEdgeTraverser(sourceRecord, closingEdge);
+
+      Map<ORID, Integer> reached = new HashMap<>();
+      while (traverser.hasNext(ctx)) {
+        OResult next = traverser.next(ctx);
+        if (next == null) {
+          continue;
+        }
+        ORID rid = toRid(next.getProperty(endPointAlias));
+        if (rid != null && (result == null || result.containsKey(rid))) {
+          reached.merge(rid, result == null ? 1 : result.get(rid), Integer::sum);
+        }
+      }
+      result = reached;
+      if (result.isEmpty()) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  private static ORID toRid(Object value) {
+    if (value instanceof OResult) {
+      return ((OResult) value).getIdentity().orElse(null);
+    }
+    if (value instanceof OIdentifiable) {
+      return ((OIdentifiable) value).getIdentity();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,42 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import java.util.List;
+
+/**
+ * Matches an edge together with the edges that close the cycles of the pattern on its end point
+ *
+ * @see MatchIntersectEdgeTraverser
+ */
+public class MatchIntersectStep extends MatchStep {
+  private final List<EdgeTraversal> closingEdges;
+
+  public MatchIntersectStep(
+      OCommandContext context,
+      EdgeTraversal edge,
+      List<EdgeTraversal> closingEdges,
+      boolean profilingEnabled) {
+    super(context, edge, profilingEnabled);
+    this.closingEdges = closingEdges;
+  }
+
+  @Override
+  protected MatchEdgeTraverser createTraverser(OResult lastUpstreamRecord) {
+    return new MatchIntersectEdgeTraverser(lastUpstreamRecord, edge, closingEdges);
+  }
+
+  @Override
+  public String prettyPrint(int depth, int indent) {
+    String spaces = OExecutionStepInternal.getIndent(depth, indent);
+    StringBuilder result = new StringBuilder(super.prettyPrint(depth, indent));
+    for (EdgeTraversal closingEdge : closingEdges) {
+      result.append("\n");
+      result.append(spaces);
+      result.append("  INTERSECT ");
+      result.append("{" + closingEdge.edge.out.alias + "}");
+      result.append(closingEdge.edge.item.getMethod());
+      result.append("{" + closingEdge.edge.in.alias + "}");
+    }
+    return result.toString();
+  }
+}
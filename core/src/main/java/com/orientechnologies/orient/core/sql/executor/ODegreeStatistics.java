@@ -0,0 +1,620 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.executor;
+
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.QUERY_GRAPH_DEGREE_STATISTICS;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.OVertexDocument;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distribution of the degrees of the vertices, for each vertex class, edge class and direction.
+ * For each of them the statistics keep the number of the connected vertices and of the edges, an
+ * histogram of the degrees with power of two buckets, used for percentiles, and the vertices with
+ * the highest degree above the supernode threshold.
+ *
+ * <p>Statistics are updated when a transaction that creates or deletes edges is committed. The
+ * degree of a vertex after the commit is read from the edge field of the vertex document changed
+ * by the transaction, without loading it again, and the degree before the commit is obtained by
+ * subtracting the edges created and deleted by the same transaction, so changes committed by
+ * other sessions meanwhile are not counted twice. Lightweight edges are not tracked.
+ *
+ * <p>Only counters are kept, not the vertices they count, so the statistics are usable only after
+ * they have been built by scanning the vertices with {@link #build(ODatabaseDocumentInternal)}.
+ * Until then they are incomplete and the getters answer as if there were no statistics. Changes
+ * committed while the statistics are built may be missed, so the numbers can be approximated.
+ */
+public class ODegreeStatistics {
+  /** Name of the storage property that contains the statistics. */
+  public static final String STORAGE_PROPERTY = "degreeStatistics";
+
+  private static final int BUCKETS = 33;
+  private static final int MAX_SUPERNODES = 100;
+  private static final ODirection[] BOTH = {ODirection.OUT, ODirection.IN};
+
+  private static final class Key {
+    private final String vertexClass;
+    private final String edgeClass;
+    private final ODirection direction;
+
+    private Key(final String vertexClass, final String edgeClass, final ODirection direction) {
+      this.vertexClass = vertexClass;
+      this.edgeClass = edgeClass;
+      this.direction = direction;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return vertexClass.equals(key.vertexClass)
+          && edgeClass.equals(key.edgeClass)
+          && direction == key.direction;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(vertexClass, edgeClass, direction);
+    }
+  }
+
+  private static final class Distribution {
+    /** Number of the vertices for each bucket, bucket <code>b</code> holds 2^(b-1)..2^b-1. */
+    private final long[] counts = new long[BUCKETS];
+
+    private final long[] sums = new long[BUCKETS];
+    private final Map<ORID, Integer> supernodes = new HashMap<>();
+
+    private long getVertexCount() {
+      long result = 0;
+      for (long count : counts) {
+        result += count;
+      }
+      return result;
+    }
+
+    private long getEdgeCount() {
+      long result = 0;
+      for (long sum : sums) {
+        result += sum;
+      }
+      return result;
+    }
+
+    private void add(final Distribution other) {
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] += other.counts[i];
+        sums[i] += other.sums[i];
+      }
+      supernodes.putAll(other.supernodes);
+    }
+  }
+
+  private static final class PendingOp {
+    private final OIdentifiable vertex;
+    private final ODocument document;
+    private final String edgeClass;
+    private final ODirection direction;
+    private final int delta;
+
+    private PendingOp(
+        final OIdentifiable vertex,
+        final ODocument document,
+        final String edgeClass,
+        final ODirection direction,
+        final int delta) {
+      this.vertex = vertex;
+      this.document = document;
+      this.edgeClass = edgeClass;
+      this.direction = direction;
+      this.delta = delta;
+    }
+  }
+
+  private final int supernodeThreshold;
+  private Map<Key, Distribution> distributions = new HashMap<>();
+  private final Map<ODatabaseDocument, List<PendingOp>> pendingOps = new ConcurrentHashMap<>();
+  private volatile boolean dirty = false;
+  private volatile boolean complete = false;
+
+  public ODegreeStatistics(final int supernodeThreshold) {
+    this.supernodeThreshold = Math.max(1, supernodeThreshold);
+  }
+
+  public static ODegreeStatistics get(final ODatabaseDocumentInternal db) {
+    return OQueryStats.get(db).getDegreeStatistics();
+  }
+
+  /**
+   * Registers the creation or deletion of an edge document, the change is applied to the
+   * statistics only when the transaction is committed.
+   */
+  public static void addEdgeOp(
+      final ODocument edge, final byte type, final ODatabaseDocumentInternal db) {
+    if (type != ORecordOperation.CREATED && type != ORecordOperation.DELETED) {
+      return;
+    }
+    if (Boolean.FALSE.equals(db.getConfiguration().getValue(QUERY_GRAPH_DEGREE_STATISTICS))) {
+      return;
+    }
+
+    final String edgeClass = edge.getClassName();
+    final int delta = type == ORecordOperation.CREATED ? 1 : -1;
+    final ODegreeStatistics statistics = get(db);
+    final List<PendingOp> ops = statistics.pendingOps.computeIfAbsent(db, k -> new ArrayList<>());
+    final Object out = edge.rawField(OEdge.DIRECTION_OUT);
+    if (out instanceof OIdentifiable) {
+      final OIdentifiable vertex = (OIdentifiable) out;
+      ops.add(new PendingOp(vertex, getTxDocument(db, vertex), edgeClass, ODirection.OUT, delta));
+    }
+    final Object in = edge.rawField(OEdge.DIRECTION_IN);
+    if (in instanceof OIdentifiable) {
+      final OIdentifiable vertex = (OIdentifiable) in;
+      ops.add(new PendingOp(vertex, getTxDocument(db, vertex), edgeClass, ODirection.IN, delta));
+    }
+  }
+
+  /** Returns the vertex document changed by the transaction, or null if it is not in memory. */
+  private static ODocument getTxDocument(
+      final ODatabaseDocumentInternal db, final OIdentifiable vertex) {
+    if (vertex instanceof ODocument) {
+      return (ODocument) vertex;
+    }
+    final ORecord record = db.getTransaction().getRecord(vertex.getIdentity());
+    return record instanceof ODocument ? (ODocument) record : null;
+  }
+
+  /**
+   * Applies the changes of the committed transaction, reading the new degree of the vertices from
+   * their documents. Vertices whose document was not changed in memory by the transaction are
+   * skipped instead of being loaded.
+   */
+  public static void notifyForTxChanges(final ODatabaseDocumentInternal db) {
+    final ODegreeStatistics statistics = get(db);
+    if (statistics.pendingOps.isEmpty()) {
+      return;
+    }
+    final List<PendingOp> ops = statistics.pendingOps.remove(db);
+    if (ops == null) {
+      return;
+    }
+
+    // RIDS ARE RESOLVED NOW, TEMPORARY ONES ARE REPLACED ON COMMIT
+    final Map<Key, Map<ORID, Integer>> deltas = new LinkedHashMap<>();
+    final Map<ORID, ODocument> documents = new HashMap<>();
+    for (PendingOp op : ops) {
+      final ORID rid = op.vertex.getIdentity();
+      if (!rid.isPersistent()) {
+        continue;
+      }
+      if (op.document != null) {
+        documents.put(rid.copy(), op.document);
+      }
+      final OClass vertexClass =
+          db.getMetadata().getImmutableSchemaSnapshot().getClassByClusterId(rid.getClusterId());
+      if (vertexClass == null) {
+        continue;
+      }
+      deltas
+          .computeIfAbsent(
+              new Key(vertexClass.getName(), op.edgeClass, op.direction), k -> new HashMap<>())
+          .merge(rid.copy(), op.delta, Integer::sum);
+    }
+
+    for (Map.Entry<Key, Map<ORID, Integer>> entry : deltas.entrySet()) {
+      final Key key = entry.getKey();
+      final String fieldName =
+          OVertexDocument.getConnectionFieldName(key.direction, key.edgeClass, true);
+      for (Map.Entry<ORID, Integer> vertexDelta : entry.getValue().entrySet()) {
+        final int delta = vertexDelta.getValue();
+        final ODocument document = documents.get(vertexDelta.getKey());
+        if (delta == 0 || document == null) {
+          continue;
+        }
+        final int newDegree;
+        try {
+          newDegree = readDegree(document, fieldName);
+        } catch (RuntimeException e) {
+          OLogManager.instance()
+              .debug(statistics, "Cannot read degree of vertex %s", e, vertexDelta.getKey());
+          continue;
+        }
+        statistics.update(
+            key.vertexClass,
+            key.edgeClass,
+            key.direction,
+            vertexDelta.getKey(),
+            Math.max(0, newDegree - delta),
+            newDegree);
+      }
+    }
+  }
+
+  public static void removePendingDatabaseOps(final ODatabaseDocumentInternal db) {
+    if (db.isClosed()) {
+      return;
+    }
+    get(db).pendingOps.remove(db);
+  }
+
+  private static int readDegree(final ODocument document, final String fieldName) {
+    final Object value = document.rawField(fieldName);
+    if (value instanceof ORidBag) {
+      return ((ORidBag) value).size();
+    }
+    if (value instanceof Collection) {
+      return ((Collection<?>) value).size();
+    }
+    return value instanceof OIdentifiable ? 1 : 0;
+  }
+
+  /**
+   * Moves a vertex from the bucket of the old degree to the bucket of the new degree. Buckets
+   * never go below zero, so a vertex that was not counted does not make the others disappear.
+   */
+  public synchronized void update(
+      final String vertexClass,
+      final String edgeClass,
+      final ODirection direction,
+      final ORID vertex,
+      final int oldDegree,
+      final int newDegree) {
+    if (oldDegree == newDegree) {
+      return;
+    }
+    final Distribution distribution =
+        distributions.computeIfAbsent(
+            new Key(vertexClass, edgeClass, direction), k -> new Distribution());
+
+    if (oldDegree > 0) {
+      final int bucket = bucketOf(oldDegree);
+      distribution.counts[bucket] = Math.max(0, distribution.counts[bucket] - 1);
+      distribution.sums[bucket] = Math.max(0, distribution.sums[bucket] - oldDegree);
+    }
+    addDegree(distribution, vertex, newDegree);
+    if (newDegree < supernodeThreshold) {
+      distribution.supernodes.remove(vertex);
+    }
+    dirty = true;
+  }
+
+  private void addDegree(final Distribution distribution, final ORID vertex, final int degree) {
+    if (degree <= 0) {
+      return;
+    }
+    final int bucket = bucketOf(degree);
+    distribution.counts[bucket]++;
+    distribution.sums[bucket] += degree;
+    if (degree >= supernodeThreshold) {
+      distribution.supernodes.put(vertex, degree);
+      if (distribution.supernodes.size() > MAX_SUPERNODES) {
+        removeSmallestSupernode(distribution.supernodes);
+      }
+    }
+  }
+
+  /**
+   * Replaces the statistics with the ones computed by reading the edge fields of all the vertices
+   * of the database, and marks them as complete. The vertices are read without locking the
+   * statistics, so the changes committed meanwhile by other sessions may be missed.
+   */
+  public void build(final ODatabaseDocumentInternal db) {
+    final OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    final OClass edgeClass = schema.getClass(OClass.EDGE_CLASS_NAME);
+    final OClass vertexClass = schema.getClass(OClass.VERTEX_CLASS_NAME);
+    final Map<String, Object[]> fields = new HashMap<>();
+    if (edgeClass != null) {
+      final List<OClass> edgeClasses = new ArrayList<>(edgeClass.getAllSubclasses());
+      edgeClasses.add(edgeClass);
+      for (OClass oClass : edgeClasses) {
+        for (ODirection direction : BOTH) {
+          fields.put(
+              OVertexDocument.getConnectionFieldName(direction, oClass.getName(), true),
+              new Object[] {oClass.getName(), direction});
+        }
+      }
+    }
+
+    final Map<Key, Distribution> built = new HashMap<>();
+    if (vertexClass != null) {
+      final List<OClass> vertexClasses = new ArrayList<>(vertexClass.getAllSubclasses());
+      vertexClasses.add(vertexClass);
+      for (OClass oClass : vertexClasses) {
+        for (ODocument document : db.browseClass(oClass.getName(), false)) {
+          for (String fieldName : document.fieldNames()) {
+            final Object[] field = fields.get(fieldName);
+            if (field == null) {
+              continue;
+            }
+            final int degree = readDegree(document, fieldName);
+            if (degree > 0) {
+              addDegree(
+                  built.computeIfAbsent(
+                      new Key(oClass.getName(), (String) field[0], (ODirection) field[1]),
+                      k -> new Distribution()),
+                  document.getIdentity(),
+                  degree);
+            }
+          }
+        }
+      }
+    }
+
+    synchronized (this) {
+      distributions = built;
+      complete = true;
+      dirty = true;
+    }
+  }
+
+  /**
+   * @return number of the vertices of the classes with at least one edge of the classes in the
+   *     direction, or -1 if there are no complete statistics
+   */
+  public synchronized long getVertexCount(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    return distribution == null ? -1 : distribution.getVertexCount();
+  }
+
+  /**
+   * @return number of the edges of the classes that are connected to the vertices of the classes
+   *     in the direction, or -1 if there are no complete statistics
+   */
+  public synchronized long getEdgeCount(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    return distribution == null ? -1 : distribution.getEdgeCount();
+  }
+
+  /**
+   * @return average degree of the vertices with at least one edge, or -1 if there are no
+   *     complete statistics
+   */
+  public synchronized double getAverageDegree(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    if (distribution == null) {
+      return -1;
+    }
+    final long vertices = distribution.getVertexCount();
+    return vertices == 0 ? 0 : (double) distribution.getEdgeCount() / vertices;
+  }
+
+  /**
+   * Estimates the degree that is not exceeded by the given fraction of the vertices with at least
+   * one edge, as the average degree of the histogram bucket that contains the percentile.
+   *
+   * @param percentile value between 0 and 1
+   * @return estimated degree or -1 if there are no complete statistics
+   */
+  public synchronized long getPercentile(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction,
+      final double percentile) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    if (distribution == null) {
+      return -1;
+    }
+    final long vertices = distribution.getVertexCount();
+    if (vertices == 0) {
+      return 0;
+    }
+    final long target = Math.max(1, (long) Math.ceil(vertices * percentile));
+    long cumulative = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      cumulative += distribution.counts[bucket];
+      if (cumulative >= target) {
+        return distribution.sums[bucket] / distribution.counts[bucket];
+      }
+    }
+    return 0;
+  }
+
+  /** @return degree of the vertex if it is a supernode, -1 otherwise */
+  public synchronized int getSupernodeDegree(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction,
+      final ORID vertex) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    if (distribution == null) {
+      return -1;
+    }
+    final Integer degree = distribution.supernodes.get(vertex);
+    return degree == null ? -1 : degree;
+  }
+
+  /** @return the supernodes and their degree */
+  public synchronized Map<ORID, Integer> getSupernodes(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction) {
+    final Distribution distribution = merge(vertexClasses, edgeClasses, direction);
+    if (distribution == null) {
+      return new HashMap<>();
+    }
+    return new HashMap<>(distribution.supernodes);
+  }
+
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  /** @return true if the statistics have been built and can be used */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /** Removes all the statistics and marks them as complete, for a database without edges. */
+  public synchronized void initEmpty() {
+    distributions.clear();
+    complete = true;
+    dirty = true;
+  }
+
+  /** Removes all the statistics, they are incomplete until they are built again. */
+  public synchronized void clear() {
+    distributions.clear();
+    complete = false;
+    dirty = true;
+  }
+
+  /** Serializes the statistics to be stored in the storage configuration. */
+  public synchronized String toJSON() {
+    final List<ODocument> entries = new ArrayList<>(distributions.size());
+    for (Map.Entry<Key, Distribution> entry : distributions.entrySet()) {
+      final Distribution distribution = entry.getValue();
+      final List<Long> counts = new ArrayList<>(BUCKETS);
+      final List<Long> sums = new ArrayList<>(BUCKETS);
+      for (int i = 0; i < BUCKETS; i++) {
+        counts.add(distribution.counts[i]);
+        sums.add(distribution.sums[i]);
+      }
+      final Map<String, Integer> supernodes = new HashMap<>();
+      for (Map.Entry<ORID, Integer> supernode : distribution.supernodes.entrySet()) {
+        supernodes.put(supernode.getKey().toString(), supernode.getValue());
+      }
+
+      final ODocument doc = new ODocument();
+      doc.field("vertexClass", entry.getKey().vertexClass);
+      doc.field("edgeClass", entry.getKey().edgeClass);
+      doc.field("direction", entry.getKey().direction.name());
+      doc.field("counts", counts);
+      doc.field("sums", sums);
+      doc.field("supernodes", supernodes);
+      entries.add(doc);
+    }
+    final ODocument result = new ODocument();
+    result.field("complete", complete);
+    result.field("distributions", entries);
+    dirty = false;
+    return result.toJSON();
+  }
+
+  /**
+   * Replaces the statistics with the ones serialized by {@link #toJSON()}. Statistics saved
+   * without the completeness flag are loaded as incomplete.
+   */
+  public synchronized void fromJSON(final String json) {
+    distributions.clear();
+    final ODocument result = new ODocument().fromJSON(json);
+    complete = Boolean.TRUE.equals(result.field("complete"));
+    final List<ODocument> entries = result.field("distributions");
+    if (entries != null) {
+      for (ODocument doc : entries) {
+        final Distribution distribution = new Distribution();
+        final List<Number> counts = doc.field("counts");
+        final List<Number> sums = doc.field("sums");
+        for (int i = 0; i < BUCKETS && i < counts.size() && i < sums.size(); i++) {
+          distribution.counts[i] = counts.get(i).longValue();
+          distribution.sums[i] = sums.get(i).longValue();
+        }
+        final Map<String, Number> supernodes = doc.field("supernodes");
+        if (supernodes != null) {
+          for (Map.Entry<String, Number> supernode : supernodes.entrySet()) {
+            distribution.supernodes.put(
+                new ORecordId(supernode.getKey()), supernode.getValue().intValue());
+          }
+        }
+        distributions.put(
+            new Key(
+                doc.field("vertexClass"),
+                doc.field("edgeClass"),
+                ODirection.valueOf(doc.field("direction"))),
+            distribution);
+      }
+    }
+    dirty = false;
+  }
+
+  private Distribution merge(
+      final Collection<String> vertexClasses,
+      final Collection<String> edgeClasses,
+      final ODirection direction) {
+    if (!complete) {
+      return null;
+    }
+    Distribution result = null;
+    for (String vertexClass : vertexClasses) {
+      for (String edgeClass : edgeClasses) {
+        for (ODirection d : direction == ODirection.BOTH ? BOTH : new ODirection[] {direction}) {
+          final Distribution distribution = distributions.get(new Key(vertexClass, edgeClass, d));
+          if (distribution != null) {
+            if (result == null) {
+              result = new Distribution();
+            }
+            result.add(distribution);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static void removeSmallestSupernode(final Map<ORID, Integer> supernodes) {
+    Map.Entry<ORID, Integer> smallest = null;
+    for (Map.Entry<ORID, Integer> entry : supernodes.entrySet()) {
+      if (smallest == null || entry.getValue() < smallest.getValue()) {
+        smallest = entry;
+      }
+    }
+    if (smallest != null) {
+      supernodes.remove(smallest.getKey());
+    }
+  }
+
+  private static int bucketOf(final int degree) {
+    return Integer.SIZE - Integer.numberOfLeadingZeros(degree);
+  }
+}
@@ -0,0 +1,125 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator;
+import com.orientechnologies.common.directmemory.ODirectMemoryAllocator.Intention;
+import com.orientechnologies.common.directmemory.OPointer;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed size array of longs allocated in direct memory. Memory is allocated by segments, so array
+ * may contain more than {@link Integer#MAX_VALUE} bytes. Array should be closed to return memory
+ * back to the allocator.
+ *
+ * <p>Memory of arrays which are not closed, eg. the ones of queries abandoned by the user, is
+ * returned to the allocator when the next array is created after the garbage collector found them
+ * unreachable.
+ */
+final class ODirectLongArray implements AutoCloseable {
+  private static final int SEGMENT_SHIFT = 17;
+  private static final int SEGMENT_LENGTH = 1 << SEGMENT_SHIFT;
+  private static final int SEGMENT_MASK = SEGMENT_LENGTH - 1;
+
+  private static final ReferenceQueue<ODirectLongArray> UNREACHABLE = new ReferenceQueue<>();
+  private static final Set<Release> NOT_RELEASED =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  private final ByteBuffer[] segments;
+  private final long length;
+  private final Release release;
+
+  ODirectLongArray(final long length, final long initialValue) {
+    if (length <= 0) {
+      throw new IllegalArgumentException("Length of array should be positive");
+    }
+
+    releaseUnreachable();
+
+    final ODirectMemoryAllocator allocator = ODirectMemoryAllocator.instance();
+    this.length = length;
+
+    final int segmentsCount = (int) ((length + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+    final OPointer[] pointers = new OPointer[segmentsCount];
+    this.segments = new ByteBuffer[segmentsCount];
+    this.release = new Release(this, allocator, pointers);
+    NOT_RELEASED.add(release);
+
+    try {
+      for (int i = 0; i < segmentsCount; i++) {
+        final int segmentLength =
+            (int) Math.min(SEGMENT_LENGTH, length - ((long) i << SEGMENT_SHIFT));
+        pointers[i] = allocator.allocate(segmentLength << 3, false, Intention.RID_COLLECTION);
+        segments[i] = pointers[i].getNativeByteBuffer();
+
+        for (int n = 0; n < segmentLength; n++) {
+          segments[i].putLong(n << 3, initialValue);
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      close();
+      throw e;
+    }
+  }
+
+  long length() {
+    return length;
+  }
+
+  long get(final long index) {
+    return segments[(int) (index >>> SEGMENT_SHIFT)].getLong(((int) index & SEGMENT_MASK) << 3);
+  }
+
+  void set(final long index, final long value) {
+    segments[(int) (index >>> SEGMENT_SHIFT)].putLong(((int) index & SEGMENT_MASK) << 3, value);
+  }
+
+  @Override
+  public void close() {
+    release.run();
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = null;
+    }
+  }
+
+  private static void releaseUnreachable() {
+    Release release;
+    while ((release = (Release) UNREACHABLE.poll()) != null) {
+      release.run();
+    }
+  }
+
+  /**
+   * Returns the segments of the array to the allocator, either when the array is closed or when it
+   * is found unreachable. It does not refer to the array, so it does not keep it reachable.
+   */
+  private static final class Release extends PhantomReference<ODirectLongArray> {
+    private final ODirectMemoryAllocator allocator;
+    private final OPointer[] pointers;
+
+    private Release(
+        final ODirectLongArray array,
+        final ODirectMemoryAllocator allocator,
+        final OPointer[] pointers) {
+      super(array, UNREACHABLE);
+      this.allocator = allocator;
+      this.pointers = pointers;
+    }
+
+    private void run() {
+      if (!NOT_RELEASED.remove(this)) {
+        return;
+      }
+
+      for (int i = 0; i < pointers.length; i++) {
+        if (pointers[i] != null) {
+          allocator.deallocate(pointers[i]);
+          pointers[i] = null;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+/**
+ * Open addressing hash table with linear probing allocated in direct memory, which maps non
+ * negative long keys (packed RIDs) to arbitrary long values. Keys are stored in even and values in
+ * odd items of the underlying array.
+ *
+ * <p>Memory is allocated on the first insertion and released by {@link #close()}, after that table
+ * is empty and may be used again.
+ */
+final class ODirectLongHashTable implements AutoCloseable {
+  private static final long EMPTY = -1;
+  private static final long INITIAL_CAPACITY = 1 << 10;
+
+  private ODirectLongArray table;
+
+  private long capacity;
+  private long mask;
+  private long size;
+
+  long size() {
+    return size;
+  }
+
+  /** @return slot which contains the key or -1 */
+  long find(final long key) {
+    if (table == null) {
+      return -1;
+    }
+
+    long index = ORidPacking.hash(key) & mask;
+    while (true) {
+      final long current = table.get(index << 1);
+      if (current == EMPTY) {
+        return -1;
+      }
+      if (current == key) {
+        return index;
+      }
+
+      index = (index + 1) & mask;
+    }
+  }
+
+  long valueAt(final long slot) {
+    return table.get((slot << 1) + 1);
+  }
+
+  void setValueAt(final long slot, final long value) {
+    table.set((slot << 1) + 1, value);
+  }
+
+  /** Inserts the key which is not contained in the table yet. */
+  void insert(final long key, final long value) {
+    if (table == null) {
+      table = new ODirectLongArray(INITIAL_CAPACITY << 1, EMPTY);
+      capacity = INITIAL_CAPACITY;
+      mask = capacity - 1;
+    } else if ((size + 1) << 1 > capacity) {
+      rehash();
+    }
+
+    insert(table, mask, key, value);
+    size++;
+  }
+
+  /**
+   * Removes entry using backward shift deletion, so no tombstones are left in the table.
+   *
+   * @return <code>true</code> if the key was contained in the table
+   */
+  boolean remove(final long key) {
+    long index = find(key);
+    if (index < 0) {
+      return false;
+    }
+
+    long next = (index + 1) & mask;
+    while (true) {
+      final long current = table.get(next << 1);
+      if (current == EMPTY) {
+        break;
+      }
+
+      final long home = ORidPacking.hash(current) & mask;
+      // entry may be moved to the freed slot only if its home slot is not located between freed
+      // slot and current position of the entry
+      final boolean movable =
+          index <= next ? (home <= index || home > next) : (home <= index && home > next);
+      if (movable) {
+        table.set(index << 1, current);
+        table.set((index << 1) + 1, table.get((next << 1) + 1));
+        index = next;
+      }
+
+      next = (next + 1) & mask;
+    }
+
+    table.set(index << 1, EMPTY);
+    table.set((index << 1) + 1, EMPTY);
+    size--;
+
+    return true;
+  }
+
+  @Override
+  public void close() {
+    if (table != null) {
+      table.close();
+      table = null;
+    }
+
+    capacity = 0;
+    mask = 0;
+    size = 0;
+  }
+
+  private void rehash() {
+    final long newCapacity = capacity << 1;
+    final long newMask = newCapacity - 1;
+    final ODirectLongArray newTable = new ODirectLongArray(newCapacity << 1, EMPTY);
+
+    try {
+      for (long i = 0; i < capacity; i++) {
+        final long key = table.get(i << 1);
+        if (key != EMPTY) {
+          insert(newTable, newMask, key, table.get((i << 1) + 1));
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      newTable.close();
+      throw e;
+    }
+
+    table.close();
+    table = newTable;
+    capacity = newCapacity;
+    mask = newMask;
+  }
+
+  private static void insert(
+      final ODirectLongArray table, final long mask, final long key, final long value) {
+    long index = ORidPacking.hash(key) & mask;
+    while (table.get(index << 1) != EMPTY) {
+      index = (index + 1) & mask;
+    }
+
+    table.set(index << 1, key);
+    table.set((index << 1) + 1, value);
+  }
+}
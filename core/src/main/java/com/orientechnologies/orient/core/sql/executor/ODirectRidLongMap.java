@@ -0,0 +1,77 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map from RID to primitive long which keeps entries of persistent records inside of open
+ * addressing hash table allocated in direct memory, so values are stored without boxing. Entries of
+ * RIDs which can not be packed are kept on heap. Doubles may be stored as their raw long bits.
+ *
+ * <p>Memory is allocated on the first addition of entry and released by {@link #close()}, after
+ * that map is empty and may be used again.
+ *
+ * @see ODirectRidMap
+ */
+public final class ODirectRidLongMap implements AutoCloseable {
+  private final ODirectLongHashTable table = new ODirectLongHashTable();
+
+  private Map<ORID, Long> notPacked;
+
+  public void put(final ORID key, final long value) {
+    final long packedKey = ORidPacking.pack(key);
+    if (packedKey == ORidPacking.NOT_PACKED) {
+      if (notPacked == null) {
+        notPacked = new HashMap<>();
+      }
+      notPacked.put(ORidPacking.copy(key), value);
+      return;
+    }
+
+    final long slot = table.find(packedKey);
+    if (slot >= 0) {
+      table.setValueAt(slot, value);
+    } else {
+      table.insert(packedKey, value);
+    }
+  }
+
+  /** @return value associated with the key or <code>defaultValue</code> if there is no such key */
+  public long get(final ORID key, final long defaultValue) {
+    final long packedKey = ORidPacking.pack(key);
+    if (packedKey == ORidPacking.NOT_PACKED) {
+      if (notPacked == null) {
+        return defaultValue;
+      }
+      final Long value = notPacked.get(key);
+      return value == null ? defaultValue : value;
+    }
+
+    final long slot = table.find(packedKey);
+    return slot >= 0 ? table.valueAt(slot) : defaultValue;
+  }
+
+  public boolean containsKey(final ORID key) {
+    final long packedKey = ORidPacking.pack(key);
+    if (packedKey == ORidPacking.NOT_PACKED) {
+      return notPacked != null && notPacked.containsKey(key);
+    }
+
+    return table.find(packedKey) >= 0;
+  }
+
+  public long size() {
+    return table.size() + (notPacked == null ? 0 : notPacked.size());
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public void close() {
+    table.close();
+    notPacked = null;
+  }
+}
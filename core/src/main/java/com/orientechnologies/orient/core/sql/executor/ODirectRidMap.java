@@ -0,0 +1,101 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Map from RID to RID which keeps packed RIDs of persistent records inside of open addressing hash
+ * table allocated in direct memory. Entries which contain RIDs which can not be packed are kept on
+ * heap.
+ *
+ * <p>Memory is allocated on the first addition of entry and released by {@link #close()}, after
+ * that map is empty and may be used again.
+ *
+ * @see ODirectRidSet
+ */
+public final class ODirectRidMap implements AutoCloseable {
+  private final ODirectLongHashTable table = new ODirectLongHashTable();
+
+  private Map<ORID, ORID> notPacked;
+
+  /**
+   * Associates value with the key.
+   *
+   * @return previous value associated with the key or <code>null</code>
+   */
+  public ORID put(final ORID key, final ORID value) {
+    final long packedKey = ORidPacking.pack(key);
+    final long packedValue = ORidPacking.pack(value);
+
+    if (packedKey == ORidPacking.NOT_PACKED || packedValue == ORidPacking.NOT_PACKED) {
+      ORID previous = null;
+      if (packedKey != ORidPacking.NOT_PACKED) {
+        final long slot = table.find(packedKey);
+        if (slot >= 0) {
+          previous = ORidPacking.unpack(table.valueAt(slot));
+          table.remove(packedKey);
+        }
+      }
+
+      if (notPacked == null) {
+        notPacked = new HashMap<>();
+      }
+
+      final ORID notPackedPrevious =
+          notPacked.put(ORidPacking.copy(key), ORidPacking.copy(value));
+      return previous != null ? previous : notPackedPrevious;
+    }
+
+    ORID previous = null;
+    if (notPacked != null) {
+      previous = notPacked.remove(key);
+    }
+
+    final long slot = table.find(packedKey);
+    if (slot >= 0) {
+      previous = ORidPacking.unpack(table.valueAt(slot));
+      table.setValueAt(slot, packedValue);
+      return previous;
+    }
+
+    table.insert(packedKey, packedValue);
+    return previous;
+  }
+
+  /** @return value associated with the key or <code>null</code> */
+  public ORID get(final ORID key) {
+    final long packedKey = ORidPacking.pack(key);
+    if (packedKey != ORidPacking.NOT_PACKED) {
+      final long slot = table.find(packedKey);
+      if (slot >= 0) {
+        return ORidPacking.unpack(table.valueAt(slot));
+      }
+    }
+
+    return notPacked == null ? null : notPacked.get(key);
+  }
+
+  public boolean containsKey(final ORID key) {
+    final long packedKey = ORidPacking.pack(key);
+    if (packedKey != ORidPacking.NOT_PACKED && table.find(packedKey) >= 0) {
+      return true;
+    }
+
+    return notPacked != null && notPacked.containsKey(key);
+  }
+
+  public long size() {
+    return table.size() + (notPacked == null ? 0 : notPacked.size());
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public void close() {
+    table.close();
+    notPacked = null;
+  }
+}
@@ -0,0 +1,172 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Priority queue of RIDs which keeps binary min-heap of (priority, packed RID) pairs in array
+ * allocated in direct memory, RID with the lowest priority is polled first. RIDs which can not be
+ * packed are kept on heap.
+ *
+ * <p>Queue does not support change of priority, the same RID may be added several times, in such
+ * case it is polled several times as well.
+ *
+ * <p>Memory is allocated on the first addition of RID and released by {@link #close()}, after
+ * that queue is empty and may be used again.
+ *
+ * @see ODirectRidQueue
+ */
+public final class ODirectRidPriorityQueue implements AutoCloseable {
+  private static final long INITIAL_CAPACITY = 1 << 10;
+
+  /** Priority of the entry is stored in even and RID in odd items. */
+  private ODirectLongArray heap;
+
+  private long size;
+
+  /**
+   * RIDs which can not be packed, heap contains <code>-(index + 1)</code> of such RID in this list.
+   */
+  private List<ORID> notPacked;
+
+  private int notPackedPolled;
+
+  public void add(final ORID rid, final double priority) {
+    long value = ORidPacking.pack(rid);
+    if (value == ORidPacking.NOT_PACKED) {
+      if (notPacked == null) {
+        notPacked = new ArrayList<>();
+      }
+
+      notPacked.add(ORidPacking.copy(rid));
+      value = -notPacked.size();
+    }
+
+    if (heap == null) {
+      heap = new ODirectLongArray(INITIAL_CAPACITY << 1, 0);
+    } else if (size << 1 == heap.length()) {
+      grow();
+    }
+
+    long index = size;
+    size++;
+
+    // sift up
+    while (index > 0) {
+      final long parent = (index - 1) >>> 1;
+      final double parentPriority = Double.longBitsToDouble(heap.get(parent << 1));
+      if (parentPriority <= priority) {
+        break;
+      }
+
+      heap.set(index << 1, heap.get(parent << 1));
+      heap.set((index << 1) + 1, heap.get((parent << 1) + 1));
+      index = parent;
+    }
+
+    heap.set(index << 1, Double.doubleToRawLongBits(priority));
+    heap.set((index << 1) + 1, value);
+  }
+
+  /** @return priority of the head of the queue, queue should not be empty */
+  public double peekPriority() {
+    if (size == 0) {
+      throw new IllegalStateException("Queue is empty");
+    }
+
+    return Double.longBitsToDouble(heap.get(0));
+  }
+
+  /** @return RID with the lowest priority or <code>null</code> if queue is empty */
+  public ORID poll() {
+    if (size == 0) {
+      return null;
+    }
+
+    final long value = heap.get(1);
+    size--;
+
+    if (size > 0) {
+      final long lastPriorityBits = heap.get(size << 1);
+      final double lastPriority = Double.longBitsToDouble(lastPriorityBits);
+      final long lastValue = heap.get((size << 1) + 1);
+
+      // sift down
+      long index = 0;
+      while (true) {
+        long child = (index << 1) + 1;
+        if (child >= size) {
+          break;
+        }
+
+        double childPriority = Double.longBitsToDouble(heap.get(child << 1));
+        if (child + 1 < size) {
+          final double rightPriority = Double.longBitsToDouble(heap.get((child + 1) << 1));
+          if (rightPriority < childPriority) {
+            child++;
+            childPriority = rightPriority;
+          }
+        }
+
+        if (lastPriority <= childPriority) {
+          break;
+        }
+
+        heap.set(index << 1, heap.get(child << 1));
+        heap.set((index << 1) + 1, heap.get((child << 1) + 1));
+        index = child;
+      }
+
+      heap.set(index << 1, lastPriorityBits);
+      heap.set((index << 1) + 1, lastValue);
+    }
+
+    final ORID rid;
+    if (value >= 0) {
+      rid = ORidPacking.unpack(value);
+    } else {
+      final int index = (int) (-value - 1);
+      rid = notPacked.set(index, null);
+      notPackedPolled++;
+
+      if (notPackedPolled == notPacked.size()) {
+        notPacked.clear();
+        notPackedPolled = 0;
+      }
+    }
+
+    return rid;
+  }
+
+  public long size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void close() {
+    if (heap != null) {
+      heap.close();
+      heap = null;
+    }
+
+    size = 0;
+    notPacked = null;
+    notPackedPolled = 0;
+  }
+
+  private void grow() {
+    final long length = heap.length();
+    final ODirectLongArray newHeap = new ODirectLongArray(length << 1, 0);
+    for (long i = 0; i < length; i++) {
+      newHeap.set(i, heap.get(i));
+    }
+
+    heap.close();
+    heap = newHeap;
+  }
+}
@@ -0,0 +1,112 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FIFO queue of RIDs which keeps packed RIDs of persistent records inside of ring buffer allocated
+ * in direct memory. RIDs which can not be packed are kept on heap, but their order in the queue is
+ * preserved.
+ *
+ * <p>Memory is allocated on the first addition of RID and released by {@link #close()}, after
+ * that queue is empty and may be used again.
+ *
+ * @see ODirectRidSet
+ */
+public final class ODirectRidQueue implements AutoCloseable {
+  private static final long INITIAL_CAPACITY = 1 << 10;
+
+  private ODirectLongArray buffer;
+  private long head;
+  private long size;
+
+  /**
+   * RIDs which can not be packed, ring buffer contains <code>-(index + 1)</code> of such RID in
+   * this list.
+   */
+  private List<ORID> notPacked;
+
+  private int notPackedPolled;
+
+  public void add(final ORID rid) {
+    long value = ORidPacking.pack(rid);
+    if (value == ORidPacking.NOT_PACKED) {
+      if (notPacked == null) {
+        notPacked = new ArrayList<>();
+      }
+
+      notPacked.add(ORidPacking.copy(rid));
+      value = -notPacked.size();
+    }
+
+    if (buffer == null) {
+      buffer = new ODirectLongArray(INITIAL_CAPACITY, 0);
+    } else if (size == buffer.length()) {
+      grow();
+    }
+
+    buffer.set((head + size) % buffer.length(), value);
+    size++;
+  }
+
+  /** @return head of the queue or <code>null</code> if queue is empty */
+  public ORID poll() {
+    if (size == 0) {
+      return null;
+    }
+
+    final long value = buffer.get(head);
+    head = (head + 1) % buffer.length();
+    size--;
+
+    final ORID rid;
+    if (value >= 0) {
+      rid = ORidPacking.unpack(value);
+    } else {
+      final int index = (int) (-value - 1);
+      rid = notPacked.set(index, null);
+      notPackedPolled++;
+
+      if (notPackedPolled == notPacked.size()) {
+        notPacked.clear();
+        notPackedPolled = 0;
+      }
+    }
+
+    return rid;
+  }
+
+  public long size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void close() {
+    if (buffer != null) {
+      buffer.close();
+      buffer = null;
+    }
+
+    head = 0;
+    size = 0;
+    notPacked = null;
+    notPackedPolled = 0;
+  }
+
+  private void grow() {
+    final long capacity = buffer.length();
+    final ODirectLongArray newBuffer = new ODirectLongArray(capacity << 1, 0);
+    for (long i = 0; i < size; i++) {
+      newBuffer.set(i, buffer.get((head + i) % capacity));
+    }
+
+    buffer.close();
+    buffer = newBuffer;
+    head = 0;
+  }
+}
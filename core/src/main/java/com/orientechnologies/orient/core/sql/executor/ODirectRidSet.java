@@ -0,0 +1,134 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of RIDs which keeps RIDs of persistent records packed into longs inside of open addressing
+ * hash table allocated in direct memory, so even sets of tens of millions of RIDs do not create
+ * any garbage. RIDs which can not be packed (for example RIDs of records created inside of
+ * transaction) are kept on heap.
+ *
+ * <p>Memory is allocated on the first addition of RID and released by {@link #close()}, after
+ * that set is empty and may be used again. Memory of a set which is not closed is released only
+ * after the set is collected by the garbage collector.
+ *
+ * @see ORidSet
+ */
+public final class ODirectRidSet implements AutoCloseable {
+  private static final long EMPTY = -1;
+  private static final long INITIAL_CAPACITY = 1 << 10;
+
+  private ODirectLongArray table;
+  private long mask;
+  private long packedSize;
+
+  private Set<ORID> notPacked;
+
+  public boolean add(final ORID rid) {
+    final long packedRid = ORidPacking.pack(rid);
+    if (packedRid == ORidPacking.NOT_PACKED) {
+      if (notPacked == null) {
+        notPacked = new HashSet<>();
+      }
+      return notPacked.add(ORidPacking.copy(rid));
+    }
+
+    if (table == null) {
+      table = new ODirectLongArray(INITIAL_CAPACITY, EMPTY);
+      mask = INITIAL_CAPACITY - 1;
+    } else if ((packedSize + 1) << 1 > table.length()) {
+      rehash();
+    }
+
+    if (insert(table, mask, packedRid)) {
+      packedSize++;
+      return true;
+    }
+
+    return false;
+  }
+
+  public boolean contains(final ORID rid) {
+    final long packedRid = ORidPacking.pack(rid);
+    if (packedRid == ORidPacking.NOT_PACKED) {
+      return notPacked != null && notPacked.contains(rid);
+    }
+
+    if (table == null) {
+      return false;
+    }
+
+    long index = ORidPacking.hash(packedRid) & mask;
+    while (true) {
+      final long value = table.get(index);
+      if (value == EMPTY) {
+        return false;
+      }
+      if (value == packedRid) {
+        return true;
+      }
+
+      index = (index + 1) & mask;
+    }
+  }
+
+  public long size() {
+    return packedSize + (notPacked == null ? 0 : notPacked.size());
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public void close() {
+    if (table != null) {
+      table.close();
+      table = null;
+    }
+
+    packedSize = 0;
+    notPacked = null;
+  }
+
+  private void rehash() {
+    final long capacity = table.length() << 1;
+    final long newMask = capacity - 1;
+    final ODirectLongArray newTable = new ODirectLongArray(capacity, EMPTY);
+
+    try {
+      for (long i = 0; i < table.length(); i++) {
+        final long value = table.get(i);
+        if (value != EMPTY) {
+          insert(newTable, newMask, value);
+        }
+      }
+    } catch (RuntimeException | Error e) {
+      newTable.close();
+      throw e;
+    }
+
+    table.close();
+    table = newTable;
+    mask = newMask;
+  }
+
+  private static boolean insert(
+      final ODirectLongArray table, final long mask, final long packedRid) {
+    long index = ORidPacking.hash(packedRid) & mask;
+    while (true) {
+      final long value = table.get(index);
+      if (value == EMPTY) {
+        table.set(index, packedRid);
+        return true;
+      }
+      if (value == packedRid) {
+        return false;
+      }
+
+      index = (index + 1) & mask;
+    }
+  }
+}
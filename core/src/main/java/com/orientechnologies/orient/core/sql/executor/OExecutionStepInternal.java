@@ -31,6 +31,34 @@ public interface OExecutionStepInternal extends OExecutionStep {
 
   OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException;
 
+  /**
+   * Batch-at-a-time variant of {@link #syncPull(OCommandContext, int)}: returns a list of at most
+   * batchSize records, that can be shorter than batchSize ONLY if current step cannot produce any
+   * more records. An empty list means that the step is exhausted. The returned list belongs to the
+   * caller, that can modify it in place.
+   *
+   * <p>Steps that elaborate records independently of each other (eg. filters and projections)
+   * should override this method and process the whole batch in a single loop, without wrapping the
+   * upstream result set record by record. The default implementation drains the results of
+   * <code>syncPull()</code> until the batch is full or <code>syncPull()</code> returns no records,
+   * so it keeps the contract also for steps that return less records than requested before they
+   * are exhausted
+   */
+  default List<OResult> syncPullBatch(OCommandContext ctx, int batchSize)
+      throws OTimeoutException {
+    List<OResult> result = new ArrayList<>();
+    while (result.size() < batchSize) {
+      OResultSet rs = syncPull(ctx, batchSize - result.size());
+      if (!rs.hasNext()) {
+        break;
+      }
+      while (rs.hasNext()) {
+        result.add(rs.next());
+      }
+    }
+    return result;
+  }
+
   void sendTimeout();
 
   void setPrevious(OExecutionStepInternal step);
@@ -4,12 +4,15 @@ import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.command.OBasicCommandContext;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
 import com.orientechnologies.orient.core.sql.parser.OAndBlock;
 import com.orientechnologies.orient.core.sql.parser.OCluster;
 import com.orientechnologies.orient.core.sql.parser.OExpression;
+import com.orientechnologies.orient.core.sql.parser.OFieldMatchPathItem;
 import com.orientechnologies.orient.core.sql.parser.OFromClause;
 import com.orientechnologies.orient.core.sql.parser.OFromItem;
 import com.orientechnologies.orient.core.sql.parser.OGroupBy;
@@ -19,6 +22,7 @@ import com.orientechnologies.orient.core.sql.parser.OMatchExpression;
 import com.orientechnologies.orient.core.sql.parser.OMatchFilter;
 import com.orientechnologies.orient.core.sql.parser.OMatchPathItem;
 import com.orientechnologies.orient.core.sql.parser.OMatchStatement;
+import com.orientechnologies.orient.core.sql.parser.OMethodCall;
 import com.orientechnologies.orient.core.sql.parser.OMultiMatchPathItem;
 import com.orientechnologies.orient.core.sql.parser.ONestedProjection;
 import com.orientechnologies.orient.core.sql.parser.OOrderBy;
@@ -34,9 +38,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -294,19 +300,21 @@ public class OMatchExecutionPlanner {
       Set<String> prefetchedAliases,
       boolean profilingEnabled) {
     OSelectExecutionPlan plan = new OSelectExecutionPlan(context);
-    List<EdgeTraversal> sortedEdges = getTopologicalSortedSchedule(estimatedRootEntries, pattern);
+    List<EdgeTraversal> sortedEdges =
+        getTopologicalSortedSchedule(estimatedRootEntries, pattern, context);
 
     boolean first = true;
     if (sortedEdges.size() > 0) {
+      Set<EdgeTraversal> closingEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+      Map<EdgeTraversal, List<EdgeTraversal>> intersections =
+          getCycleIntersections(sortedEdges, closingEdges);
       for (EdgeTraversal edge : sortedEdges) {
-        if (edge.edge.out.alias != null) {
-          edge.setLeftClass(aliasClasses.get(edge.edge.out.alias));
-          edge.setLeftCluster(aliasClusters.get(edge.edge.out.alias));
-          edge.setLeftRid(aliasRids.get(edge.edge.out.alias));
-          edge.setLeftClass(aliasClasses.get(edge.edge.out.alias));
-          edge.setLeftFilter(aliasFilters.get(edge.edge.out.alias));
+        if (closingEdges.contains(edge)) {
+          // already matched together with the edge that matches the last node of the cycle
+          continue;
         }
-        addStepsFor(plan, edge, context, first, profilingEnabled);
+        setLeftInfo(edge);
+        addStepsFor(plan, edge, intersections.get(edge), context, first, profilingEnabled);
         first = false;
       }
     } else {
@@ -332,19 +340,102 @@ public class OMatchExecutionPlanner {
     return plan;
   }
 
+  private void setLeftInfo(EdgeTraversal edge) {
+    if (edge.edge.out.alias != null) {
+      edge.setLeftClass(aliasClasses.get(edge.edge.out.alias));
+      edge.setLeftCluster(aliasClusters.get(edge.edge.out.alias));
+      edge.setLeftRid(aliasRids.get(edge.edge.out.alias));
+      edge.setLeftFilter(aliasFilters.get(edge.edge.out.alias));
+    }
+  }
+
+  /**
+   * Finds the edges that close a cycle of the pattern, ie. the edges whose ends are both already
+   * matched when the edge is traversed. Instead of checking them after all the partial matches of
+   * the cycle are materialized, each of them is evaluated together with the edge that matches the
+   * last node of the cycle, intersecting the nodes reachable through all of them (generic join).
+   *
+   * @param schedule the edges in the order they will be matched
+   * @param closingEdges the edges of the schedule that close a cycle (mutated in this function)
+   * @return for each edge that matches the last node of one or more cycles, the closing edges
+   *     oriented towards that node
+   */
+  private Map<EdgeTraversal, List<EdgeTraversal>> getCycleIntersections(
+      List<EdgeTraversal> schedule, Set<EdgeTraversal> closingEdges) {
+    Map<EdgeTraversal, List<EdgeTraversal>> result = new IdentityHashMap<>();
+    // matched aliases, in the order they are matched
+    Map<String, Integer> matchOrder = new HashMap<>();
+    // the edge that matched each alias, if it can be intersected
+    Map<String, EdgeTraversal> matchedBy = new HashMap<>();
+
+    for (EdgeTraversal edge : schedule) {
+      String from = edge.out ? edge.edge.out.alias : edge.edge.in.alias;
+      String to = edge.out ? edge.edge.in.alias : edge.edge.out.alias;
+      if (!matchOrder.containsKey(from)) {
+        matchOrder.put(from, matchOrder.size());
+      }
+      if (!matchOrder.containsKey(to)) {
+        matchOrder.put(to, matchOrder.size());
+        if (isIntersectable(edge)) {
+          matchedBy.put(to, edge);
+        }
+        continue;
+      }
+      if (from.equals(to) || !isIntersectable(edge)) {
+        continue;
+      }
+
+      String last = matchOrder.get(from) > matchOrder.get(to) ? from : to;
+      EdgeTraversal lastMatchedBy = matchedBy.get(last);
+      if (lastMatchedBy == null) {
+        continue;
+      }
+      EdgeTraversal closingEdge = new EdgeTraversal(edge.edge, last.equals(edge.edge.in.alias));
+      setLeftInfo(closingEdge);
+      result.computeIfAbsent(lastMatchedBy, k -> new ArrayList<>()).add(closingEdge);
+      closingEdges.add(edge);
+    }
+    return result;
+  }
+
+  private boolean isIntersectable(EdgeTraversal edge) {
+    OMatchPathItem item = edge.edge.item;
+    if (item instanceof OMultiMatchPathItem || item instanceof OFieldMatchPathItem) {
+      return false;
+    }
+    if (edge.edge.out.isOptionalNode() || edge.edge.in.isOptionalNode()) {
+      return false;
+    }
+    // THE CLOSING EDGES ARE TRAVERSED BEFORE THE LAST NODE OF THE CYCLE IS MATCHED, SO $matched
+    // WOULD NOT CONTAIN IT
+    if (item.getFilter() != null
+        && item.getFilter().toString().toLowerCase(Locale.ENGLISH).contains("$matched")) {
+      return false;
+    }
+    if (dependsOnExecutionContext(edge.edge.out.alias)
+        || dependsOnExecutionContext(edge.edge.in.alias)) {
+      return false;
+    }
+    return item.getFilter() == null
+        || (item.getFilter().getWhileCondition() == null && item.getFilter().getMaxDepth() == null);
+  }
+
   /** sort edges in the order they will be matched */
   private List<EdgeTraversal> getTopologicalSortedSchedule(
-      Map<String, Long> estimatedRootEntries, Pattern pattern) {
+      Map<String, Long> estimatedRootEntries, Pattern pattern, OCommandContext ctx) {
     List<EdgeTraversal> resultingSchedule = new ArrayList<>();
     Map<String, Set<String>> remainingDependencies = getDependencies(pattern);
     Set<PatternNode> visitedNodes = new HashSet<>();
     Set<PatternEdge> visitedEdges = new HashSet<>();
 
     // Sort the possible root vertices in order of estimated size, since we want to start with a
-    // small vertex set.
+    // small vertex set. The size is multiplied by the degree of the vertices, if it is known, to
+    // avoid starting from a few vertices with many edges.
     List<OPair<Long, String>> rootWeights = new ArrayList<>();
     for (Map.Entry<String, Long> root : estimatedRootEntries.entrySet()) {
-      rootWeights.add(new OPair<>(root.getValue(), root.getKey()));
+      rootWeights.add(
+          new OPair<>(
+              estimateRootCost(root.getKey(), root.getValue(), pattern, ctx), root.getKey()));
     }
     Collections.sort(rootWeights);
 
@@ -396,7 +487,12 @@ public class OMatchExecutionPlanner {
       // 2. Having found a starting vertex, traverse its neighbors depth-first,
       //    adding any non-visited ones with satisfied dependencies to our schedule.
       updateScheduleStartingAt(
-          startingNode, visitedNodes, visitedEdges, remainingDependencies, resultingSchedule);
+          startingNode,
+          visitedNodes,
+          visitedEdges,
+          remainingDependencies,
+          resultingSchedule,
+          ctx);
     }
 
     if (resultingSchedule.size() != pattern.numOfEdges) {
@@ -419,13 +515,15 @@ public class OMatchExecutionPlanner {
    *     been satisfied (mutated in this function)
    * @param resultingSchedule the schedule being computed i.e. appended to (mutated in this
    *     function)
+   * @param ctx the command context, used to read the degree statistics
    */
   private void updateScheduleStartingAt(
       PatternNode startNode,
       Set<PatternNode> visitedNodes,
       Set<PatternEdge> visitedEdges,
       Map<String, Set<String>> remainingDependencies,
-      List<EdgeTraversal> resultingSchedule) {
+      List<EdgeTraversal> resultingSchedule,
+      OCommandContext ctx) {
     // OrientDB requires the schedule to contain all edges present in the query, which is a stronger
     // condition
     // than simply visiting all nodes in the query. Consider the following example query:
@@ -465,6 +563,8 @@ public class OMatchExecutionPlanner {
         edges.put(inEdge, false);
       }
     }
+    // expand first the edges that reach less vertices, to keep the partial matches few
+    edges = sortByFanOut(startNode, edges, ctx);
 
     for (Map.Entry<PatternEdge, Boolean> edgeData : edges.entrySet()) {
       PatternEdge edge = edgeData.getKey();
@@ -525,11 +625,166 @@ public class OMatchExecutionPlanner {
         visitedEdges.add(edge);
         resultingSchedule.add(new EdgeTraversal(edge, isOutbound));
         updateScheduleStartingAt(
-            neighboringNode, visitedNodes, visitedEdges, remainingDependencies, resultingSchedule);
+            neighboringNode,
+            visitedNodes,
+            visitedEdges,
+            remainingDependencies,
+            resultingSchedule,
+            ctx);
       }
     }
   }
 
+  private Map<PatternEdge, Boolean> sortByFanOut(
+      PatternNode node, Map<PatternEdge, Boolean> edges, OCommandContext ctx) {
+    if (edges.size() < 2) {
+      return edges;
+    }
+    Map<PatternEdge, Double> fanOuts = new HashMap<>();
+    for (Map.Entry<PatternEdge, Boolean> edge : edges.entrySet()) {
+      double fanOut = estimateFanOut(node, edge.getKey(), edge.getValue(), ctx);
+      if (fanOut < 0) {
+        // without statistics for all the edges keep the order of the query
+        return edges;
+      }
+      fanOuts.put(edge.getKey(), fanOut);
+    }
+    List<Map.Entry<PatternEdge, Boolean>> sorted = new ArrayList<>(edges.entrySet());
+    sorted.sort((a, b) -> Double.compare(fanOuts.get(a.getKey()), fanOuts.get(b.getKey())));
+    Map<PatternEdge, Boolean> result = new LinkedHashMap<>();
+    for (Map.Entry<PatternEdge, Boolean> edge : sorted) {
+      result.put(edge.getKey(), edge.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * Estimates the cost of starting the pattern from an alias, as the number of root entries
+   * multiplied by the degree of the cheapest edge of the alias. An alias bound to a supernode gets
+   * the degree of the supernode, so it is not chosen as a starting point when a cheaper one exists.
+   */
+  private long estimateRootCost(String alias, long entries, Pattern pattern, OCommandContext ctx) {
+    PatternNode node = pattern.aliasToNode.get(alias);
+    if (node == null || entries <= 0) {
+      return entries;
+    }
+    double fanOut = -1;
+    for (PatternEdge edge : node.out) {
+      fanOut = minFanOut(fanOut, estimateFanOut(node, edge, true, ctx));
+    }
+    for (PatternEdge edge : node.in) {
+      if (edge.item.isBidirectional()) {
+        fanOut = minFanOut(fanOut, estimateFanOut(node, edge, false, ctx));
+      }
+    }
+    if (fanOut < 0) {
+      return entries;
+    }
+    return (long) Math.min(Long.MAX_VALUE, Math.max(1, Math.ceil(entries * fanOut)));
+  }
+
+  private static double minFanOut(double current, double fanOut) {
+    if (fanOut < 0) {
+      return current;
+    }
+    return current < 0 ? fanOut : Math.min(current, fanOut);
+  }
+
+  /**
+   * Estimates the number of vertices or edges reached from each vertex of the node by the edge,
+   * using the degree statistics.
+   *
+   * @return the estimated number, or -1 if it cannot be estimated
+   */
+  private double estimateFanOut(
+      PatternNode node, PatternEdge edge, boolean outbound, OCommandContext ctx) {
+    OMethodCall method = edge.item.getMethod();
+    OMatchFilter filter = edge.item.getFilter();
+    if (method == null
+        || (filter != null
+            && (filter.getWhileCondition() != null || filter.getMaxDepth() != null))) {
+      return -1;
+    }
+    ODirection direction;
+    switch (method.getMethodName().getStringValue().toLowerCase(Locale.ENGLISH)) {
+      case "out":
+      case "oute":
+        direction = outbound ? ODirection.OUT : ODirection.IN;
+        break;
+      case "in":
+      case "ine":
+        direction = outbound ? ODirection.IN : ODirection.OUT;
+        break;
+      case "both":
+      case "bothe":
+        direction = ODirection.BOTH;
+        break;
+      case "outv":
+      case "inv":
+        return 1;
+      case "bothv":
+        return 2;
+      default:
+        return -1;
+    }
+
+    ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) ctx.getDatabase();
+    OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    String vertexClassName = aliasClasses.get(node.alias);
+    OClass vertexClass =
+        schema.getClass(vertexClassName == null ? OClass.VERTEX_CLASS_NAME : vertexClassName);
+    if (vertexClass == null) {
+      return -1;
+    }
+    Set<String> edgeClasses = new HashSet<>();
+    if (method.getParams().isEmpty()) {
+      edgeClasses.addAll(getClassNames(schema.getClass(OClass.EDGE_CLASS_NAME)));
+    }
+    for (OExpression param : method.getParams()) {
+      if (!param.isEarlyCalculated(ctx)) {
+        return -1;
+      }
+      Object edgeClassName = param.execute((OResult) null, ctx);
+      OClass edgeClass =
+          edgeClassName instanceof String ? schema.getClass((String) edgeClassName) : null;
+      if (edgeClass == null) {
+        return -1;
+      }
+      edgeClasses.addAll(getClassNames(edgeClass));
+    }
+
+    ODegreeStatistics statistics = ODegreeStatistics.get(db);
+    Set<String> vertexClasses = getClassNames(vertexClass);
+    ORid rid = aliasRids.get(node.alias);
+    if (rid != null) {
+      int degree =
+          statistics.getSupernodeDegree(
+              vertexClasses, edgeClasses, direction, rid.toRecordId((OResult) null, ctx));
+      if (degree >= 0) {
+        return degree;
+      }
+    }
+    long edges = statistics.getEdgeCount(vertexClasses, edgeClasses, direction);
+    if (edges < 0) {
+      return -1;
+    }
+    long vertices =
+        Math.max(
+            vertexClass.count(), statistics.getVertexCount(vertexClasses, edgeClasses, direction));
+    return vertices == 0 ? 0 : (double) edges / vertices;
+  }
+
+  private static Set<String> getClassNames(OClass clazz) {
+    Set<String> result = new HashSet<>();
+    if (clazz != null) {
+      result.add(clazz.getName());
+      for (OClass subclass : clazz.getAllSubclasses()) {
+        result.add(subclass.getName());
+      }
+    }
+    return result;
+  }
+
   private boolean isOptionalChain(
       PatternNode startNode, PatternEdge edge, PatternNode neighboringNode) {
     return isOptionalChain(startNode, edge, neighboringNode, new HashSet<>());
@@ -595,6 +850,7 @@ public class OMatchExecutionPlanner {
   private void addStepsFor(
       OSelectExecutionPlan plan,
       EdgeTraversal edge,
+      List<EdgeTraversal> closingEdges,
       OCommandContext context,
       boolean first,
       boolean profilingEnabled) {
@@ -627,6 +883,8 @@ public class OMatchExecutionPlanner {
     if (edge.edge.in.isOptionalNode()) {
       foundOptional = true;
       plan.chain(new OptionalMatchStep(context, edge, profilingEnabled));
+    } else if (closingEdges != null) {
+      plan.chain(new MatchIntersectStep(context, edge, closingEdges, profilingEnabled));
     } else {
       plan.chain(new MatchStep(context, edge, profilingEnabled));
     }
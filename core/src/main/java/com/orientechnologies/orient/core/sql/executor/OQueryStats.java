@@ -1,8 +1,11 @@
 package com.orientechnologies.orient.core.sql.executor;
 
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.record.ODirection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -17,10 +20,19 @@ public class OQueryStats {
 
   public Map<String, Long> stats = new ConcurrentHashMap<>();
 
+  private final ODegreeStatistics degreeStatistics =
+      new ODegreeStatistics(
+          OGlobalConfiguration.QUERY_GRAPH_SUPERNODE_THRESHOLD.getValueAsInteger());
+
   public static OQueryStats get(ODatabaseDocumentInternal db) {
     return db.getSharedContext().getQueryStats();
   }
 
+  /** @return degree distributions of the vertices, maintained on commit */
+  public ODegreeStatistics getDegreeStatistics() {
+    return degreeStatistics;
+  }
+
   public long getIndexStats(
       String indexName, int params, boolean range, boolean additionalRange, ODatabase database) {
     String key =
@@ -62,7 +74,7 @@ public class OQueryStats {
     if (val != null) {
       return val;
     }
-    return -1;
+    return getAverageDegree(vertexClass, edgeClass, ODirection.OUT);
   }
 
   public long getAverageInEdgeSpan(String vertexClass, String edgeClass) {
@@ -71,7 +83,7 @@ public class OQueryStats {
     if (val != null) {
       return val;
     }
-    return -1;
+    return getAverageDegree(vertexClass, edgeClass, ODirection.IN);
   }
 
   public long getAverageBothEdgeSpan(String vertexClass, String edgeClass) {
@@ -80,7 +92,7 @@ public class OQueryStats {
     if (val != null) {
       return val;
     }
-    return -1;
+    return getAverageDegree(vertexClass, edgeClass, ODirection.BOTH);
   }
 
   public void pushAverageOutEdgeSpan(String vertexClass, String edgeClass, Long value) {
@@ -98,6 +110,13 @@ public class OQueryStats {
     pushValue(key, value);
   }
 
+  private long getAverageDegree(String vertexClass, String edgeClass, ODirection direction) {
+    double average =
+        degreeStatistics.getAverageDegree(
+            Collections.singleton(vertexClass), Collections.singleton(edgeClass), direction);
+    return average < 0 ? -1 : Math.round(average);
+  }
+
   private void pushValue(String key, Long value) {
     if (value == null) {
       return;
@@ -0,0 +1,102 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyMultiValue;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.record.ORecord;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Prefetches the records of the next frontier of a traversal, so they are read from the storage in
+ * batches, in order of their position, instead of one by one when they are visited. Records are
+ * prefetched in chunks of {@value #CHUNK_SIZE} while the frontier is iterated, so a supernode is
+ * never read all at once and a traversal that stops early reads only what it visits.
+ */
+final class ORecordPrefetcher {
+  private static final int CHUNK_SIZE = 64;
+
+  private ORecordPrefetcher() {}
+
+  /**
+   * Returns a view of the value that prefetches the records linked by it while it is iterated, if
+   * it is a collection of links, otherwise the value itself. Iterable values that are not
+   * collections (e.g. results of <code>out()</code>) are returned as they are, to not be consumed
+   * twice.
+   */
+  static Object prefetching(final Object value, final OCommandContext ctx) {
+    if (!(ctx.getDatabase() instanceof ODatabaseInternal)) {
+      return value;
+    }
+    final ODatabaseInternal<?> db = (ODatabaseInternal<?>) ctx.getDatabase();
+    if (value instanceof ORidBag) {
+      final ORidBag bag = (ORidBag) value;
+      return (Iterable<Object>)
+          () -> new PrefetchingIterator(bag.iterator(), bag.rawIterator(), db);
+    } else if (value instanceof ORecordLazyMultiValue && value instanceof Iterable) {
+      final Iterable<?> iterable = (Iterable<?>) value;
+      final ORecordLazyMultiValue links = (ORecordLazyMultiValue) value;
+      return (Iterable<Object>)
+          () -> new PrefetchingIterator(iterable.iterator(), links.rawIterator(), db);
+    } else if (value instanceof Collection) {
+      final Collection<?> collection = (Collection<?>) value;
+      return (Iterable<Object>)
+          () -> new PrefetchingIterator(collection.iterator(), collection.iterator(), db);
+    }
+    return value;
+  }
+
+  /**
+   * Iterates over the items and, every {@value #CHUNK_SIZE} items, prefetches the next chunk read
+   * from a second iterator over the same links that does not load the records.
+   */
+  private static final class PrefetchingIterator implements Iterator<Object> {
+    private final Iterator<?> iterator;
+    private final Iterator<?> links;
+    private final ODatabaseInternal<?> db;
+    private int prefetched;
+
+    private PrefetchingIterator(
+        final Iterator<?> iterator, final Iterator<?> links, final ODatabaseInternal<?> db) {
+      this.iterator = iterator;
+      this.links = links;
+      this.db = db;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public Object next() {
+      if (prefetched == 0) {
+        prefetchNextChunk();
+      } else {
+        prefetched--;
+      }
+      return iterator.next();
+    }
+
+    private void prefetchNextChunk() {
+      final List<OIdentifiable> chunk = new ArrayList<>(CHUNK_SIZE);
+      int read = 0;
+      while (read < CHUNK_SIZE && links.hasNext()) {
+        final Object item = links.next();
+        read++;
+        if (item instanceof OIdentifiable && !(item instanceof ORecord)) {
+          chunk.add((OIdentifiable) item);
+        }
+      }
+      // THE ITEM RETURNED NOW IS THE FIRST OF THE CHUNK
+      prefetched = Math.max(0, read - 1);
+      if (chunk.size() > 1) {
+        db.prefetchRecords(chunk);
+      }
+    }
+  }
+}
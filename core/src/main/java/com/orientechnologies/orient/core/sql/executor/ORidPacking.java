@@ -0,0 +1,62 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+/**
+ * Packs RIDs of persistent records into single long value: 16 high bits contain cluster id and 48
+ * low bits contain cluster position. Packed values are always non negative, so negative values may
+ * be used as markers by the collections which store them.
+ */
+final class ORidPacking {
+  static final long NOT_PACKED = -1;
+
+  private static final int POSITION_BITS = 48;
+  private static final long MAX_POSITION = (1L << POSITION_BITS) - 1;
+
+  private ORidPacking() {}
+
+  /**
+   * @return packed RID or {@link #NOT_PACKED} if RID is <code>null</code>, is not persistent or can
+   *     not be packed.
+   */
+  static long pack(final ORID rid) {
+    if (rid == null) {
+      return NOT_PACKED;
+    }
+
+    final int clusterId = rid.getClusterId();
+    final long clusterPosition = rid.getClusterPosition();
+    if (clusterId < 0
+        || clusterId > ORID.CLUSTER_MAX
+        || clusterPosition < 0
+        || clusterPosition > MAX_POSITION) {
+      return NOT_PACKED;
+    }
+
+    return ((long) clusterId << POSITION_BITS) | clusterPosition;
+  }
+
+  static ORID unpack(final long packedRid) {
+    return new ORecordId((int) (packedRid >>> POSITION_BITS), packedRid & MAX_POSITION);
+  }
+
+  /**
+   * Copies RID which is kept on heap, because identity of the record may be changed when
+   * transaction is committed.
+   */
+  static ORID copy(final ORID rid) {
+    return rid == null ? null : rid.copy();
+  }
+
+  /** Mixes bits of packed RID, so sequential positions are spread through the hash table. */
+  static long hash(final long packedRid) {
+    long h = packedRid;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -25,6 +25,7 @@ import com.orientechnologies.orient.core.metadata.schema.OView;
 import com.orientechnologies.orient.core.metadata.security.OSecurityInternal;
 import com.orientechnologies.orient.core.sql.OCommandExecutorSQLAbstract;
 import com.orientechnologies.orient.core.sql.parser.*;
+import com.orientechnologies.orient.core.storage.OStorage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -153,7 +154,8 @@ public class OSelectExecutionPlanner {
       QueryPlanningInfo info,
       OCommandContext ctx,
       boolean enableProfiling) {
-    if (info.lockRecord != null) {
+    if (info.lockRecord == OStorage.LOCKING_STRATEGY.EXCLUSIVE_LOCK
+        || info.lockRecord == OStorage.LOCKING_STRATEGY.SHARED_LOCK) {
       result.chain(new LockRecordStep(info.lockRecord, ctx, enableProfiling));
     }
   }
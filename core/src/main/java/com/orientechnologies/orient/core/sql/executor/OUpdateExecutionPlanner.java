@@ -74,11 +74,11 @@ public class OUpdateExecutionPlanner {
     }
     handleUpsert(result, ctx, this.target, this.whereClause, this.upsert, enableProfiling);
     handleTimeout(result, ctx, this.timeout, enableProfiling);
+    handleLock(result, ctx, this.lockRecord, enableProfiling);
     convertToModifiableResult(result, ctx, enableProfiling);
     handleLimit(result, ctx, this.limit, enableProfiling);
     handleReturnBefore(result, ctx, this.returnBefore, enableProfiling);
     handleOperations(result, ctx, this.operations, enableProfiling);
-    handleLock(result, ctx, this.lockRecord);
     handleSave(result, ctx, enableProfiling);
     handleResultForReturnBefore(result, ctx, this.returnBefore, returnProjection, enableProfiling);
     handleResultForReturnAfter(result, ctx, this.returnAfter, returnProjection, enableProfiling);
@@ -163,7 +163,15 @@ public class OUpdateExecutionPlanner {
   }
 
   private void handleLock(
-      OUpdateExecutionPlan result, OCommandContext ctx, OStorage.LOCKING_STRATEGY lockRecord) {}
+      OUpdateExecutionPlan result,
+      OCommandContext ctx,
+      OStorage.LOCKING_STRATEGY lockRecord,
+      boolean profilingEnabled) {
+    if (lockRecord == OStorage.LOCKING_STRATEGY.EXCLUSIVE_LOCK
+        || lockRecord == OStorage.LOCKING_STRATEGY.SHARED_LOCK) {
+      result.chain(new LockRecordStep(lockRecord, ctx, profilingEnabled));
+    }
+  }
 
   private void handleLimit(
       OUpdateExecutionPlan plan, OCommandContext ctx, OLimit limit, boolean profilingEnabled) {
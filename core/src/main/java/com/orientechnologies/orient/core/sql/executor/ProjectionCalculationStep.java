@@ -3,8 +3,7 @@ package com.orientechnologies.orient.core.sql.executor;
 import com.orientechnologies.common.concur.OTimeoutException;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.sql.parser.OProjection;
-import java.util.Map;
-import java.util.Optional;
+import java.util.List;
 
 /** Created by luigidellaquila on 12/07/16. */
 public class ProjectionCalculationStep extends AbstractExecutionStep {
@@ -20,42 +19,32 @@ public class ProjectionCalculationStep extends AbstractExecutionStep {
 
   @Override
   public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+    OInternalResultSet result = new OInternalResultSet();
+    for (OResult item : syncPullBatch(ctx, nRecords)) {
+      result.add(item);
+    }
+    return result;
+  }
+
+  @Override
+  public List<OResult> syncPullBatch(OCommandContext ctx, int batchSize)
+      throws OTimeoutException {
     if (!prev.isPresent()) {
       throw new IllegalStateException("Cannot calculate projections without a previous source");
     }
 
-    OResultSet parentRs = prev.get().syncPull(ctx, nRecords);
-    return new OResultSet() {
-      @Override
-      public boolean hasNext() {
-        return parentRs.hasNext();
-      }
-
-      @Override
-      public OResult next() {
-        OResult item = parentRs.next();
-        Object oldCurrent = ctx.getVariable("$current");
+    List<OResult> batch = prev.get().syncPullBatch(ctx, batchSize);
+    Object oldCurrent = ctx.getVariable("$current");
+    try {
+      for (int i = 0; i < batch.size(); i++) {
+        OResult item = batch.get(i);
         ctx.setVariable("$current", item);
-        OResult result = calculateProjections(ctx, item);
-        ctx.setVariable("$current", oldCurrent);
-        return result;
+        batch.set(i, calculateProjections(ctx, item));
       }
-
-      @Override
-      public void close() {
-        parentRs.close();
-      }
-
-      @Override
-      public Optional<OExecutionPlan> getExecutionPlan() {
-        return Optional.empty();
-      }
-
-      @Override
-      public Map<String, Long> getQueryStats() {
-        return null;
-      }
-    };
+    } finally {
+      ctx.setVariable("$current", oldCurrent);
+    }
+    return batch;
   }
 
   private OResult calculateProjections(OCommandContext ctx, OResult next) {
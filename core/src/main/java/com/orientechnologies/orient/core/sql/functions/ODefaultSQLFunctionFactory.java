@@ -34,13 +34,17 @@ import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionAstar;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionBoth;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionBothE;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionBothV;
+import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionConnectedComponents;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionDijkstra;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionIn;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionInE;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionInV;
+import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionKCore;
+import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionLabelPropagation;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOut;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOutE;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionOutV;
+import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionPageRank;
 import com.orientechnologies.orient.core.sql.functions.graph.OSQLFunctionShortestPath;
 import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionAbsoluteValue;
 import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionAverage;
@@ -135,5 +139,9 @@ public final class ODefaultSQLFunctionFactory extends OSQLFunctionFactoryTemplat
     register(OSQLFunctionShortestPath.NAME, OSQLFunctionShortestPath.class);
     register(OSQLFunctionDijkstra.NAME, OSQLFunctionDijkstra.class);
     register(OSQLFunctionAstar.NAME, OSQLFunctionAstar.class);
+    register(OSQLFunctionPageRank.NAME, OSQLFunctionPageRank.class);
+    register(OSQLFunctionConnectedComponents.NAME, OSQLFunctionConnectedComponents.class);
+    register(OSQLFunctionLabelPropagation.NAME, OSQLFunctionLabelPropagation.class);
+    register(OSQLFunctionKCore.NAME, OSQLFunctionKCore.class);
   }
 }
@@ -0,0 +1,127 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.thread.OThreadPoolExecutors;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs loops over the vertices of {@link OGraphProjection} by several threads, the range of
+ * vertices is split in chunks that are processed by the threads of the pool. Pool is created with
+ * the loop and released by {@link #close()}.
+ */
+final class OGraphParallelLoop implements AutoCloseable {
+  private static final int MIN_CHUNK_SIZE = 1024;
+
+  /** Body of the loop, processes vertices from <code>from</code> inclusive to <code>to</code>. */
+  interface RangeTask {
+    void run(int from, int to);
+  }
+
+  private final int parallelism;
+  private final ExecutorService executor;
+
+  OGraphParallelLoop(final int parallelism) {
+    this.parallelism = parallelism;
+    this.executor =
+        parallelism > 1
+            ? OThreadPoolExecutors.newFixedThreadPool("OGraphParallelLoop", parallelism)
+            : null;
+  }
+
+  int getParallelism() {
+    return parallelism;
+  }
+
+  void run(final int count, final RangeTask task) {
+    if (count <= 0) {
+      return;
+    }
+
+    // MORE CHUNKS THAN THREADS BALANCE THE VERTICES WITH HIGH DEGREE
+    final int chunkSize = Math.max(MIN_CHUNK_SIZE, count / (parallelism * 4));
+    if (executor == null || chunkSize >= count) {
+      task.run(0, count);
+      return;
+    }
+
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int from = 0; from < count; from += chunkSize) {
+      final int start = from;
+      final int end = (int) Math.min((long) from + chunkSize, count);
+      futures.add(executor.submit(() -> task.run(start, end)));
+    }
+    await(futures);
+  }
+
+  /** Runs each of <code>count</code> tasks by its own thread of the pool. */
+  void runEach(final int count, final IntConsumer task) {
+    if (executor == null) {
+      for (int i = 0; i < count; i++) {
+        task.accept(i);
+      }
+      return;
+    }
+
+    final List<Future<?>> futures = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final int index = i;
+      futures.add(executor.submit(() -> task.accept(index)));
+    }
+    await(futures);
+  }
+
+  private static void await(final List<Future<?>> futures) {
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OCommandExecutionException("Graph algorithm was interrupted"), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw OException.wrapException(
+          new OCommandExecutionException("Error during execution of graph algorithm"),
+          e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.Arrays;
+
+/**
+ * Read only snapshot of a graph in compressed sparse row (CSR) format, intended for the algorithms
+ * that visit the whole graph many times.
+ *
+ * <p>Vertices are identified by int ids from <code>0</code> to <code>getVertexCount() - 1</code>,
+ * that are assigned in order of RIDs. The neighbors of the vertex <code>v</code> are <code>
+ * targets[offsets[v]]</code> .. <code>targets[offsets[v + 1] - 1]</code>, weights of the edges (if
+ * the projection is weighted) are stored at the same indexes of <code>weights</code>.
+ *
+ * <p>Arrays returned by the getters are not copied and must not be modified. Projection is not
+ * updated when the database changes.
+ *
+ * @see OGraphProjectionBuilder
+ */
+public final class OGraphProjection {
+  private static final int CLUSTER_SHIFT = 48;
+  private static final long POSITION_MASK = (1L << CLUSTER_SHIFT) - 1;
+
+  /** Packed RIDs of the vertices (cluster id &lt;&lt; 48 | cluster position), sorted. */
+  private final long[] rids;
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final double[] weights;
+
+  OGraphProjection(
+      final long[] rids, final int[] offsets, final int[] targets, final double[] weights) {
+    this.rids = rids;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+  }
+
+  public int getVertexCount() {
+    return rids.length;
+  }
+
+  public int getEdgeCount() {
+    return targets.length;
+  }
+
+  public boolean isWeighted() {
+    return weights != null;
+  }
+
+  public int getDegree(final int vertex) {
+    return offsets[vertex + 1] - offsets[vertex];
+  }
+
+  /** @return array of <code>getVertexCount() + 1</code> offsets of the neighbors of vertices */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /** @return ids of the neighbors of all the vertices */
+  public int[] getTargets() {
+    return targets;
+  }
+
+  /** @return weights of the edges or null if projection is not weighted */
+  public double[] getWeights() {
+    return weights;
+  }
+
+  public ORID getRid(final int vertex) {
+    final long rid = rids[vertex];
+    return new ORecordId((int) (rid >>> CLUSTER_SHIFT), rid & POSITION_MASK);
+  }
+
+  /** @return id of the vertex with given RID or -1 if vertex is not part of the projection */
+  public int getVertex(final ORID rid) {
+    if (!rid.isPersistent()) {
+      return -1;
+    }
+    return getVertex(pack(rid.getClusterId(), rid.getClusterPosition()));
+  }
+
+  int getVertex(final long packedRid) {
+    final int index = Arrays.binarySearch(rids, packedRid);
+    return index >= 0 ? index : -1;
+  }
+
+  /**
+   * Returns projection with reversed direction of all the edges, so neighbors of each vertex are
+   * the vertices that point to it.
+   */
+  public OGraphProjection reverse() {
+    final int vertexCount = rids.length;
+    final int[] reversedOffsets = new int[vertexCount + 1];
+    for (int target : targets) {
+      reversedOffsets[target + 1]++;
+    }
+    for (int v = 0; v < vertexCount; v++) {
+      reversedOffsets[v + 1] += reversedOffsets[v];
+    }
+
+    final int[] positions = Arrays.copyOf(reversedOffsets, vertexCount);
+    final int[] reversedTargets = new int[targets.length];
+    final double[] reversedWeights = weights == null ? null : new double[weights.length];
+    for (int v = 0; v < vertexCount; v++) {
+      for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+        final int position = positions[targets[i]]++;
+        reversedTargets[position] = v;
+        if (reversedWeights != null) {
+          reversedWeights[position] = weights[i];
+        }
+      }
+    }
+
+    return new OGraphProjection(rids, reversedOffsets, reversedTargets, reversedWeights);
+  }
+
+  static long pack(final int clusterId, final long clusterPosition) {
+    return ((long) clusterId << CLUSTER_SHIFT) | clusterPosition;
+  }
+}
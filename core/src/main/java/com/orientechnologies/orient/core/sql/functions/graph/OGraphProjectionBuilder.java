@@ -0,0 +1,536 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.thread.OThreadPoolExecutors;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.OVertexAdjacencyIndex;
+import com.orientechnologies.orient.core.record.impl.OVertexDelegate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Builds {@link OGraphProjection} of the selected vertex and edge classes. Clusters of the vertex
+ * classes are scanned in parallel, each thread uses its own copy of the database session. The
+ * connection fields of the vertices are read directly, so the vertices on the other side of the
+ * edges are never loaded, edge records are loaded only for the regular edges when the database does
+ * not have the adjacency index ({@link OVertexAdjacencyIndex}) or when the weights are requested.
+ *
+ * <p>Typical usage: <code>
+ *   OGraphProjection projection = new OGraphProjectionBuilder(db)
+ *       .vertexClasses("Person")
+ *       .edgeClasses("Knows")
+ *       .direction(ODirection.OUT)
+ *       .build();
+ * </code>
+ *
+ * <p>Edges that point to vertices which are not part of the projection are ignored.
+ */
+public final class OGraphProjectionBuilder {
+  /** Weight of the lightweight edges and of the edges that do not have the weight property. */
+  public static final double DEFAULT_WEIGHT = 1.0;
+
+  private static final String CONNECTION_OUT_PREFIX = "out_";
+  private static final String CONNECTION_IN_PREFIX = "in_";
+
+  private final ODatabaseDocumentInternal db;
+
+  private final Set<String> vertexClasses = new LinkedHashSet<>();
+  private final Set<String> edgeClasses = new LinkedHashSet<>();
+  private ODirection direction = ODirection.OUT;
+  private String weightProperty;
+  private int parallelism = Runtime.getRuntime().availableProcessors();
+
+  // RESOLVED FROM THE SCHEMA WHEN THE PROJECTION IS BUILT
+  private Map<String, ODirection> connectionFields;
+  private boolean[] edgeClusters;
+
+  public OGraphProjectionBuilder(final ODatabaseDocumentInternal db) {
+    this.db = db;
+  }
+
+  /** Vertex classes (with subclasses) to include, all the vertices by default. */
+  public OGraphProjectionBuilder vertexClasses(final String... classNames) {
+    vertexClasses.addAll(Arrays.asList(classNames));
+    return this;
+  }
+
+  /** Edge classes (with subclasses) to include, all the edges by default. */
+  public OGraphProjectionBuilder edgeClasses(final String... classNames) {
+    edgeClasses.addAll(Arrays.asList(classNames));
+    return this;
+  }
+
+  /** Direction of the edges to follow, {@link ODirection#BOTH} makes the projection undirected. */
+  public OGraphProjectionBuilder direction(final ODirection direction) {
+    this.direction = direction;
+    return this;
+  }
+
+  /** Name of the edge property that contains the weight, by default projection is not weighted. */
+  public OGraphProjectionBuilder weightProperty(final String weightProperty) {
+    this.weightProperty = weightProperty;
+    return this;
+  }
+
+  /** Number of threads used to build the projection, number of processors by default. */
+  public OGraphProjectionBuilder parallelism(final int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+    }
+    this.parallelism = parallelism;
+    return this;
+  }
+
+  public OGraphProjection build() {
+    final OSchema schema = db.getMetadata().getImmutableSchemaSnapshot();
+    final int[] clusterIds = resolveVertexClusters(schema);
+    resolveEdges(schema);
+
+    final ClusterScan[] scans = new ClusterScan[clusterIds.length];
+    final int threads = Math.min(parallelism, Math.max(clusterIds.length, 1));
+    final ExecutorService executor =
+        threads > 1 ? OThreadPoolExecutors.newFixedThreadPool("OGraphProjection", threads) : null;
+    try {
+      // PHASE 1: SCAN OF THE CLUSTERS, NEIGHBORS ARE COLLECTED AS PACKED RIDS
+      if (executor == null) {
+        for (int i = 0; i < clusterIds.length; i++) {
+          scans[i] = scanCluster(db, clusterIds[i]);
+        }
+      } else {
+        scanClusters(executor, threads, clusterIds, scans);
+      }
+
+      // PHASE 2: VERTEX IDS ARE ASSIGNED IN ORDER OF RIDS
+      long vertexCount = 0;
+      for (ClusterScan scan : scans) {
+        scan.firstVertex = (int) vertexCount;
+        vertexCount += scan.vertexCount;
+        if (vertexCount >= Integer.MAX_VALUE) {
+          throw new OCommandExecutionException(
+              "Graph projection supports up to " + (Integer.MAX_VALUE - 1) + " vertices");
+        }
+      }
+
+      final long[] rids = new long[(int) vertexCount];
+      for (ClusterScan scan : scans) {
+        for (int v = 0; v < scan.vertexCount; v++) {
+          rids[scan.firstVertex + v] = OGraphProjection.pack(scan.clusterId, scan.positions[v]);
+        }
+        scan.positions = null;
+      }
+      final OGraphProjection lookup = new OGraphProjection(rids, null, null, null);
+
+      // PHASE 3: NEIGHBORS ARE RESOLVED TO VERTEX IDS
+      run(executor, scans, scan -> scan.resolve(lookup));
+
+      final int[] offsets = new int[rids.length + 1];
+      long edgeCount = 0;
+      for (ClusterScan scan : scans) {
+        for (int v = 0; v < scan.vertexCount; v++) {
+          edgeCount += scan.degrees[v];
+          if (edgeCount > Integer.MAX_VALUE) {
+            throw new OCommandExecutionException(
+                "Graph projection supports up to " + Integer.MAX_VALUE + " edges");
+          }
+          offsets[scan.firstVertex + v + 1] = (int) edgeCount;
+        }
+      }
+
+      // PHASE 4: NEIGHBORS ARE COPIED TO THEIR FINAL POSITIONS
+      final int[] targets = new int[(int) edgeCount];
+      final double[] weights = weightProperty != null ? new double[(int) edgeCount] : null;
+      run(executor, scans, scan -> scan.copyTo(offsets[scan.firstVertex], targets, weights));
+
+      return new OGraphProjection(rids, offsets, targets, weights);
+    } finally {
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+  }
+
+  private int[] resolveVertexClusters(final OSchema schema) {
+    final Set<String> classNames =
+        vertexClasses.isEmpty() ? Collections.singleton(OClass.VERTEX_CLASS_NAME) : vertexClasses;
+
+    final Set<Integer> clusters = new TreeSet<>();
+    for (String className : classNames) {
+      final OClass oClass = schema.getClass(className);
+      if (oClass == null) {
+        throw new OCommandExecutionException("Class '" + className + "' was not found");
+      }
+      if (!oClass.isVertexType()) {
+        throw new OCommandExecutionException("Class '" + className + "' is not a vertex class");
+      }
+      for (int clusterId : oClass.getPolymorphicClusterIds()) {
+        if (clusterId >= 0) {
+          clusters.add(clusterId);
+        }
+      }
+    }
+
+    final int[] result = new int[clusters.size()];
+    int i = 0;
+    for (int clusterId : clusters) {
+      result[i++] = clusterId;
+    }
+    return result;
+  }
+
+  private void resolveEdges(final OSchema schema) {
+    final OClass edgeClass = schema.getClass(OClass.EDGE_CLASS_NAME);
+    int maxCluster = -1;
+    final int[] clusters = edgeClass != null ? edgeClass.getPolymorphicClusterIds() : new int[0];
+    for (int clusterId : clusters) {
+      maxCluster = Math.max(maxCluster, clusterId);
+    }
+    edgeClusters = new boolean[maxCluster + 1];
+    for (int clusterId : clusters) {
+      if (clusterId >= 0) {
+        edgeClusters[clusterId] = true;
+      }
+    }
+
+    if (edgeClasses.isEmpty()) {
+      // ALL THE FIELDS WITH THE CONNECTION PREFIX ARE USED
+      connectionFields = null;
+      return;
+    }
+
+    connectionFields = new HashMap<>();
+    for (String className : edgeClasses) {
+      final OClass oClass = schema.getClass(className);
+      if (oClass == null) {
+        throw new OCommandExecutionException("Class '" + className + "' was not found");
+      }
+      if (!oClass.isEdgeType()) {
+        throw new OCommandExecutionException("Class '" + className + "' is not an edge class");
+      }
+
+      final List<OClass> classes = new ArrayList<>(oClass.getAllSubclasses());
+      classes.add(oClass);
+      for (OClass c : classes) {
+        if (direction != ODirection.IN) {
+          connectionFields.put(
+              OVertexDelegate.getConnectionFieldName(ODirection.OUT, c.getName(), true),
+              ODirection.OUT);
+        }
+        if (direction != ODirection.OUT) {
+          connectionFields.put(
+              OVertexDelegate.getConnectionFieldName(ODirection.IN, c.getName(), true),
+              ODirection.IN);
+        }
+      }
+    }
+  }
+
+  private void scanClusters(
+      final ExecutorService executor,
+      final int threads,
+      final int[] clusterIds,
+      final ClusterScan[] scans) {
+    final List<ODatabaseDocumentInternal> sessions = new ArrayList<>(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        sessions.add(db.copy());
+      }
+    } catch (RuntimeException e) {
+      for (ODatabaseDocumentInternal session : sessions) {
+        session.activateOnCurrentThread();
+        session.close();
+      }
+      throw e;
+    } finally {
+      db.activateOnCurrentThread();
+    }
+
+    final AtomicInteger next = new AtomicInteger();
+    final List<Future<Void>> futures = new ArrayList<>(threads);
+    for (ODatabaseDocumentInternal session : sessions) {
+      futures.add(
+          executor.submit(
+              () -> {
+                session.activateOnCurrentThread();
+                try {
+                  int i;
+                  while ((i = next.getAndIncrement()) < clusterIds.length) {
+                    scans[i] = scanCluster(session, clusterIds[i]);
+                  }
+                } finally {
+                  session.close();
+                }
+                return null;
+              }));
+    }
+    await(futures);
+  }
+
+  private void run(
+      final ExecutorService executor, final ClusterScan[] scans, final Consumer<ClusterScan> task) {
+    if (executor == null) {
+      for (ClusterScan scan : scans) {
+        task.accept(scan);
+      }
+      return;
+    }
+
+    final List<Future<Void>> futures = new ArrayList<>(scans.length);
+    for (ClusterScan scan : scans) {
+      futures.add(
+          executor.submit(
+              () -> {
+                task.accept(scan);
+                return null;
+              }));
+    }
+    await(futures);
+  }
+
+  private void await(final List<Future<Void>> futures) {
+    try {
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw OException.wrapException(
+          new OCommandExecutionException("Build of graph projection was interrupted"), e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw OException.wrapException(
+          new OCommandExecutionException("Error on build of graph projection"), e.getCause());
+    } finally {
+      for (Future<Void> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private ClusterScan scanCluster(final ODatabaseDocumentInternal session, final int clusterId) {
+    final ClusterScan scan = new ClusterScan(clusterId);
+    final ORecordIteratorCluster<ORecord> iterator =
+        new ORecordIteratorCluster<>(session, clusterId);
+    while (iterator.hasNext()) {
+      final ORecord record = iterator.next();
+      if (!(record instanceof ODocument)) {
+        continue;
+      }
+
+      final ODocument vertex = (ODocument) record;
+      scan.addVertex(vertex.getIdentity().getClusterPosition());
+      for (String field : vertex.fieldNames()) {
+        final ODirection fieldDirection = getFieldDirection(field);
+        if (fieldDirection != null) {
+          addNeighbors(session, scan, vertex, field, fieldDirection);
+        }
+      }
+    }
+    return scan;
+  }
+
+  private ODirection getFieldDirection(final String field) {
+    if (connectionFields != null) {
+      return connectionFields.get(field);
+    }
+    if (direction != ODirection.IN && field.startsWith(CONNECTION_OUT_PREFIX)) {
+      return ODirection.OUT;
+    }
+    if (direction != ODirection.OUT && field.startsWith(CONNECTION_IN_PREFIX)) {
+      return ODirection.IN;
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void addNeighbors(
+      final ODatabaseDocumentInternal session,
+      final ClusterScan scan,
+      final ODocument vertex,
+      final String field,
+      final ODirection fieldDirection) {
+    boolean indexed = false;
+    if (weightProperty == null) {
+      final Stream<ORID> adjacent = OVertexAdjacencyIndex.getAdjacent(session, vertex, field);
+      if (adjacent != null) {
+        // THE ADJACENCY INDEX ALREADY CONTAINS THE OPPOSITE VERTICES OF THE REGULAR EDGES
+        try (Stream<ORID> opposites = adjacent) {
+          opposites.forEach(opposite -> scan.addNeighbor(opposite, DEFAULT_WEIGHT));
+        }
+        indexed = true;
+      }
+    }
+
+    final Object value = vertex.rawField(field);
+    final Iterator<OIdentifiable> iterator;
+    if (value instanceof ORidBag) {
+      iterator = ((ORidBag) value).rawIterator();
+    } else if (value instanceof OIdentifiable) {
+      iterator = Collections.singleton((OIdentifiable) value).iterator();
+    } else if (value instanceof Iterable) {
+      iterator = ((Iterable<OIdentifiable>) value).iterator();
+    } else {
+      return;
+    }
+
+    final String oppositeField = fieldDirection == ODirection.OUT ? "in" : "out";
+    while (iterator.hasNext()) {
+      final OIdentifiable entry = iterator.next();
+      if (entry == null) {
+        continue;
+      }
+
+      final ORID rid = entry.getIdentity();
+      final int clusterId = rid.getClusterId();
+      if (clusterId < 0 || clusterId >= edgeClusters.length || !edgeClusters[clusterId]) {
+        // LIGHTWEIGHT EDGE
+        scan.addNeighbor(rid, DEFAULT_WEIGHT);
+        continue;
+      }
+      if (indexed) {
+        continue;
+      }
+
+      final ORecord edgeRecord = session.load(rid);
+      if (!(edgeRecord instanceof ODocument)) {
+        continue;
+      }
+      final ODocument edge = (ODocument) edgeRecord;
+      final Object opposite = edge.rawField(oppositeField);
+      if (opposite instanceof OIdentifiable) {
+        scan.addNeighbor(((OIdentifiable) opposite).getIdentity(), getWeight(edge));
+      }
+    }
+  }
+
+  private double getWeight(final ODocument edge) {
+    if (weightProperty == null) {
+      return DEFAULT_WEIGHT;
+    }
+    final Object weight = edge.field(weightProperty);
+    return weight instanceof Number ? ((Number) weight).doubleValue() : DEFAULT_WEIGHT;
+  }
+
+  /** Vertices of one cluster, with their neighbors, collected by one thread. */
+  private static final class ClusterScan {
+    private final int clusterId;
+
+    private long[] positions = new long[16];
+    private int[] degrees = new int[16];
+    private int vertexCount;
+
+    private long[] neighbors = new long[16];
+    private double[] weights = new double[16];
+    private int neighborCount;
+
+    /** Resolved ids of the neighbors, -1 for the vertices which are not part of the projection. */
+    private int[] targets;
+
+    private int firstVertex;
+
+    private ClusterScan(final int clusterId) {
+      this.clusterId = clusterId;
+    }
+
+    private void addVertex(final long position) {
+      if (vertexCount == positions.length) {
+        positions = Arrays.copyOf(positions, vertexCount << 1);
+        degrees = Arrays.copyOf(degrees, vertexCount << 1);
+      }
+      positions[vertexCount++] = position;
+    }
+
+    private void addNeighbor(final ORID rid, final double weight) {
+      if (!rid.isPersistent()) {
+        return;
+      }
+      if (neighborCount == neighbors.length) {
+        neighbors = Arrays.copyOf(neighbors, neighborCount << 1);
+        weights = Arrays.copyOf(weights, neighborCount << 1);
+      }
+      neighbors[neighborCount] =
+          OGraphProjection.pack(rid.getClusterId(), rid.getClusterPosition());
+      weights[neighborCount] = weight;
+      neighborCount++;
+      degrees[vertexCount - 1]++;
+    }
+
+    /** Replaces RIDs of the neighbors by vertex ids and degrees by number of resolved neighbors. */
+    private void resolve(final OGraphProjection lookup) {
+      targets = new int[neighborCount];
+      int index = 0;
+      for (int v = 0; v < vertexCount; v++) {
+        final int degree = degrees[v];
+        int resolved = 0;
+        for (int i = 0; i < degree; i++, index++) {
+          targets[index] = lookup.getVertex(neighbors[index]);
+          if (targets[index] >= 0) {
+            resolved++;
+          }
+        }
+        degrees[v] = resolved;
+      }
+      neighbors = null;
+    }
+
+    private void copyTo(int offset, final int[] allTargets, final double[] allWeights) {
+      for (int i = 0; i < neighborCount; i++) {
+        if (targets[i] >= 0) {
+          allTargets[offset] = targets[i];
+          if (allWeights != null) {
+            allWeights[offset] = weights[i];
+          }
+          offset++;
+        }
+      }
+
+      targets = null;
+      weights = null;
+      degrees = null;
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.ODirection;
 import com.orientechnologies.orient.core.record.OEdge;
 import com.orientechnologies.orient.core.record.OElement;
@@ -31,15 +32,17 @@ import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidLongMap;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidMap;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidPriorityQueue;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidSet;
 import com.orientechnologies.orient.core.sql.executor.OResult;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Locale;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
@@ -51,6 +54,10 @@ import java.util.Set;
  *
  * <p>If property is not defined in edge or is null, distance between vertexes are 0 .
  *
+ * <p>Vertices are expanded one at a time in the order of their scores, so the search runs in the
+ * thread of the query and the option <code>parallel</code> has no effect. The levels of {@link
+ * OSQLFunctionShortestPath} are expanded by several threads instead.
+ *
  * @author Saeed Tabrizi (saeed a_t nowcando.com)
  */
 public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
@@ -58,20 +65,6 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
 
   private String paramWeightFieldName = "weight";
   private long currentDepth = 0;
-  protected Set<OVertex> closedSet = new HashSet<OVertex>();
-  protected Map<OVertex, OVertex> cameFrom = new HashMap<OVertex, OVertex>();
-
-  protected Map<OVertex, Double> gScore = new HashMap<OVertex, Double>();
-  protected Map<OVertex, Double> fScore = new HashMap<OVertex, Double>();
-  protected PriorityQueue<OVertex> open =
-      new PriorityQueue<OVertex>(
-          1,
-          new Comparator<OVertex>() {
-
-            public int compare(OVertex nodeA, OVertex nodeB) {
-              return Double.compare(fScore.get(nodeA), fScore.get(nodeB));
-            }
-          });
 
   public OSQLFunctionAstar() {
     super(NAME, 3, 4);
@@ -145,64 +138,79 @@ public class OSQLFunctionAstar extends OSQLFunctionHeuristicPathFinderAbstract {
     OVertex start = paramSourceVertex;
     OVertex goal = paramDestinationVertex;
 
-    open.add(start);
-
-    // The cost of going from start to start is zero.
-    gScore.put(start, 0.0);
-    // For the first node, that value is completely heuristic.
-    fScore.put(start, getHeuristicCost(start, null, goal, iContext));
-
-    while (!open.isEmpty()) {
-      OVertex current = open.poll();
-
-      // we discussed about this feature in
-      // https://github.com/orientechnologies/orientdb/pull/6002#issuecomment-212492687
-      if (paramEmptyIfMaxDepth == true && currentDepth >= paramMaxDepth) {
-        route.clear(); // to ensure our result is empty
-        return getPath();
-      }
-      // if start and goal vertex is equal so return current path from  cameFrom hash map
-      if (current.getIdentity().equals(goal.getIdentity()) || currentDepth >= paramMaxDepth) {
+    // STATE OF THE SEARCH IS KEPT OUT OF HEAP AND REFERENCES VERTICES BY RID, SO VISITED RECORDS
+    // ARE NOT KEPT IN MEMORY. NODES ARE NOT REMOVED FROM THE OPEN QUEUE WHEN THEIR SCORE CHANGES,
+    // STALE ENTRIES ARE SKIPPED WHEN THEY ARE POLLED BECAUSE NODE IS ALREADY CLOSED
+    try (ODirectRidSet closedSet = new ODirectRidSet();
+        ODirectRidMap cameFrom = new ODirectRidMap();
+        ODirectRidLongMap gScore = new ODirectRidLongMap();
+        ODirectRidPriorityQueue open = new ODirectRidPriorityQueue()) {
+
+      // The cost of going from start to start is zero.
+      gScore.put(start.getIdentity(), Double.doubleToRawLongBits(0.0));
+      // For the first node, that value is completely heuristic.
+      open.add(start.getIdentity(), getHeuristicCost(start, null, goal, iContext));
+
+      while (!open.isEmpty()) {
+        final ORID currentRid = open.poll();
+        if (closedSet.contains(currentRid)) {
+          continue;
+        }
 
-        while (current != null) {
-          route.add(0, current);
-          current = cameFrom.get(current);
+        // we discussed about this feature in
+        // https://github.com/orientechnologies/orientdb/pull/6002#issuecomment-212492687
+        if (paramEmptyIfMaxDepth == true && currentDepth >= paramMaxDepth) {
+          route.clear(); // to ensure our result is empty
+          return getPath();
         }
-        return getPath();
-      }
 
-      closedSet.add(current);
-      for (OEdge neighborEdge : getNeighborEdges(current)) {
+        OVertex current = currentRid.equals(start.getIdentity()) ? start : toVertex(currentRid);
+        // if start and goal vertex is equal so return current path from  cameFrom hash map
+        if (currentRid.equals(goal.getIdentity()) || currentDepth >= paramMaxDepth) {
 
-        OVertex neighbor = getNeighbor(current, neighborEdge, graph);
-        // Ignore the neighbor which is already evaluated.
-        if (closedSet.contains(neighbor)) {
-          continue;
+          route.add(0, current);
+          ORID previous = cameFrom.get(currentRid);
+          while (previous != null) {
+            route.add(0, toVertex(previous));
+            previous = cameFrom.get(previous);
+          }
+          return getPath();
         }
-        // The distance from start to a neighbor
-        double tentativeGScore = gScore.get(current) + getDistance(neighborEdge);
-        boolean contains = open.contains(neighbor);
 
-        if (!contains || tentativeGScore < gScore.get(neighbor)) {
-          gScore.put(neighbor, tentativeGScore);
-          fScore.put(
-              neighbor, tentativeGScore + getHeuristicCost(neighbor, current, goal, iContext));
+        closedSet.add(currentRid);
+        final double currentGScore = getScore(gScore, currentRid);
+        for (OEdge neighborEdge : getNeighborEdges(current)) {
 
-          if (contains) {
-            open.remove(neighbor);
+          OVertex neighbor = getNeighbor(current, neighborEdge, graph);
+          // Ignore the neighbor which is already evaluated.
+          if (neighbor == null || closedSet.contains(neighbor.getIdentity())) {
+            continue;
+          }
+          final ORID neighborRid = neighbor.getIdentity();
+          // The distance from start to a neighbor
+          double tentativeGScore = currentGScore + getDistance(neighborEdge);
+          boolean contains = gScore.containsKey(neighborRid);
+
+          if (!contains || tentativeGScore < getScore(gScore, neighborRid)) {
+            gScore.put(neighborRid, Double.doubleToRawLongBits(tentativeGScore));
+            open.add(
+                neighborRid, tentativeGScore + getHeuristicCost(neighbor, current, goal, iContext));
+            cameFrom.put(neighborRid, currentRid);
           }
-          open.offer(neighbor);
-          cameFrom.put(neighbor, current);
         }
-      }
 
-      // Increment Depth Level
-      currentDepth++;
+        // Increment Depth Level
+        currentDepth++;
+      }
     }
 
     return getPath();
   }
 
+  private static double getScore(final ODirectRidLongMap scores, final ORID rid) {
+    return Double.longBitsToDouble(scores.get(rid, Double.doubleToRawLongBits(0.0)));
+  }
+
   private OVertex getNeighbor(OVertex current, OEdge neighborEdge, ODatabase graph) {
     if (neighborEdge.getFrom().equals(current)) {
       return toVertex(neighborEdge.getTo());
@@ -0,0 +1,133 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.record.ODirection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Weakly connected components of the graph, direction of the edges is ignored. Components are
+ * found by a lock free union-find, edges are processed in parallel and the root of each component
+ * is always its vertex with the lowest id, so the result does not depend on the order of the
+ * unions.
+ *
+ * <p>The component of each vertex is identified by the id of the first vertex of the component in
+ * the projection, that is by its vertex with the lowest RID.
+ */
+public class OSQLFunctionConnectedComponents extends OSQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "connectedComponents";
+
+  public OSQLFunctionConnectedComponents() {
+    super(NAME);
+  }
+
+  @Override
+  protected String getResultName() {
+    return "component";
+  }
+
+  @Override
+  protected ODirection getDefaultDirection() {
+    // EACH EDGE IS ENOUGH TO JOIN THE COMPONENTS OF BOTH ITS VERTICES
+    return ODirection.OUT;
+  }
+
+  @Override
+  protected Object compute(
+      final OGraphProjection projection,
+      final Map<String, Object> options,
+      final OGraphParallelLoop loop) {
+    final int vertexCount = projection.getVertexCount();
+    final int[] offsets = projection.getOffsets();
+    final int[] targets = projection.getTargets();
+
+    final AtomicIntegerArray parents = new AtomicIntegerArray(vertexCount);
+    loop.run(
+        vertexCount,
+        (from, to) -> {
+          for (int v = from; v < to; v++) {
+            parents.set(v, v);
+          }
+        });
+
+    loop.run(
+        vertexCount,
+        (from, to) -> {
+          for (int v = from; v < to; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+              union(parents, v, targets[i]);
+            }
+          }
+        });
+
+    final int[] components = new int[vertexCount];
+    loop.run(
+        vertexCount,
+        (from, to) -> {
+          for (int v = from; v < to; v++) {
+            components[v] = find(parents, v);
+          }
+        });
+    return components;
+  }
+
+  private static int find(final AtomicIntegerArray parents, int vertex) {
+    while (true) {
+      final int parent = parents.get(vertex);
+      if (parent == vertex) {
+        return vertex;
+      }
+
+      // PATH HALVING
+      final int grandParent = parents.get(parent);
+      if (grandParent != parent) {
+        parents.compareAndSet(vertex, parent, grandParent);
+      }
+      vertex = parent;
+    }
+  }
+
+  private static void union(final AtomicIntegerArray parents, int first, int second) {
+    while (true) {
+      first = find(parents, first);
+      second = find(parents, second);
+      if (first == second) {
+        return;
+      }
+
+      // ROOT WITH THE HIGHER ID IS LINKED TO THE ROOT WITH THE LOWER ONE
+      if (first < second) {
+        final int swap = first;
+        first = second;
+        second = swap;
+      }
+      if (parents.compareAndSet(first, first, second)) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public String getSyntax() {
+    return "connectedComponents([{vertexClasses:[], edgeClasses:[], parallelism:4,"
+        + " writeProperty:\"component\"}])";
+  }
+}
@@ -0,0 +1,357 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionAbstract;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of the functions that run an algorithm over the whole graph, or over the selected
+ * vertex and edge classes. The algorithm works on {@link OGraphProjection}, so the records are
+ * read only once, when the projection is built, and the computation is split among several threads.
+ *
+ * <p>Functions accept one optional parameter, the map of options. Common options are:
+ *
+ * <ul>
+ *   <li>vertexClasses: name or list of names of the vertex classes, all the vertices by default
+ *   <li>edgeClasses: name or list of names of the edge classes, all the edges by default
+ *   <li>direction: direction of the edges, default depends on the algorithm
+ *   <li>parallelism: number of threads, number of processors by default
+ *   <li>writeProperty: if set, results are written to this property of the vertices, in
+ *       transactions of <code>batchSize</code> (1000 by default) vertices, and the number of the
+ *       updated vertices is returned
+ * </ul>
+ *
+ * <p>Writing of the results is not transactional: each batch is committed on its own, and retried
+ * up to {@value #WRITE_RETRIES} times if the vertices are modified concurrently. If a batch still
+ * fails, the batches committed before are kept and the function throws the exception.
+ *
+ * <p>If results are not written, function returns a list of results with the properties <code>rid
+ * </code> and the name returned by {@link #getResultName()}.
+ */
+public abstract class OSQLFunctionGraphAlgorithmAbstract extends OSQLFunctionAbstract {
+  public static final String PARAM_VERTEX_CLASSES = "vertexClasses";
+  public static final String PARAM_EDGE_CLASSES = "edgeClasses";
+  public static final String PARAM_DIRECTION = "direction";
+  public static final String PARAM_PARALLELISM = "parallelism";
+  public static final String PARAM_WRITE_PROPERTY = "writeProperty";
+  public static final String PARAM_BATCH_SIZE = "batchSize";
+
+  public static final String RESULT_RID = "rid";
+
+  private static final int WRITE_RETRIES = 10;
+
+  protected OSQLFunctionGraphAlgorithmAbstract(final String name) {
+    super(name, 0, 1);
+  }
+
+  /** @return name of the result property */
+  protected abstract String getResultName();
+
+  protected abstract ODirection getDefaultDirection();
+
+  /**
+   * Runs the algorithm.
+   *
+   * @return <code>double[]</code> or <code>int[]</code> with the result for each vertex of the
+   *     projection
+   */
+  protected abstract Object compute(
+      OGraphProjection projection, Map<String, Object> options, OGraphParallelLoop loop);
+
+  @Override
+  public Object execute(
+      final Object iThis,
+      final OIdentifiable iCurrentRecord,
+      final Object iCurrentResult,
+      final Object[] iParams,
+      final OCommandContext iContext) {
+    final Map<String, Object> options = toOptions(iParams.length > 0 ? iParams[0] : null);
+    final ODatabaseDocumentInternal db = (ODatabaseDocumentInternal) iContext.getDatabase();
+
+    final int parallelism =
+        intOption(options, PARAM_PARALLELISM, Runtime.getRuntime().availableProcessors());
+    if (parallelism <= 0) {
+      throw new OCommandExecutionException("Parallelism should be positive: " + parallelism);
+    }
+
+    final OGraphProjection projection =
+        new OGraphProjectionBuilder(db)
+            .vertexClasses(stringArray(options.get(PARAM_VERTEX_CLASSES)))
+            .edgeClasses(stringArray(options.get(PARAM_EDGE_CLASSES)))
+            .direction(getDirection(options))
+            .parallelism(parallelism)
+            .build();
+
+    final Object values;
+    try (OGraphParallelLoop loop = new OGraphParallelLoop(parallelism)) {
+      values = compute(projection, options, loop);
+    }
+
+    final Object writeProperty = options.get(PARAM_WRITE_PROPERTY);
+    if (writeProperty != null) {
+      final int batchSize = intOption(options, PARAM_BATCH_SIZE, 1000);
+      if (batchSize <= 0) {
+        throw new OCommandExecutionException("Batch size should be positive: " + batchSize);
+      }
+      return write(db, projection, values, writeProperty.toString(), batchSize, parallelism);
+    }
+
+    final List<OResult> result = new ArrayList<>(projection.getVertexCount());
+    for (int v = 0; v < projection.getVertexCount(); v++) {
+      final OResultInternal item = new OResultInternal();
+      item.setProperty(RESULT_RID, projection.getRid(v));
+      item.setProperty(getResultName(), valueOf(values, v));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean aggregateResults() {
+    return false;
+  }
+
+  @Override
+  public Object getResult() {
+    return null;
+  }
+
+  /**
+   * Writes results to the vertices. Vertices are split in ranges, each range is updated by its own
+   * thread and its own copy of the database session.
+   *
+   * @return number of updated vertices
+   */
+  private long write(
+      final ODatabaseDocumentInternal db,
+      final OGraphProjection projection,
+      final Object values,
+      final String property,
+      final int batchSize,
+      final int parallelism) {
+    final int vertexCount = projection.getVertexCount();
+    final int threads = Math.max(1, Math.min(parallelism, vertexCount / batchSize));
+
+    final List<ODatabaseDocumentInternal> sessions = new ArrayList<>(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        sessions.add(db.copy());
+      }
+    } catch (RuntimeException e) {
+      for (ODatabaseDocumentInternal session : sessions) {
+        session.activateOnCurrentThread();
+        session.close();
+      }
+      throw e;
+    } finally {
+      db.activateOnCurrentThread();
+    }
+
+    final AtomicLong updated = new AtomicLong();
+    final int rangeSize = (vertexCount + threads - 1) / threads;
+    try (OGraphParallelLoop loop = new OGraphParallelLoop(threads)) {
+      loop.runEach(
+          threads,
+          i -> {
+            final int first = i * rangeSize;
+            final int last = Math.min(vertexCount, first + rangeSize);
+            updated.addAndGet(
+                writeRange(sessions.get(i), projection, values, property, batchSize, first, last));
+          });
+    } finally {
+      db.activateOnCurrentThread();
+    }
+
+    return updated.get();
+  }
+
+  private long writeRange(
+      final ODatabaseDocumentInternal session,
+      final OGraphProjection projection,
+      final Object values,
+      final String property,
+      final int batchSize,
+      final int from,
+      final int to) {
+    long updated = 0;
+    session.activateOnCurrentThread();
+    try {
+      for (int first = from; first < to; first += batchSize) {
+        final int last = Math.min(to, first + batchSize);
+        updated += writeBatch(session, projection, values, property, first, last);
+      }
+    } finally {
+      session.close();
+    }
+    return updated;
+  }
+
+  /**
+   * Writes results to the vertices of the batch in one transaction, which is retried if the
+   * vertices are modified concurrently.
+   */
+  private static long writeBatch(
+      final ODatabaseDocumentInternal session,
+      final OGraphProjection projection,
+      final Object values,
+      final String property,
+      final int from,
+      final int to) {
+    try {
+      return session.executeWithRetry(
+          WRITE_RETRIES,
+          db -> {
+            // vertices are loaded again after a conflict
+            session.getLocalCache().clear();
+
+            long updated = 0;
+            for (int v = from; v < to; v++) {
+              final ORecord record = session.load(projection.getRid(v));
+              if (!(record instanceof ODocument)) {
+                continue;
+              }
+
+              final ODocument vertex = (ODocument) record;
+              vertex.field(property, valueOf(values, v));
+              session.save(vertex);
+              updated++;
+            }
+            return updated;
+          });
+    } catch (RuntimeException e) {
+      if (session.getTransaction().isActive()) {
+        session.rollback();
+      }
+      throw e;
+    }
+  }
+
+  private ODirection getDirection(final Map<String, Object> options) {
+    final Object direction = options.get(PARAM_DIRECTION);
+    if (direction == null) {
+      return getDefaultDirection();
+    }
+    if (direction instanceof ODirection) {
+      return (ODirection) direction;
+    }
+    return ODirection.valueOf(direction.toString().toUpperCase(Locale.ENGLISH));
+  }
+
+  private static Object valueOf(final Object values, final int vertex) {
+    if (values instanceof double[]) {
+      return ((double[]) values)[vertex];
+    }
+    return ((int[]) values)[vertex];
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> toOptions(final Object param) {
+    if (param == null) {
+      return Collections.emptyMap();
+    }
+    if (param instanceof Map) {
+      return (Map<String, Object>) param;
+    }
+    if (param instanceof OIdentifiable) {
+      final ORecord record = ((OIdentifiable) param).getRecord();
+      if (record instanceof ODocument) {
+        return ((ODocument) record).toMap();
+      }
+    }
+    if (param instanceof OResult) {
+      final Map<String, Object> options = new HashMap<>();
+      for (String name : ((OResult) param).getPropertyNames()) {
+        options.put(name, ((OResult) param).getProperty(name));
+      }
+      return options;
+    }
+    throw new OCommandExecutionException(
+        "Options of the function should be a map, found: " + param);
+  }
+
+  private static String[] stringArray(final Object value) {
+    if (value == null) {
+      return new String[0];
+    }
+    if (value instanceof Collection) {
+      final List<String> result = new ArrayList<>();
+      for (Object item : (Collection<?>) value) {
+        result.add(String.valueOf(item));
+      }
+      return result.toArray(new String[0]);
+    }
+    if (value instanceof String[]) {
+      return (String[]) value;
+    }
+    return new String[] {value.toString()};
+  }
+
+  protected static int intOption(
+      final Map<String, Object> options, final String name, final int defaultValue) {
+    final Object value = options.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).intValue();
+    }
+    try {
+      return Integer.parseInt(value.toString());
+    } catch (NumberFormatException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Invalid value of option '" + name + "': " + value), e);
+    }
+  }
+
+  protected static double doubleOption(
+      final Map<String, Object> options, final String name, final double defaultValue) {
+    final Object value = options.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    try {
+      return Double.parseDouble(value.toString());
+    } catch (NumberFormatException e) {
+      throw OException.wrapException(
+          new OCommandExecutionException("Invalid value of option '" + name + "': " + value), e);
+    }
+  }
+}
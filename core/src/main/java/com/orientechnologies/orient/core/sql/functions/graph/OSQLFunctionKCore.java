@@ -0,0 +1,135 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.record.ODirection;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Core number (coreness) of the vertices: the highest <code>k</code> such that the vertex belongs
+ * to a subgraph in which all the vertices have degree at least <code>k</code>. Edges are treated as
+ * undirected, parallel edges and loops are counted in the degree.
+ *
+ * <p>Vertices are peeled level by level, the vertices of each round are removed in parallel and
+ * degrees of their neighbors are decremented atomically, a neighbor is added to the next round by
+ * the thread that decrements its degree to the current level.
+ */
+public class OSQLFunctionKCore extends OSQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "kCore";
+
+  public OSQLFunctionKCore() {
+    super(NAME);
+  }
+
+  @Override
+  protected String getResultName() {
+    return "coreness";
+  }
+
+  @Override
+  protected ODirection getDefaultDirection() {
+    return ODirection.BOTH;
+  }
+
+  @Override
+  protected Object compute(
+      final OGraphProjection projection,
+      final Map<String, Object> options,
+      final OGraphParallelLoop loop) {
+    final int vertexCount = projection.getVertexCount();
+    final int[] offsets = projection.getOffsets();
+    final int[] targets = projection.getTargets();
+
+    final int[] cores = new int[vertexCount];
+    Arrays.fill(cores, -1);
+    final AtomicIntegerArray degrees = new AtomicIntegerArray(vertexCount);
+    for (int v = 0; v < vertexCount; v++) {
+      degrees.set(v, offsets[v + 1] - offsets[v]);
+    }
+
+    // EACH VERTEX IS ADDED TO THE QUEUE EXACTLY ONCE
+    final int[] queue = new int[vertexCount];
+    final AtomicInteger tail = new AtomicInteger();
+
+    int processed = 0;
+    int level = 0;
+    while (processed < vertexCount) {
+      // LEVELS WITHOUT VERTICES ARE SKIPPED
+      final AtomicInteger minDegree = new AtomicInteger(Integer.MAX_VALUE);
+      loop.run(
+          vertexCount,
+          (from, to) -> {
+            int min = Integer.MAX_VALUE;
+            for (int v = from; v < to; v++) {
+              if (cores[v] < 0) {
+                min = Math.min(min, degrees.get(v));
+              }
+            }
+            minDegree.accumulateAndGet(min, Math::min);
+          });
+      final int k = Math.max(level, minDegree.get());
+
+      loop.run(
+          vertexCount,
+          (from, to) -> {
+            for (int v = from; v < to; v++) {
+              if (cores[v] < 0 && degrees.get(v) <= k) {
+                cores[v] = k;
+                queue[tail.getAndIncrement()] = v;
+              }
+            }
+          });
+
+      // DEGREE OF A REMOVED VERTEX IS ALREADY LOWER THAN K, SO ONLY ONE DECREMENT OF A REMAINING
+      // VERTEX CAN REACH K
+      while (processed < tail.get()) {
+        final int start = processed;
+        final int end = tail.get();
+        loop.run(
+            end - start,
+            (from, to) -> {
+              for (int i = start + from; i < start + to; i++) {
+                final int v = queue[i];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                  final int u = targets[e];
+                  if (degrees.decrementAndGet(u) == k) {
+                    cores[u] = k;
+                    queue[tail.getAndIncrement()] = u;
+                  }
+                }
+              }
+            });
+        processed = end;
+      }
+
+      level = k + 1;
+    }
+
+    return cores;
+  }
+
+  @Override
+  public String getSyntax() {
+    return "kCore([{vertexClasses:[], edgeClasses:[], parallelism:4, writeProperty:\"coreness\"}])";
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.record.ODirection;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Community detection by label propagation. At the beginning each vertex has its own label, at
+ * each iteration vertex takes the label that is the most frequent among its neighbors and the
+ * vertex itself, ties are resolved in favor of the lowest label. Iterations are synchronous, all
+ * the vertices are updated from the labels of the previous iteration, so the result does not depend
+ * on the number of threads.
+ *
+ * <p>Options (besides the common ones of {@link OSQLFunctionGraphAlgorithmAbstract}):
+ *
+ * <ul>
+ *   <li>maxIterations: 10 by default, computation stops earlier if no label changes
+ * </ul>
+ */
+public class OSQLFunctionLabelPropagation extends OSQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "labelPropagation";
+
+  public static final String PARAM_MAX_ITERATIONS = "maxIterations";
+
+  public OSQLFunctionLabelPropagation() {
+    super(NAME);
+  }
+
+  @Override
+  protected String getResultName() {
+    return "community";
+  }
+
+  @Override
+  protected ODirection getDefaultDirection() {
+    return ODirection.BOTH;
+  }
+
+  @Override
+  protected Object compute(
+      final OGraphProjection projection,
+      final Map<String, Object> options,
+      final OGraphParallelLoop loop) {
+    final int maxIterations = intOption(options, PARAM_MAX_ITERATIONS, 10);
+
+    final int vertexCount = projection.getVertexCount();
+    final int[] offsets = projection.getOffsets();
+    final int[] targets = projection.getTargets();
+
+    int[] labels = new int[vertexCount];
+    int[] next = new int[vertexCount];
+    for (int v = 0; v < vertexCount; v++) {
+      labels[v] = v;
+    }
+
+    for (int iteration = 0; iteration < maxIterations; iteration++) {
+      final int[] current = labels;
+      final int[] updated = next;
+      final AtomicBoolean changed = new AtomicBoolean();
+
+      loop.run(
+          vertexCount,
+          (from, to) -> {
+            int[] buffer = new int[16];
+            boolean chunkChanged = false;
+            for (int v = from; v < to; v++) {
+              final int degree = offsets[v + 1] - offsets[v];
+              if (buffer.length <= degree) {
+                buffer = new int[degree + 1];
+              }
+
+              buffer[0] = current[v];
+              for (int i = 0; i < degree; i++) {
+                buffer[i + 1] = current[targets[offsets[v] + i]];
+              }
+
+              updated[v] = mostFrequent(buffer, degree + 1);
+              chunkChanged |= updated[v] != current[v];
+            }
+            if (chunkChanged) {
+              changed.set(true);
+            }
+          });
+
+      labels = updated;
+      next = current;
+      if (!changed.get()) {
+        break;
+      }
+    }
+
+    return labels;
+  }
+
+  /** @return the most frequent of the first <code>length</code> labels, the lowest on ties */
+  private static int mostFrequent(final int[] labels, final int length) {
+    Arrays.sort(labels, 0, length);
+
+    int best = labels[0];
+    int bestCount = 0;
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      count = i > 0 && labels[i] == labels[i - 1] ? count + 1 : 1;
+      if (count > bestCount) {
+        best = labels[i];
+        bestCount = count;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public String getSyntax() {
+    return "labelPropagation([{vertexClasses:[], edgeClasses:[], direction:\"BOTH\","
+        + " maxIterations:10, parallelism:4, writeProperty:\"community\"}])";
+  }
+}
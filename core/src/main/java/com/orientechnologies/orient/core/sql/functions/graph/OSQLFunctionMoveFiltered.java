@@ -6,8 +6,19 @@ import com.orientechnologies.common.util.OCallable;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.OVertexAdjacencyIndex;
+import com.orientechnologies.orient.core.record.impl.OVertexDocument;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.functions.OSQLFunctionFiltered;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /** Created by luigidellaquila on 03/01/17. */
 public abstract class OSQLFunctionMoveFiltered extends OSQLFunctionMove
@@ -62,4 +73,73 @@ public abstract class OSQLFunctionMoveFiltered extends OSQLFunctionMove
       OIdentifiable iArgument,
       String[] labels,
       Iterable<OIdentifiable> iPossibleResults);
+
+  /**
+   * Keeps only the possible results that are connected to the vertex, checking them against the
+   * adjacency index of the database instead of iterating over all the edges of the vertex.
+   *
+   * @return the connected vertices or null if the connection is not indexed
+   * @see OVertexAdjacencyIndex
+   */
+  protected Object fetchFromAdjacencyIndex(
+      ODatabase graph,
+      OIdentifiable iFrom,
+      Iterable<OIdentifiable> iTo,
+      String[] iEdgeTypes,
+      ODirection iDirection) {
+    String edgeClassName = null;
+    if (iEdgeTypes == null) {
+      edgeClassName = "E";
+    } else if (iEdgeTypes.length == 1) {
+      edgeClassName = iEdgeTypes[0];
+    } else {
+      return null;
+    }
+    OClass edgeClass = graph.getMetadata().getSchema().getClass(edgeClassName);
+    if (edgeClass == null || !edgeClass.getSubclasses().isEmpty()) {
+      // EDGES OF SUBCLASSES ARE STORED IN OTHER FIELDS
+      return null;
+    }
+    ORecord fromRecord = iFrom.getRecord();
+    if (!(fromRecord instanceof ODocument)) {
+      return null;
+    }
+
+    String fieldName =
+        OVertexDocument.getConnectionFieldName(iDirection, edgeClass.getName(), true);
+    Object edges = ((ODocument) fromRecord).rawField(fieldName);
+    // LIGHTWEIGHT EDGES ARE NOT INDEXED, THEY CAN BE MIXED WITH THE REGULAR ONES
+    if (edges instanceof ORidBag) {
+      Iterator<OIdentifiable> iterator = ((ORidBag) edges).rawIterator();
+      while (iterator.hasNext()) {
+        if (!edgeClass.hasClusterId(iterator.next().getIdentity().getClusterId())) {
+          return null;
+        }
+      }
+    } else if (edges instanceof OIdentifiable
+        && !edgeClass.hasClusterId(((OIdentifiable) edges).getIdentity().getClusterId())) {
+      return null;
+    }
+    Set<OIdentifiable> result = new LinkedHashSet<>();
+    for (Object to : iTo) {
+      OIdentifiable toId = null;
+      if (to instanceof OIdentifiable) {
+        toId = ((OIdentifiable) to).getIdentity();
+      } else if (to instanceof OResult) {
+        toId = ((OResult) to).getIdentity().orElse(null);
+      }
+      if (toId == null) {
+        continue;
+      }
+      Boolean adjacent =
+          OVertexAdjacencyIndex.isAdjacent((ODocument) fromRecord, fieldName, toId);
+      if (adjacent == null) {
+        return null;
+      }
+      if (adjacent) {
+        result.add(toId);
+      }
+    }
+    return result;
+  }
 }
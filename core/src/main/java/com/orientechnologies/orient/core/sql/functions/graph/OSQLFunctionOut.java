@@ -47,7 +47,12 @@ public class OSQLFunctionOut extends OSQLFunctionMoveFiltered {
     if (edges instanceof OSizeable) {
       int size = ((OSizeable) edges).size();
       if (size > supernodeThreshold) {
-        Object result = fetchFromIndex(graph, iRecord, iPossibleResults, iLabels);
+        Object result =
+            fetchFromAdjacencyIndex(graph, iRecord, iPossibleResults, iLabels, ODirection.OUT);
+        if (result != null) {
+          return result;
+        }
+        result = fetchFromIndex(graph, iRecord, iPossibleResults, iLabels);
         if (result != null) {
           return result;
         }
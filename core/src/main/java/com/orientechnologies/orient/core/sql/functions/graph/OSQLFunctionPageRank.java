@@ -0,0 +1,138 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.record.ODirection;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * PageRank of the vertices. Ranks are computed by power iteration, each iteration pulls the ranks
+ * of the vertices that point to the vertex, so the threads never write to the same vertex. Rank of
+ * the vertices without outgoing edges is distributed among all the vertices.
+ *
+ * <p>Options (besides the common ones of {@link OSQLFunctionGraphAlgorithmAbstract}):
+ *
+ * <ul>
+ *   <li>dampingFactor: probability to follow an edge, 0.85 by default
+ *   <li>maxIterations: 20 by default
+ *   <li>tolerance: computation stops when the sum of the changes of ranks is lower, 0.0000001 by
+ *       default
+ * </ul>
+ */
+public class OSQLFunctionPageRank extends OSQLFunctionGraphAlgorithmAbstract {
+  public static final String NAME = "pageRank";
+
+  public static final String PARAM_DAMPING_FACTOR = "dampingFactor";
+  public static final String PARAM_MAX_ITERATIONS = "maxIterations";
+  public static final String PARAM_TOLERANCE = "tolerance";
+
+  public OSQLFunctionPageRank() {
+    super(NAME);
+  }
+
+  @Override
+  protected String getResultName() {
+    return "rank";
+  }
+
+  @Override
+  protected ODirection getDefaultDirection() {
+    return ODirection.OUT;
+  }
+
+  @Override
+  protected Object compute(
+      final OGraphProjection projection,
+      final Map<String, Object> options,
+      final OGraphParallelLoop loop) {
+    final double damping = doubleOption(options, PARAM_DAMPING_FACTOR, 0.85);
+    final int maxIterations = intOption(options, PARAM_MAX_ITERATIONS, 20);
+    final double tolerance = doubleOption(options, PARAM_TOLERANCE, 1e-7);
+
+    final int vertexCount = projection.getVertexCount();
+    if (vertexCount == 0) {
+      return new double[0];
+    }
+
+    final OGraphProjection incoming = projection.reverse();
+    final int[] offsets = incoming.getOffsets();
+    final int[] sources = incoming.getTargets();
+
+    double[] rank = new double[vertexCount];
+    double[] next = new double[vertexCount];
+    final double[] contribution = new double[vertexCount];
+    Arrays.fill(rank, 1.0 / vertexCount);
+
+    for (int iteration = 0; iteration < maxIterations; iteration++) {
+      final double[] current = rank;
+      final double[] updated = next;
+
+      final DoubleAdder dangling = new DoubleAdder();
+      loop.run(
+          vertexCount,
+          (from, to) -> {
+            double danglingRank = 0;
+            for (int v = from; v < to; v++) {
+              final int degree = projection.getDegree(v);
+              if (degree == 0) {
+                danglingRank += current[v];
+                contribution[v] = 0;
+              } else {
+                contribution[v] = current[v] / degree;
+              }
+            }
+            dangling.add(danglingRank);
+          });
+
+      final double base = (1 - damping) / vertexCount + damping * dangling.sum() / vertexCount;
+      final DoubleAdder delta = new DoubleAdder();
+      loop.run(
+          vertexCount,
+          (from, to) -> {
+            double change = 0;
+            for (int v = from; v < to; v++) {
+              double sum = 0;
+              for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                sum += contribution[sources[i]];
+              }
+              updated[v] = base + damping * sum;
+              change += Math.abs(updated[v] - current[v]);
+            }
+            delta.add(change);
+          });
+
+      rank = updated;
+      next = current;
+      if (delta.sum() < tolerance) {
+        break;
+      }
+    }
+
+    return rank;
+  }
+
+  @Override
+  public String getSyntax() {
+    return "pageRank([{vertexClasses:[], edgeClasses:[], direction:\"OUT\", dampingFactor:0.85,"
+        + " maxIterations:20, tolerance:0.0000001, parallelism:4, writeProperty:\"rank\"}])";
+  }
+}
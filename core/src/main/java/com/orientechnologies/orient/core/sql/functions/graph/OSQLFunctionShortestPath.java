@@ -4,6 +4,8 @@ import com.orientechnologies.common.collection.OMultiCollectionIterator;
 import com.orientechnologies.common.util.ORawPair;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.command.OCommandExecutorAbstract;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.id.ORID;
@@ -15,17 +17,16 @@ import com.orientechnologies.orient.core.record.OVertex;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.OEdgeToVertexIterable;
 import com.orientechnologies.orient.core.sql.OSQLHelper;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidMap;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidQueue;
+import com.orientechnologies.orient.core.sql.executor.ODirectRidSet;
 import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionMathAbstract;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -37,14 +38,25 @@ import java.util.stream.Collectors;
 public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
   public static final String NAME = "shortestPath";
   public static final String PARAM_MAX_DEPTH = "maxDepth";
+  public static final String PARAM_PARALLELISM = "parallelism";
 
   protected static final float DISTANCE = 1f;
 
+  /** Minimal size of a level of the search to expand its vertices by several threads. */
+  static final int PARALLEL_FRONTIER_SIZE = 1024;
+
+  /** Maximal amount of vertices of a level expanded at once by the threads. */
+  private static final int PARALLEL_BATCH_SIZE = 64 * 1024;
+
   public OSQLFunctionShortestPath() {
     super(NAME, 2, 5);
   }
 
-  private class OShortestPathContext {
+  /**
+   * State of the search, RIDs of visited vertices and queues are kept in direct memory, so they
+   * should be released by {@link #close()}.
+   */
+  private class OShortestPathContext implements AutoCloseable {
     private OVertex sourceVertex;
     private OVertex destinationVertex;
     private ODirection directionLeft = ODirection.BOTH;
@@ -53,20 +65,41 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
     private String edgeType;
     private String[] edgeTypeParam;
 
-    private ArrayDeque<OVertex> queueLeft = new ArrayDeque<>();
-    private ArrayDeque<OVertex> queueRight = new ArrayDeque<>();
+    private ODirectRidQueue queueLeft = new ODirectRidQueue();
+    private ODirectRidQueue queueRight = new ODirectRidQueue();
+    private ODirectRidQueue nextQueueLeft = new ODirectRidQueue();
+    private ODirectRidQueue nextQueueRight = new ODirectRidQueue();
 
-    private final Set<ORID> leftVisited = new HashSet<ORID>();
-    private final Set<ORID> rightVisited = new HashSet<ORID>();
+    private final ODirectRidSet leftVisited = new ODirectRidSet();
+    private final ODirectRidSet rightVisited = new ODirectRidSet();
 
-    private final Map<ORID, ORID> previouses = new HashMap<ORID, ORID>();
-    private final Map<ORID, ORID> nexts = new HashMap<ORID, ORID>();
+    private final ODirectRidMap previouses = new ODirectRidMap();
+    private final ODirectRidMap nexts = new ODirectRidMap();
 
     private OVertex current;
     private OVertex currentRight;
     public Integer maxDepth;
     /** option that decides whether or not to return the edge information */
     public Boolean edge;
+
+    private ODatabaseDocumentInternal db;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private OParallelExpansion expansion;
+
+    @Override
+    public void close() {
+      if (expansion != null) {
+        expansion.close();
+      }
+      queueLeft.close();
+      queueRight.close();
+      nextQueueLeft.close();
+      nextQueueRight.close();
+      leftVisited.close();
+      rightVisited.close();
+      previouses.close();
+      nexts.close();
+    }
   }
 
   public List<ORID> execute(
@@ -75,10 +108,18 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       final Object iCurrentResult,
       final Object[] iParams,
       final OCommandContext iContext) {
+    try (OShortestPathContext ctx = new OShortestPathContext()) {
+      return execute(ctx, iCurrentRecord, iParams, iContext);
+    }
+  }
 
+  private List<ORID> execute(
+      final OShortestPathContext ctx,
+      final OIdentifiable iCurrentRecord,
+      final Object[] iParams,
+      final OCommandContext iContext) {
     final ORecord record = iCurrentRecord != null ? iCurrentRecord.getRecord() : null;
-
-    final OShortestPathContext ctx = new OShortestPathContext();
+    ctx.db = ODatabaseRecordThreadLocal.instance().getIfDefined();
 
     Object source = iParams[0];
     source = getSingleItem(source);
@@ -147,10 +188,10 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       bindAdditionalParams(iParams[4], ctx);
     }
 
-    ctx.queueLeft.add(ctx.sourceVertex);
+    ctx.queueLeft.add(ctx.sourceVertex.getIdentity());
     ctx.leftVisited.add(ctx.sourceVertex.getIdentity());
 
-    ctx.queueRight.add(ctx.destinationVertex);
+    ctx.queueRight.add(ctx.destinationVertex.getIdentity());
     ctx.rightVisited.add(ctx.destinationVertex.getIdentity());
 
     int depth = 1;
@@ -217,6 +258,13 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
       ctx.maxDepth = integer(mapParams.get("maxDepth"));
       Boolean withEdge = toBoolean(mapParams.get("edge"));
       ctx.edge = Boolean.TRUE.equals(withEdge) ? Boolean.TRUE : Boolean.FALSE;
+      final Integer parallelism = integer(mapParams.get(PARAM_PARALLELISM));
+      if (parallelism != null) {
+        if (parallelism <= 0) {
+          throw new IllegalArgumentException("Parallelism should be positive: " + parallelism);
+        }
+        ctx.parallelism = parallelism;
+      }
     }
   }
 
@@ -304,10 +352,16 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
   }
 
   protected List<ORID> walkLeft(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
-    ArrayDeque<OVertex> nextLevelQueue = new ArrayDeque<>();
+    if (isParallel(ctx, ctx.queueLeft)) {
+      return walkParallel(ctx, true);
+    }
+    final ODirectRidQueue nextLevelQueue = ctx.nextQueueLeft;
     if (!Boolean.TRUE.equals(ctx.edge)) {
       while (!ctx.queueLeft.isEmpty()) {
-        ctx.current = ctx.queueLeft.poll();
+        ctx.current = loadVertex(ctx.queueLeft.poll());
+        if (ctx.current == null) {
+          continue;
+        }
 
         Iterable<OVertex> neighbors;
         if (ctx.edgeType == null) {
@@ -326,14 +380,17 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
           if (!ctx.leftVisited.contains(neighborIdentity)) {
             ctx.previouses.put(neighborIdentity, ctx.current.getIdentity());
 
-            nextLevelQueue.offer(v);
+            nextLevelQueue.add(neighborIdentity);
             ctx.leftVisited.add(neighborIdentity);
           }
         }
       }
     } else {
       while (!ctx.queueLeft.isEmpty()) {
-        ctx.current = ctx.queueLeft.poll();
+        ctx.current = loadVertex(ctx.queueLeft.poll());
+        if (ctx.current == null) {
+          continue;
+        }
 
         ORawPair<Iterable<OVertex>, Iterable<OEdge>> neighbors;
         if (ctx.edgeType == null) {
@@ -357,21 +414,29 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
             ctx.previouses.put(neighborVertexIdentity, neighborEdgeIdentity);
             ctx.previouses.put(neighborEdgeIdentity, ctx.current.getIdentity());
 
-            nextLevelQueue.offer(v);
+            nextLevelQueue.add(neighborVertexIdentity);
             ctx.leftVisited.add(neighborVertexIdentity);
           }
         }
       }
     }
+    // polled queue is empty and is reused for the next level
+    ctx.nextQueueLeft = ctx.queueLeft;
     ctx.queueLeft = nextLevelQueue;
     return null;
   }
 
   protected List<ORID> walkRight(final OSQLFunctionShortestPath.OShortestPathContext ctx) {
-    final ArrayDeque<OVertex> nextLevelQueue = new ArrayDeque<>();
+    if (isParallel(ctx, ctx.queueRight)) {
+      return walkParallel(ctx, false);
+    }
+    final ODirectRidQueue nextLevelQueue = ctx.nextQueueRight;
     if (!Boolean.TRUE.equals(ctx.edge)) {
       while (!ctx.queueRight.isEmpty()) {
-        ctx.currentRight = ctx.queueRight.poll();
+        ctx.currentRight = loadVertex(ctx.queueRight.poll());
+        if (ctx.currentRight == null) {
+          continue;
+        }
 
         Iterable<OVertex> neighbors;
         if (ctx.edgeType == null) {
@@ -391,14 +456,17 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
 
             ctx.nexts.put(neighborIdentity, ctx.currentRight.getIdentity());
 
-            nextLevelQueue.offer(v);
+            nextLevelQueue.add(neighborIdentity);
             ctx.rightVisited.add(neighborIdentity);
           }
         }
       }
     } else {
       while (!ctx.queueRight.isEmpty()) {
-        ctx.currentRight = ctx.queueRight.poll();
+        ctx.currentRight = loadVertex(ctx.queueRight.poll());
+        if (ctx.currentRight == null) {
+          continue;
+        }
 
         ORawPair<Iterable<OVertex>, Iterable<OEdge>> neighbors;
         if (ctx.edgeType == null) {
@@ -423,19 +491,214 @@ public class OSQLFunctionShortestPath extends OSQLFunctionMathAbstract {
             ctx.nexts.put(neighborVertexIdentity, neighborEdgeIdentity);
             ctx.nexts.put(neighborEdgeIdentity, ctx.currentRight.getIdentity());
 
-            nextLevelQueue.offer(v);
+            nextLevelQueue.add(neighborVertexIdentity);
             ctx.rightVisited.add(neighborVertexIdentity);
           }
         }
       }
     }
+    ctx.nextQueueRight = ctx.queueRight;
     ctx.queueRight = nextLevelQueue;
     return null;
   }
 
+  /**
+   * Levels are expanded by several threads if they are big enough. The copies of the session used
+   * by the threads do not see the changes of the current transaction, so the search is sequential
+   * inside a transaction.
+   */
+  private static boolean isParallel(final OShortestPathContext ctx, final ODirectRidQueue queue) {
+    return ctx.parallelism > 1
+        && ctx.db != null
+        && !ctx.db.getTransaction().isActive()
+        && queue.size() >= PARALLEL_FRONTIER_SIZE;
+  }
+
+  /**
+   * Expands a level of the search by several threads, each of them with its own copy of the
+   * session. The threads only read the neighbors of the vertices, the neighbors are then visited
+   * in the order of the level, so the result is the same as the one of the sequential walk.
+   */
+  private List<ORID> walkParallel(final OShortestPathContext ctx, final boolean left) {
+    final ODirectRidQueue queue = left ? ctx.queueLeft : ctx.queueRight;
+    final ODirectRidQueue nextLevelQueue = left ? ctx.nextQueueLeft : ctx.nextQueueRight;
+    final ODirectRidSet visited = left ? ctx.leftVisited : ctx.rightVisited;
+    final ODirectRidSet oppositeVisited = left ? ctx.rightVisited : ctx.leftVisited;
+    final ODirectRidMap parents = left ? ctx.previouses : ctx.nexts;
+    final ODirection direction = left ? ctx.directionLeft : ctx.directionRight;
+    final boolean withEdges = Boolean.TRUE.equals(ctx.edge);
+
+    if (ctx.expansion == null) {
+      ctx.expansion = new OParallelExpansion(ctx.db, ctx.parallelism);
+    }
+
+    while (!queue.isEmpty()) {
+      final ORID[] frontier = new ORID[(int) Math.min(queue.size(), PARALLEL_BATCH_SIZE)];
+      for (int i = 0; i < frontier.length; i++) {
+        frontier[i] = queue.poll();
+      }
+
+      final ORID[][] neighbors = new ORID[frontier.length][];
+      final ORID[][] edges = withEdges ? new ORID[frontier.length][] : null;
+      ctx.expansion.run(
+          frontier.length,
+          (session, from, to) -> {
+            for (int i = from; i < to; i++) {
+              readNeighbors(ctx, session, frontier[i], direction, i, neighbors, edges);
+            }
+          });
+
+      for (int i = 0; i < frontier.length; i++) {
+        if (neighbors[i] == null) {
+          continue;
+        }
+        for (int j = 0; j < neighbors[i].length; j++) {
+          final ORID neighbor = neighbors[i][j];
+          if (oppositeVisited.contains(neighbor)) {
+            link(parents, frontier[i], withEdges ? edges[i][j] : null, neighbor);
+            return computePath(ctx.previouses, ctx.nexts, neighbor);
+          }
+          if (!visited.contains(neighbor)) {
+            link(parents, frontier[i], withEdges ? edges[i][j] : null, neighbor);
+            nextLevelQueue.add(neighbor);
+            visited.add(neighbor);
+          }
+        }
+      }
+    }
+
+    // polled queue is empty and is reused for the next level
+    if (left) {
+      ctx.nextQueueLeft = ctx.queueLeft;
+      ctx.queueLeft = nextLevelQueue;
+    } else {
+      ctx.nextQueueRight = ctx.queueRight;
+      ctx.queueRight = nextLevelQueue;
+    }
+    return null;
+  }
+
+  private void readNeighbors(
+      final OShortestPathContext ctx,
+      final ODatabaseDocumentInternal session,
+      final ORID rid,
+      final ODirection direction,
+      final int index,
+      final ORID[][] neighbors,
+      final ORID[][] edges) {
+    final ORecord record = session.load(rid);
+    final OVertex vertex =
+        record instanceof OElement ? ((OElement) record).asVertex().orElse(null) : null;
+    if (vertex == null) {
+      return;
+    }
+
+    final List<ORID> vertexIds = new ArrayList<>();
+    if (edges == null) {
+      final Iterable<OVertex> iterable =
+          ctx.edgeType == null
+              ? vertex.getVertices(direction)
+              : vertex.getVertices(direction, ctx.edgeTypeParam);
+      for (OVertex neighbor : iterable) {
+        vertexIds.add(neighbor.getIdentity());
+      }
+    } else {
+      final ORawPair<Iterable<OVertex>, Iterable<OEdge>> pair =
+          ctx.edgeType == null
+              ? getVerticesAndEdges(vertex, direction)
+              : getVerticesAndEdges(vertex, direction, ctx.edgeTypeParam);
+      final List<ORID> edgeIds = new ArrayList<>();
+      final Iterator<OVertex> vertexIterator = pair.first.iterator();
+      final Iterator<OEdge> edgeIterator = pair.second.iterator();
+      while (vertexIterator.hasNext() && edgeIterator.hasNext()) {
+        vertexIds.add(vertexIterator.next().getIdentity());
+        edgeIds.add(edgeIterator.next().getIdentity());
+      }
+      edges[index] = edgeIds.toArray(new ORID[0]);
+    }
+    neighbors[index] = vertexIds.toArray(new ORID[0]);
+  }
+
+  private static void link(
+      final ODirectRidMap parents, final ORID current, final ORID edge, final ORID neighbor) {
+    if (edge == null) {
+      parents.put(neighbor, current);
+    } else {
+      parents.put(neighbor, edge);
+      parents.put(edge, current);
+    }
+  }
+
+  /**
+   * Threads and copies of the session which expand the levels of a search, they are created on
+   * the first big level and released once the search is over.
+   */
+  private static final class OParallelExpansion implements AutoCloseable {
+    interface RangeTask {
+      void run(ODatabaseDocumentInternal session, int from, int to);
+    }
+
+    private final ODatabaseDocumentInternal db;
+    private final List<ODatabaseDocumentInternal> sessions;
+    private final OGraphParallelLoop loop;
+
+    private OParallelExpansion(final ODatabaseDocumentInternal db, final int parallelism) {
+      this.db = db;
+      this.sessions = new ArrayList<>(parallelism);
+      try {
+        for (int i = 0; i < parallelism; i++) {
+          sessions.add(db.copy());
+        }
+      } catch (RuntimeException e) {
+        closeSessions();
+        throw e;
+      } finally {
+        db.activateOnCurrentThread();
+      }
+      this.loop = new OGraphParallelLoop(parallelism);
+    }
+
+    private void run(final int count, final RangeTask task) {
+      final int threads = sessions.size();
+      final int rangeSize = (count + threads - 1) / threads;
+      try {
+        loop.runEach(
+            threads,
+            i -> {
+              final ODatabaseDocumentInternal session = sessions.get(i);
+              session.activateOnCurrentThread();
+              final int from = Math.min(count, i * rangeSize);
+              task.run(session, from, Math.min(count, from + rangeSize));
+            });
+      } finally {
+        db.activateOnCurrentThread();
+      }
+    }
+
+    private void closeSessions() {
+      for (ODatabaseDocumentInternal session : sessions) {
+        session.activateOnCurrentThread();
+        session.close();
+      }
+      db.activateOnCurrentThread();
+    }
+
+    @Override
+    public void close() {
+      loop.close();
+      closeSessions();
+    }
+  }
+
+  /** Vertices are kept in queues as RIDs, so they are loaded again once they are polled. */
+  private static OVertex loadVertex(final ORID rid) {
+    final OElement element = rid.getRecord();
+    return element == null ? null : element.asVertex().orElse(null);
+  }
+
   private List<ORID> computePath(
-      final Map<ORID, ORID> leftDistances,
-      final Map<ORID, ORID> rightDistances,
+      final ODirectRidMap leftDistances,
+      final ODirectRidMap rightDistances,
       final ORID neighbor) {
     final List<ORID> result = new ArrayList<ORID>();
 
@@ -274,6 +274,14 @@ public class OMethodCall extends SimpleNode {
     }
   }
 
+  public OIdentifier getMethodName() {
+    return methodName;
+  }
+
+  public List<OExpression> getParams() {
+    return params;
+  }
+
   public boolean isCacheable() {
     if (isGraphFunction()) {
       return true;
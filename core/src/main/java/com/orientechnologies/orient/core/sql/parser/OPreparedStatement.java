@@ -0,0 +1,90 @@
+package com.orientechnologies.orient.core.sql.parser;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A query parsed once and kept together with its execution plan, so that it can be executed many
+ * times with different parameters without parsing and planning it again. The plan is kept only
+ * when it could also be kept in the {@link OExecutionPlanCache}, and it is created again when the
+ * plans in that cache are invalidated (eg. after a schema or index change).
+ */
+public class OPreparedStatement {
+
+  private final String text;
+  private final OStatement statement;
+  private OInternalExecutionPlan template;
+  private long planningTime;
+
+  /**
+   * @param text the SQL query
+   * @param db the current DB instance
+   * @throws OCommandExecutionException if the statement is not idempotent
+   */
+  public OPreparedStatement(String text, ODatabaseDocumentInternal db) {
+    this.text = text;
+    this.statement = OSQLEngine.parse(text, db);
+    if (!statement.isIdempotent()) {
+      throw new OCommandExecutionException(
+          "Cannot prepare query on non idempotent statement: " + text);
+    }
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public OResultSet execute(ODatabaseDocumentInternal db, Object[] args) {
+    Map<Object, Object> params = new HashMap<>();
+    if (args != null) {
+      for (int i = 0; i < args.length; i++) {
+        params.put(i, args[i]);
+      }
+    }
+    return execute(db, params);
+  }
+
+  public OResultSet execute(ODatabaseDocumentInternal db, Map<Object, Object> params) {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+    ctx.setInputParameters(params);
+    return new OLocalResultSet(getExecutionPlan(ctx, db));
+  }
+
+  private OInternalExecutionPlan getExecutionPlan(
+      OCommandContext ctx, ODatabaseDocumentInternal db) {
+    OInternalExecutionPlan plan = null;
+    synchronized (this) {
+      if (template != null && OExecutionPlanCache.getLastInvalidation(db) < planningTime) {
+        plan = template;
+      }
+    }
+    if (plan != null) {
+      return plan.copy(ctx);
+    }
+
+    long planningStart = System.currentTimeMillis();
+    OInternalExecutionPlan result = statement.createExecutionPlanNoCache(ctx, false);
+    if (statement.executinPlanCanBeCached()
+        && result.canBeCached()
+        && OExecutionPlanCache.getLastInvalidation(db) < planningStart) {
+      OBasicCommandContext templateCtx = new OBasicCommandContext();
+      templateCtx.setDatabase(db);
+      OInternalExecutionPlan copy = result.copy(templateCtx);
+      // the template is never executed, so it has to be closed to free resources
+      copy.close();
+      synchronized (this) {
+        template = copy;
+        planningTime = planningStart;
+      }
+    }
+    return result;
+  }
+}
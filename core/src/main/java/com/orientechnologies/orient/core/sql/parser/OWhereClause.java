@@ -56,6 +56,34 @@ public class OWhereClause extends SimpleNode {
     return baseExpression.evaluate(currentRecord, ctx);
   }
 
+  /**
+   * Evaluates the condition over a whole batch of records. Records that do not match are removed
+   * from the batch, order of matching records is preserved.
+   *
+   * @param batch the records to filter, it is modified in place
+   * @param ctx the command context, <code>$current</code> is set to each record while it is
+   *     evaluated
+   */
+  public void filterBatch(List<OResult> batch, OCommandContext ctx) {
+    if (baseExpression == null) {
+      return;
+    }
+    Object oldCurrent = ctx.getVariable("$current");
+    int matched = 0;
+    try {
+      for (int i = 0; i < batch.size(); i++) {
+        OResult item = batch.get(i);
+        ctx.setVariable("$current", item);
+        if (baseExpression.evaluate(item, ctx)) {
+          batch.set(matched++, item);
+        }
+      }
+    } finally {
+      ctx.setVariable("$current", oldCurrent);
+    }
+    batch.subList(matched, batch.size()).clear();
+  }
+
   public void toString(Map<Object, Object> params, StringBuilder builder) {
     if (baseExpression == null) {
       return;
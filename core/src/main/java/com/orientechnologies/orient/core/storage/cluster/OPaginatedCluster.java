@@ -2,6 +2,8 @@ package com.orientechnologies.orient.core.storage.cluster;
 
 import com.orientechnologies.orient.core.config.OStoragePaginatedClusterConfiguration;
 import com.orientechnologies.orient.core.storage.OCluster;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 import java.io.File;
@@ -45,4 +47,28 @@ public abstract class OPaginatedCluster extends ODurableComponent implements OCl
   public abstract OStoragePaginatedClusterConfiguration generateClusterConfig();
 
   public abstract long getFileId();
+
+  /**
+   * Reads the record without the locks of the cluster, so it does not wait for the atomic
+   * operations which change the cluster. The content is inconsistent if the record is changed
+   * meanwhile, so it is used only by the reads of a snapshot which replace such records with their
+   * before images. By default the record is read with the locks.
+   */
+  public ORawBuffer readRecordWithoutLocks(final long clusterPosition) throws IOException {
+    return readRecord(clusterPosition, false);
+  }
+
+  /**
+   * Returns the positions of the records after, or before if not ascending, the given position,
+   * without the locks of the cluster. Used by the scans of a snapshot, see {@link
+   * #readRecordWithoutLocks(long)}.
+   */
+  public OPhysicalPosition[] positionsWithoutLocks(
+      final OPhysicalPosition position, final boolean inclusive, final boolean ascending)
+      throws IOException {
+    if (ascending) {
+      return inclusive ? ceilingPositions(position) : higherPositions(position);
+    }
+    return inclusive ? floorPositions(position) : lowerPositions(position);
+  }
 }
@@ -635,6 +635,22 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     return readRecord(clusterPosition, pagesToPrefetch);
   }
 
+  @Override
+  public ORawBuffer readRecordWithoutLocks(final long clusterPosition) throws IOException {
+    final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+    final OClusterPositionMapBucket.PositionEntry positionEntry =
+        clusterPositionMap.get(clusterPosition, 1, atomicOperation);
+    if (positionEntry == null) {
+      return null;
+    }
+    return internalReadRecord(
+        clusterPosition,
+        positionEntry.getPageIndex(),
+        positionEntry.getRecordPosition(),
+        1,
+        atomicOperation);
+  }
+
   private ORawBuffer readRecord(final long clusterPosition, final int pageCount)
       throws IOException {
     atomicOperationsManager.acquireReadLock(this);
@@ -1259,6 +1275,26 @@ public final class OPaginatedClusterV2 extends OPaginatedCluster {
     }
   }
 
+  @Override
+  public OPhysicalPosition[] positionsWithoutLocks(
+      final OPhysicalPosition position, final boolean inclusive, final boolean ascending)
+      throws IOException {
+    final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+    final long[] clusterPositions;
+    if (ascending) {
+      clusterPositions =
+          inclusive
+              ? clusterPositionMap.ceilingPositions(position.clusterPosition, atomicOperation)
+              : clusterPositionMap.higherPositions(position.clusterPosition, atomicOperation);
+    } else {
+      clusterPositions =
+          inclusive
+              ? clusterPositionMap.floorPositions(position.clusterPosition, atomicOperation)
+              : clusterPositionMap.lowerPositions(position.clusterPosition, atomicOperation);
+    }
+    return convertToPhysicalPositions(clusterPositions);
+  }
+
   @Override
   public ORecordConflictStrategy getRecordConflictStrategy() {
     return recordConflictStrategy;
@@ -21,10 +21,11 @@
 package com.orientechnologies.orient.core.storage.impl.local;
 
 import com.orientechnologies.common.concur.ONeedRetryException;
+import com.orientechnologies.common.concur.lock.ODeadlockDetectingRWLockManager;
 import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.concur.lock.OLockException;
 import com.orientechnologies.common.concur.lock.OLockManager;
 import com.orientechnologies.common.concur.lock.OModificationOperationProhibitedException;
-import com.orientechnologies.common.concur.lock.ONotThreadRWLockManager;
 import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
 import com.orientechnologies.common.concur.lock.OSimpleRWLockManager;
 import com.orientechnologies.common.exception.OException;
@@ -133,6 +134,7 @@ import com.orientechnologies.orient.core.storage.cache.local.OBackgroundExceptio
 import com.orientechnologies.orient.core.storage.cluster.OOfflineCluster;
 import com.orientechnologies.orient.core.storage.cluster.OPaginatedCluster;
 import com.orientechnologies.orient.core.storage.config.OClusterBasedStorageConfiguration;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordOperationMetadata;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.ORecordSerializationContext;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OStorageTransaction;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.AtomicOperationsTable;
@@ -157,6 +159,8 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALRe
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWriteAheadLog;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.common.EmptyWALRecord;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.common.WriteableWALRecord;
+import com.orientechnologies.orient.core.storage.impl.local.snapshot.OReadSnapshot;
+import com.orientechnologies.orient.core.storage.impl.local.snapshot.ORecordVersionHistory;
 import com.orientechnologies.orient.core.storage.index.engine.OHashTableIndexEngine;
 import com.orientechnologies.orient.core.storage.index.engine.OSBTreeIndexEngine;
 import com.orientechnologies.orient.core.storage.index.sbtreebonsai.local.OSBTreeBonsaiLocal;
@@ -200,6 +204,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -259,6 +264,20 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
   private volatile boolean wereNonTxOperationsPerformedInPreviousOpen;
   private volatile boolean modificationLock;
   private volatile boolean readLock;
+  private volatile long recordLockTimeout;
+
+  /** History of changes of records, present only if read snapshots are enabled. */
+  private volatile ORecordVersionHistory recordVersionHistory;
+
+  /** If true, atomic operations log rids of records they changed, so they can be read back. */
+  private volatile boolean trackChangedRecordsInWAL;
+
+  /**
+   * Ids of atomic operations which changed records but did not apply their changes yet, changes
+   * of these operations can not be read from WAL even if they are already logged there.
+   */
+  private final Set<Long> operationsInProgress = ConcurrentHashMap.newKeySet();
+
 
   private final int id;
 
@@ -296,7 +315,15 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     super(name, filePath, mode);
 
     this.id = id;
-    lockManager = new ONotThreadRWLockManager<>();
+    // record locks are held till the end of the transaction of the session, which may be served by
+    // different threads
+    lockManager =
+        new ODeadlockDetectingRWLockManager<>(
+            () -> {
+              final ODatabaseDocumentInternal db =
+                  ODatabaseRecordThreadLocal.instance().getIfDefined();
+              return db != null ? db : Thread.currentThread();
+            });
     recordVersionManager = new OPartitionedLockManager<>();
     sbTreeCollectionManager = new OSBTreeCollectionManagerShared(this);
 
@@ -373,6 +400,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           }
 
           initLockingStrategy(contextConfiguration);
+          initRecordVersionHistory(contextConfiguration);
+          trackChangedRecordsInWAL =
+              contextConfiguration.getValueAsBoolean(
+                  OGlobalConfiguration.STORAGE_TRACK_CHANGED_RECORDS_IN_WAL);
 
           readIv();
 
@@ -551,6 +582,173 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       modificationLock = true;
       readLock = true;
     }
+
+    recordLockTimeout =
+        contextConfiguration.getValueAsInteger(OGlobalConfiguration.STORAGE_RECORD_LOCK_TIMEOUT);
+  }
+
+  private void initRecordVersionHistory(final OContextConfiguration contextConfiguration) {
+    if (contextConfiguration.getValueAsBoolean(OGlobalConfiguration.STORAGE_READ_SNAPSHOTS)) {
+      recordVersionHistory = new ORecordVersionHistory();
+    } else {
+      recordVersionHistory = null;
+    }
+  }
+
+  /**
+   * Opens point-in-time snapshot of the records of the storage. Snapshot is used by the session
+   * which keeps it, see {@link ODatabaseDocumentInternal#getReadSnapshot()}. Till snapshot is
+   * closed all record reads and cluster scans performed by the session outside of storage
+   * transaction return state of the records committed before the snapshot was opened. They take
+   * neither record locks nor cluster locks, the records changed by the commits in progress are
+   * read from their before images. Index lookups are not affected by snapshot.
+   *
+   * @return snapshot which should be closed once reads are completed
+   */
+  public OReadSnapshot openReadSnapshot() {
+    final ORecordVersionHistory history = recordVersionHistory;
+    if (history == null) {
+      throw new OStorageException(
+          "Read snapshots are switched off by configuration, set the configuration \""
+              + OGlobalConfiguration.STORAGE_READ_SNAPSHOTS.getKey()
+              + "\" to \"true\" to enable it");
+    }
+
+    return history.openSnapshot();
+  }
+
+  /**
+   * Called by {@link OAtomicOperationsManager} when atomic operation is completed, but locks
+   * acquired by this operation are not released yet.
+   */
+  public void onAtomicOperationEnd(final long operationId, final boolean rollback) {
+    operationsInProgress.remove(operationId);
+
+    final ORecordVersionHistory history = recordVersionHistory;
+    if (history != null) {
+      history.operationCompleted(operationId, rollback);
+    }
+  }
+
+  private OReadSnapshot activeReadSnapshot() {
+    final ORecordVersionHistory history = recordVersionHistory;
+    if (history == null) {
+      return null;
+    }
+
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (db == null) {
+      return null;
+    }
+
+    final OReadSnapshot snapshot = db.getReadSnapshot();
+    if (snapshot == null || !snapshot.isSnapshotOf(history)) {
+      return null;
+    }
+
+    return snapshot;
+  }
+
+  private void trackRecordChange(
+      final OAtomicOperation atomicOperation,
+      final ORecordId rid,
+      final OCluster cluster,
+      final boolean created)
+      throws IOException {
+    if (trackChangedRecordsInWAL) {
+      ORecordOperationMetadata metadata =
+          (ORecordOperationMetadata)
+              atomicOperation.getMetadata(ORecordOperationMetadata.RID_METADATA_KEY);
+      if (metadata == null) {
+        metadata = new ORecordOperationMetadata();
+        atomicOperation.addMetadata(metadata);
+        operationsInProgress.add(atomicOperation.getOperationUnitId());
+      }
+      metadata.addRid(rid.copy());
+    }
+
+    final ORecordVersionHistory history = recordVersionHistory;
+    if (history == null) {
+      return;
+    }
+
+    final ORawBuffer beforeImage;
+    if (created) {
+      beforeImage = null;
+    } else {
+      beforeImage = cluster.readRecord(rid.getClusterPosition(), false);
+    }
+
+    history.recordChanged(atomicOperation.getOperationUnitId(), rid.copy(), beforeImage);
+  }
+
+  /**
+   * Returns the positions of the records after, or before if not ascending, the given position.
+   * Scans of a read snapshot do not lock the cluster, the positions changed after the snapshot was
+   * opened are adjusted by the history of the records.
+   */
+  private OPhysicalPosition[] readPositions(
+      final OCluster cluster,
+      final OPhysicalPosition from,
+      final boolean inclusive,
+      final boolean ascending)
+      throws IOException {
+    final OReadSnapshot snapshot = transaction.get() == null ? activeReadSnapshot() : null;
+    if (snapshot == null || !(cluster instanceof OPaginatedCluster)) {
+      if (ascending) {
+        return inclusive ? cluster.ceilingPositions(from) : cluster.higherPositions(from);
+      }
+      return inclusive ? cluster.floorPositions(from) : cluster.lowerPositions(from);
+    }
+
+    final OPhysicalPosition[] positions =
+        ((OPaginatedCluster) cluster).positionsWithoutLocks(from, inclusive, ascending);
+    return recordVersionHistory.adjustPositions(
+        snapshot, cluster.getId(), positions, from.clusterPosition, inclusive, ascending);
+  }
+
+  /**
+   * Reads the record as it was when the snapshot was opened, without record and cluster locks. If
+   * the record is changed meanwhile its content read from the cluster is replaced by the before
+   * image kept by the history.
+   */
+  private ORawBuffer readRecordFromSnapshot(final OReadSnapshot snapshot, final ORecordId rid) {
+    stateLock.readLock().lock();
+    try {
+      checkOpennessAndMigration();
+      checkIfThreadIsBlocked();
+      final OCluster cluster;
+      try {
+        cluster = doGetAndCheckCluster(rid.getClusterId());
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+
+      final long position = rid.getClusterPosition();
+      ORawBuffer buff;
+      if (cluster instanceof OPaginatedCluster) {
+        try {
+          buff = ((OPaginatedCluster) cluster).readRecordWithoutLocks(position);
+        } catch (RuntimeException e) {
+          // A RECORD WHICH IS BEING CHANGED IS READ FROM ITS BEFORE IMAGE
+          if (!recordVersionHistory.hasInvisibleChange(snapshot, rid)) {
+            throw e;
+          }
+          buff = null;
+        }
+      } else {
+        buff = cluster.readRecord(position, false);
+      }
+      buff = recordVersionHistory.read(snapshot, rid, buff);
+
+      recordRead.increment();
+      return buff;
+    } catch (final IOException e) {
+      throw OException.wrapException(
+          new OStorageException("Error during read of record with rid = " + rid), e);
+    } finally {
+      stateLock.readLock().unlock();
+    }
   }
 
   /** @inheritDoc */
@@ -739,6 +937,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         uuid = UUID.randomUUID();
         initLockingStrategy(contextConfiguration);
+        initRecordVersionHistory(contextConfiguration);
+        trackChangedRecordsInWAL =
+            contextConfiguration.getValueAsBoolean(
+                OGlobalConfiguration.STORAGE_TRACK_CHANGED_RECORDS_IN_WAL);
         initIv();
 
         initWalAndDiskCache(contextConfiguration);
@@ -1700,6 +1902,129 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Reads ids of records changed by operations committed after given position in WAL. Operations
+   * are returned in the order in which they were committed, operations which were rolled back are
+   * skipped. Records are tracked only if {@link
+   * OGlobalConfiguration#STORAGE_TRACK_CHANGED_RECORDS_IN_WAL} is enabled.
+   *
+   * @param from LSN of the last processed operation (see {@link OCommittedChanges#getLsn()}), or
+   *     null to read all changes contained in WAL
+   * @param limit maximum amount of operations to return, has to be positive
+   * @return committed operations, empty list if there are no new operations
+   * @throws OStorageException if WAL was already truncated after given position
+   */
+  public List<OCommittedChanges> readChanges(final OLogSequenceNumber from, final int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit of changes to read has to be positive: " + limit);
+    }
+    checkChangedRecordsTracked();
+    stateLock.readLock().lock();
+    try {
+      checkOpennessAndMigration();
+
+      final OLogSequenceNumber retained = retainWAL(from);
+      try {
+        return doReadChanges(from, limit);
+      } finally {
+        writeAheadLog.removeCutTillLimit(retained);
+      }
+    } catch (final IOException e) {
+      throw OException.wrapException(
+          new OStorageException("Error of reading of changed records from WAL"), e);
+    } finally {
+      stateLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Opens stream of changes of records committed after given position in WAL. Till stream is
+   * closed WAL is not truncated after the position of the stream, so changes are not lost if they
+   * are consumed slower than they are committed.
+   *
+   * @param from LSN of the last processed operation, or null to read all changes contained in WAL
+   * @return stream which should be closed once changes are not needed any more
+   * @see #readChanges(OLogSequenceNumber, int)
+   */
+  public OChangeStream openChangeStream(final OLogSequenceNumber from) {
+    checkChangedRecordsTracked();
+    stateLock.readLock().lock();
+    try {
+      checkOpennessAndMigration();
+
+      return new OChangeStream(this, from, retainWAL(from));
+    } finally {
+      stateLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Prevents truncation of WAL after given position.
+   *
+   * @return LSN passed to {@link OWriteAheadLog#addCutTillLimit(OLogSequenceNumber)}, it should be
+   *     removed once WAL is read
+   */
+  OLogSequenceNumber retainWAL(final OLogSequenceNumber from) {
+    final OLogSequenceNumber retained = from != null ? from : writeAheadLog.begin();
+    writeAheadLog.addCutTillLimit(retained);
+
+    // WAL could be truncated before limit was added
+    if (retained.compareTo(writeAheadLog.begin()) < 0) {
+      writeAheadLog.removeCutTillLimit(retained);
+      throw new OStorageException(
+          "Changes committed after " + retained + " were already removed from WAL");
+    }
+    return retained;
+  }
+
+  private List<OCommittedChanges> doReadChanges(final OLogSequenceNumber from, final int limit)
+      throws IOException {
+    final List<OCommittedChanges> changes = new ArrayList<>();
+    List<WriteableWALRecord> records =
+        from != null
+            ? writeAheadLog.next(from, 1_000)
+            : writeAheadLog.read(writeAheadLog.begin(), 1_000);
+    while (!records.isEmpty()) {
+      for (final OWALRecord record : records) {
+        if (!(record instanceof OAtomicUnitEndRecord)) {
+          continue;
+        }
+
+        final OAtomicUnitEndRecord endRecord = (OAtomicUnitEndRecord) record;
+        if (operationsInProgress.contains(endRecord.getOperationUnitId())) {
+          // changes are logged but not visible yet, neither this nor following operations can be
+          // returned without breaking of the order of operations
+          return changes;
+        }
+
+        final ORecordOperationMetadata metadata =
+            (ORecordOperationMetadata)
+                endRecord
+                    .getAtomicOperationMetadata()
+                    .get(ORecordOperationMetadata.RID_METADATA_KEY);
+        if (metadata != null && !endRecord.isRollback()) {
+          changes.add(
+              new OCommittedChanges(
+                  endRecord.getLsn(), Collections.unmodifiableSet(metadata.getValue())));
+          if (changes.size() >= limit) {
+            return changes;
+          }
+        }
+      }
+      records = writeAheadLog.next(records.get(records.size() - 1).getLsn(), 1_000);
+    }
+    return changes;
+  }
+
+  private void checkChangedRecordsTracked() {
+    if (!trackChangedRecordsInWAL) {
+      throw new OStorageException(
+          "Tracking of changed records is switched off by configuration, set the configuration \""
+              + OGlobalConfiguration.STORAGE_TRACK_CHANGED_RECORDS_IN_WAL.getKey()
+              + "\" to \"true\" to enable it");
+    }
+  }
+
   @Override
   public final long count(final int[] iClusterIds, final boolean countTombstones) {
     try {
@@ -1963,6 +2288,79 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Reads several records at once. Records are read in order of cluster and cluster position, so
+   * records that are stored close to each other are read sequentially, and storage lock is acquired
+   * once for the whole batch.
+   *
+   * @param rids RIDs of the records to read, non persistent RIDs are ignored
+   * @return content of the records by RID, records that do not exist are absent from the map
+   */
+  public Map<ORID, ORawBuffer> loadRecords(final Collection<? extends ORID> rids) {
+    try {
+      final List<ORecordId> sorted = new ArrayList<>(rids.size());
+      for (ORID rid : rids) {
+        if (rid.isPersistent()) {
+          sorted.add(new ORecordId(rid.getClusterId(), rid.getClusterPosition()));
+        }
+      }
+      sorted.sort(
+          Comparator.comparingInt(ORecordId::getClusterId)
+              .thenComparingLong(ORecordId::getClusterPosition));
+
+      final Map<ORID, ORawBuffer> result = new HashMap<>(sorted.size());
+      if (readLock) {
+        // RECORD LOCKS ARE ACQUIRED ONE BY ONE
+        for (ORecordId rid : sorted) {
+          putIfNotNull(result, rid, readRecord(rid, false));
+        }
+        return result;
+      }
+
+      final boolean insideTransaction = transaction.get() != null;
+      if (!insideTransaction) {
+        stateLock.readLock().lock();
+      }
+      try {
+        checkOpennessAndMigration();
+        if (!insideTransaction) {
+          checkIfThreadIsBlocked();
+        }
+
+        OCluster cluster = null;
+        for (ORecordId rid : sorted) {
+          if (cluster == null || cluster.getId() != rid.getClusterId()) {
+            try {
+              cluster = doGetAndCheckCluster(rid.getClusterId());
+            } catch (IllegalArgumentException e) {
+              cluster = null;
+              continue;
+            }
+          }
+          putIfNotNull(result, rid, doReadRecord(cluster, rid, false));
+        }
+      } finally {
+        if (!insideTransaction) {
+          stateLock.readLock().unlock();
+        }
+      }
+      return result;
+    } catch (final RuntimeException ee) {
+      throw logAndPrepareForRethrow(ee, false);
+    } catch (final Error ee) {
+      throw logAndPrepareForRethrow(ee, false);
+    } catch (final Throwable t) {
+      throw logAndPrepareForRethrow(t, false);
+    }
+  }
+
+  private static void putIfNotNull(
+      final Map<ORID, ORawBuffer> result, final ORID rid, final ORawBuffer buffer) {
+    if (buffer != null) {
+      result.put(rid, buffer);
+    }
+  }
+
   @Override
   public final OStorageOperationResult<ORawBuffer> readRecordIfVersionIsNotLatest(
       final ORecordId rid,
@@ -2332,6 +2730,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       final List<ORecordOperation> result = new ArrayList<>(8);
+      final List<ORID> acquiredRecordLocks = new ArrayList<>();
       stateLock.readLock().lock();
       try {
 
@@ -2350,6 +2749,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
           Collections.sort(recordLocks);
           for (final ORID rid : recordLocks) {
             acquireWriteLock(rid);
+            acquiredRecordLocks.add(rid);
           }
         }
         try {
@@ -2449,22 +2849,10 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       } finally {
         try {
-          if (modificationLock) {
-            final List<ORID> recordLocks = new ArrayList<>();
-            for (final ORecordOperation recordOperation : recordOperations) {
-              if (recordOperation.type == ORecordOperation.UPDATED
-                  || recordOperation.type == ORecordOperation.DELETED) {
-                recordLocks.add(recordOperation.getRID());
-              }
-            }
-
-            final Set<ORID> locked = transaction.getLockedRecords();
-            if (locked != null) {
-              recordLocks.removeAll(locked);
-            }
-            for (final ORID rid : recordLocks) {
-              releaseWriteLock(rid);
-            }
+          // only locks which were acquired are released, acquisition could be interrupted by
+          // timeout or detected deadlock
+          for (final ORID rid : acquiredRecordLocks) {
+            releaseWriteLock(rid);
           }
         } finally {
           stateLock.readLock().unlock();
@@ -4419,7 +4807,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         checkIfThreadIsBlocked();
 
         final OCluster cluster = doGetAndCheckCluster(currentClusterId);
-        return cluster.higherPositions(physicalPosition);
+        return readPositions(cluster, physicalPosition, false, true);
       } catch (final IOException ioe) {
         throw OException.wrapException(
             new OStorageException(
@@ -4452,7 +4840,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         checkIfThreadIsBlocked();
 
         final OCluster cluster = doGetAndCheckCluster(clusterId);
-        return cluster.ceilingPositions(physicalPosition);
+        return readPositions(cluster, physicalPosition, true, true);
       } catch (final IOException ioe) {
         throw OException.wrapException(
             new OStorageException(
@@ -4486,7 +4874,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         final OCluster cluster = doGetAndCheckCluster(currentClusterId);
 
-        return cluster.lowerPositions(physicalPosition);
+        return readPositions(cluster, physicalPosition, false, false);
       } catch (final IOException ioe) {
         throw OException.wrapException(
             new OStorageException(
@@ -4520,7 +4908,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
 
         final OCluster cluster = doGetAndCheckCluster(clusterId);
 
-        return cluster.floorPositions(physicalPosition);
+        return readPositions(cluster, physicalPosition, true, false);
       } catch (final IOException ioe) {
         throw OException.wrapException(
             new OStorageException(
@@ -4538,16 +4926,20 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Acquires exclusive lock of the record which is held till the end of the transaction. Explicit
+   * record locks do not require pessimistic locking to be enabled in configuration, in such case
+   * they serialize only transactions which lock the same records.
+   *
+   * @param timeout maximum time to wait for the lock in milliseconds, if 0 is passed value of
+   *     {@link OGlobalConfiguration#STORAGE_RECORD_LOCK_TIMEOUT} is used instead
+   * @throws OLockException if lock is not acquired during timeout or deadlock is detected
+   */
   public void acquireWriteLock(final ORID rid, final long timeout) {
-    if (!modificationLock) {
-      throw new ODatabaseException(
-          "Record write locks are off by configuration, set the configuration \"storage.pessimisticLock\" to \""
-              + OrientDBConfig.LOCK_TYPE_READWRITE
-              + "\" for enable them");
-    }
-
     try {
-      lockManager.acquireWriteLock(rid, timeout);
+      lockManager.acquireWriteLock(rid, timeout > 0 ? timeout : recordLockTimeout);
+    } catch (final OLockException e) {
+      throw e;
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
     } catch (final Error ee) {
@@ -4566,7 +4958,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
 
     try {
-      lockManager.acquireWriteLock(rid, 0);
+      lockManager.acquireWriteLock(rid, recordLockTimeout);
+    } catch (final OLockException e) {
+      throw e;
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
     } catch (final Error ee) {
@@ -4597,7 +4991,9 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
 
     try {
-      lockManager.acquireReadLock(rid.copy(), 0);
+      lockManager.acquireReadLock(rid.copy(), recordLockTimeout);
+    } catch (final OLockException e) {
+      throw e;
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
     } catch (final Error ee) {
@@ -4607,16 +5003,16 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     }
   }
 
+  /**
+   * Acquires shared lock of the record which is held till the end of the transaction.
+   *
+   * @see #acquireWriteLock(ORID, long)
+   */
   public void acquireReadLock(final ORID rid, final long timeout) {
-    if (!readLock) {
-      throw new ODatabaseException(
-          "Record read locks are off by configuration, set the configuration \"storage.pessimisticLock\" to \""
-              + OrientDBConfig.LOCK_TYPE_READWRITE
-              + "\" for enable them");
-    }
-
     try {
-      lockManager.acquireReadLock(rid, timeout);
+      lockManager.acquireReadLock(rid, timeout > 0 ? timeout : recordLockTimeout);
+    } catch (final OLockException e) {
+      throw e;
     } catch (final RuntimeException ee) {
       throw logAndPrepareForRethrow(ee);
     } catch (final Error ee) {
@@ -5003,6 +5399,20 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       throws ORecordNotFoundException {
     checkOpennessAndMigration();
 
+    if (activeReadSnapshot() != null && transaction.get() == null) {
+      final ORawBuffer buff = readRecord(rid, false);
+      if (buff == null) {
+        throw new ORecordNotFoundException(
+            rid, "Record " + rid + " is absent in read snapshot of database '" + name + '\'');
+      }
+
+      if (buff.version == recordVersion) {
+        return null;
+      }
+
+      return buff;
+    }
+
     if (!rid.isPersistent()) {
       throw new ORecordNotFoundException(
           rid,
@@ -5076,6 +5486,11 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       return doReadRecord(cluster, rid, prefetchRecords);
     }
 
+    final OReadSnapshot snapshot = activeReadSnapshot();
+    if (snapshot != null) {
+      return readRecordFromSnapshot(snapshot, rid);
+    }
+
     stateLock.readLock().lock();
     try {
 
@@ -5213,6 +5628,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     try {
       ppos = cluster.createRecord(content, recordVersion, recordType, allocated, atomicOperation);
       rid.setClusterPosition(ppos.clusterPosition);
+      trackRecordChange(atomicOperation, rid, cluster, true);
 
       final ORecordSerializationContext context = ORecordSerializationContext.getContext();
       if (context != null) {
@@ -5282,6 +5698,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
       }
 
       if (updateContent) {
+        trackRecordChange(atomicOperation, rid, cluster, false);
         cluster.updateRecord(
             rid.getClusterPosition(), content, ppos.recordVersion, recordType, atomicOperation);
       }
@@ -5356,6 +5773,7 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
         }
       }
 
+      trackRecordChange(atomicOperation, rid, cluster, false);
       cluster.deleteRecord(atomicOperation, ppos.clusterPosition);
 
       final ORecordSerializationContext context = ORecordSerializationContext.getContext();
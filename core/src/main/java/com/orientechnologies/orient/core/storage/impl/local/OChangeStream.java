@@ -0,0 +1,85 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import java.util.List;
+
+/**
+ * Stream of changes of records committed in storage, which are read from WAL. Till stream is
+ * opened WAL is not truncated after the position of the stream. Position of the stream may be
+ * persisted by consumer and used to open the stream again to continue reading of changes after
+ * restart, if WAL still contains it.
+ *
+ * @see OAbstractPaginatedStorage#readChanges(OLogSequenceNumber, int)
+ */
+public final class OChangeStream implements AutoCloseable {
+  private final OAbstractPaginatedStorage storage;
+  private OLogSequenceNumber position;
+  private OLogSequenceNumber retained;
+  private boolean closed;
+
+  OChangeStream(
+      final OAbstractPaginatedStorage storage,
+      final OLogSequenceNumber position,
+      final OLogSequenceNumber retained) {
+    this.storage = storage;
+    this.position = position;
+    this.retained = retained;
+  }
+
+  /**
+   * Reads operations committed after the current position of the stream and moves position after
+   * the last of them.
+   *
+   * @param limit maximum amount of operations to return
+   * @return committed operations, empty list if there are no new operations
+   */
+  public synchronized List<OCommittedChanges> next(final int limit) {
+    if (closed) {
+      throw new OStorageException("Change stream is closed");
+    }
+
+    final List<OCommittedChanges> changes = storage.readChanges(position, limit);
+    if (!changes.isEmpty()) {
+      position = changes.get(changes.size() - 1).getLsn();
+      storage.writeAheadLog.addCutTillLimit(position);
+      storage.writeAheadLog.removeCutTillLimit(retained);
+      retained = position;
+    }
+    return changes;
+  }
+
+  /** @return LSN of the last read operation, null if stream was opened from the beginning of WAL */
+  public synchronized OLogSequenceNumber getPosition() {
+    return position;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    storage.writeAheadLog.removeCutTillLimit(retained);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import java.util.Set;
+
+/**
+ * Records changed by a single committed atomic operation (usually a transaction), as they were
+ * logged in WAL.
+ *
+ * @see OAbstractPaginatedStorage#readChanges(OLogSequenceNumber, int)
+ */
+public final class OCommittedChanges {
+  private final OLogSequenceNumber lsn;
+  private final Set<ORID> rids;
+
+  public OCommittedChanges(final OLogSequenceNumber lsn, final Set<ORID> rids) {
+    this.lsn = lsn;
+    this.rids = rids;
+  }
+
+  /**
+   * @return LSN of the record which completed the operation, changes which follow this operation
+   *     are read by passing this LSN as starting position
+   */
+  public OLogSequenceNumber getLsn() {
+    return lsn;
+  }
+
+  /** @return ids of records created, updated or deleted by the operation */
+  public Set<ORID> getRids() {
+    return rids;
+  }
+}
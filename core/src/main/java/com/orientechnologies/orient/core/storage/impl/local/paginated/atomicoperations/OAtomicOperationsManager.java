@@ -332,6 +332,8 @@ public class OAtomicOperationsManager {
           writeAheadLog.addEventAt(lsn, () -> atomicOperationsTable.persistOperation(operationId));
         }
 
+        storage.onAtomicOperationEnd(operationId, operation.isRollbackInProgress());
+
       } finally {
         final Iterator<String> lockedObjectIterator = operation.lockedObjects().iterator();
 
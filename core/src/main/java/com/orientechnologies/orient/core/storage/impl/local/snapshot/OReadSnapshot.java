@@ -0,0 +1,78 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.snapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Point-in-time view of the records of storage. While snapshot is opened, reads of records and
+ * cluster scans performed by the session which keeps it return state of the records as it was at
+ * the moment of the snapshot creation. Snapshot should be closed once reads are completed,
+ * otherwise history of changes of records will grow infinitely.
+ *
+ * @see ORecordVersionHistory
+ */
+public final class OReadSnapshot implements AutoCloseable {
+  private final ORecordVersionHistory history;
+  private final long commitSequence;
+  private final List<Runnable> closeListeners = new ArrayList<>(2);
+  private boolean closed;
+
+  OReadSnapshot(final ORecordVersionHistory history, final long commitSequence) {
+    this.history = history;
+    this.commitSequence = commitSequence;
+  }
+
+  /** @return commit sequence number of the last operation visible by this snapshot. */
+  public long getCommitSequence() {
+    return commitSequence;
+  }
+
+  /** @return <code>true</code> if snapshot is opened on the given history of changes. */
+  public boolean isSnapshotOf(final ORecordVersionHistory history) {
+    return this.history == history;
+  }
+
+  /** Registers action which is executed when snapshot is closed. */
+  public void onClose(final Runnable listener) {
+    closeListeners.add(listener);
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    try {
+      for (final Runnable listener : closeListeners) {
+        listener.run();
+      }
+    } finally {
+      history.closeSnapshot(this);
+    }
+  }
+}
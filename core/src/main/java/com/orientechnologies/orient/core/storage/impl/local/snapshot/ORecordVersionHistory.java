@@ -0,0 +1,390 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.snapshot;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps previous versions of the records changed by atomic operations, so readers which opened
+ * {@link OReadSnapshot} see the state of the records as it was at the moment of the snapshot
+ * creation.
+ *
+ * <p>Before the record is changed by atomic operation its previous content (or absence of record in
+ * case of creation of new record) is stored in history. When atomic operation is committed it
+ * receives commit sequence number and all before images stored by this operation are marked by
+ * this number. Snapshot remembers commit sequence number of the last committed operation at the
+ * moment of its creation. Changes of operations which are not committed yet or which are committed
+ * with bigger sequence number are invisible for the snapshot, so reader returns before image of the
+ * first invisible change of the record instead of its current content.
+ *
+ * <p>Before images are removed as soon as they are not needed by any of opened snapshots. Changes
+ * of the same record are always ordered by commit order because cluster of the record is
+ * exclusively locked by atomic operation till its completion.
+ *
+ * <p>Every atomic operation stores the before images of the records it changes, before its changes
+ * are applied to the pages of the cluster, so opening a snapshot never waits for the operations in
+ * progress and snapshot readers can read the clusters without locks: the content of a record which
+ * is being changed is replaced by its before image, see {@link #hasInvisibleChange(OReadSnapshot,
+ * ORID)}.
+ */
+public final class ORecordVersionHistory {
+  /** Commit sequence number of atomic operations which are still in progress. */
+  private static final long IN_PROGRESS = Long.MAX_VALUE;
+
+  private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Long, RecordHistory>> clusters =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, List<BeforeImage>> operations = new ConcurrentHashMap<>();
+
+  // fields below are guarded by "this"
+  private long commitSequence;
+  private final TreeMap<Long, Integer> activeSnapshots = new TreeMap<>();
+  private final ArrayDeque<CommittedOperation> committedOperations = new ArrayDeque<>();
+
+  /**
+   * Stores content of record before it is changed by atomic operation. Only first change of the
+   * record inside of atomic operation is tracked.
+   *
+   * @param operationId id of atomic operation which changes record
+   * @param rid id of changed record
+   * @param beforeImage content of the record before the change or <code>null</code> if record is
+   *     created by atomic operation.
+   */
+  public void recordChanged(final long operationId, final ORID rid, final ORawBuffer beforeImage) {
+    final ConcurrentSkipListMap<Long, RecordHistory> cluster =
+        clusters.computeIfAbsent(rid.getClusterId(), (id) -> new ConcurrentSkipListMap<>());
+
+    final BeforeImage image =
+        new BeforeImage(operationId, rid.getClusterId(), rid.getClusterPosition(), beforeImage);
+
+    while (true) {
+      RecordHistory history = cluster.get(rid.getClusterPosition());
+      if (history == null) {
+        final RecordHistory newHistory = new RecordHistory();
+        history = cluster.putIfAbsent(rid.getClusterPosition(), newHistory);
+        if (history == null) {
+          history = newHistory;
+        }
+      }
+
+      final AddResult result = history.add(image);
+      if (result == AddResult.RETIRED) {
+        // history was emptied concurrently by cleanup of closed snapshot
+        cluster.remove(rid.getClusterPosition(), history);
+        continue;
+      }
+
+      if (result == AddResult.ADDED) {
+        operations.computeIfAbsent(operationId, (id) -> new ArrayList<>()).add(image);
+      }
+
+      return;
+    }
+  }
+
+  /**
+   * Should be called when atomic operation is completed but before the locks acquired by the
+   * operation are released.
+   */
+  public void operationCompleted(final long operationId, final boolean rollback) {
+    final List<BeforeImage> images = operations.remove(operationId);
+    if (images == null) {
+      return;
+    }
+
+    if (rollback) {
+      removeImages(images);
+      return;
+    }
+
+    synchronized (this) {
+      final long sequence = ++commitSequence;
+      for (final BeforeImage image : images) {
+        image.commitSequence = sequence;
+      }
+
+      if (activeSnapshots.isEmpty()) {
+        removeImages(images);
+      } else {
+        committedOperations.add(new CommittedOperation(sequence, images));
+      }
+    }
+  }
+
+  /**
+   * Opens snapshot which sees all changes committed till this moment. Changes of atomic operations
+   * in progress are invisible for the snapshot.
+   */
+  public OReadSnapshot openSnapshot() {
+    synchronized (this) {
+      final long sequence = commitSequence;
+      activeSnapshots.merge(sequence, 1, Integer::sum);
+      return new OReadSnapshot(this, sequence);
+    }
+  }
+
+  void closeSnapshot(final OReadSnapshot snapshot) {
+    synchronized (this) {
+      final long sequence = snapshot.getCommitSequence();
+      final Integer counter = activeSnapshots.get(sequence);
+      assert counter != null;
+
+      if (counter == 1) {
+        activeSnapshots.remove(sequence);
+      } else {
+        activeSnapshots.put(sequence, counter - 1);
+      }
+
+      final long minSequence = activeSnapshots.isEmpty() ? IN_PROGRESS : activeSnapshots.firstKey();
+      while (!committedOperations.isEmpty()
+          && committedOperations.peekFirst().commitSequence <= minSequence) {
+        removeImages(committedOperations.pollFirst().images);
+      }
+    }
+  }
+
+  /**
+   * Returns state of the record visible by snapshot.
+   *
+   * @param snapshot snapshot which is used to read the record
+   * @param rid id of the record
+   * @param current current content of the record, read before the call of this method
+   * @return content of the record visible by snapshot or <code>null</code> if record did not exist
+   *     at the moment of the snapshot creation.
+   */
+  public ORawBuffer read(final OReadSnapshot snapshot, final ORID rid, final ORawBuffer current) {
+    final BeforeImage image = firstInvisible(snapshot, rid);
+    if (image == null) {
+      return current;
+    }
+
+    return image.content;
+  }
+
+  /**
+   * Checks if the record was changed by an atomic operation which is in progress or which was
+   * committed after the snapshot creation. Content of such record read from cluster without locks
+   * may be inconsistent, but it is replaced by the before image in {@link #read(OReadSnapshot,
+   * ORID, ORawBuffer)}.
+   */
+  public boolean hasInvisibleChange(final OReadSnapshot snapshot, final ORID rid) {
+    return firstInvisible(snapshot, rid) != null;
+  }
+
+  private BeforeImage firstInvisible(final OReadSnapshot snapshot, final ORID rid) {
+    final ConcurrentSkipListMap<Long, RecordHistory> cluster = clusters.get(rid.getClusterId());
+    if (cluster == null) {
+      return null;
+    }
+
+    final RecordHistory history = cluster.get(rid.getClusterPosition());
+    if (history == null) {
+      return null;
+    }
+
+    return history.firstInvisible(snapshot.getCommitSequence());
+  }
+
+  /**
+   * Adjusts positions of records returned by cluster for the snapshot. Records created after the
+   * snapshot creation are removed from the result and records deleted after the snapshot creation
+   * are added back.
+   *
+   * @param snapshot snapshot which is used to read the cluster
+   * @param clusterId id of the cluster
+   * @param positions positions returned by cluster, sorted in iteration order
+   * @param from position from which iteration is started
+   * @param inclusive whether position from which iteration is started is included in result
+   * @param ascending direction of iteration
+   * @return positions visible by snapshot
+   */
+  public OPhysicalPosition[] adjustPositions(
+      final OReadSnapshot snapshot,
+      final int clusterId,
+      final OPhysicalPosition[] positions,
+      final long from,
+      final boolean inclusive,
+      final boolean ascending) {
+    final ConcurrentSkipListMap<Long, RecordHistory> cluster = clusters.get(clusterId);
+    if (cluster == null || cluster.isEmpty()) {
+      return positions;
+    }
+
+    final ConcurrentNavigableMap<Long, RecordHistory> range;
+    if (ascending) {
+      if (positions.length > 0) {
+        range =
+            cluster.subMap(from, inclusive, positions[positions.length - 1].clusterPosition, true);
+      } else {
+        range = cluster.tailMap(from, inclusive);
+      }
+    } else {
+      if (positions.length > 0) {
+        range =
+            cluster.subMap(positions[positions.length - 1].clusterPosition, true, from, inclusive);
+      } else {
+        range = cluster.headMap(from, inclusive);
+      }
+    }
+
+    if (range.isEmpty()) {
+      return positions;
+    }
+
+    final long sequence = snapshot.getCommitSequence();
+    final NavigableMap<Long, OPhysicalPosition> result = new TreeMap<>();
+    for (final OPhysicalPosition position : positions) {
+      result.put(position.clusterPosition, position);
+    }
+
+    for (final Map.Entry<Long, RecordHistory> entry : range.entrySet()) {
+      final BeforeImage image = entry.getValue().firstInvisible(sequence);
+      if (image == null) {
+        continue;
+      }
+
+      if (image.content == null) {
+        result.remove(entry.getKey());
+      } else if (!result.containsKey(entry.getKey())) {
+        final OPhysicalPosition position = new OPhysicalPosition(entry.getKey());
+        position.recordVersion = image.content.version;
+        position.recordType = image.content.recordType;
+        position.recordSize = image.content.buffer != null ? image.content.buffer.length : 0;
+
+        result.put(entry.getKey(), position);
+      }
+    }
+
+    final List<OPhysicalPosition> adjusted = new ArrayList<>(result.values());
+    if (!ascending) {
+      Collections.reverse(adjusted);
+    }
+
+    return adjusted.toArray(new OPhysicalPosition[0]);
+  }
+
+  private void removeImages(final List<BeforeImage> images) {
+    for (final BeforeImage image : images) {
+      final ConcurrentSkipListMap<Long, RecordHistory> cluster = clusters.get(image.clusterId);
+      if (cluster == null) {
+        continue;
+      }
+
+      final RecordHistory history = cluster.get(image.clusterPosition);
+      if (history != null && history.remove(image)) {
+        cluster.remove(image.clusterPosition, history);
+      }
+    }
+  }
+
+  private static final class BeforeImage {
+    private final long operationId;
+    private final int clusterId;
+    private final long clusterPosition;
+    private final ORawBuffer content;
+
+    private volatile long commitSequence = IN_PROGRESS;
+
+    private BeforeImage(
+        final long operationId,
+        final int clusterId,
+        final long clusterPosition,
+        final ORawBuffer content) {
+      this.operationId = operationId;
+      this.clusterId = clusterId;
+      this.clusterPosition = clusterPosition;
+      this.content = content;
+    }
+  }
+
+  private enum AddResult {
+    ADDED,
+    ALREADY_TRACKED,
+    RETIRED
+  }
+
+  private static final class RecordHistory {
+    // ordered by commit order of operations
+    private final List<BeforeImage> images = new ArrayList<>(2);
+    private boolean retired;
+
+    synchronized AddResult add(final BeforeImage image) {
+      if (retired) {
+        return AddResult.RETIRED;
+      }
+
+      if (!images.isEmpty() && images.get(images.size() - 1).operationId == image.operationId) {
+        return AddResult.ALREADY_TRACKED;
+      }
+
+      images.add(image);
+      return AddResult.ADDED;
+    }
+
+    /** @return <code>true</code> if history became empty and should be removed from cluster map. */
+    synchronized boolean remove(final BeforeImage image) {
+      final Iterator<BeforeImage> iterator = images.iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next() == image) {
+          iterator.remove();
+          break;
+        }
+      }
+
+      if (images.isEmpty()) {
+        retired = true;
+      }
+
+      return retired;
+    }
+
+    synchronized BeforeImage firstInvisible(final long snapshotSequence) {
+      for (final BeforeImage image : images) {
+        if (image.commitSequence > snapshotSequence) {
+          return image;
+        }
+      }
+
+      return null;
+    }
+  }
+
+  private static final class CommittedOperation {
+    private final long commitSequence;
+    private final List<BeforeImage> images;
+
+    private CommittedOperation(final long commitSequence, final List<BeforeImage> images) {
+      this.commitSequence = commitSequence;
+      this.images = images;
+    }
+  }
+}
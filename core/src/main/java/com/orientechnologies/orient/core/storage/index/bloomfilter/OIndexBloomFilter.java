@@ -0,0 +1,159 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.index.bloomfilter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter which is kept in memory alongside of index components to answer "key is absent"
+ * without loading of index pages. Filter works with 64-bit hash codes of keys, positions of bits
+ * are calculated using double hashing.
+ *
+ * <p>Filter is created in "not ready" state, so it can accept keys from concurrent writers while it
+ * is filled by the scan of the index, and only after the scan is completed it may be used to reject
+ * lookups. Keys are never removed from the filter, so removal of keys only increases amount of
+ * false positives. Once amount of added keys exceeds capacity of the filter it reports itself as
+ * saturated and should be replaced by the filter of bigger size.
+ */
+public final class OIndexBloomFilter {
+  private static final int MIN_CAPACITY = 1 << 10;
+  private static final int MAX_WORDS = Integer.MAX_VALUE - 8;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final AtomicLongArray words;
+  private final long bitsCount;
+  private final int hashFunctions;
+  private final long capacity;
+
+  private final AtomicLong keys = new AtomicLong();
+  private final LongAdder rejectedLookups = new LongAdder();
+  private volatile boolean ready;
+
+  /**
+   * @param expectedKeys amount of keys which filter should hold with requested false positive
+   *     rate, filter is sized at least for {@value #MIN_CAPACITY} keys
+   * @param bitsPerKey amount of bits allocated for each key
+   */
+  public OIndexBloomFilter(final long expectedKeys, final int bitsPerKey) {
+    if (bitsPerKey < 1) {
+      throw new IllegalArgumentException("Amount of bits per key should be positive");
+    }
+
+    final long wordsCount =
+        Math.min(MAX_WORDS, (Math.max(expectedKeys, MIN_CAPACITY) * bitsPerKey + 63) / 64);
+
+    this.words = new AtomicLongArray((int) wordsCount);
+    this.bitsCount = wordsCount * 64;
+    this.capacity = bitsCount / bitsPerKey;
+    this.hashFunctions = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+  }
+
+  /**
+   * Adds hash code of the key to the filter.
+   *
+   * @return <code>true</code> if at least one bit of filter was changed, which means that key was
+   *     not present in filter before.
+   */
+  public boolean add(final long hashCode) {
+    final long increment = increment(hashCode);
+
+    boolean changed = false;
+    long combined = hashCode;
+    for (int i = 0; i < hashFunctions; i++) {
+      final long bitIndex = (combined & Long.MAX_VALUE) % bitsCount;
+      changed |= setBit(bitIndex);
+      combined += increment;
+    }
+
+    if (changed) {
+      keys.incrementAndGet();
+    }
+
+    return changed;
+  }
+
+  /**
+   * @return <code>false</code> if key with given hash code was never added to the filter,
+   *     <code>true</code> if key may be present in index.
+   */
+  public boolean mightContain(final long hashCode) {
+    final long increment = increment(hashCode);
+
+    long combined = hashCode;
+    for (int i = 0; i < hashFunctions; i++) {
+      final long bitIndex = (combined & Long.MAX_VALUE) % bitsCount;
+      if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+        rejectedLookups.increment();
+        return false;
+      }
+      combined += increment;
+    }
+
+    return true;
+  }
+
+  /** Marks that all keys of the index are added to the filter and it may be used for lookups. */
+  public void markReady() {
+    ready = true;
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * @return <code>true</code> if amount of keys added to the filter exceeds its capacity and false
+   *     positive rate is higher than requested.
+   */
+  public boolean isSaturated() {
+    return keys.get() > capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /** @return amount of lookups rejected by the filter, so index pages were not loaded for them */
+  public long getRejectedLookups() {
+    return rejectedLookups.sum();
+  }
+
+  private boolean setBit(final long bitIndex) {
+    final int wordIndex = (int) (bitIndex >>> 6);
+    final long mask = 1L << bitIndex;
+
+    while (true) {
+      final long word = words.get(wordIndex);
+      if ((word & mask) != 0) {
+        return false;
+      }
+
+      if (words.compareAndSet(wordIndex, word, word | mask)) {
+        return true;
+      }
+    }
+  }
+
+  private static long increment(final long hashCode) {
+    return (Long.rotateLeft(hashCode, 32) * GOLDEN_RATIO) | 1;
+  }
+}
@@ -1,8 +1,10 @@
 package com.orientechnologies.orient.core.storage.index.hashindex.local.v3;
 
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.util.OCommonConst;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.exception.NotEmptyComponentCanNotBeRemovedException;
@@ -16,6 +18,7 @@ import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
+import com.orientechnologies.orient.core.storage.index.bloomfilter.OIndexBloomFilter;
 import com.orientechnologies.orient.core.storage.index.hashindex.local.OHashFunction;
 import com.orientechnologies.orient.core.storage.index.hashindex.local.OHashTable;
 import java.io.IOException;
@@ -23,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implementation of hash index which is based on <a
@@ -115,6 +119,11 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
   private OHashTableDirectory directory;
 
+  private final boolean bloomFilterEnabled =
+      OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.getValueAsBoolean();
+  private final AtomicBoolean bloomFilterBuilding = new AtomicBoolean();
+  private volatile OIndexBloomFilter bloomFilter;
+
   public OLocalHashTableV3(
       final String name,
       final String metadataConfigurationFileExtension,
@@ -174,6 +183,7 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
             this.keySerializer = keySerializer;
             this.valueSerializer = valueSerializer;
+            this.bloomFilter = null;
 
             initHashTreeState(atomicOperation);
 
@@ -185,6 +195,10 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
   }
 
   public V get(K key) {
+    if (key != null) {
+      initBloomFilter();
+    }
+
     atomicOperationsManager.acquireReadLock(this);
     try {
       acquireSharedLock();
@@ -210,6 +224,11 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
           final long hashCode = keyHashFunction.hashCode(key);
 
+          final OIndexBloomFilter bloomFilter = this.bloomFilter;
+          if (bloomFilter != null && bloomFilter.isReady() && !bloomFilter.mightContain(hashCode)) {
+            return null;
+          }
+
           final BucketPath bucketPath = getBucket(hashCode, atomicOperation);
           final long bucketPointer =
               directory.getNodePointer(
@@ -477,6 +496,7 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
       this.keySerializer = keySerializer;
       this.valueSerializer = valueSerializer;
+      this.bloomFilter = null;
 
       directory = new OHashTableDirectory(treeStateFileExtension, name, getFullName(), storage);
       directory.open(atomicOperation);
@@ -1164,6 +1184,7 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
   public void close() {
     acquireExclusiveLock();
     try {
+      bloomFilter = null;
       flush();
 
       directory.close();
@@ -1198,12 +1219,91 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
             deleteFile(atomicOperation, fileId);
 
             deleteFile(atomicOperation, nullBucketFileId);
+            bloomFilter = null;
           } finally {
             releaseExclusiveLock();
           }
         });
   }
 
+  /**
+   * Starts the build of the Bloom filter of the keys contained in hash table if it is enabled and
+   * was not built yet or was dropped because of saturation. The keys are scanned by a worker of the
+   * engine, so the lookup which triggered the build, and the following ones, are performed without
+   * filter until the scan is completed. Filter is published before the scan of the keys, so keys
+   * added by concurrent operations are added to the filter too, but it is used to reject lookups
+   * only after the scan is completed.
+   */
+  private void initBloomFilter() {
+    if (!bloomFilterEnabled || bloomFilter != null) {
+      return;
+    }
+
+    if (!bloomFilterBuilding.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      Orient.instance().submit(this::buildBloomFilter);
+    } catch (final RuntimeException e) {
+      // engine is shut down or its workers are busy, build is retried during next lookup
+      bloomFilterBuilding.set(false);
+    }
+  }
+
+  private void buildBloomFilter() {
+    try {
+      if (bloomFilter != null) {
+        return;
+      }
+
+      final OIndexBloomFilter filter =
+          new OIndexBloomFilter(
+              2 * size(), OGlobalConfiguration.INDEX_BLOOM_FILTER_BITS_PER_KEY.getValueAsInteger());
+      bloomFilter = filter;
+
+      final Entry<K, V> firstEntry = firstEntry();
+      if (firstEntry != null) {
+        Entry<K, V>[] entries = ceilingEntries(firstEntry.key);
+        while (entries.length > 0) {
+          for (final Entry<K, V> entry : entries) {
+            filter.add(keyHashFunction.hashCode(entry.key));
+          }
+
+          entries = higherEntries(entries[entries.length - 1].key);
+        }
+      }
+
+      filter.markReady();
+    } catch (final RuntimeException e) {
+      // component is closed or deleted during the scan, incomplete filter can not be used
+      final OIndexBloomFilter filter = bloomFilter;
+      if (filter != null && !filter.isReady()) {
+        bloomFilter = null;
+      }
+      OLogManager.instance()
+          .debug(this, "Build of Bloom filter of index component %s is aborted", e, getName());
+    } finally {
+      bloomFilterBuilding.set(false);
+    }
+  }
+
+  /** @return current Bloom filter of the component, null if it is not built or was dropped */
+  OIndexBloomFilter getBloomFilter() {
+    return bloomFilter;
+  }
+
+  private void addToBloomFilter(final long hashCode) {
+    final OIndexBloomFilter filter = bloomFilter;
+    if (filter != null) {
+      filter.add(hashCode);
+      if (filter.isSaturated()) {
+        // will be rebuilt with bigger capacity during next lookup
+        bloomFilter = null;
+      }
+    }
+  }
+
   private void mergeNodeToParent(final BucketPath nodePath, final OAtomicOperation atomicOperation)
       throws IOException {
     final int startIndex = findParentNodeStartIndex(nodePath);
@@ -1340,6 +1440,7 @@ public class OLocalHashTableV3<K, V> extends ODurableComponent implements OHashT
 
     } else {
       final long hashCode = keyHashFunction.hashCode(key);
+      addToBloomFilter(hashCode);
 
       final BucketPath bucketPath = getBucket(hashCode, atomicOperation);
       final long bucketPointer =
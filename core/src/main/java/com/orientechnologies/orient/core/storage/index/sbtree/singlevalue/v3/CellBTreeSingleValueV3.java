@@ -22,10 +22,13 @@ package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
 
 import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.hash.OMurmurHash3;
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
 import com.orientechnologies.common.util.ORawPair;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.encryption.OEncryption;
 import com.orientechnologies.orient.core.exception.NotEmptyComponentCanNotBeRemovedException;
@@ -41,9 +44,11 @@ import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
+import com.orientechnologies.orient.core.storage.index.bloomfilter.OIndexBloomFilter;
 import com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.OCellBTreeSingleValue;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -91,6 +96,7 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
 
   private static final int ENTRY_POINT_INDEX = 0;
   private static final long ROOT_INDEX = 1;
+  private static final int BLOOM_FILTER_SEED = 362498820;
   final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
   private final String nullFileExtension;
@@ -100,6 +106,11 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
   private OBinarySerializer<K> keySerializer;
   private OType[] keyTypes;
 
+  private final boolean bloomFilterEnabled =
+      OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.getValueAsBoolean();
+  private final AtomicBoolean bloomFilterBuilding = new AtomicBoolean();
+  private volatile OIndexBloomFilter bloomFilter;
+
   public CellBTreeSingleValueV3(
       final String name,
       final String dataFileExtension,
@@ -134,6 +145,7 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
               this.keyTypes = null;
             }
             this.keySerializer = keySerializer;
+            this.bloomFilter = null;
 
             fileId = addFile(atomicOperation, getFullName());
             nullBucketFileId = addFile(atomicOperation, getName() + nullFileExtension);
@@ -164,6 +176,10 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
   }
 
   public ORID get(K key) {
+    if (key != null) {
+      initBloomFilter();
+    }
+
     atomicOperationsManager.acquireReadLock(this);
     try {
       acquireSharedLock();
@@ -172,6 +188,15 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
         if (key != null) {
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
 
+          final OIndexBloomFilter bloomFilter = this.bloomFilter;
+          if (bloomFilter != null && bloomFilter.isReady()) {
+            final byte[] serializedKey =
+                keySerializer.serializeNativeAsWhole(key, (Object[]) keyTypes);
+            if (!bloomFilter.mightContain(bloomFilterHash(serializedKey))) {
+              return null;
+            }
+          }
+
           final BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
           if (bucketSearchResult.getItemIndex() < 0) {
             return null;
@@ -244,6 +269,8 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
                         + MAX_KEY_SIZE,
                     getName());
               }
+              addToBloomFilter(serializedKey);
+
               UpdateBucketSearchResult bucketSearchResult =
                   findBucketForUpdate(key, atomicOperation);
 
@@ -383,6 +410,7 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
   public void close() {
     acquireExclusiveLock();
     try {
+      bloomFilter = null;
       readCache.closeFile(fileId, true, writeCache);
       readCache.closeFile(nullBucketFileId, true, writeCache);
     } finally {
@@ -407,12 +435,93 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
 
             deleteFile(atomicOperation, fileId);
             deleteFile(atomicOperation, nullBucketFileId);
+            bloomFilter = null;
           } finally {
             releaseExclusiveLock();
           }
         });
   }
 
+  /**
+   * Starts the build of the Bloom filter of the keys contained in tree if it is enabled and was not
+   * built yet or was dropped because of saturation. The keys are scanned by a worker of the engine,
+   * so the lookup which triggered the build, and the following ones, are performed without filter
+   * until the scan is completed. Filter is published before the scan of the keys, so keys added by
+   * concurrent operations are added to the filter too, but it is used to reject lookups only after
+   * the scan is completed.
+   */
+  private void initBloomFilter() {
+    if (!bloomFilterEnabled || bloomFilter != null) {
+      return;
+    }
+
+    if (!bloomFilterBuilding.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      Orient.instance().submit(this::buildBloomFilter);
+    } catch (final RuntimeException e) {
+      // engine is shut down or its workers are busy, build is retried during next lookup
+      bloomFilterBuilding.set(false);
+    }
+  }
+
+  private void buildBloomFilter() {
+    try {
+      if (bloomFilter != null) {
+        return;
+      }
+
+      final OIndexBloomFilter filter =
+          new OIndexBloomFilter(
+              2 * size(), OGlobalConfiguration.INDEX_BLOOM_FILTER_BITS_PER_KEY.getValueAsInteger());
+      bloomFilter = filter;
+
+      try (final Stream<K> keys = keyStream()) {
+        keys.forEach(
+            key ->
+                filter.add(
+                    bloomFilterHash(
+                        keySerializer.serializeNativeAsWhole(
+                            keySerializer.preprocess(key, (Object[]) keyTypes),
+                            (Object[]) keyTypes))));
+      }
+
+      filter.markReady();
+    } catch (final RuntimeException e) {
+      // component is closed or deleted during the scan, incomplete filter can not be used
+      final OIndexBloomFilter filter = bloomFilter;
+      if (filter != null && !filter.isReady()) {
+        bloomFilter = null;
+      }
+      OLogManager.instance()
+          .debug(this, "Build of Bloom filter of index component %s is aborted", e, getName());
+    } finally {
+      bloomFilterBuilding.set(false);
+    }
+  }
+
+  private void addToBloomFilter(final byte[] serializedKey) {
+    final OIndexBloomFilter filter = bloomFilter;
+    if (filter != null) {
+      filter.add(bloomFilterHash(serializedKey));
+      if (filter.isSaturated()) {
+        // will be rebuilt with bigger capacity during next lookup
+        bloomFilter = null;
+      }
+    }
+  }
+
+  /** @return current Bloom filter of the component, null if it is not built or was dropped */
+  OIndexBloomFilter getBloomFilter() {
+    return bloomFilter;
+  }
+
+  private static long bloomFilterHash(final byte[] serializedKey) {
+    return OMurmurHash3.murmurHash3_x64_64(serializedKey, BLOOM_FILTER_SEED);
+  }
+
   public void load(
       final String name,
       final int keySize,
@@ -429,6 +538,7 @@ public final class CellBTreeSingleValueV3<K> extends ODurableComponent
       this.keySize = keySize;
       this.keyTypes = keyTypes;
       this.keySerializer = keySerializer;
+      this.bloomFilter = null;
     } catch (final IOException e) {
       throw OException.wrapException(
           new CellBTreeSingleValueV3Exception("Exception during loading of sbtree " + name, this),
@@ -62,9 +62,26 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
   private boolean usingLog = true;
   private int txStartCounter;
   private boolean sentToServer = false;
+  private final boolean pessimistic;
 
   public OTransactionOptimistic(final ODatabaseDocumentInternal iDatabase) {
+    this(iDatabase, false);
+  }
+
+  /**
+   * @param pessimistic if true every persistent record read, updated or deleted by the
+   *     transaction is exclusively locked till the end of the transaction, so concurrent
+   *     transactions touching the same records wait for it instead of failing on commit with
+   *     {@link com.orientechnologies.orient.core.exception.OConcurrentModificationException}.
+   */
+  public OTransactionOptimistic(
+      final ODatabaseDocumentInternal iDatabase, final boolean pessimistic) {
     super(iDatabase, txSerial.incrementAndGet());
+    this.pessimistic = pessimistic;
+  }
+
+  public boolean isPessimistic() {
+    return pessimistic;
   }
 
   public void begin() {
@@ -222,7 +239,7 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
             iRecord,
             -1,
             fetchPlan,
-            ignoreCache,
+            lockIfPessimistic(rid) || ignoreCache,
             iUpdateCache,
             loadTombstone,
             lockingStrategy,
@@ -265,7 +282,7 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
             null,
             recordVersion,
             fetchPlan,
-            ignoreCache,
+            lockIfPessimistic(rid) || ignoreCache,
             !ignoreCache,
             false,
             OStorage.LOCKING_STRATEGY.NONE,
@@ -327,7 +344,7 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
               passedRecord,
               -1,
               fetchPlan,
-              ignoreCache,
+              lockIfPessimistic(rid) || ignoreCache,
               !ignoreCache,
               false,
               OStorage.LOCKING_STRATEGY.NONE,
@@ -443,6 +460,22 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
     return iRecord;
   }
 
+  /**
+   * Exclusively locks the persistent record if the transaction is pessimistic and the record is
+   * not locked by it yet. The lock is released when the transaction ends.
+   *
+   * @return true if the lock has been acquired by this call, in such case the record has to be
+   *     read bypassing the local cache, as it may have been changed before the lock was acquired
+   */
+  private boolean lockIfPessimistic(final ORID rid) {
+    if (!pessimistic || !rid.isPersistent() || isLockedRecord(rid)) {
+      return false;
+    }
+
+    lockRecord(rid, OStorage.LOCKING_STRATEGY.EXCLUSIVE_LOCK);
+    return true;
+  }
+
   @Override
   public String toString() {
     return "OTransactionOptimistic [id="
@@ -485,6 +518,9 @@ public class OTransactionOptimistic extends OTransactionRealAbstract {
       if (iStatus == ORecordOperation.CREATED && txEntry != null) {
         iStatus = ORecordOperation.UPDATED;
       }
+      if (iStatus == ORecordOperation.UPDATED || iStatus == ORecordOperation.DELETED) {
+        lockIfPessimistic(rid);
+      }
       switch (iStatus) {
         case ORecordOperation.CREATED:
           {
@@ -22,15 +22,19 @@ package com.orientechnologies.orient.enterprise.channel.binary;
 import com.orientechnologies.common.exception.OInvalidBinaryChunkException;
 import com.orientechnologies.common.io.OIOException;
 import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.compression.OCompression;
 import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.serialization.OBinaryProtocol;
 import com.orientechnologies.orient.enterprise.channel.OChannel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.SequenceInputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.util.Arrays;
@@ -49,6 +53,9 @@ public abstract class OChannelBinary extends OChannel
   public DataOutputStream out;
   private int responseTimeout;
   private int networkTimeout;
+  private DataInputStream networkIn;
+  private DataOutputStream networkOut;
+  private ByteArrayOutputStream bufferedOut;
 
   public OChannelBinary(final Socket iSocket, final OContextConfiguration iConfig)
       throws IOException {
@@ -389,6 +396,53 @@ public abstract class OChannelBinary extends OChannel
     throw new OIOException(message);
   }
 
+  /**
+   * Writes the content to memory instead of the network, until {@link #endBufferOutput()} returns
+   * it.
+   */
+  public void beginBufferOutput() {
+    networkOut = out;
+    bufferedOut = new ByteArrayOutputStream();
+    out = new DataOutputStream(bufferedOut);
+  }
+
+  /** @return the content written since {@link #beginBufferOutput()} */
+  public byte[] endBufferOutput() {
+    out = networkOut;
+    networkOut = null;
+    final byte[] content = bufferedOut.toByteArray();
+    bufferedOut = null;
+    return content;
+  }
+
+  /** Writes the content as it is, without its length. */
+  public void writeRaw(final byte[] content) throws IOException {
+    out.write(content);
+  }
+
+  /** Writes the content compressed, to be read with {@link #readCompressed(OCompression)}. */
+  public void writeCompressed(final OCompression compression, final byte[] content)
+      throws IOException {
+    final byte[] compressed = compression.compress(content);
+    out.writeInt(compressed.length);
+    out.write(compressed);
+  }
+
+  /**
+   * Reads the content written with {@link #writeCompressed(OCompression, byte[])}: the next reads
+   * return its uncompressed bytes, then the ones that follow it on the network.
+   */
+  public void readCompressed(final OCompression compression) throws IOException {
+    if (networkIn == null) networkIn = in;
+
+    final byte[] compressed = new byte[networkIn.readInt()];
+    networkIn.readFully(compressed);
+    in =
+        new DataInputStream(
+            new SequenceInputStream(
+                new ByteArrayInputStream(compression.uncompress(compressed)), networkIn));
+  }
+
   @Override
   public void flush() throws IOException {
     if (debug)
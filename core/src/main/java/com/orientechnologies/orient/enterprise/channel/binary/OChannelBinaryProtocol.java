@@ -67,8 +67,12 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_QUERY = 45; // since 3.0
   public static final byte REQUEST_CLOSE_QUERY = 46; // since 3.0
   public static final byte REQUEST_QUERY_NEXT_PAGE = 47; // since 3.0
+  public static final byte REQUEST_PREPARE_STATEMENT = 48; // since protocol 39
+  public static final byte REQUEST_EXECUTE_PREPARED_STATEMENT = 49; // since protocol 39
 
   public static final byte REQUEST_SERVER_QUERY = 50; // since 3.2
+  public static final byte REQUEST_CLOSE_PREPARED_STATEMENT = 51; // since protocol 39
+  public static final byte REQUEST_READ_CHANGES = 52; // since protocol 39
 
   public static final byte REQUEST_TX_COMMIT = 60;
   public static final byte REQUEST_TX_BEGIN = 61;
@@ -116,6 +120,8 @@ public class OChannelBinaryProtocol {
   public static final byte RESPONSE_STATUS_OK = 0;
   public static final byte RESPONSE_STATUS_ERROR = 1;
   public static final byte PUSH_DATA = 3;
+  // CONTENT OF THE RESPONSE COMPRESSED WITH THE ENCODING ASKED IN THE HANDSHAKE, SINCE PROTOCOL 39
+  public static final byte RESPONSE_STATUS_OK_COMPRESSED = 4;
 
   // CONSTANTS
   public static final short RECORD_NULL = -2;
@@ -143,8 +149,10 @@ public class OChannelBinaryProtocol {
       36; // ABILITY TO CREATE DATABASE FROM INCREMENTAL BACKUP
   public static final int PROTOCOL_VERSION_37 = 37;
   public static final int PROTOCOL_VERSION_38 = 38;
+  public static final int PROTOCOL_VERSION_39 = 39; // PREPARED STATEMENTS, READ OF CHANGES,
+  // COMPRESSED RESPONSES, FAILED OPERATIONS OF BATCH, RECORDS LOADED IN STORED FORMAT
 
-  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_38;
+  public static final int CURRENT_PROTOCOL_VERSION = PROTOCOL_VERSION_39;
   public static final int OLDEST_SUPPORTED_PROTOCOL_VERSION = PROTOCOL_VERSION_26;
 
   // This are specific messages inside the subscribe message
@@ -158,6 +166,7 @@ public class OChannelBinaryProtocol {
   public static final byte SUBSCRIBE_PUSH_INDEX_MANAGER = 5;
   public static final byte SUBSCRIBE_PUSH_FUNCTIONS = 6;
   public static final byte SUBSCRIBE_PUSH_SEQUENCES = 7;
+  public static final byte SUBSCRIBE_PUSH_RECORD_INVALIDATION = 8;
 
   // Used by the client to identify what data was pushed
   public static final byte REQUEST_PUSH_DISTRIB_CONFIG = 80;
@@ -167,9 +176,12 @@ public class OChannelBinaryProtocol {
   public static final byte REQUEST_PUSH_INDEX_MANAGER = 84;
   public static final byte REQUEST_PUSH_FUNCTIONS = 85;
   public static final byte REQUEST_PUSH_SEQUENCES = 86;
+  public static final byte REQUEST_PUSH_RECORD_INVALIDATION = 87;
 
   // Default encoding, in future will be possible to have other encodings
   public static final byte ENCODING_DEFAULT = 0;
+  // The content of the big responses is compressed with gzip
+  public static final byte ENCODING_GZIP = 1;
 
   // Error encoding
   public static final byte ERROR_MESSAGE_JAVA = 0;
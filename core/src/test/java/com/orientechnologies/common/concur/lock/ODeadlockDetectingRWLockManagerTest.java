@@ -0,0 +1,169 @@
+package com.orientechnologies.common.concur.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class ODeadlockDetectingRWLockManagerTest {
+
+  @Test
+  public void testWriteLockIsReentrant() {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    manager.acquireWriteLock("aaa", 10);
+    manager.acquireWriteLock("aaa", 10);
+    manager.releaseWriteLock("aaa");
+    manager.releaseWriteLock("aaa");
+
+    manager.acquireReadLock("aaa", 10);
+    manager.releaseReadLock("aaa");
+  }
+
+  @Test
+  public void testReadLocksAreShared() throws InterruptedException {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    manager.acquireReadLock("aaa", 0);
+
+    CountDownLatch ok = new CountDownLatch(1);
+    new Thread(
+            () -> {
+              manager.acquireReadLock("aaa", 10);
+              manager.releaseReadLock("aaa");
+              ok.countDown();
+            })
+        .start();
+
+    assertTrue(ok.await(1, TimeUnit.SECONDS));
+    manager.releaseReadLock("aaa");
+  }
+
+  @Test
+  public void testWriteWaitReadTimeout() throws InterruptedException {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    manager.acquireReadLock("aaa", 0);
+
+    CountDownLatch error = new CountDownLatch(1);
+    new Thread(
+            () -> {
+              try {
+                manager.acquireWriteLock("aaa", 10);
+              } catch (OLockException e) {
+                error.countDown();
+              }
+            })
+        .start();
+
+    assertTrue(error.await(1, TimeUnit.SECONDS));
+    manager.releaseReadLock("aaa");
+  }
+
+  @Test
+  public void testUpgradeOfOwnReadLock() throws InterruptedException {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    manager.acquireReadLock("aaa", 0);
+    manager.acquireWriteLock("aaa", 0);
+    manager.releaseWriteLock("aaa");
+
+    CountDownLatch ok = new CountDownLatch(1);
+    new Thread(
+            () -> {
+              manager.acquireReadLock("aaa", 0);
+              manager.releaseReadLock("aaa");
+              ok.countDown();
+            })
+        .start();
+
+    assertTrue(ok.await(1, TimeUnit.SECONDS));
+    manager.releaseReadLock("aaa");
+  }
+
+  @Test
+  public void testUpgradeOfSharedReadLockIsDeadlock() throws InterruptedException {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    CountDownLatch locked = new CountDownLatch(2);
+    CountDownLatch done = new CountDownLatch(2);
+    AtomicInteger deadlocks = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      new Thread(
+              () -> {
+                manager.acquireReadLock("aaa", 0);
+                try {
+                  locked.countDown();
+                  locked.await();
+                  manager.acquireWriteLock("aaa", 0);
+                  manager.releaseWriteLock("aaa");
+                } catch (OLockException e) {
+                  deadlocks.incrementAndGet();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                } finally {
+                  manager.releaseReadLock("aaa");
+                  done.countDown();
+                }
+              })
+          .start();
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, deadlocks.get());
+  }
+
+  @Test
+  public void testLockIsOwnedBySuppliedOwner() throws InterruptedException {
+    Object session = new Object();
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>(() -> session);
+    manager.acquireWriteLock("aaa", 0);
+
+    CountDownLatch ok = new CountDownLatch(1);
+    new Thread(
+            () -> {
+              // same owner on another thread, the lock is reentrant and may be released there
+              manager.acquireWriteLock("aaa", 10);
+              manager.releaseWriteLock("aaa");
+              manager.releaseWriteLock("aaa");
+              ok.countDown();
+            })
+        .start();
+
+    assertTrue(ok.await(1, TimeUnit.SECONDS));
+    manager.acquireReadLock("aaa", 10);
+    manager.releaseReadLock("aaa");
+  }
+
+  @Test
+  public void testDeadlockIsDetected() throws InterruptedException {
+    OSimpleRWLockManager<String> manager = new ODeadlockDetectingRWLockManager<>();
+    CountDownLatch locked = new CountDownLatch(2);
+    CountDownLatch done = new CountDownLatch(2);
+    AtomicInteger deadlocks = new AtomicInteger();
+
+    for (String[] keys : new String[][] {{"aaa", "bbb"}, {"bbb", "aaa"}}) {
+      new Thread(
+              () -> {
+                manager.acquireWriteLock(keys[0], 0);
+                try {
+                  locked.countDown();
+                  locked.await();
+                  // waits without timeout, so only deadlock detection may break the wait
+                  manager.acquireWriteLock(keys[1], 0);
+                  manager.releaseWriteLock(keys[1]);
+                } catch (OLockException e) {
+                  deadlocks.incrementAndGet();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                } finally {
+                  manager.releaseWriteLock(keys[0]);
+                  done.countDown();
+                }
+              })
+          .start();
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, deadlocks.get());
+  }
+}
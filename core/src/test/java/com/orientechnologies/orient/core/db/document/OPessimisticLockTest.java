@@ -5,12 +5,20 @@ import static com.orientechnologies.orient.core.db.OrientDBConfig.LOCK_TYPE_READ
 
 import com.orientechnologies.orient.core.OCreateDatabaseUtil;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.tx.OTransaction;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -59,6 +67,55 @@ public class OPessimisticLockTest {
     session.commit();
   }
 
+  @Test
+  public void pessimisticTxHoldsLocksTillCommit() {
+    ORecord rid = session.save(new ODocument("ToLock"));
+    session.begin(OTransaction.TXTYPE.PESSIMISTIC);
+    ODocument record = session.load(rid.getIdentity());
+    Assert.assertTrue(session.getTransaction().isLockedRecord(record));
+    record.setProperty("one", "value");
+    session.save(record);
+    session.commit();
+    Assert.assertFalse(session.getTransaction().isLockedRecord(record));
+  }
+
+  @Test
+  public void pessimisticTxSerializesUpdates() throws Exception {
+    ORID rid = session.save(new ODocument("ToLock").field("counter", 0)).getIdentity();
+    session.begin(OTransaction.TXTYPE.PESSIMISTIC);
+    ODocument record = session.load(rid);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> concurrent =
+          executor.submit(
+              () -> {
+                try (ODatabaseSession other =
+                    orientDB.open(
+                        OPessimisticLockTest.class.getSimpleName(),
+                        "admin",
+                        OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+                  other.begin(OTransaction.TXTYPE.PESSIMISTIC);
+                  ODocument doc = other.load(rid);
+                  doc.field("counter", (Integer) doc.field("counter") + 1);
+                  other.save(doc);
+                  other.commit();
+                  return (Integer) doc.field("counter");
+                }
+              });
+
+      Thread.sleep(100);
+      Assert.assertFalse(concurrent.isDone());
+      record.field("counter", (Integer) record.field("counter") + 1);
+      session.save(record);
+      session.commit();
+
+      Assert.assertEquals(2, (int) concurrent.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @After
   public void after() {
     session.close();
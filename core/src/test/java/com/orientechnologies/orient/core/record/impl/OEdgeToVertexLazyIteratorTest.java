@@ -0,0 +1,89 @@
+package com.orientechnologies.orient.core.record.impl;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OEdgeToVertexLazyIteratorTest {
+
+  private static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OEdgeToVertexLazyIteratorTest");
+    db.create();
+    db.createVertexClass("LazyPerson");
+    db.createEdgeClass("LazyKnows");
+    db.createEdgeClass("LazyLikes");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.drop();
+  }
+
+  private static Set<ORID> vertices(final Iterable<OVertex> iterable) {
+    final Set<ORID> result = new HashSet<>();
+    for (OVertex vertex : iterable) {
+      result.add(vertex.getIdentity());
+    }
+    return result;
+  }
+
+  private static Set<ORID> rids(final OVertex... vertices) {
+    final Set<ORID> result = new HashSet<>();
+    for (OVertex vertex : vertices) {
+      result.add(vertex.getIdentity());
+    }
+    return result;
+  }
+
+  @Test
+  public void testVerticesAreResolvedWithoutLoadingEdges() {
+    final OVertex a = db.save(db.newVertex("LazyPerson"));
+    final OVertex b = db.save(db.newVertex("LazyPerson"));
+    final OVertex c = db.save(db.newVertex("LazyPerson"));
+
+    final OEdge ab = db.save(a.addEdge(b, "LazyKnows"));
+    db.save(a.addEdge(c, "LazyLikes"));
+
+    db.getLocalCache().clear();
+    final OVertex loadedA = db.<ODocument>load(a.getIdentity()).asVertex().get();
+    final OVertex loadedB = db.<ODocument>load(b.getIdentity()).asVertex().get();
+
+    Assert.assertEquals(rids(b, c), vertices(loadedA.getVertices(ODirection.OUT)));
+    Assert.assertEquals(rids(b), vertices(loadedA.getVertices(ODirection.OUT, "LazyKnows")));
+    Assert.assertEquals(rids(a), vertices(loadedB.getVertices(ODirection.IN)));
+    Assert.assertEquals(rids(b, c), vertices(loadedA.getVertices(ODirection.BOTH)));
+
+    // EDGES WERE NOT LOADED
+    Assert.assertNull(db.getLocalCache().findRecord(ab.getIdentity()));
+  }
+
+  @Test
+  public void testEdgesOfTransaction() {
+    final OVertex a = db.save(db.newVertex("LazyPerson"));
+    final OVertex b = db.save(db.newVertex("LazyPerson"));
+    db.save(a.addEdge(b, "LazyKnows"));
+
+    db.begin();
+    try {
+      final OVertex c = db.save(db.newVertex("LazyPerson"));
+      db.save(a.addEdge(c, "LazyKnows"));
+
+      Assert.assertEquals(rids(b, c), vertices(a.getVertices(ODirection.OUT, "LazyKnows")));
+      Assert.assertEquals(rids(a), vertices(c.getVertices(ODirection.IN)));
+    } finally {
+      db.rollback();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.orientechnologies.orient.core.record.impl;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.Collections;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OVertexAdjacencyIndexTest {
+
+  private static ODatabaseDocument db;
+
+  @BeforeClass
+  public static void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OVertexAdjacencyIndexTest");
+    db.create();
+    db.getConfiguration().setValue(OGlobalConfiguration.RID_BAG_ADJACENCY_INDEX, true);
+    OVertexAdjacencyIndex.createIfNeeded((ODatabaseDocumentInternal) db);
+    db.createVertexClass("AdjPerson");
+    db.createEdgeClass("AdjKnows");
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    db.drop();
+  }
+
+  @Test
+  public void testEdgesAreIndexed() {
+    OVertex a = db.save(db.newVertex("AdjPerson"));
+    OVertex b = db.save(db.newVertex("AdjPerson"));
+    OVertex c = db.save(db.newVertex("AdjPerson"));
+
+    db.save(a.addEdge(b, "AdjKnows"));
+    db.save(a.addEdge(b, "AdjKnows"));
+    OEdge toC = db.save(a.addEdge(c, "AdjKnows"));
+
+    ODocument aDoc = db.load(a.getIdentity());
+    ODocument bDoc = db.load(b.getIdentity());
+    Assert.assertEquals(
+        Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+    Assert.assertEquals(
+        Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", c.getIdentity()));
+    Assert.assertEquals(
+        Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(bDoc, "in_AdjKnows", a.getIdentity()));
+    Assert.assertEquals(
+        Boolean.FALSE, OVertexAdjacencyIndex.isAdjacent(bDoc, "out_AdjKnows", a.getIdentity()));
+    Assert.assertEquals(Collections.singleton("out_AdjKnows"), aDoc.getPropertyNames());
+
+    toC.delete();
+
+    aDoc = db.load(a.getIdentity());
+    Assert.assertEquals(
+        Boolean.FALSE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", c.getIdentity()));
+    Assert.assertEquals(
+        Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+  }
+
+  @Test
+  public void testEdgesOfTransactionAreIndexed() {
+    OVertex a = db.save(db.newVertex("AdjPerson"));
+    OVertex b = db.save(db.newVertex("AdjPerson"));
+
+    db.begin();
+    try {
+      db.save(a.addEdge(b, "AdjKnows"));
+      ODocument aDoc = db.load(a.getIdentity());
+      Assert.assertEquals(
+          Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+    } finally {
+      db.rollback();
+    }
+
+    ODocument aDoc = db.load(a.getIdentity());
+    Assert.assertEquals(
+        Boolean.FALSE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+  }
+
+  @Test
+  public void testIndexIsIgnoredTillBuilt() {
+    OVertex a = db.save(db.newVertex("AdjPerson"));
+    OVertex b = db.save(db.newVertex("AdjPerson"));
+    db.save(a.addEdge(b, "AdjKnows"));
+    ODocument aDoc = db.load(a.getIdentity());
+
+    ODatabaseDocumentInternal internal = (ODatabaseDocumentInternal) db;
+    internal.getStorage().setProperty(OVertexAdjacencyIndex.BUILT_PROPERTY, "false");
+    Assert.assertNull(OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+    Assert.assertNull(OVertexAdjacencyIndex.getAdjacent(internal, aDoc, "out_AdjKnows"));
+
+    OVertexAdjacencyIndex.createIfNeeded(internal);
+    Assert.assertEquals(
+        Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+  }
+
+  @Test
+  public void testBuildRemovesEntriesOfDeletedEdges() {
+    OVertex a = db.save(db.newVertex("AdjPerson"));
+    OVertex b = db.save(db.newVertex("AdjPerson"));
+    OEdge edge = db.save(a.addEdge(b, "AdjKnows"));
+    edge.delete();
+
+    // ADDED BY A BUILD THAT READ THE EDGE BEFORE IT WAS DELETED
+    ODatabaseDocumentInternal internal = (ODatabaseDocumentInternal) db;
+    internal.getStorage().setProperty(OVertexAdjacencyIndex.BUILT_PROPERTY, "false");
+    db.begin();
+    OIndex index = OVertexAdjacencyIndex.getIndex(internal);
+    index.put(new OCompositeKey(a.getIdentity(), "out_AdjKnows", b.getIdentity()), edge);
+    db.commit();
+
+    OVertexAdjacencyIndex.createIfNeeded(internal);
+    ODocument aDoc = db.load(a.getIdentity());
+    Assert.assertEquals(
+        Boolean.FALSE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+  }
+
+  @Test
+  public void testIndexIsBuiltFromExistingEdges() {
+    ODatabaseDocument other = new ODatabaseDocumentTx("memory:OVertexAdjacencyIndexTestBuild");
+    other.create();
+    try {
+      other.createVertexClass("AdjPerson");
+      other.createEdgeClass("AdjKnows");
+      OVertex a = other.save(other.newVertex("AdjPerson"));
+      OVertex b = other.save(other.newVertex("AdjPerson"));
+      other.save(a.addEdge(b, "AdjKnows"));
+
+      ODocument aDoc = other.load(a.getIdentity());
+      Assert.assertNull(OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+
+      other.getConfiguration().setValue(OGlobalConfiguration.RID_BAG_ADJACENCY_INDEX, true);
+      OVertexAdjacencyIndex.createIfNeeded((ODatabaseDocumentInternal) other);
+
+      Assert.assertEquals(
+          Boolean.TRUE, OVertexAdjacencyIndex.isAdjacent(aDoc, "out_AdjKnows", b.getIdentity()));
+    } finally {
+      other.drop();
+      db.activateOnCurrentThread();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.orientechnologies.orient.core.serialization.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.sql.executor.OResultInternal;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import org.junit.Test;
+
+public class OCBORWriterTest {
+
+  @Test
+  public void testScalars() throws IOException {
+    assertEncoded(null, 0xf6);
+    assertEncoded(true, 0xf5);
+    assertEncoded(0, 0x00);
+    assertEncoded(23, 0x17);
+    assertEncoded(100, 0x18, 0x64);
+    assertEncoded(1000, 0x19, 0x03, 0xe8);
+    assertEncoded(1000000L, 0x1a, 0x00, 0x0f, 0x42, 0x40);
+    assertEncoded(-1, 0x20);
+    assertEncoded(-1000, 0x39, 0x03, 0xe7);
+    assertEncoded(1.5d, 0xfb, 0x3f, 0xf8, 0, 0, 0, 0, 0, 0);
+    assertEncoded("a", 0x61, 0x61);
+    assertEncoded(new byte[] {1, 2}, 0x42, 0x01, 0x02);
+    assertEncoded(new BigDecimal("273.15"), 0xc4, 0x82, 0x21, 0x19, 0x6a, 0xb3);
+    assertEncoded(new Date(1363896240000L), 0xc1, 0x1a, 0x51, 0x4b, 0x67, 0xb0);
+  }
+
+  @Test
+  public void testCollections() throws IOException {
+    assertEncoded(Arrays.asList(1, 2), 0x82, 0x01, 0x02);
+    assertEncoded(Collections.singletonMap("a", 1), 0xa1, 0x61, 0x61, 0x01);
+    assertEncoded(Arrays.asList(1, 2).iterator(), 0x9f, 0x01, 0x02, 0xff);
+    assertEncoded(new ORecordId(1, 2), 0x64, '#', '1', ':', '2');
+  }
+
+  @Test
+  public void testResult() throws IOException {
+    OResultInternal result = new OResultInternal();
+    result.setProperty("a", 1);
+    assertEncoded(result, 0xbf, 0x61, 0x61, 0x01, 0xff);
+  }
+
+  private void assertEncoded(Object value, int... expected) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new OCBORWriter(out).writeValue(value);
+
+    final byte[] bytes = new byte[expected.length];
+    for (int i = 0; i < expected.length; i++) {
+      bytes[i] = (byte) expected[i];
+    }
+    assertArrayEquals(bytes, out.toByteArray());
+  }
+}
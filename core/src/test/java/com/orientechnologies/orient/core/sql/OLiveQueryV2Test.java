@@ -194,6 +194,49 @@ public class OLiveQueryV2Test {
     }
   }
 
+  @Test
+  public void testLiveWithIndexedWhereCondition() throws InterruptedException {
+    final OrientDB context =
+        OCreateDatabaseUtil.createDatabase(
+            "testLiveWithIndexedWhereCondition", "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    try (ODatabaseDocumentInternal db =
+        (ODatabaseDocumentInternal)
+            context.open(
+                "testLiveWithIndexedWhereCondition",
+                "admin",
+                OCreateDatabaseUtil.NEW_ADMIN_PASSWORD)) {
+
+      OSchema schema = db.getMetadata().getSchema();
+      OClass parent = schema.createClass("IndexedParent");
+      schema.createClass("IndexedChild", parent);
+
+      MyLiveQueryListener foo = new MyLiveQueryListener(new CountDownLatch(3));
+      MyLiveQueryListener bar = new MyLiveQueryListener(new CountDownLatch(1));
+      OLiveQueryMonitor fooMonitor =
+          db.live("select from IndexedParent where name = 'foo' and surname is not null", foo);
+      OLiveQueryMonitor barMonitor =
+          db.live("select from IndexedParent where name = ?", bar, "bar");
+
+      db.command("insert into IndexedChild set name = 'foo', surname = 'a'").close();
+      db.command("insert into IndexedParent set name = 'bar', surname = 'b'").close();
+      db.command("insert into IndexedParent set name = 'baz', surname = 'c'").close();
+      db.command("update IndexedParent set name = 'foo' where surname = 'c'").close();
+      db.command("delete from IndexedChild").close();
+
+      Assert.assertTrue(foo.latch.await(1, TimeUnit.MINUTES));
+      Assert.assertTrue(bar.latch.await(1, TimeUnit.MINUTES));
+      fooMonitor.unSubscribe();
+      barMonitor.unSubscribe();
+
+      Assert.assertEquals(3, foo.ops.size());
+      for (OResult doc : foo.ops) {
+        Assert.assertEquals("foo", doc.getProperty("name"));
+      }
+      Assert.assertEquals(1, bar.ops.size());
+      Assert.assertEquals("b", bar.ops.get(0).getProperty("surname"));
+    }
+  }
+
   @Test
   public void testRestrictedLiveInsert() throws ExecutionException, InterruptedException {
     ODatabaseDocumentTx db = new ODatabaseDocumentTx("memory:OLiveQueryTest");
@@ -0,0 +1,43 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FetchFromClassExecutionStepTest extends TestUtilsFixture {
+
+  @Test
+  public void shouldPullFullBatchesAcrossClusters() {
+    OClass clazz = createClassInstance();
+    clazz.addCluster(clazz.getName() + "_extra1");
+    clazz.addCluster(clazz.getName() + "_extra2");
+    Set<ORID> saved = new HashSet<>();
+    for (int i = 0; i < 25; i++) {
+      saved.add(new ODocument(clazz.getName()).save().getIdentity());
+    }
+
+    OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(database);
+    FetchFromClassExecutionStep step =
+        new FetchFromClassExecutionStep(clazz.getName(), null, context, null, false);
+
+    Set<ORID> fetched = new HashSet<>();
+    int[] sizes = new int[4];
+    for (int i = 0; i < sizes.length; i++) {
+      List<OResult> batch = step.syncPullBatch(context, 10);
+      sizes[i] = batch.size();
+      for (OResult result : batch) {
+        fetched.add(result.getIdentity().get());
+      }
+    }
+
+    Assert.assertArrayEquals(new int[] {10, 10, 5, 0}, sizes);
+    Assert.assertEquals(saved, fetched);
+  }
+}
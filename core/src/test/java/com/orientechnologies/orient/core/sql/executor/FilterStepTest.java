@@ -0,0 +1,165 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OWhereClause;
+import com.orientechnologies.orient.core.sql.parser.OrientSql;
+import com.orientechnologies.orient.core.sql.parser.ParseException;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FilterStepTest extends TestUtilsFixture {
+
+  @Test
+  public void testPartialBatches() throws ParseException {
+    OCommandContext ctx = createContext();
+    FilterStep step = new FilterStep(where("name = 'foo'"), ctx, -1, false);
+    SourceStep source = new SourceStep(ctx, 10, 3, 0);
+    step.setPrevious(source);
+
+    // THE FILTER PULLS SMALL UPSTREAM BATCHES TILL ITS OWN BATCH IS FULL
+    List<OResult> batch = step.syncPullBatch(ctx, 4);
+    Assert.assertEquals(4, batch.size());
+    for (OResult item : batch) {
+      Assert.assertEquals("foo", item.getProperty("name"));
+    }
+
+    // ONLY ONE MATCHING RECORD IS LEFT
+    batch = step.syncPullBatch(ctx, 4);
+    Assert.assertEquals(1, batch.size());
+    Assert.assertEquals(8, (int) batch.get(0).getProperty("id"));
+
+    Assert.assertTrue(step.syncPullBatch(ctx, 4).isEmpty());
+  }
+
+  @Test
+  public void testUpstreamIsPulledLazily() throws ParseException {
+    OCommandContext ctx = createContext();
+    FilterStep step = new FilterStep(where("id >= 0"), ctx, -1, false);
+    SourceStep source = new SourceStep(ctx, 10000, 10000, 0);
+    step.setPrevious(source);
+
+    Assert.assertEquals(3, step.syncPullBatch(ctx, 3).size());
+    Assert.assertEquals(3, source.pulled);
+  }
+
+  @Test
+  public void testLimitStopsEarly() {
+    OClass clazz = createClassInstance();
+    for (int i = 0; i < 100; i++) {
+      database.save(new ODocument(clazz).field("id", i));
+    }
+
+    try (OResultSet result =
+        database.query("select from " + clazz.getName() + " where id >= 50 limit 3")) {
+      List<Integer> ids = new ArrayList<>();
+      result.stream().forEach(item -> ids.add(item.getProperty("id")));
+      Assert.assertEquals(3, ids.size());
+      for (int id : ids) {
+        Assert.assertTrue(id >= 50);
+      }
+    }
+  }
+
+  @Test
+  public void testCurrentInPredicate() throws ParseException {
+    OCommandContext ctx = createContext();
+    OResultInternal outer = new OResultInternal();
+    outer.setProperty("name", "foo");
+    ctx.setVariable("$current", outer);
+
+    FilterStep step = new FilterStep(where("$current.name = 'bar'"), ctx, -1, false);
+    step.setPrevious(new SourceStep(ctx, 10, 10, 0));
+
+    List<OResult> batch = step.syncPullBatch(ctx, 10);
+    Assert.assertEquals(5, batch.size());
+    for (OResult item : batch) {
+      Assert.assertEquals("bar", item.getProperty("name"));
+    }
+    Assert.assertSame(outer, ctx.getVariable("$current"));
+  }
+
+  @Test
+  public void testTimeout() throws ParseException {
+    OCommandContext ctx = createContext();
+    FilterStep step = new FilterStep(where("name = 'foo'"), ctx, 1, false);
+    SourceStep source = new SourceStep(ctx, 10, 2, 10);
+    step.setPrevious(source);
+
+    step.syncPullBatch(ctx, 5);
+    Assert.assertTrue(source.timedOut);
+  }
+
+  private OCommandContext createContext() {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase((ODatabaseDocumentInternal) database);
+    return ctx;
+  }
+
+  private static OWhereClause where(String condition) throws ParseException {
+    OrientSql parser =
+        new OrientSql(new ByteArrayInputStream(("select from V where " + condition).getBytes()));
+    return ((OSelectStatement) parser.parse()).getWhereClause();
+  }
+
+  /**
+   * Returns records with an increasing id, named "foo" when the id is even and "bar" otherwise, in
+   * batches of at most the given size.
+   */
+  private static class SourceStep extends AbstractExecutionStep {
+    private final int size;
+    private final int maxBatchSize;
+    private final long delayMillis;
+    private int pulled;
+    private boolean timedOut;
+
+    SourceStep(OCommandContext ctx, int size, int maxBatchSize, long delayMillis) {
+      super(ctx, false);
+      this.size = size;
+      this.maxBatchSize = maxBatchSize;
+      this.delayMillis = delayMillis;
+    }
+
+    @Override
+    public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+      OInternalResultSet result = new OInternalResultSet();
+      for (OResult item : syncPullBatch(ctx, nRecords)) {
+        result.add(item);
+      }
+      return result;
+    }
+
+    @Override
+    public List<OResult> syncPullBatch(OCommandContext ctx, int batchSize) {
+      if (delayMillis > 0) {
+        try {
+          Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      List<OResult> result = new ArrayList<>();
+      while (pulled < size && result.size() < Math.min(batchSize, maxBatchSize)) {
+        OResultInternal item = new OResultInternal();
+        item.setProperty("id", pulled);
+        item.setProperty("name", pulled % 2 == 0 ? "foo" : "bar");
+        result.add(item);
+        pulled++;
+      }
+      return result;
+    }
+
+    @Override
+    public void sendTimeout() {
+      timedOut = true;
+    }
+  }
+}
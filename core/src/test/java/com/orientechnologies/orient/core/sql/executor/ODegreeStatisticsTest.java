@@ -0,0 +1,177 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ODegreeStatisticsTest {
+  private static final Set<String> PERSON = Collections.singleton("Person");
+  private static final Set<String> KNOWS = Collections.singleton("Knows");
+
+  private OrientDB orientDB;
+  private ODatabaseDocument db;
+
+  @Before
+  public void before() {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            "test", "embedded:./target/databases", OCreateDatabaseUtil.TYPE_MEMORY);
+    db = orientDB.open("test", "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDB.close();
+  }
+
+  private static ODegreeStatistics newStatistics(int supernodeThreshold) {
+    ODegreeStatistics statistics = new ODegreeStatistics(supernodeThreshold);
+    statistics.initEmpty();
+    return statistics;
+  }
+
+  @Test
+  public void testHistogram() {
+    ODegreeStatistics statistics = newStatistics(100);
+    for (int i = 0; i < 9; i++) {
+      statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, i), 0, 1);
+    }
+    statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, 9), 0, 200);
+
+    Assert.assertEquals(10, statistics.getVertexCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(209, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(20.9, statistics.getAverageDegree(PERSON, KNOWS, ODirection.OUT), 0.001);
+    Assert.assertEquals(1, statistics.getPercentile(PERSON, KNOWS, ODirection.OUT, 0.5));
+    Assert.assertEquals(200, statistics.getPercentile(PERSON, KNOWS, ODirection.OUT, 1));
+    Assert.assertEquals(
+        200,
+        statistics.getSupernodeDegree(PERSON, KNOWS, ODirection.OUT, new ORecordId(10, 9)));
+    Assert.assertEquals(
+        -1, statistics.getSupernodeDegree(PERSON, KNOWS, ODirection.OUT, new ORecordId(10, 0)));
+    Assert.assertEquals(-1, statistics.getEdgeCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(209, statistics.getEdgeCount(PERSON, KNOWS, ODirection.BOTH));
+
+    statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, 9), 200, 2);
+    Assert.assertEquals(11, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertTrue(statistics.getSupernodes(PERSON, KNOWS, ODirection.OUT).isEmpty());
+  }
+
+  @Test
+  public void testIncompleteStatisticsAreIgnored() {
+    ODegreeStatistics statistics = new ODegreeStatistics(100);
+    Assert.assertFalse(statistics.isComplete());
+    statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, 0), 0, 1);
+    Assert.assertEquals(-1, statistics.getVertexCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(-1, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(-1, statistics.getAverageDegree(PERSON, KNOWS, ODirection.OUT), 0.001);
+
+    // SAVED BEFORE THE COMPLETENESS FLAG
+    statistics = newStatistics(100);
+    statistics.fromJSON("{\"distributions\":[]}");
+    Assert.assertFalse(statistics.isComplete());
+  }
+
+  @Test
+  public void testBuildFromExistingEdges() {
+    db.createVertexClass("Person");
+    db.createEdgeClass("Knows");
+    db.begin();
+    OVertex hub = db.newVertex("Person");
+    hub.save();
+    for (int i = 0; i < 3; i++) {
+      OVertex friend = db.newVertex("Person");
+      friend.save();
+      hub.addEdge(friend, "Knows").save();
+    }
+    db.commit();
+
+    ODegreeStatistics statistics = new ODegreeStatistics(3);
+    Assert.assertEquals(-1, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+
+    statistics.build((ODatabaseDocumentInternal) db);
+    Assert.assertTrue(statistics.isComplete());
+    Assert.assertEquals(1, statistics.getVertexCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(3, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(3, statistics.getVertexCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(3, statistics.getEdgeCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(
+        3, statistics.getSupernodeDegree(PERSON, KNOWS, ODirection.OUT, hub.getIdentity()));
+  }
+
+  @Test
+  public void testUnknownVertexDoesNotGoBelowZero() {
+    ODegreeStatistics statistics = newStatistics(100);
+    statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, 0), 0, 1);
+    statistics.update("Person", "Knows", ODirection.OUT, new ORecordId(10, 1), 5, 0);
+    Assert.assertEquals(1, statistics.getVertexCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(1, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+  }
+
+  @Test
+  public void testJSON() {
+    ODegreeStatistics statistics = newStatistics(2);
+    statistics.update("Person", "Knows", ODirection.IN, new ORecordId(10, 1), 0, 3);
+    statistics.update("Person", "Knows", ODirection.IN, new ORecordId(10, 2), 0, 1);
+    Assert.assertTrue(statistics.isDirty());
+
+    String json = statistics.toJSON();
+    Assert.assertFalse(statistics.isDirty());
+
+    ODegreeStatistics loaded = new ODegreeStatistics(2);
+    loaded.fromJSON(json);
+    Assert.assertTrue(loaded.isComplete());
+    Assert.assertFalse(json.contains("members"));
+    Assert.assertEquals(2, loaded.getVertexCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(4, loaded.getEdgeCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(
+        3, loaded.getSupernodeDegree(PERSON, KNOWS, ODirection.IN, new ORecordId(10, 1)));
+
+    loaded.update("Person", "Knows", ODirection.IN, new ORecordId(10, 2), 1, 0);
+    Assert.assertEquals(1, loaded.getVertexCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(3, loaded.getEdgeCount(PERSON, KNOWS, ODirection.IN));
+  }
+
+  @Test
+  public void testUpdatedOnCommit() {
+    db.createVertexClass("Person");
+    db.createEdgeClass("Knows");
+    ODegreeStatistics statistics = ODegreeStatistics.get((ODatabaseDocumentInternal) db);
+
+    db.begin();
+    OVertex hub = db.newVertex("Person");
+    hub.save();
+    for (int i = 0; i < 3; i++) {
+      OVertex friend = db.newVertex("Person");
+      friend.save();
+      hub.addEdge(friend, "Knows").save();
+    }
+    db.commit();
+
+    Assert.assertEquals(1, statistics.getVertexCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(3, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(3, statistics.getVertexCount(PERSON, KNOWS, ODirection.IN));
+    Assert.assertEquals(3, statistics.getEdgeCount(PERSON, KNOWS, ODirection.IN));
+
+    db.begin();
+    OVertex other = db.newVertex("Person");
+    other.save();
+    db.<OVertex>load(hub.getIdentity()).addEdge(other, "Knows").save();
+    db.rollback();
+    Assert.assertEquals(3, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+
+    db.command("delete edge Knows").close();
+    Assert.assertEquals(0, statistics.getEdgeCount(PERSON, KNOWS, ODirection.OUT));
+    Assert.assertEquals(0, statistics.getVertexCount(PERSON, KNOWS, ODirection.IN));
+  }
+}
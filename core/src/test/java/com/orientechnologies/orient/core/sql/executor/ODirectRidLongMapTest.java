@@ -0,0 +1,47 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODirectRidLongMapTest {
+
+  @Test
+  public void testPutAndGet() {
+    try (ODirectRidLongMap map = new ODirectRidLongMap()) {
+      Assert.assertEquals(-1, map.get(new ORecordId(1, 1), -1));
+
+      for (int i = 0; i < 5_000; i++) {
+        map.put(new ORecordId(1 + i % 3, i), i * 2L);
+      }
+      Assert.assertEquals(5_000, map.size());
+
+      for (int i = 0; i < 5_000; i++) {
+        Assert.assertEquals(i * 2L, map.get(new ORecordId(1 + i % 3, i), -1));
+      }
+      Assert.assertFalse(map.containsKey(new ORecordId(1, 5_001)));
+
+      map.put(new ORecordId(1, 0), Double.doubleToRawLongBits(0.5));
+      Assert.assertEquals(5_000, map.size());
+      Assert.assertEquals(0.5, Double.longBitsToDouble(map.get(new ORecordId(1, 0), -1)), 0);
+    }
+  }
+
+  @Test
+  public void testNotPersistentRids() {
+    try (ODirectRidLongMap map = new ODirectRidLongMap()) {
+      map.put(new ORecordId(-1, -2), 10);
+      map.put(new ORecordId(1, 2), 20);
+
+      Assert.assertTrue(map.containsKey(new ORecordId(-1, -2)));
+      Assert.assertEquals(10, map.get(new ORecordId(-1, -2), -1));
+      Assert.assertEquals(20, map.get(new ORecordId(1, 2), -1));
+      Assert.assertEquals(-1, map.get(new ORecordId(-1, -3), -1));
+      Assert.assertEquals(2, map.size());
+
+      map.close();
+      Assert.assertTrue(map.isEmpty());
+      Assert.assertFalse(map.containsKey(new ORecordId(1, 2)));
+    }
+  }
+}
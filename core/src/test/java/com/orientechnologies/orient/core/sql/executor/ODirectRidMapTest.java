@@ -0,0 +1,63 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODirectRidMapTest {
+
+  @Test
+  public void testPutGet() {
+    try (ODirectRidMap map = new ODirectRidMap()) {
+      for (int i = 0; i < 10_000; i++) {
+        Assert.assertNull(map.put(new ORecordId(3, i), new ORecordId(4, i + 1)));
+      }
+
+      Assert.assertEquals(10_000, map.size());
+      for (int i = 0; i < 10_000; i++) {
+        Assert.assertEquals(new ORecordId(4, i + 1), map.get(new ORecordId(3, i)));
+      }
+      Assert.assertNull(map.get(new ORecordId(4, 1)));
+
+      Assert.assertEquals(new ORecordId(4, 1), map.put(new ORecordId(3, 0), new ORecordId(5, 0)));
+      Assert.assertEquals(new ORecordId(5, 0), map.get(new ORecordId(3, 0)));
+      Assert.assertEquals(10_000, map.size());
+    }
+  }
+
+  @Test
+  public void testNotPersistentRids() {
+    try (ODirectRidMap map = new ODirectRidMap()) {
+      for (int i = 0; i < 2_000; i++) {
+        map.put(new ORecordId(3, i), new ORecordId(4, i));
+      }
+
+      // moves entries from direct memory to the heap and back
+      for (int i = 0; i < 2_000; i += 2) {
+        Assert.assertEquals(new ORecordId(4, i), map.put(new ORecordId(3, i), null));
+      }
+      Assert.assertEquals(2_000, map.size());
+
+      for (int i = 0; i < 2_000; i++) {
+        if (i % 2 == 0) {
+          Assert.assertTrue(map.containsKey(new ORecordId(3, i)));
+          Assert.assertNull(map.get(new ORecordId(3, i)));
+        } else {
+          Assert.assertEquals(new ORecordId(4, i), map.get(new ORecordId(3, i)));
+        }
+      }
+
+      for (int i = 0; i < 2_000; i += 2) {
+        Assert.assertNull(map.put(new ORecordId(3, i), new ORecordId(5, i)));
+      }
+      Assert.assertEquals(2_000, map.size());
+
+      for (int i = 0; i < 2_000; i++) {
+        Assert.assertEquals(new ORecordId(i % 2 == 0 ? 5 : 4, i), map.get(new ORecordId(3, i)));
+      }
+
+      map.put(new ORecordId(-1, -2), new ORecordId(3, 1));
+      Assert.assertEquals(new ORecordId(3, 1), map.get(new ORecordId(-1, -2)));
+    }
+  }
+}
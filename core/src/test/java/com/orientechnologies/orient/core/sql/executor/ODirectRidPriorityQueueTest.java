@@ -0,0 +1,52 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODirectRidPriorityQueueTest {
+
+  @Test
+  public void testLowestPriorityIsPolledFirst() {
+    try (ODirectRidPriorityQueue queue = new ODirectRidPriorityQueue()) {
+      Assert.assertNull(queue.poll());
+
+      final Random random = new Random(42);
+      for (int i = 0; i < 5_000; i++) {
+        final int priority = random.nextInt(1_000);
+        // position of the RID is the priority, so order of RIDs may be checked
+        queue.add(new ORecordId(1, priority), priority);
+      }
+
+      Assert.assertEquals(5_000, queue.size());
+      long previous = -1;
+      while (!queue.isEmpty()) {
+        final double priority = queue.peekPriority();
+        final long position = queue.poll().getClusterPosition();
+        Assert.assertEquals(position, (long) priority);
+        Assert.assertTrue(position >= previous);
+        previous = position;
+      }
+    }
+  }
+
+  @Test
+  public void testNotPersistentRids() {
+    try (ODirectRidPriorityQueue queue = new ODirectRidPriorityQueue()) {
+      queue.add(new ORecordId(1, 1), 3.0);
+      queue.add(new ORecordId(-1, -2), 1.0);
+      queue.add(new ORecordId(1, 2), 0.5);
+      queue.add(new ORecordId(-1, -3), 2.0);
+
+      Assert.assertEquals(new ORecordId(1, 2), queue.poll());
+      Assert.assertEquals(new ORecordId(-1, -2), queue.poll());
+      Assert.assertEquals(new ORecordId(-1, -3), queue.poll());
+      Assert.assertEquals(new ORecordId(1, 1), queue.poll());
+      Assert.assertNull(queue.poll());
+
+      queue.add(new ORecordId(-1, -4), 1.0);
+      Assert.assertEquals(new ORecordId(-1, -4), queue.poll());
+    }
+  }
+}
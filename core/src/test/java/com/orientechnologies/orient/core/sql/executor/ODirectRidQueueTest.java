@@ -0,0 +1,51 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODirectRidQueueTest {
+
+  @Test
+  public void testFifoOrder() {
+    try (ODirectRidQueue queue = new ODirectRidQueue()) {
+      Assert.assertNull(queue.poll());
+
+      int polled = 0;
+      for (int i = 0; i < 5_000; i++) {
+        queue.add(new ORecordId(1, i));
+        // keeps head of the queue moving, so ring buffer is wrapped before it grows
+        if (i % 3 == 0) {
+          Assert.assertEquals(new ORecordId(1, polled), queue.poll());
+          polled++;
+        }
+      }
+
+      Assert.assertEquals(5_000 - polled, queue.size());
+      while (!queue.isEmpty()) {
+        Assert.assertEquals(new ORecordId(1, polled), queue.poll());
+        polled++;
+      }
+      Assert.assertEquals(5_000, polled);
+    }
+  }
+
+  @Test
+  public void testNotPersistentRidsKeepOrder() {
+    try (ODirectRidQueue queue = new ODirectRidQueue()) {
+      queue.add(new ORecordId(1, 1));
+      queue.add(new ORecordId(-1, -2));
+      queue.add(new ORecordId(1, 2));
+      queue.add(new ORecordId(-1, -3));
+
+      Assert.assertEquals(new ORecordId(1, 1), queue.poll());
+      Assert.assertEquals(new ORecordId(-1, -2), queue.poll());
+      Assert.assertEquals(new ORecordId(1, 2), queue.poll());
+      Assert.assertEquals(new ORecordId(-1, -3), queue.poll());
+      Assert.assertNull(queue.poll());
+
+      queue.add(new ORecordId(-1, -4));
+      Assert.assertEquals(new ORecordId(-1, -4), queue.poll());
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ODirectRidSetTest {
+
+  @Test
+  public void testAddContains() {
+    try (ODirectRidSet set = new ODirectRidSet()) {
+      Assert.assertTrue(set.isEmpty());
+
+      for (int i = 0; i < 10_000; i++) {
+        Assert.assertTrue(set.add(new ORecordId(i % 7, i)));
+      }
+      for (int i = 0; i < 10_000; i++) {
+        Assert.assertFalse(set.add(new ORecordId(i % 7, i)));
+      }
+
+      Assert.assertEquals(10_000, set.size());
+      for (int i = 0; i < 10_000; i++) {
+        Assert.assertTrue(set.contains(new ORecordId(i % 7, i)));
+        Assert.assertFalse(set.contains(new ORecordId(i % 7 + 7, i)));
+      }
+    }
+  }
+
+  @Test
+  public void testNotPersistentRids() {
+    try (ODirectRidSet set = new ODirectRidSet()) {
+      Assert.assertTrue(set.add(new ORecordId(-1, -2)));
+      Assert.assertTrue(set.add(new ORecordId(12, -3)));
+      Assert.assertTrue(set.add(new ORecordId(12, 3)));
+      Assert.assertFalse(set.add(new ORecordId(12, -3)));
+
+      Assert.assertEquals(3, set.size());
+      Assert.assertTrue(set.contains(new ORecordId(-1, -2)));
+      Assert.assertTrue(set.contains(new ORecordId(12, -3)));
+      Assert.assertFalse(set.contains(new ORecordId(12, -4)));
+    }
+  }
+
+  @Test
+  public void testReuseAfterClose() {
+    ODirectRidSet set = new ODirectRidSet();
+    set.add(new ORecordId(10, 10));
+    set.close();
+
+    Assert.assertTrue(set.isEmpty());
+    Assert.assertFalse(set.contains(new ORecordId(10, 10)));
+
+    set.add(new ORecordId(10, 11));
+    Assert.assertTrue(set.contains(new ORecordId(10, 11)));
+    set.close();
+  }
+}
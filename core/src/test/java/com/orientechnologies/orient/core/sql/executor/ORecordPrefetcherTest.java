@@ -0,0 +1,66 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORecordPrefetcherTest {
+
+  @Test
+  public void testPrefetchInChunksWhileIterating() {
+    List<Integer> prefetched = new ArrayList<>();
+    ODatabaseInternal db =
+        (ODatabaseInternal)
+            Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[] {ODatabaseInternal.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("prefetchRecords")) {
+                    prefetched.add(((Collection<?>) args[0]).size());
+                  }
+                  return null;
+                });
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase(db);
+
+    List<ORID> links = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      links.add(new ORecordId(10, i));
+    }
+
+    Iterator<?> iterator = ((Iterable<?>) ORecordPrefetcher.prefetching(links, ctx)).iterator();
+    Assert.assertTrue(prefetched.isEmpty());
+
+    Assert.assertEquals(links.get(0), iterator.next());
+    Assert.assertEquals(1, prefetched.size());
+    Assert.assertEquals(64, (int) prefetched.get(0));
+
+    for (int i = 1; i < 64; i++) {
+      Assert.assertEquals(links.get(i), iterator.next());
+    }
+    Assert.assertEquals(1, prefetched.size());
+
+    int count = 64;
+    while (iterator.hasNext()) {
+      Assert.assertEquals(links.get(count++), iterator.next());
+    }
+    Assert.assertEquals(150, count);
+    Assert.assertEquals(3, prefetched.size());
+    Assert.assertEquals(22, (int) prefetched.get(2));
+  }
+
+  @Test
+  public void testValueNotCollectionIsNotWrapped() {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    Object value = new ORecordId(10, 1);
+    Assert.assertSame(value, ORecordPrefetcher.prefetching(value, ctx));
+  }
+}
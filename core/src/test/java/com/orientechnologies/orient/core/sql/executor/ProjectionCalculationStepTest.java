@@ -0,0 +1,110 @@
+package com.orientechnologies.orient.core.sql.executor;
+
+import com.orientechnologies.common.concur.OTimeoutException;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.parser.OProjection;
+import com.orientechnologies.orient.core.sql.parser.OSelectStatement;
+import com.orientechnologies.orient.core.sql.parser.OrientSql;
+import com.orientechnologies.orient.core.sql.parser.ParseException;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProjectionCalculationStepTest extends TestUtilsFixture {
+
+  @Test
+  public void testPartialBatches() throws ParseException {
+    OCommandContext ctx = createContext();
+    ProjectionCalculationStep step =
+        new ProjectionCalculationStep(projection("id * 2 as twice"), ctx, false);
+    step.setPrevious(source(ctx, 5));
+
+    List<OResult> batch = step.syncPullBatch(ctx, 3);
+    Assert.assertEquals(3, batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      Assert.assertEquals(i * 2, (int) batch.get(i).getProperty("twice"));
+      Assert.assertNull(batch.get(i).getProperty("id"));
+    }
+
+    batch = step.syncPullBatch(ctx, 3);
+    Assert.assertEquals(2, batch.size());
+    Assert.assertEquals(8, (int) batch.get(1).getProperty("twice"));
+
+    Assert.assertTrue(step.syncPullBatch(ctx, 3).isEmpty());
+  }
+
+  @Test
+  public void testCurrentInProjection() throws ParseException {
+    OCommandContext ctx = createContext();
+    OResultInternal outer = new OResultInternal();
+    outer.setProperty("id", -1);
+    ctx.setVariable("$current", outer);
+
+    ProjectionCalculationStep step =
+        new ProjectionCalculationStep(projection("$current.id as currentId"), ctx, false);
+    step.setPrevious(source(ctx, 4));
+
+    List<OResult> batch = step.syncPullBatch(ctx, 10);
+    Assert.assertEquals(4, batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      Assert.assertEquals(i, (int) batch.get(i).getProperty("currentId"));
+    }
+    Assert.assertSame(outer, ctx.getVariable("$current"));
+  }
+
+  @Test
+  public void testCurrentInQuery() {
+    OClass clazz = createClassInstance();
+    for (int i = 0; i < 10; i++) {
+      database.save(new ODocument(clazz).field("id", i));
+    }
+
+    try (OResultSet result =
+        database.query(
+            "select $current.id as currentId from "
+                + clazz.getName()
+                + " where $current.id < 3 order by currentId")) {
+      List<Integer> ids = new ArrayList<>();
+      result.stream().forEach(item -> ids.add(item.getProperty("currentId")));
+      Assert.assertEquals(3, ids.size());
+      for (int i = 0; i < ids.size(); i++) {
+        Assert.assertEquals(i, (int) ids.get(i));
+      }
+    }
+  }
+
+  private OCommandContext createContext() {
+    OBasicCommandContext ctx = new OBasicCommandContext();
+    ctx.setDatabase((ODatabaseDocumentInternal) database);
+    return ctx;
+  }
+
+  private static OProjection projection(String projection) throws ParseException {
+    OrientSql parser =
+        new OrientSql(new ByteArrayInputStream(("select " + projection + " from V").getBytes()));
+    return ((OSelectStatement) parser.parse()).getProjection();
+  }
+
+  private static AbstractExecutionStep source(OCommandContext ctx, int size) {
+    return new AbstractExecutionStep(ctx, false) {
+      private int pulled = 0;
+
+      @Override
+      public OResultSet syncPull(OCommandContext ctx, int nRecords) throws OTimeoutException {
+        OInternalResultSet result = new OInternalResultSet();
+        while (pulled < size && result.size() < nRecords) {
+          OResultInternal item = new OResultInternal();
+          item.setProperty("id", pulled++);
+          result.add(item);
+        }
+        return result;
+      }
+    };
+  }
+}
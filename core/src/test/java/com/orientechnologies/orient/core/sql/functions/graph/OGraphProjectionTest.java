@@ -0,0 +1,120 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.OEdge;
+import com.orientechnologies.orient.core.record.OVertex;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OGraphProjectionTest {
+
+  private OrientDB orientDB;
+  private ODatabaseDocument db;
+
+  private OVertex[] persons;
+  private OVertex city;
+
+  @Before
+  public void setUp() {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            "OGraphProjectionTest", "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    db = orientDB.open("OGraphProjectionTest", "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+
+    db.createVertexClass("ProjPerson");
+    db.createVertexClass("ProjCity");
+    db.createEdgeClass("ProjKnows");
+    db.createEdgeClass("ProjLivesIn");
+
+    persons = new OVertex[4];
+    for (int i = 0; i < persons.length; i++) {
+      persons[i] = db.newVertex("ProjPerson");
+      persons[i].setProperty("name", "p" + i);
+      persons[i].save();
+    }
+    city = db.newVertex("ProjCity").save();
+
+    // 0 -> 1 -> 2 -> 0, 3 -> 0
+    knows(0, 1, 1.5);
+    knows(1, 2, 2.5);
+    knows(2, 0, 3.5);
+    knows(3, 0, 4.5);
+    db.newEdge(persons[0], city, "ProjLivesIn").save();
+  }
+
+  private void knows(final int from, final int to, final double weight) {
+    final OEdge edge = db.newEdge(persons[from], persons[to], "ProjKnows");
+    edge.setProperty("w", weight);
+    edge.save();
+  }
+
+  @After
+  public void tearDown() {
+    db.close();
+    orientDB.close();
+  }
+
+  @Test
+  public void testOutProjection() {
+    final OGraphProjection projection =
+        new OGraphProjectionBuilder((ODatabaseDocumentInternal) db)
+            .vertexClasses("ProjPerson")
+            .edgeClasses("ProjKnows")
+            .weightProperty("w")
+            .parallelism(4)
+            .build();
+
+    Assert.assertEquals(4, projection.getVertexCount());
+    Assert.assertEquals(4, projection.getEdgeCount());
+    Assert.assertEquals(-1, projection.getVertex(city.getIdentity()));
+
+    final int v0 = projection.getVertex(persons[0].getIdentity());
+    final int v1 = projection.getVertex(persons[1].getIdentity());
+    final int v3 = projection.getVertex(persons[3].getIdentity());
+    Assert.assertEquals(persons[3].getIdentity(), projection.getRid(v3));
+
+    Assert.assertEquals(1, projection.getDegree(v0));
+    final int edge = projection.getOffsets()[v0];
+    Assert.assertEquals(v1, projection.getTargets()[edge]);
+    Assert.assertEquals(1.5, projection.getWeights()[edge], 0.0);
+
+    final OGraphProjection reversed = projection.reverse();
+    Assert.assertEquals(2, reversed.getDegree(v0));
+    Assert.assertEquals(0, reversed.getDegree(v3));
+    final Set<Integer> in = new HashSet<>();
+    for (int i = reversed.getOffsets()[v0]; i < reversed.getOffsets()[v0 + 1]; i++) {
+      in.add(reversed.getTargets()[i]);
+    }
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(projection.getVertex(persons[2].getIdentity()), v3)), in);
+  }
+
+  @Test
+  public void testAllVerticesBothDirections() {
+    final OGraphProjection projection =
+        new OGraphProjectionBuilder((ODatabaseDocumentInternal) db)
+            .direction(ODirection.BOTH)
+            .parallelism(1)
+            .build();
+
+    Assert.assertEquals(5, projection.getVertexCount());
+    Assert.assertEquals(10, projection.getEdgeCount());
+    Assert.assertFalse(projection.isWeighted());
+
+    final int c = projection.getVertex(city.getIdentity());
+    Assert.assertEquals(1, projection.getDegree(c));
+    Assert.assertEquals(
+        projection.getVertex(persons[0].getIdentity()),
+        projection.getTargets()[projection.getOffsets()[c]]);
+    Assert.assertEquals(4, projection.getDegree(projection.getVertex(persons[0].getIdentity())));
+  }
+}
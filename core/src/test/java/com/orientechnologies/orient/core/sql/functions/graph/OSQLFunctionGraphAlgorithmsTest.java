@@ -0,0 +1,161 @@
+package com.orientechnologies.orient.core.sql.functions.graph;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.OVertex;
+import com.orientechnologies.orient.core.sql.executor.OResult;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OSQLFunctionGraphAlgorithmsTest {
+
+  private OrientDB orientDB;
+  private ODatabaseDocument db;
+
+  private OVertex[] vertices;
+
+  @Before
+  public void setUp() {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            "OSQLFunctionGraphAlgorithmsTest", "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    db =
+        orientDB.open(
+            "OSQLFunctionGraphAlgorithmsTest", "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+
+    db.createVertexClass("AlgPerson");
+    db.createEdgeClass("AlgKnows");
+
+    vertices = new OVertex[6];
+    for (int i = 0; i < vertices.length; i++) {
+      vertices[i] = db.newVertex("AlgPerson");
+      vertices[i].setProperty("name", "v" + i);
+      vertices[i].save();
+    }
+
+    // TRIANGLE 0, 1, 2 WITH PENDANT 3, SEPARATE PAIR 4, 5
+    knows(0, 1);
+    knows(1, 2);
+    knows(2, 0);
+    knows(3, 0);
+    knows(4, 5);
+  }
+
+  private void knows(final int from, final int to) {
+    db.newEdge(vertices[from], vertices[to], "AlgKnows").save();
+  }
+
+  @After
+  public void tearDown() {
+    db.close();
+    orientDB.close();
+  }
+
+  private Map<ORID, Object> execute(
+      final OSQLFunctionGraphAlgorithmAbstract function, final Map<String, Object> options) {
+    final OBasicCommandContext context = new OBasicCommandContext();
+    context.setDatabase(db);
+
+    options.put(OSQLFunctionGraphAlgorithmAbstract.PARAM_VERTEX_CLASSES, "AlgPerson");
+    options.put(OSQLFunctionGraphAlgorithmAbstract.PARAM_PARALLELISM, 2);
+
+    @SuppressWarnings("unchecked")
+    final List<OResult> results =
+        (List<OResult>) function.execute(null, null, null, new Object[] {options}, context);
+
+    final Map<ORID, Object> values = new HashMap<>();
+    for (OResult result : results) {
+      values.put(result.getProperty("rid"), result.getProperty(function.getResultName()));
+    }
+    Assert.assertEquals(vertices.length, values.size());
+    return values;
+  }
+
+  private static Object valueOf(final Map<ORID, Object> values, final OVertex vertex) {
+    return values.get(vertex.getIdentity());
+  }
+
+  @Test
+  public void testPageRank() {
+    final Map<ORID, Object> ranks = execute(new OSQLFunctionPageRank(), new HashMap<>());
+
+    double sum = 0;
+    for (Object rank : ranks.values()) {
+      sum += (Double) rank;
+    }
+    Assert.assertEquals(1.0, sum, 1e-6);
+
+    // VERTEX 0 IS POINTED BY TWO VERTICES, PENDANT BY NONE
+    Assert.assertTrue((Double) valueOf(ranks, vertices[0]) > (Double) valueOf(ranks, vertices[1]));
+    Assert.assertTrue((Double) valueOf(ranks, vertices[3]) < (Double) valueOf(ranks, vertices[2]));
+  }
+
+  @Test
+  public void testConnectedComponents() {
+    final Map<ORID, Object> components =
+        execute(new OSQLFunctionConnectedComponents(), new HashMap<>());
+
+    for (int i = 1; i < 4; i++) {
+      Assert.assertEquals(valueOf(components, vertices[0]), valueOf(components, vertices[i]));
+    }
+    Assert.assertEquals(valueOf(components, vertices[4]), valueOf(components, vertices[5]));
+    Assert.assertNotEquals(valueOf(components, vertices[0]), valueOf(components, vertices[4]));
+  }
+
+  @Test
+  public void testLabelPropagation() {
+    final Map<ORID, Object> communities =
+        execute(new OSQLFunctionLabelPropagation(), new HashMap<>());
+
+    Assert.assertEquals(valueOf(communities, vertices[4]), valueOf(communities, vertices[5]));
+    for (int i = 0; i < 4; i++) {
+      Assert.assertNotEquals(valueOf(communities, vertices[4]), valueOf(communities, vertices[i]));
+    }
+  }
+
+  @Test
+  public void testKCore() {
+    final Map<ORID, Object> cores = execute(new OSQLFunctionKCore(), new HashMap<>());
+
+    Assert.assertEquals(2, valueOf(cores, vertices[0]));
+    Assert.assertEquals(2, valueOf(cores, vertices[1]));
+    Assert.assertEquals(2, valueOf(cores, vertices[2]));
+    Assert.assertEquals(1, valueOf(cores, vertices[3]));
+    Assert.assertEquals(1, valueOf(cores, vertices[4]));
+    Assert.assertEquals(1, valueOf(cores, vertices[5]));
+  }
+
+  @Test
+  public void testWriteProperty() {
+    try (OResultSet rs =
+        db.query(
+            "select kCore({vertexClasses: 'AlgPerson', writeProperty: 'core', batchSize: 2})"
+                + " as updated")) {
+      Assert.assertEquals(6L, (long) rs.next().<Long>getProperty("updated"));
+    }
+
+    try (OResultSet rs = db.query("select from AlgPerson where core = 2")) {
+      Assert.assertEquals(3, rs.stream().count());
+    }
+  }
+
+  @Test(expected = OCommandExecutionException.class)
+  public void testNotPositiveBatchSize() {
+    try (OResultSet rs =
+        db.query(
+            "select kCore({vertexClasses: 'AlgPerson', writeProperty: 'core', batchSize: 0})"
+                + " as updated")) {
+      rs.next();
+    }
+  }
+}
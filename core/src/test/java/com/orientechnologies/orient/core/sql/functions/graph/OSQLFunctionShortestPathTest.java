@@ -157,6 +157,49 @@ public class OSQLFunctionShortestPathTest {
     }
   }
 
+  @Test
+  public void testParallelLevels() throws Exception {
+    final int width = OSQLFunctionShortestPath.PARALLEL_FRONTIER_SIZE + 100;
+    final OVertex source = graph.newVertex().save();
+    final OVertex destination = graph.newVertex().save();
+    for (int i = 0; i < width; i++) {
+      final OVertex left = graph.newVertex().save();
+      final OVertex right = graph.newVertex().save();
+      graph.newEdge(source, left, "Edge2").save();
+      graph.newEdge(left, right, "Edge2").save();
+      graph.newEdge(right, destination, "Edge2").save();
+    }
+
+    for (Boolean edge : asList(Boolean.FALSE, Boolean.TRUE)) {
+      final Map<String, Object> sequentialParams = new HashMap<String, Object>();
+      sequentialParams.put("edge", edge);
+      sequentialParams.put(OSQLFunctionShortestPath.PARAM_PARALLELISM, 1);
+      final List<ORID> expected =
+          function.execute(
+              null,
+              null,
+              null,
+              new Object[] {source, destination, "BOTH", "Edge2", sequentialParams},
+              new OBasicCommandContext());
+
+      final Map<String, Object> parallelParams = new HashMap<String, Object>();
+      parallelParams.put("edge", edge);
+      parallelParams.put(OSQLFunctionShortestPath.PARAM_PARALLELISM, 4);
+      final List<ORID> result =
+          function.execute(
+              null,
+              null,
+              null,
+              new Object[] {source, destination, "BOTH", "Edge2", parallelParams},
+              new OBasicCommandContext());
+
+      Assert.assertEquals(Boolean.TRUE.equals(edge) ? 7 : 4, result.size());
+      Assert.assertEquals(expected, result);
+      Assert.assertEquals(source.getIdentity(), result.get(0));
+      Assert.assertEquals(destination.getIdentity(), result.get(result.size() - 1));
+    }
+  }
+
   @Test
   public void testMaxDepth1() throws Exception {
     Map<String, Object> additionalParams = new HashMap<String, Object>();
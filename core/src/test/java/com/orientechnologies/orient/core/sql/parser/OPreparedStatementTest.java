@@ -0,0 +1,80 @@
+package com.orientechnologies.orient.core.sql.parser;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OPreparedStatementTest {
+
+  private ODatabaseDocumentTx db;
+
+  @Before
+  public void before() {
+    db = new ODatabaseDocumentTx("memory:OPreparedStatementTest");
+    db.create();
+    db.getMetadata().getSchema().createClass("Foo").createProperty("name", OType.STRING);
+    for (int i = 0; i < 10; i++) {
+      db.save(new ODocument("Foo").field("name", "name" + i));
+    }
+  }
+
+  @After
+  public void after() {
+    db.drop();
+  }
+
+  @Test
+  public void testExecuteTwice() {
+    OPreparedStatement statement = new OPreparedStatement("select from Foo where name = ?", db);
+    for (int i = 0; i < 2; i++) {
+      try (OResultSet result = db.query(statement, params(0, "name" + i))) {
+        Assert.assertTrue(result.hasNext());
+        Assert.assertEquals("name" + i, result.next().getProperty("name"));
+        Assert.assertFalse(result.hasNext());
+      }
+    }
+  }
+
+  @Test
+  public void testPlanAfterIndexCreation() throws InterruptedException {
+    OPreparedStatement statement = new OPreparedStatement("select from Foo where name = :name", db);
+    try (OResultSet result = db.query(statement, params("name", "name1"))) {
+      Assert.assertEquals(1, result.stream().count());
+    }
+
+    db.getMetadata()
+        .getSchema()
+        .getClass("Foo")
+        .getProperty("name")
+        .createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
+    // see OExecutionPlanCacheTest: the invalidation is checked with millisecond precision
+    Thread.sleep(2);
+
+    try (OResultSet result = db.query(statement, params("name", "name2"))) {
+      Assert.assertTrue(
+          result.getExecutionPlan().get().prettyPrint(0, 2).contains("FETCH FROM INDEX"));
+      Assert.assertEquals("name2", result.next().getProperty("name"));
+      Assert.assertFalse(result.hasNext());
+    }
+  }
+
+  @Test(expected = OCommandExecutionException.class)
+  public void testNonIdempotent() {
+    new OPreparedStatement("delete from Foo", db);
+  }
+
+  private Map<Object, Object> params(Object key, Object value) {
+    Map<Object, Object> params = new HashMap<>();
+    params.put(key, value);
+    return params;
+  }
+}
@@ -0,0 +1,101 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentEmbedded;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OLogSequenceNumber;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OChangeStreamTest {
+
+  private OrientDB orientDb;
+  private ODatabaseSession db;
+
+  @Before
+  public void before() {
+    orientDb =
+        new OrientDB(
+            "embedded:./target/",
+            OrientDBConfig.builder()
+                .addConfig(OGlobalConfiguration.STORAGE_TRACK_CHANGED_RECORDS_IN_WAL, true)
+                .build());
+    orientDb.execute(
+        "create database testChangeStream plocal users (admin identified by 'admin' role admin)");
+    db = orientDb.open("testChangeStream", "admin", "admin");
+    db.createClass("Foo");
+  }
+
+  @Test
+  public void testCommittedChanges() {
+    OLogSequenceNumber start;
+    try (OChangeStream stream = ((ODatabaseDocumentEmbedded) db).openChangeStream(null)) {
+      while (!stream.next(100).isEmpty()) {
+        // skip changes made during creation of database
+      }
+      start = stream.getPosition();
+    }
+
+    db.begin();
+    ODocument first = db.save(new ODocument("Foo").field("name", "first"));
+    ODocument second = db.save(new ODocument("Foo").field("name", "second"));
+    db.commit();
+
+    db.begin();
+    db.save(first.field("name", "changed"));
+    db.commit();
+
+    db.begin();
+    db.delete(first);
+    db.rollback();
+
+    db.delete(second);
+
+    try (OChangeStream stream = ((ODatabaseDocumentEmbedded) db).openChangeStream(start)) {
+      List<OCommittedChanges> changes = stream.next(10);
+      assertEquals(3, changes.size());
+      assertEquals(
+          new HashSet<ORID>(Arrays.asList(first.getIdentity(), second.getIdentity())),
+          changes.get(0).getRids());
+      assertEquals(Collections.singleton(first.getIdentity()), changes.get(1).getRids());
+      assertEquals(Collections.singleton(second.getIdentity()), changes.get(2).getRids());
+
+      assertTrue(changes.get(0).getLsn().compareTo(changes.get(1).getLsn()) < 0);
+      assertTrue(changes.get(1).getLsn().compareTo(changes.get(2).getLsn()) < 0);
+      assertEquals(changes.get(2).getLsn(), stream.getPosition());
+      assertTrue(stream.next(10).isEmpty());
+
+      OAbstractPaginatedStorage storage =
+          (OAbstractPaginatedStorage) ((ODatabaseDocumentEmbedded) db).getStorage();
+      List<OCommittedChanges> resumed = storage.readChanges(changes.get(0).getLsn(), 1);
+      assertEquals(1, resumed.size());
+      assertEquals(changes.get(1).getLsn(), resumed.get(0).getLsn());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotPositiveLimit() {
+    OAbstractPaginatedStorage storage =
+        (OAbstractPaginatedStorage) ((ODatabaseDocumentEmbedded) db).getStorage();
+    storage.readChanges(null, 0);
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDb.drop("testChangeStream");
+    orientDb.close();
+  }
+}
@@ -0,0 +1,91 @@
+package com.orientechnologies.orient.core.storage.impl.local;
+
+import com.orientechnologies.orient.core.OCreateDatabaseUtil;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OLoadRecordsTest {
+  private OrientDB orientDB;
+  private ODatabaseSession db;
+
+  private final List<ORID> rids = new ArrayList<>();
+
+  @Before
+  public void before() {
+    orientDB =
+        OCreateDatabaseUtil.createDatabase(
+            "OLoadRecordsTest", "embedded:", OCreateDatabaseUtil.TYPE_MEMORY);
+    db = orientDB.open("OLoadRecordsTest", "admin", OCreateDatabaseUtil.NEW_ADMIN_PASSWORD);
+    db.createClass("LoadOne");
+    db.createClass("LoadTwo");
+
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument(i % 2 == 0 ? "LoadOne" : "LoadTwo");
+      document.field("value", i);
+      rids.add(db.save(document).getIdentity());
+    }
+    Collections.shuffle(rids, new Random(42));
+  }
+
+  @After
+  public void after() {
+    db.close();
+    orientDB.close();
+  }
+
+  @Test
+  public void testLoadRecords() {
+    final List<ORID> toLoad = new ArrayList<>(rids);
+    toLoad.add(new ORecordId(rids.get(0).getClusterId(), 100_000));
+    toLoad.add(new ORecordId(-1, -1));
+
+    final OAbstractPaginatedStorage storage =
+        (OAbstractPaginatedStorage) ((ODatabaseDocumentInternal) db).getStorage();
+    final Map<ORID, ORawBuffer> buffers = storage.loadRecords(toLoad);
+
+    Assert.assertEquals(rids.size(), buffers.size());
+    for (ORID rid : rids) {
+      final ORawBuffer buffer = buffers.get(rid);
+      Assert.assertNotNull(buffer);
+      Assert.assertEquals(ODocument.RECORD_TYPE, buffer.recordType);
+
+      final ODocument document = new ODocument().fromStream(buffer.buffer);
+      Assert.assertEquals(db.<ODocument>load(rid).<Integer>field("value"), document.field("value"));
+    }
+  }
+
+  @Test
+  public void testPrefetchRecords() {
+    final ODatabaseDocumentInternal internal = (ODatabaseDocumentInternal) db;
+    internal.getLocalCache().clear();
+    internal.resetRecordLoadStats();
+
+    internal.prefetchRecords(rids);
+    Assert.assertEquals(rids.size(), internal.getStats().prefetchedRecordsCount);
+
+    for (ORID rid : rids) {
+      Assert.assertNotNull(internal.getLocalCache().findRecord(rid));
+      final ODocument document = db.load(rid);
+      Assert.assertNotNull(document.field("value"));
+    }
+    Assert.assertEquals(0, internal.getStats().loadedRecords);
+
+    // RECORDS IN THE CACHE ARE NOT READ AGAIN
+    internal.prefetchRecords(rids);
+    Assert.assertEquals(rids.size(), internal.getStats().prefetchedRecordsCount);
+  }
+}
@@ -0,0 +1,167 @@
+package com.orientechnologies.orient.core.storage.impl.local.snapshot;
+
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ORecordVersionHistoryTest {
+  @Test
+  public void testUpdateAfterSnapshotIsInvisible() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 1);
+
+    final ORawBuffer first = buffer(1);
+    final ORawBuffer second = buffer(2);
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+
+    history.recordChanged(1, rid, first);
+    Assert.assertSame(first, history.read(snapshot, rid, second));
+
+    history.operationCompleted(1, false);
+    Assert.assertSame(first, history.read(snapshot, rid, second));
+
+    final OReadSnapshot newSnapshot = history.openSnapshot();
+    Assert.assertSame(second, history.read(newSnapshot, rid, second));
+
+    newSnapshot.close();
+    snapshot.close();
+
+    final OReadSnapshot lastSnapshot = history.openSnapshot();
+    Assert.assertSame(second, history.read(lastSnapshot, rid, second));
+    lastSnapshot.close();
+  }
+
+  @Test
+  public void testChangesCommittedBeforeSnapshotAreVisible() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 1);
+
+    final OReadSnapshot oldSnapshot = history.openSnapshot();
+    history.recordChanged(1, rid, buffer(1));
+    history.operationCompleted(1, false);
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    final ORawBuffer current = buffer(2);
+    Assert.assertSame(current, history.read(snapshot, rid, current));
+    Assert.assertEquals(1, history.read(oldSnapshot, rid, current).version);
+
+    snapshot.close();
+    oldSnapshot.close();
+  }
+
+  @Test
+  public void testRolledBackChangesAreRemoved() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 1);
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    history.recordChanged(1, rid, buffer(1));
+    history.operationCompleted(1, true);
+
+    final ORawBuffer current = buffer(1);
+    Assert.assertSame(current, history.read(snapshot, rid, current));
+    snapshot.close();
+  }
+
+  @Test
+  public void testOnlyFirstChangeInsideOfOperationIsTracked() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 1);
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    history.recordChanged(1, rid, buffer(1));
+    history.recordChanged(1, rid, buffer(2));
+    history.operationCompleted(1, false);
+
+    Assert.assertEquals(1, history.read(snapshot, rid, buffer(3)).version);
+    snapshot.close();
+  }
+
+  @Test
+  public void testCreatedRecordIsAbsentInSnapshot() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 5);
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    history.recordChanged(1, rid, null);
+    history.operationCompleted(1, false);
+
+    Assert.assertNull(history.read(snapshot, rid, buffer(0)));
+    snapshot.close();
+  }
+
+  @Test
+  public void testOperationInProgressIsInvisibleWithoutWaiting() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+    final ORecordId rid = new ORecordId(10, 1);
+
+    // operation 1 changed the record before the snapshot was opened
+    history.recordChanged(1, rid, buffer(1));
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    Assert.assertTrue(history.hasInvisibleChange(snapshot, rid));
+    Assert.assertEquals(1, history.read(snapshot, rid, buffer(2)).version);
+
+    history.operationCompleted(1, false);
+    Assert.assertEquals(1, history.read(snapshot, rid, buffer(2)).version);
+    snapshot.close();
+
+    final OReadSnapshot newSnapshot = history.openSnapshot();
+    Assert.assertFalse(history.hasInvisibleChange(newSnapshot, rid));
+    newSnapshot.close();
+  }
+
+  @Test
+  public void testAdjustPositions() {
+    final ORecordVersionHistory history = new ORecordVersionHistory();
+
+    final OReadSnapshot snapshot = history.openSnapshot();
+    // record 2 deleted and record 4 created after snapshot
+    history.recordChanged(1, new ORecordId(10, 2), buffer(3));
+    history.recordChanged(1, new ORecordId(10, 4), null);
+    history.operationCompleted(1, false);
+
+    final OPhysicalPosition[] current =
+        new OPhysicalPosition[] {
+          new OPhysicalPosition(1), new OPhysicalPosition(3), new OPhysicalPosition(4)
+        };
+
+    final OPhysicalPosition[] ascending =
+        history.adjustPositions(snapshot, 10, current, 0, true, true);
+    Assert.assertArrayEquals(new long[] {1, 2, 3}, positions(ascending));
+    Assert.assertEquals(3, ascending[1].recordVersion);
+
+    final OPhysicalPosition[] descending =
+        history.adjustPositions(
+            snapshot,
+            10,
+            new OPhysicalPosition[] {
+              new OPhysicalPosition(4), new OPhysicalPosition(3), new OPhysicalPosition(1)
+            },
+            5,
+            false,
+            false);
+    Assert.assertArrayEquals(new long[] {3, 2, 1}, positions(descending));
+
+    final OPhysicalPosition[] tail =
+        history.adjustPositions(snapshot, 10, new OPhysicalPosition[0], 1, false, true);
+    Assert.assertArrayEquals(new long[] {2}, positions(tail));
+
+    snapshot.close();
+  }
+
+  private static long[] positions(final OPhysicalPosition[] positions) {
+    final long[] result = new long[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      result[i] = positions[i].clusterPosition;
+    }
+    return result;
+  }
+
+  private static ORawBuffer buffer(final int version) {
+    return new ORawBuffer(new byte[] {(byte) version}, version, (byte) 'd');
+  }
+}
@@ -0,0 +1,70 @@
+package com.orientechnologies.orient.core.storage.index.bloomfilter;
+
+import com.orientechnologies.common.hash.OMurmurHash3;
+import java.nio.ByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OIndexBloomFilterTest {
+  @Test
+  public void testAddedKeysArePresent() {
+    final OIndexBloomFilter filter = new OIndexBloomFilter(10_000, 10);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add(hash(i));
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      Assert.assertTrue(filter.mightContain(hash(i)));
+    }
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    final OIndexBloomFilter filter = new OIndexBloomFilter(10_000, 10);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add(hash(i));
+    }
+
+    int falsePositives = 0;
+    for (int i = 10_000; i < 110_000; i++) {
+      if (filter.mightContain(hash(i))) {
+        falsePositives++;
+      }
+    }
+
+    Assert.assertTrue("False positives " + falsePositives, falsePositives < 3_000);
+  }
+
+  @Test
+  public void testSaturation() {
+    final OIndexBloomFilter filter = new OIndexBloomFilter(0, 10);
+    Assert.assertFalse(filter.isSaturated());
+
+    int i = 0;
+    while (i <= filter.getCapacity()) {
+      filter.add(hash(i));
+      i++;
+    }
+
+    Assert.assertTrue(filter.isSaturated());
+  }
+
+  @Test
+  public void testAddOfPresentKeyDoesNotChangeFilter() {
+    final OIndexBloomFilter filter = new OIndexBloomFilter(100, 10);
+    Assert.assertTrue(filter.add(hash(42)));
+    Assert.assertFalse(filter.add(hash(42)));
+  }
+
+  @Test
+  public void testReady() {
+    final OIndexBloomFilter filter = new OIndexBloomFilter(100, 10);
+    Assert.assertFalse(filter.isReady());
+    filter.markReady();
+    Assert.assertTrue(filter.isReady());
+  }
+
+  private static long hash(int value) {
+    return OMurmurHash3.murmurHash3_x64_64(ByteBuffer.allocate(4).putInt(value).array(), 0);
+  }
+}
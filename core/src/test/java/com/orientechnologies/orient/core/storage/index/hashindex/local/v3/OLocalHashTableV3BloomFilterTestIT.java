@@ -0,0 +1,186 @@
+package com.orientechnologies.orient.core.storage.index.hashindex.local.v3;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
+import com.orientechnologies.orient.core.storage.index.bloomfilter.OIndexBloomFilter;
+import com.orientechnologies.orient.core.storage.index.hashindex.local.OMurmurHash3HashFunction;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OLocalHashTableV3BloomFilterTestIT {
+  private static final String DB_NAME = "localHashTableBloomFilterTest";
+
+  private boolean bloomFilterEnabled;
+  private OrientDB orientDB;
+  private OAtomicOperationsManager atomicOperationsManager;
+  private OLocalHashTableV3<Integer, String> localHashTable;
+  private OMurmurHash3HashFunction<Integer> hashFunction;
+
+  @Before
+  public void before() throws Exception {
+    bloomFilterEnabled = OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.getValueAsBoolean();
+    OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.setValue(true);
+
+    orientDB = new OrientDB("memory:", OrientDBConfig.defaultConfig());
+    orientDB.execute(
+        "create database " + DB_NAME + " memory users ( admin identified by 'admin' role admin)");
+
+    final OAbstractPaginatedStorage storage;
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      storage = (OAbstractPaginatedStorage) ((ODatabaseInternal<?>) session).getStorage();
+    }
+
+    hashFunction = new OMurmurHash3HashFunction<>(OIntegerSerializer.INSTANCE);
+    localHashTable =
+        new OLocalHashTableV3<>("bloomHashTable", ".imc", ".tsc", ".obf", ".nbh", storage);
+    atomicOperationsManager = storage.getAtomicOperationsManager();
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation ->
+            localHashTable.create(
+                atomicOperation,
+                OIntegerSerializer.INSTANCE,
+                OBinarySerializerFactory.getInstance().getObjectSerializer(OType.STRING),
+                null,
+                null,
+                hashFunction,
+                true));
+  }
+
+  @After
+  public void after() {
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+    OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.setValue(bloomFilterEnabled);
+  }
+
+  @Test
+  public void testMissingKeySkipsDescent() throws Exception {
+    put(0, 1000);
+    final OIndexBloomFilter filter = awaitBloomFilter();
+
+    for (int i = 1000; i < 2000; i++) {
+      Assert.assertNull(localHashTable.get(i));
+    }
+    // ABOUT 1% OF FALSE POSITIVES IS EXPECTED WITH DEFAULT AMOUNT OF BITS PER KEY
+    Assert.assertTrue(filter.getRejectedLookups() > 900);
+  }
+
+  @Test
+  public void testNoFalseNegativesAfterPutAndRemove() throws Exception {
+    put(0, 1000);
+    awaitBloomFilter();
+
+    put(1000, 1200);
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation -> {
+          for (int i = 0; i < 1200; i += 2) {
+            localHashTable.remove(atomicOperation, i);
+          }
+        });
+
+    for (int i = 0; i < 1200; i++) {
+      if (i % 2 == 0) {
+        Assert.assertNull(localHashTable.get(i));
+      } else {
+        Assert.assertEquals(String.valueOf(i), localHashTable.get(i));
+      }
+    }
+
+    // FILTER IS REBUILT FROM THE REMAINING KEYS AFTER REOPEN
+    localHashTable.close();
+    localHashTable.load(
+        "bloomHashTable",
+        null,
+        true,
+        null,
+        hashFunction,
+        OIntegerSerializer.INSTANCE,
+        OBinarySerializerFactory.getInstance().getObjectSerializer(OType.STRING));
+    Assert.assertNull(localHashTable.getBloomFilter());
+    awaitBloomFilter();
+
+    for (int i = 1; i < 1200; i += 2) {
+      Assert.assertEquals(String.valueOf(i), localHashTable.get(i));
+    }
+  }
+
+  @Test
+  public void testNoFalseNegativesAfterSaturation() throws Exception {
+    put(0, 100);
+    final OIndexBloomFilter filter = awaitBloomFilter();
+
+    // FILTER IS SIZED FOR AT LEAST 1024 KEYS, IT IS DROPPED ONCE IT IS SATURATED
+    final int keys = (int) filter.getCapacity() * 2;
+    put(100, keys);
+    Assert.assertNotSame(filter, localHashTable.getBloomFilter());
+
+    for (int i = 0; i < keys; i++) {
+      Assert.assertEquals(String.valueOf(i), localHashTable.get(i));
+    }
+
+    final OIndexBloomFilter rebuilt = awaitBloomFilter();
+    Assert.assertTrue(rebuilt.getCapacity() >= keys);
+    for (int i = 0; i < keys; i++) {
+      Assert.assertEquals(String.valueOf(i), localHashTable.get(i));
+    }
+  }
+
+  @Test
+  public void testLookupsDuringBuild() throws Exception {
+    final int keys = 200_000;
+    put(0, keys);
+
+    // FIRST LOOKUP STARTS THE BUILD, KEYS ADDED WHILE IT IS RUNNING SHOULD BE FOUND TOO
+    Assert.assertEquals("0", localHashTable.get(0));
+    int added = keys;
+    while (!isBloomFilterReady()) {
+      put(added, added + 1);
+      Assert.assertEquals(String.valueOf(added), localHashTable.get(added));
+      Assert.assertEquals(String.valueOf(added / 2), localHashTable.get(added / 2));
+      added++;
+    }
+
+    awaitBloomFilter();
+    for (int i = 0; i < added; i++) {
+      Assert.assertEquals(String.valueOf(i), localHashTable.get(i));
+    }
+  }
+
+  private void put(final int from, final int to) throws Exception {
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation -> {
+          for (int i = from; i < to; i++) {
+            localHashTable.put(atomicOperation, i, String.valueOf(i));
+          }
+        });
+  }
+
+  private boolean isBloomFilterReady() {
+    final OIndexBloomFilter filter = localHashTable.getBloomFilter();
+    return filter != null && filter.isReady();
+  }
+
+  /** Triggers the build of the Bloom filter by lookups and waits till it is ready. */
+  private OIndexBloomFilter awaitBloomFilter() throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (!isBloomFilterReady()) {
+      Assert.assertTrue("Bloom filter is not built", System.currentTimeMillis() < deadline);
+      localHashTable.get(0);
+      Thread.sleep(10);
+    }
+    return localHashTable.getBloomFilter();
+  }
+}
@@ -0,0 +1,174 @@
+package com.orientechnologies.orient.core.storage.index.sbtree.singlevalue.v3;
+
+import com.orientechnologies.common.serialization.types.OUTF8Serializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseInternal;
+import com.orientechnologies.orient.core.db.ODatabaseSession;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
+import com.orientechnologies.orient.core.storage.index.bloomfilter.OIndexBloomFilter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CellBTreeSingleValueV3BloomFilterTestIT {
+  private static final String DB_NAME = "singleBTreeBloomFilterTest";
+
+  private boolean bloomFilterEnabled;
+  private OrientDB orientDB;
+  private OAtomicOperationsManager atomicOperationsManager;
+  private CellBTreeSingleValueV3<String> singleValueTree;
+
+  @Before
+  public void before() throws Exception {
+    bloomFilterEnabled = OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.getValueAsBoolean();
+    OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.setValue(true);
+
+    orientDB = new OrientDB("memory:", OrientDBConfig.defaultConfig());
+    orientDB.execute(
+        "create database " + DB_NAME + " memory users ( admin identified by 'admin' role admin)");
+
+    final OAbstractPaginatedStorage storage;
+    try (ODatabaseSession session = orientDB.open(DB_NAME, "admin", "admin")) {
+      storage = (OAbstractPaginatedStorage) ((ODatabaseInternal<?>) session).getStorage();
+    }
+    singleValueTree = new CellBTreeSingleValueV3<>("bloomBTree", ".sbt", ".nbt", storage);
+    atomicOperationsManager = storage.getAtomicOperationsManager();
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation ->
+            singleValueTree.create(atomicOperation, OUTF8Serializer.INSTANCE, null, 1, null));
+  }
+
+  @After
+  public void after() {
+    orientDB.drop(DB_NAME);
+    orientDB.close();
+    OGlobalConfiguration.INDEX_BLOOM_FILTER_ENABLED.setValue(bloomFilterEnabled);
+  }
+
+  @Test
+  public void testMissingKeySkipsDescent() throws Exception {
+    put(0, 1000);
+    final OIndexBloomFilter filter = awaitBloomFilter();
+
+    for (int i = 1000; i < 2000; i++) {
+      Assert.assertNull(singleValueTree.get(key(i)));
+    }
+    // ABOUT 1% OF FALSE POSITIVES IS EXPECTED WITH DEFAULT AMOUNT OF BITS PER KEY
+    Assert.assertTrue(filter.getRejectedLookups() > 900);
+  }
+
+  @Test
+  public void testNoFalseNegativesAfterPutAndRemove() throws Exception {
+    put(0, 1000);
+    awaitBloomFilter();
+
+    put(1000, 1200);
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation -> {
+          for (int i = 0; i < 1200; i += 2) {
+            singleValueTree.remove(atomicOperation, key(i));
+          }
+        });
+
+    for (int i = 0; i < 1200; i++) {
+      if (i % 2 == 0) {
+        Assert.assertNull(singleValueTree.get(key(i)));
+      } else {
+        Assert.assertEquals(rid(i), singleValueTree.get(key(i)));
+      }
+    }
+
+    // FILTER IS REBUILT FROM THE REMAINING KEYS AFTER REOPEN
+    singleValueTree.close();
+    singleValueTree.load("bloomBTree", 1, null, OUTF8Serializer.INSTANCE, null);
+    Assert.assertNull(singleValueTree.getBloomFilter());
+    awaitBloomFilter();
+
+    for (int i = 1; i < 1200; i += 2) {
+      Assert.assertEquals(rid(i), singleValueTree.get(key(i)));
+    }
+  }
+
+  @Test
+  public void testNoFalseNegativesAfterSaturation() throws Exception {
+    put(0, 100);
+    final OIndexBloomFilter filter = awaitBloomFilter();
+
+    // FILTER IS SIZED FOR AT LEAST 1024 KEYS, IT IS DROPPED ONCE IT IS SATURATED
+    final int keys = (int) filter.getCapacity() * 2;
+    put(100, keys);
+    Assert.assertNotSame(filter, singleValueTree.getBloomFilter());
+
+    for (int i = 0; i < keys; i++) {
+      Assert.assertEquals(rid(i), singleValueTree.get(key(i)));
+    }
+
+    final OIndexBloomFilter rebuilt = awaitBloomFilter();
+    Assert.assertTrue(rebuilt.getCapacity() >= keys);
+    for (int i = 0; i < keys; i++) {
+      Assert.assertEquals(rid(i), singleValueTree.get(key(i)));
+    }
+  }
+
+  @Test
+  public void testLookupsDuringBuild() throws Exception {
+    final int keys = 200_000;
+    put(0, keys);
+
+    // FIRST LOOKUP STARTS THE BUILD, KEYS ADDED WHILE IT IS RUNNING SHOULD BE FOUND TOO
+    Assert.assertEquals(rid(0), singleValueTree.get(key(0)));
+    int added = keys;
+    while (!isBloomFilterReady()) {
+      put(added, added + 1);
+      Assert.assertEquals(rid(added), singleValueTree.get(key(added)));
+      Assert.assertEquals(rid(added / 2), singleValueTree.get(key(added / 2)));
+      added++;
+    }
+
+    awaitBloomFilter();
+    for (int i = 0; i < added; i++) {
+      Assert.assertEquals(rid(i), singleValueTree.get(key(i)));
+    }
+  }
+
+  private void put(final int from, final int to) throws Exception {
+    atomicOperationsManager.executeInsideAtomicOperation(
+        null,
+        atomicOperation -> {
+          for (int i = from; i < to; i++) {
+            singleValueTree.put(atomicOperation, key(i), rid(i));
+          }
+        });
+  }
+
+  private boolean isBloomFilterReady() {
+    final OIndexBloomFilter filter = singleValueTree.getBloomFilter();
+    return filter != null && filter.isReady();
+  }
+
+  /** Triggers the build of the Bloom filter by lookups and waits till it is ready. */
+  private OIndexBloomFilter awaitBloomFilter() throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (!isBloomFilterReady()) {
+      Assert.assertTrue("Bloom filter is not built", System.currentTimeMillis() < deadline);
+      singleValueTree.get(key(0));
+      Thread.sleep(10);
+    }
+    return singleValueTree.getBloomFilter();
+  }
+
+  private static String key(final int i) {
+    return "key" + i;
+  }
+
+  private static ORecordId rid(final int i) {
+    return new ORecordId(i % 32000, i);
+  }
+}
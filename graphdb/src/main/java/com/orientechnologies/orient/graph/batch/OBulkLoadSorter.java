@@ -0,0 +1,408 @@
+package com.orientechnologies.orient.graph.batch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * External sorter of the entries of the records written by one partition of {@link
+ * OGraphBulkLoader}. Entry is owned by the record identified by packed RID (<code>
+ * clusterId &lt;&lt; 48 | clusterPosition</code>) and is either a link stored in the connection
+ * field with the given index, or serialized properties of the record if the field index is {@link
+ * #PROPERTIES}.
+ *
+ * <p>Entries are collected in memory, when their estimated size reaches the limit the buffer is
+ * sorted and written to the temporary file (run). Runs and the rest of the buffer are merged by
+ * {@link #cursor()}, so entries of each record are returned together and records are returned in
+ * order of their RIDs. Properties of the same record are returned in the order in which they were
+ * added, before its links.
+ *
+ * <p>Instance is not thread safe.
+ */
+final class OBulkLoadSorter implements Closeable {
+  static final int PROPERTIES = -1;
+
+  /** Estimated size in bytes of an entry in the buffer, without its payload. */
+  static final int ENTRY_SIZE = 8 + 4 + 8 + 8;
+
+  private static final int ARRAY_OVERHEAD = 16;
+
+  private final long maxMemory;
+  private final File directory;
+
+  private long[] owners;
+  private int[] fields;
+  private long[] targets;
+  private byte[][] payloads;
+  private int size;
+  private long memory;
+  private long sequence;
+
+  private final List<File> runs = new ArrayList<>();
+
+  /**
+   * @param maxMemory estimated size in bytes of the entries kept in memory, the entries are spilled
+   *     to a run once it is reached
+   * @param directory directory of the runs, null for the default temporary directory
+   */
+  OBulkLoadSorter(final long maxMemory, final File directory) {
+    this.maxMemory = Math.max(maxMemory, 16L * ENTRY_SIZE);
+    this.directory = directory;
+  }
+
+  void addLink(final long owner, final int field, final long target) {
+    add(owner, field, target, null);
+  }
+
+  void addProperties(final long owner, final byte[] properties) {
+    // THE SEQUENCE KEEPS THE ORDER OF THE PROPERTIES OF THE SAME OWNER
+    add(owner, PROPERTIES, sequence++, properties);
+  }
+
+  int getRunsCount() {
+    return runs.size();
+  }
+
+  /**
+   * Returns cursor which merges all the entries added so far. Sorter should not be modified while
+   * cursor is in use.
+   */
+  Cursor cursor() throws IOException {
+    sort(0, size - 1);
+    final List<Source> sources = new ArrayList<>(runs.size() + 1);
+    try {
+      for (File run : runs) {
+        sources.add(new RunSource(run));
+      }
+    } catch (IOException | RuntimeException e) {
+      for (Source source : sources) {
+        source.close();
+      }
+      throw e;
+    }
+    sources.add(new BufferSource());
+
+    return new Cursor(sources);
+  }
+
+  /** Releases memory and deletes temporary files. */
+  @Override
+  public void close() {
+    owners = null;
+    fields = null;
+    targets = null;
+    payloads = null;
+    size = 0;
+    memory = 0;
+
+    for (File run : runs) {
+      //noinspection ResultOfMethodCallIgnored
+      run.delete();
+    }
+    runs.clear();
+  }
+
+  private void add(final long owner, final int field, final long target, final byte[] payload) {
+    final long entrySize = ENTRY_SIZE + (payload != null ? payload.length + ARRAY_OVERHEAD : 0);
+    if (size > 0 && memory + entrySize > maxMemory) {
+      spill();
+    }
+
+    if (owners == null) {
+      final int initial = 1024;
+      owners = new long[initial];
+      fields = new int[initial];
+      targets = new long[initial];
+      payloads = new byte[initial][];
+    } else if (size == owners.length) {
+      grow();
+    }
+
+    owners[size] = owner;
+    fields[size] = field;
+    targets[size] = target;
+    payloads[size] = payload;
+    size++;
+    memory += entrySize;
+  }
+
+  private void grow() {
+    final int newLength = owners.length << 1;
+    final long[] newOwners = new long[newLength];
+    final int[] newFields = new int[newLength];
+    final long[] newTargets = new long[newLength];
+    final byte[][] newPayloads = new byte[newLength][];
+
+    System.arraycopy(owners, 0, newOwners, 0, size);
+    System.arraycopy(fields, 0, newFields, 0, size);
+    System.arraycopy(targets, 0, newTargets, 0, size);
+    System.arraycopy(payloads, 0, newPayloads, 0, size);
+
+    owners = newOwners;
+    fields = newFields;
+    targets = newTargets;
+    payloads = newPayloads;
+  }
+
+  private void spill() {
+    sort(0, size - 1);
+
+    try {
+      final File run = File.createTempFile("orientdb-bulk-", ".run", directory);
+      run.deleteOnExit();
+      runs.add(run);
+
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), 1 << 16))) {
+        for (int i = 0; i < size; i++) {
+          out.writeLong(owners[i]);
+          out.writeInt(fields[i]);
+          out.writeLong(targets[i]);
+          if (fields[i] == PROPERTIES) {
+            out.writeInt(payloads[i].length);
+            out.write(payloads[i]);
+          }
+
+          payloads[i] = null;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error on writing of temporary run of bulk load", e);
+    }
+
+    size = 0;
+    memory = 0;
+  }
+
+  /**
+   * Entries are ordered by owner, field and target, so the properties (whose target is their
+   * sequence) precede the links and keep the order in which they were added.
+   */
+  private static int compare(
+      final long owner1,
+      final int field1,
+      final long target1,
+      final long owner2,
+      final int field2,
+      final long target2) {
+    if (owner1 != owner2) {
+      return Long.compare(owner1, owner2);
+    }
+    if (field1 != field2) {
+      return Integer.compare(field1, field2);
+    }
+    return Long.compare(target1, target2);
+  }
+
+  private int compare(final int a, final int b) {
+    return compare(owners[a], fields[a], targets[a], owners[b], fields[b], targets[b]);
+  }
+
+  /** Quick sort of the entries of the buffer. */
+  private void sort(int from, int to) {
+    while (to - from > 16) {
+      final int middle = (from + to) >>> 1;
+      // MEDIAN OF THREE
+      if (compare(middle, from) < 0) swap(middle, from);
+      if (compare(to, from) < 0) swap(to, from);
+      if (compare(to, middle) < 0) swap(to, middle);
+      final long pivotOwner = owners[middle];
+      final int pivotField = fields[middle];
+      final long pivotTarget = targets[middle];
+
+      int i = from;
+      int j = to;
+      while (i <= j) {
+        while (compare(owners[i], fields[i], targets[i], pivotOwner, pivotField, pivotTarget) < 0) {
+          i++;
+        }
+        while (compare(owners[j], fields[j], targets[j], pivotOwner, pivotField, pivotTarget) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          swap(i, j);
+          i++;
+          j--;
+        }
+      }
+
+      // RECURSION ON THE SMALLER PART KEEPS THE STACK DEPTH LOGARITHMIC
+      if (j - from < to - i) {
+        sort(from, j);
+        from = i;
+      } else {
+        sort(i, to);
+        to = j;
+      }
+    }
+
+    for (int i = from + 1; i <= to; i++) {
+      for (int j = i; j > from && compare(j - 1, j) > 0; j--) {
+        swap(j, j - 1);
+      }
+    }
+  }
+
+  private void swap(final int a, final int b) {
+    final long owner = owners[a];
+    owners[a] = owners[b];
+    owners[b] = owner;
+
+    final int field = fields[a];
+    fields[a] = fields[b];
+    fields[b] = field;
+
+    final long target = targets[a];
+    targets[a] = targets[b];
+    targets[b] = target;
+
+    final byte[] payload = payloads[a];
+    payloads[a] = payloads[b];
+    payloads[b] = payload;
+  }
+
+  /** Merged sorted sequence of entries. */
+  static final class Cursor implements Closeable {
+    private final List<Source> sources;
+    private final PriorityQueue<Source> queue;
+    private Source current;
+
+    private Cursor(final List<Source> sources) throws IOException {
+      this.sources = sources;
+      this.queue =
+          new PriorityQueue<>(
+              Math.max(sources.size(), 1),
+              (a, b) -> compare(a.owner, a.field, a.target, b.owner, b.field, b.target));
+
+      for (Source source : sources) {
+        if (source.advance()) {
+          queue.add(source);
+        }
+      }
+    }
+
+    /** Moves to the next entry, returns <code>false</code> if there are no more entries. */
+    boolean next() throws IOException {
+      if (current != null && current.advance()) {
+        queue.add(current);
+      }
+
+      current = queue.poll();
+      return current != null;
+    }
+
+    long owner() {
+      return current.owner;
+    }
+
+    int field() {
+      return current.field;
+    }
+
+    long target() {
+      return current.target;
+    }
+
+    byte[] payload() {
+      return current.payload;
+    }
+
+    @Override
+    public void close() {
+      for (Source source : sources) {
+        source.close();
+      }
+    }
+  }
+
+  private abstract static class Source {
+    long owner;
+    int field;
+    long target;
+    byte[] payload;
+
+    /** Reads the next entry into the fields of the source. */
+    abstract boolean advance() throws IOException;
+
+    abstract void close();
+  }
+
+  private final class BufferSource extends Source {
+    private int index = -1;
+
+    @Override
+    boolean advance() {
+      index++;
+      if (index >= size) {
+        return false;
+      }
+
+      owner = owners[index];
+      field = fields[index];
+      target = targets[index];
+      payload = payloads[index];
+      return true;
+    }
+
+    @Override
+    void close() {}
+  }
+
+  private static final class RunSource extends Source {
+    private final DataInputStream in;
+    private long nextOwner;
+
+    private RunSource(final File run) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(run), 1 << 16));
+      nextOwner = readOwner();
+    }
+
+    @Override
+    boolean advance() throws IOException {
+      if (nextOwner < 0) {
+        return false;
+      }
+
+      owner = nextOwner;
+      field = in.readInt();
+      target = in.readLong();
+      if (field == PROPERTIES) {
+        payload = new byte[in.readInt()];
+        in.readFully(payload);
+      } else {
+        payload = null;
+      }
+
+      nextOwner = readOwner();
+      return true;
+    }
+
+    @Override
+    void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        // IGNORE IT, FILE IS DELETED ANYWAY
+      }
+    }
+
+    private long readOwner() throws IOException {
+      try {
+        return in.readLong();
+      } catch (EOFException e) {
+        return -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,599 @@
+package com.orientechnologies.orient.graph.batch;
+
+import com.orientechnologies.common.thread.OThreadPoolExecutors;
+import com.orientechnologies.orient.core.config.OStorageEntryConfiguration;
+import com.orientechnologies.orient.core.db.ODatabase;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.record.ODirection;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.OVertexDelegate;
+import com.tinkerpop.blueprints.impls.orient.OrientEdgeType;
+import com.tinkerpop.blueprints.impls.orient.OrientVertexType;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * API for fast bulk load of graphs with any number of vertex and edge classes. Compared to {@link
+ * OGraphBatchInsert} this loader
+ *
+ * <ul>
+ *   <li>supports many vertex classes and many edge classes
+ *   <li>keeps in memory only a bounded amount of adjacency entries and properties, the rest is
+ *       sorted and spilled to temporary files, that are merged when records are written
+ *   <li>writes vertices and edges by all the available cores, each thread writes its own set of
+ *       clusters
+ * </ul>
+ *
+ * <p>Vertices are identified by the vertex class and by a non negative Long id, unique inside the
+ * class. The RID of each vertex is calculated from its id, so it is known before the vertex is
+ * written and edges can be created in any order. The vertex with id <code>n</code> is stored in
+ * the cluster <code>n % parallel</code> of its class, so ids should be dense: ids that are not used
+ * leave deleted records in the clusters.
+ *
+ * <p>Typical usage: <code>
+ *   OGraphBulkLoader loader = new OGraphBulkLoader("plocal:your/db", "admin", "admin");
+ *   loader.begin();
+ *
+ *   loader.createVertex("Person", 0L, personProps);
+ *   loader.createVertex("City", 0L, cityProps);
+ *   loader.createEdge("LivesIn", "Person", 0L, "City", 0L, null);
+ *   loader.createEdge("Knows", "Person", 0L, "Person", 1L, knowsProps);
+ *   ...
+ *
+ *   loader.end();
+ * </code>
+ *
+ * <p>Edges without properties are created as lightweight edges if the database is configured to
+ * use them. Other edges are stored like vertices: their RIDs are assigned when they are created,
+ * in the clusters of their class that belong to the partition of the starting vertex, and they are
+ * written together with the vertices. Properties of a vertex may be set by several calls of {@link
+ * #createVertex(String, long, Map)}, they are merged when the vertex is written, the value of the
+ * last call wins.
+ *
+ * <p>Vertices are written with the massive insert intent and the storage is synchronized at the end
+ * of the load, so all the written pages are flushed by a single checkpoint. Instance is not thread
+ * safe and is intended to be used only for a single load cycle (begin, create..., end).
+ */
+public class OGraphBulkLoader {
+  private static final int CLUSTER_SHIFT = 48;
+
+  private final String dbUrl;
+  private final String userName;
+  private final String password;
+
+  private String idPropertyName = "uid";
+  private int parallel = Runtime.getRuntime().availableProcessors();
+  private long maxMemory = 1L << 29;
+  private File tempDirectory;
+  private Boolean useLightweightEdges = null;
+
+  private ODatabaseDocument db;
+
+  private final Map<String, VertexClass> vertexClasses = new HashMap<>();
+  private final Map<String, EdgeClass> edgeClasses = new HashMap<>();
+  private final Map<String, Integer> fieldIndexes = new HashMap<>();
+  private final List<String> fieldNames = new ArrayList<>();
+  private OBulkLoadSorter[] partitions;
+  private OBulkLoadSorter[] edgePartitions;
+
+  /** Clusters of the vertex class, one for each partition, and the highest used id. */
+  private static final class VertexClass {
+    private final String name;
+    private final int[] clusterIds;
+    private final long[] firstPositions;
+    private long lastId = -1;
+
+    private VertexClass(final String name, final int[] clusterIds, final long[] firstPositions) {
+      this.name = name;
+      this.clusterIds = clusterIds;
+      this.firstPositions = firstPositions;
+    }
+  }
+
+  /** Clusters of the edge class, one for each partition, and the number of edges of each one. */
+  private static final class EdgeClass {
+    private final String name;
+    private final int[] clusterIds;
+    private final long[] firstPositions;
+    private final long[] counts;
+
+    private EdgeClass(final String name, final int[] clusterIds, final long[] firstPositions) {
+      this.name = name;
+      this.clusterIds = clusterIds;
+      this.firstPositions = firstPositions;
+      this.counts = new long[clusterIds.length];
+    }
+  }
+
+  /**
+   * Creates a new bulk load procedure.
+   *
+   * @param iDbURL db connection URL (plocal:/your/db/path)
+   * @param iUserName db user name (use admin for new db)
+   * @param iPassword db password (use admin for new db)
+   */
+  public OGraphBulkLoader(final String iDbURL, final String iUserName, final String iPassword) {
+    this.dbUrl = iDbURL;
+    this.userName = iUserName;
+    this.password = iPassword;
+  }
+
+  /** Creates the database (if it does not exist) and initializes the load. */
+  public void begin() {
+    db = new ODatabaseDocumentTx(dbUrl);
+    if (db.exists()) {
+      db.open(userName, password);
+    } else {
+      db.create();
+    }
+
+    if (useLightweightEdges == null) {
+      final List<OStorageEntryConfiguration> custom =
+          (List<OStorageEntryConfiguration>) db.get(ODatabase.ATTRIBUTES.CUSTOM);
+      for (OStorageEntryConfiguration c : custom) {
+        if (c.name.equalsIgnoreCase("useLightweightEdges")) {
+          useLightweightEdges = Boolean.parseBoolean(c.value);
+          break;
+        }
+      }
+      if (useLightweightEdges == null) {
+        useLightweightEdges = true;
+      }
+    }
+
+    final OSchema schema = db.getMetadata().getSchema();
+    if (!schema.existsClass(OrientVertexType.CLASS_NAME)) {
+      schema.createClass(OrientVertexType.CLASS_NAME);
+    }
+    if (!schema.existsClass(OrientEdgeType.CLASS_NAME)) {
+      schema.createClass(OrientEdgeType.CLASS_NAME);
+    }
+
+    // HALF OF THE MEMORY IS FOR THE VERTICES, HALF FOR THE HEAVYWEIGHT EDGES
+    final long partitionMemory = maxMemory / (2L * parallel);
+    partitions = new OBulkLoadSorter[parallel];
+    edgePartitions = new OBulkLoadSorter[parallel];
+    for (int i = 0; i < parallel; i++) {
+      partitions[i] = new OBulkLoadSorter(partitionMemory, tempDirectory);
+      edgePartitions[i] = new OBulkLoadSorter(partitionMemory, tempDirectory);
+    }
+  }
+
+  /**
+   * Creates a new vertex, or adds properties to the vertex with the same id.
+   *
+   * @param vertexClass name of the vertex class, created if it does not exist
+   * @param id id of the vertex inside of the class
+   * @param properties properties of the vertex, may be null
+   */
+  public void createVertex(
+      final String vertexClass, final long id, final Map<String, Object> properties) {
+    final VertexClass vClass = useVertex(vertexClass, id);
+    final byte[] serialized;
+    if (properties == null || properties.isEmpty()) {
+      // EMPTY PROPERTIES MAKE THE VERTEX EXIST EVEN IF IT IS NOT CONNECTED
+      serialized = new byte[0];
+    } else {
+      serialized = new ODocument().fromMap(properties).toStream();
+    }
+
+    partitions[partition(id)].addProperties(getPackedRid(vClass, id), serialized);
+  }
+
+  /**
+   * Creates a new edge between two vertices. If vertices do not exist, they will be created.
+   *
+   * @param edgeClass name of the edge class, created if it does not exist
+   * @param fromClass vertex class of the vertex that is starting point of the edge
+   * @param from id of the vertex that is starting point of the edge
+   * @param toClass vertex class of the vertex that is end point of the edge
+   * @param to id of the vertex that is end point of the edge
+   * @param properties properties of the edge, may be null
+   */
+  public void createEdge(
+      final String edgeClass,
+      final String fromClass,
+      final long from,
+      final String toClass,
+      final long to,
+      final Map<String, Object> properties) {
+    final VertexClass fromVertexClass = useVertex(fromClass, from);
+    final VertexClass toVertexClass = useVertex(toClass, to);
+    final int outField = getFieldIndex(ODirection.OUT, edgeClass);
+    final int inField = getFieldIndex(ODirection.IN, edgeClass);
+
+    final long fromRid = getPackedRid(fromVertexClass, from);
+    final long toRid = getPackedRid(toVertexClass, to);
+
+    if (useLightweightEdges && (properties == null || properties.isEmpty())) {
+      partitions[partition(from)].addLink(fromRid, outField, toRid);
+      partitions[partition(to)].addLink(toRid, inField, fromRid);
+    } else {
+      final int partition = partition(from);
+      final EdgeClass eClass = useEdgeClass(edgeClass);
+      final long edgeRid =
+          ((long) eClass.clusterIds[partition] << CLUSTER_SHIFT)
+              | (eClass.firstPositions[partition] + eClass.counts[partition]++);
+
+      final ODocument edgeDoc = new ODocument();
+      if (properties != null) {
+        edgeDoc.fromMap(properties);
+      }
+      edgeDoc.field("out", unpack(fromRid));
+      edgeDoc.field("in", unpack(toRid));
+      edgePartitions[partition].addProperties(edgeRid, edgeDoc.toStream());
+
+      partitions[partition].addLink(fromRid, outField, edgeRid);
+      partitions[partition(to)].addLink(toRid, inField, edgeRid);
+    }
+  }
+
+  /**
+   * Writes all the vertices, flushes data to db and closes the db. Call this once, after vertices
+   * and edges creation.
+   */
+  public void end() {
+    final ExecutorService executor =
+        OThreadPoolExecutors.newFixedThreadPool("OGraphBulkLoader", parallel);
+    try {
+      final List<Future<Void>> futures = new ArrayList<>(parallel);
+      for (int i = 0; i < parallel; i++) {
+        final int partition = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  writePartition(partition);
+                  return null;
+                }));
+      }
+
+      for (Future<Void> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Bulk load was interrupted", e);
+        } catch (ExecutionException e) {
+          final Throwable cause = e.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          }
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new IllegalStateException("Error during bulk load", cause);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+      for (OBulkLoadSorter sorter : partitions) {
+        sorter.close();
+      }
+      for (OBulkLoadSorter sorter : edgePartitions) {
+        sorter.close();
+      }
+
+      db.activateOnCurrentThread();
+      try {
+        // FINAL CHECKPOINT, ALL THE LOADED PAGES ARE FLUSHED TO DISK
+        ((ODatabaseDocumentInternal) db).getStorage().synch();
+      } finally {
+        db.close();
+      }
+    }
+  }
+
+  /** @return the property name where ids are written on vertices */
+  public String getIdPropertyName() {
+    return idPropertyName;
+  }
+
+  /** @param idPropertyName the property name where ids are written on vertices */
+  public void setIdPropertyName(final String idPropertyName) {
+    this.idPropertyName = idPropertyName;
+  }
+
+  /** @return number of parallel threads (and clusters of each vertex class) used for the load */
+  public int getParallel() {
+    return parallel;
+  }
+
+  /**
+   * Sets the number of parallel threads to be used for the load. Use it before calling begin().
+   *
+   * @param parallel number of threads (default is number of available processors)
+   */
+  public void setParallel(final int parallel) {
+    if (parallel <= 0) {
+      throw new IllegalArgumentException("Number of threads should be positive: " + parallel);
+    }
+    this.parallel = parallel;
+  }
+
+  /**
+   * @return estimated size in bytes of the entries kept in memory before they are spilled to disk
+   */
+  public long getMaxMemory() {
+    return maxMemory;
+  }
+
+  /**
+   * Sets estimated size in bytes of the entries kept in memory, that are the links of the vertices,
+   * their properties and the heavyweight edges. Each link takes about {@value
+   * OBulkLoadSorter#ENTRY_SIZE} bytes and each edge produces two links. Use it before calling
+   * begin().
+   *
+   * @param maxMemory size in bytes (default is 512MB)
+   */
+  public void setMaxMemory(final long maxMemory) {
+    if (maxMemory <= 0) {
+      throw new IllegalArgumentException("Memory size should be positive: " + maxMemory);
+    }
+    this.maxMemory = maxMemory;
+  }
+
+  /** @return directory of the temporary files, null for the default temporary directory */
+  public File getTempDirectory() {
+    return tempDirectory;
+  }
+
+  /** Sets directory of the temporary files. Use it before calling begin(). */
+  public void setTempDirectory(final File tempDirectory) {
+    this.tempDirectory = tempDirectory;
+  }
+
+  /** Forces use of lightweight edges, by default the setting of the database is used. */
+  public void setUseLightweightEdges(final Boolean useLightweightEdges) {
+    this.useLightweightEdges = useLightweightEdges;
+  }
+
+  /** @return number of temporary runs spilled to disk so far */
+  public int getSpilledRunsCount() {
+    int count = 0;
+    for (OBulkLoadSorter sorter : partitions) {
+      count += sorter.getRunsCount();
+    }
+    for (OBulkLoadSorter sorter : edgePartitions) {
+      count += sorter.getRunsCount();
+    }
+    return count;
+  }
+
+  private VertexClass useVertex(final String className, final long id) {
+    if (id < 0) {
+      throw new IllegalArgumentException(" Invalid vertex id: " + id);
+    }
+
+    VertexClass vClass = vertexClasses.get(className);
+    if (vClass == null) {
+      vClass = initVertexClass(className);
+      vertexClasses.put(className, vClass);
+    }
+    if (vClass.lastId < id) {
+      vClass.lastId = id;
+    }
+    return vClass;
+  }
+
+  private VertexClass initVertexClass(final String className) {
+    final OClass oClass = initClass(className, OrientVertexType.CLASS_NAME);
+    final int[] clusterIds = Arrays.copyOf(oClass.getClusterIds(), parallel);
+    return new VertexClass(oClass.getName(), clusterIds, getFirstPositions(clusterIds));
+  }
+
+  private EdgeClass useEdgeClass(final String className) {
+    EdgeClass eClass = edgeClasses.get(className);
+    if (eClass == null) {
+      final OClass oClass = initClass(className, OrientEdgeType.CLASS_NAME);
+      final int[] clusterIds = Arrays.copyOf(oClass.getClusterIds(), parallel);
+      eClass = new EdgeClass(oClass.getName(), clusterIds, getFirstPositions(clusterIds));
+      edgeClasses.put(className, eClass);
+    }
+    return eClass;
+  }
+
+  /** Creates the class if it does not exist and adds clusters till there is one for partition. */
+  private OClass initClass(final String className, final String superClassName) {
+    final OSchema schema = db.getMetadata().getSchema();
+    OClass oClass = schema.getClass(className);
+    if (oClass == null) {
+      oClass = schema.createClass(className, schema.getClass(superClassName));
+    }
+    for (int c = oClass.getClusterIds().length; c < parallel; c++) {
+      oClass.addCluster(oClass.getName() + "_" + c);
+    }
+    return oClass;
+  }
+
+  private long[] getFirstPositions(final int[] clusterIds) {
+    final long[] firstPositions = new long[clusterIds.length];
+    for (int i = 0; i < clusterIds.length; i++) {
+      // THERE IS NO PUBLIC API FOR RETRIEVE THE LAST CLUSTER POSITION
+      firstPositions[i] =
+          ((ODatabaseDocumentInternal) db).getLastClusterPosition(clusterIds[i]) + 1;
+    }
+    return firstPositions;
+  }
+
+  private int getFieldIndex(final ODirection direction, final String edgeClass) {
+    final String fieldName = OVertexDelegate.getConnectionFieldName(direction, edgeClass, true);
+    Integer index = fieldIndexes.get(fieldName);
+    if (index == null) {
+      final OSchema schema = db.getMetadata().getSchema();
+      if (!schema.existsClass(edgeClass)) {
+        schema.createClass(edgeClass, schema.getClass(OrientEdgeType.CLASS_NAME));
+      }
+
+      index = fieldNames.size();
+      fieldNames.add(fieldName);
+      fieldIndexes.put(fieldName, index);
+    }
+    return index;
+  }
+
+  private int partition(final long id) {
+    return (int) (id % parallel);
+  }
+
+  private long getPackedRid(final VertexClass vClass, final long id) {
+    final int partition = partition(id);
+    return ((long) vClass.clusterIds[partition] << CLUSTER_SHIFT)
+        | (vClass.firstPositions[partition] + id / parallel);
+  }
+
+  private static long pack(final ORID rid) {
+    return ((long) rid.getClusterId() << CLUSTER_SHIFT) | rid.getClusterPosition();
+  }
+
+  private static ORecordId unpack(final long packed) {
+    return new ORecordId((int) (packed >>> CLUSTER_SHIFT), packed & ((1L << CLUSTER_SHIFT) - 1));
+  }
+
+  /** Writes all the vertices and the heavyweight edges of the partition. */
+  private void writePartition(final int partition) {
+    final ODatabaseDocument db = new ODatabaseDocumentTx(dbUrl);
+    db.open(userName, password);
+    try {
+      db.declareIntent(new OIntentMassiveInsert());
+      writeVertices(db, partition);
+      writeEdges(db, partition);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error on reading of temporary run of bulk load", e);
+    } finally {
+      db.activateOnCurrentThread();
+      db.declareIntent(null);
+      db.close();
+    }
+  }
+
+  /**
+   * Writes the vertices of the partition. Vertices are written in order of their RIDs, that is the
+   * same order of the entries returned by the merge of the spilled runs.
+   */
+  private void writeVertices(final ODatabaseDocument db, final int partition) throws IOException {
+    final List<VertexClass> classes = new ArrayList<>(vertexClasses.values());
+    classes.sort((a, b) -> Integer.compare(a.clusterIds[partition], b.clusterIds[partition]));
+
+    try (OBulkLoadSorter.Cursor cursor = partitions[partition].cursor()) {
+      boolean hasEntry = cursor.next();
+      for (VertexClass vClass : classes) {
+        final String clusterName = db.getClusterNameById(vClass.clusterIds[partition]);
+        for (long id = partition; id <= vClass.lastId; id += parallel) {
+          final long owner = getPackedRid(vClass, id);
+          if (hasEntry && cursor.owner() < owner) {
+            throw new IllegalStateException(
+                "Entry of the vertex " + unpack(cursor.owner()) + " was not written");
+          }
+
+          final ODocument doc = new ODocument(vClass.name);
+          Map<Integer, ORidBag> bags = null;
+          boolean exists = false;
+          while (hasEntry && cursor.owner() == owner) {
+            exists = true;
+            if (cursor.field() == OBulkLoadSorter.PROPERTIES) {
+              final byte[] payload = cursor.payload();
+              if (payload.length > 0) {
+                final ODocument properties = new ODocument().fromStream(payload);
+                for (String name : properties.fieldNames()) {
+                  doc.field(name, properties.<Object>field(name));
+                }
+              }
+            } else {
+              if (bags == null) {
+                bags = new HashMap<>();
+              }
+              ORidBag bag = bags.get(cursor.field());
+              if (bag == null) {
+                bag = new ORidBag();
+                bags.put(cursor.field(), bag);
+              }
+              bag.add(unpack(cursor.target()));
+            }
+
+            hasEntry = cursor.next();
+          }
+
+          if (!exists) {
+            // KEEPS CLUSTER POSITIONS OF THE NEXT VERTICES
+            db.save(doc, clusterName).delete();
+            continue;
+          }
+
+          doc.field(idPropertyName, id);
+          if (bags != null) {
+            for (Map.Entry<Integer, ORidBag> entry : bags.entrySet()) {
+              doc.field(fieldNames.get(entry.getKey()), entry.getValue());
+            }
+          }
+          db.save(doc, clusterName);
+          checkRid(doc, owner, "Vertex " + id + " of class " + vClass.name);
+        }
+      }
+
+      if (hasEntry) {
+        throw new IllegalStateException(
+            "Entry of the vertex " + unpack(cursor.owner()) + " was not written");
+      }
+    }
+  }
+
+  /**
+   * Writes the heavyweight edges of the partition in order of their RIDs. Each edge has a single
+   * entry, that contains all its properties.
+   */
+  private void writeEdges(final ODatabaseDocument db, final int partition) throws IOException {
+    final List<EdgeClass> classes = new ArrayList<>(edgeClasses.values());
+    classes.sort((a, b) -> Integer.compare(a.clusterIds[partition], b.clusterIds[partition]));
+
+    try (OBulkLoadSorter.Cursor cursor = edgePartitions[partition].cursor()) {
+      for (EdgeClass eClass : classes) {
+        final String clusterName = db.getClusterNameById(eClass.clusterIds[partition]);
+        final long first =
+            ((long) eClass.clusterIds[partition] << CLUSTER_SHIFT)
+                | eClass.firstPositions[partition];
+        for (long i = 0; i < eClass.counts[partition]; i++) {
+          if (!cursor.next() || cursor.owner() != first + i) {
+            throw new IllegalStateException("Edge " + unpack(first + i) + " was not found");
+          }
+
+          final ODocument doc = new ODocument(eClass.name);
+          final ODocument properties = new ODocument().fromStream(cursor.payload());
+          for (String name : properties.fieldNames()) {
+            doc.field(name, properties.<Object>field(name));
+          }
+          db.save(doc, clusterName);
+          checkRid(doc, first + i, "Edge of class " + eClass.name);
+        }
+      }
+    }
+  }
+
+  private static void checkRid(final ODocument doc, final long expected, final String record) {
+    if (pack(doc.getIdentity()) != expected) {
+      throw new IllegalStateException(
+          record
+              + " was stored as "
+              + doc.getIdentity()
+              + " instead of "
+              + unpack(expected)
+              + ", clusters were modified during the load");
+    }
+  }
+}
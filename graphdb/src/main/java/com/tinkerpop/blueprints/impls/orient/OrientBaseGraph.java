@@ -64,6 +64,7 @@ import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.storage.OStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.OStorageRecoverListener;
+import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
@@ -828,6 +829,32 @@ public abstract class OrientBaseGraph extends OrientConfigurableGraph
     return new OrientElementScanIterable<Vertex>(this, iClassName, iPolymorphic);
   }
 
+  /**
+   * (Blueprints Extension) Browses the vertices of a class in streaming mode: the same record and
+   * the same vertex instance are reused at every step, so a returned vertex is valid only until the
+   * next call of <code>next()</code>. Properties are deserialized only when they are read. Use it
+   * to scan many vertices without keeping them, otherwise use {@link #getVerticesOfClass(String,
+   * boolean)}.
+   *
+   * @param iClassName Vertex class name to filter
+   * @param iPolymorphic If true consider also Vertex iClassName sub-classes
+   * @return Vertices as Iterable
+   */
+  public CloseableIterable<Vertex> browseVerticesOfClass(
+      final String iClassName, final boolean iPolymorphic) {
+    makeActive();
+
+    final OClass cls = getRawGraph().getMetadata().getSchema().getClass(iClassName);
+    if (cls == null)
+      throw new IllegalArgumentException(
+          "Cannot find class '" + iClassName + "' in database schema");
+
+    if (!cls.isSubClassOf(OrientVertexType.CLASS_NAME))
+      throw new IllegalArgumentException("Class '" + iClassName + "' is not a vertex class");
+
+    return new OrientElementScanIterable<Vertex>(this, iClassName, iPolymorphic, true);
+  }
+
   /**
    * Get all the Vertices in Graph filtering by field name and value. Example:<code>
    *  Iterable<Vertex> resultset =
@@ -972,6 +999,31 @@ public abstract class OrientBaseGraph extends OrientConfigurableGraph
     return new OrientElementScanIterable<Edge>(this, iClassName, iPolymorphic);
   }
 
+  /**
+   * (Blueprints Extension) Browses the edges of a class in streaming mode: the same record and the
+   * same edge instance are reused at every step, so a returned edge is valid only until the next
+   * call of <code>next()</code>.
+   *
+   * @param iClassName Edge class name to filter
+   * @param iPolymorphic If true consider also iClassName Edge sub-classes
+   * @return Edges as Iterable
+   * @see #browseVerticesOfClass(String, boolean)
+   */
+  public CloseableIterable<Edge> browseEdgesOfClass(
+      final String iClassName, final boolean iPolymorphic) {
+    makeActive();
+
+    final OClass cls = getRawGraph().getMetadata().getSchema().getClass(iClassName);
+    if (cls == null)
+      throw new IllegalArgumentException(
+          "Cannot find class '" + iClassName + "' in database schema");
+
+    if (!cls.isSubClassOf(OrientEdgeType.CLASS_NAME))
+      throw new IllegalArgumentException("Class '" + iClassName + "' is not an edge class");
+
+    return new OrientElementScanIterable<Edge>(this, iClassName, iPolymorphic, true);
+  }
+
   /**
    * Get all the Edges in Graph filtering by field name and value. Example:<code>
    *  Iterable<Edges> resultset = getEdges("name",
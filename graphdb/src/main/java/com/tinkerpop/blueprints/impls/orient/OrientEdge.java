@@ -518,6 +518,14 @@ public class OrientEdge extends OrientElement implements Edge {
     return isLabeled(getLabel(), iLabels);
   }
 
+  @Override
+  void rebind(final OIdentifiable iRawElement) {
+    super.rebind(iRawElement);
+    vOut = null;
+    vIn = null;
+    label = null;
+  }
+
   protected ODocument createDocument(final String iLabel) {
     final String className = getClassName(iLabel);
 
@@ -25,6 +25,7 @@ import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.iterator.OLazyWrapperIterator;
+import com.orientechnologies.orient.core.iterator.OReadAheadIterator;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
@@ -51,7 +52,9 @@ public class OrientEdgeIterator extends OLazyWrapperIterator<OrientEdge> {
       final OPair<Direction, String> connection,
       final String[] iLabels,
       final int iSize) {
-    super(iterator, iSize, iMultiValue);
+    super(
+        new OReadAheadIterator(iterator, OrientRecordPrefetcher.PREFETCH_SIZE), iSize, iMultiValue);
+    ((OReadAheadIterator) this.iterator).setBatchListener(OrientRecordPrefetcher::prefetch);
     this.sourceVertex = iSourceVertex;
     this.targetVertex = iTargetVertex;
     this.connection = connection;
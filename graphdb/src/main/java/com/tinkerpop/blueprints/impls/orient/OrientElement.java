@@ -119,6 +119,14 @@ public abstract class OrientElement
     getRecord().delete();
   }
 
+  /**
+   * Binds the element to another record, used by the streaming iterations that reuse the same
+   * element instance at every step.
+   */
+  void rebind(final OIdentifiable iRawElement) {
+    rawElement = iRawElement;
+  }
+
   protected boolean checkDeletedInTx() {
     OrientBaseGraph curGraph = getGraph();
     if (curGraph == null) return false;
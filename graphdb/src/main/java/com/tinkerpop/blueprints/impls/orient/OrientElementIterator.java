@@ -33,10 +33,23 @@ class OrientElementIterator<T extends Element> implements Iterator<T> {
 
   private final Iterator<?> itty;
   private final OrientBaseGraph graph;
+  private final boolean reuseElements;
+  private OrientVertex reusedVertex;
+  private OrientEdge reusedEdge;
 
   public OrientElementIterator(final OrientBaseGraph graph, final Iterator<?> itty) {
+    this(graph, itty, false);
+  }
+
+  /**
+   * @param reuseElements if true the same vertex and edge instances are bound to the records
+   *     returned by the underlying iterator, instead of creating a new element at every step
+   */
+  public OrientElementIterator(
+      final OrientBaseGraph graph, final Iterator<?> itty, final boolean reuseElements) {
     this.itty = itty;
     this.graph = graph;
+    this.reuseElements = reuseElements;
   }
 
   public boolean hasNext() {
@@ -69,13 +82,29 @@ class OrientElementIterator<T extends Element> implements Iterator<T> {
             "Cannot determine the graph element type because the document class is null. Probably this is a projection, use the EXPAND() function");
 
       if (currentDocument.getIdentity().getClusterId() != -2 && immutableClass.isEdgeType())
-        currentElement = graph.getEdge(currentDocument);
-      else currentElement = graph.getVertex(currentDocument);
+        currentElement = toEdge(currentDocument);
+      else currentElement = toVertex(currentDocument);
     }
 
     return (T) currentElement;
   }
 
+  private OrientEdge toEdge(final ODocument document) {
+    if (!reuseElements) return graph.getEdge(document);
+
+    if (reusedEdge == null) reusedEdge = graph.getEdge(document);
+    else reusedEdge.rebind(document);
+    return reusedEdge;
+  }
+
+  private OrientVertex toVertex(final ODocument document) {
+    if (!reuseElements) return graph.getVertex(document);
+
+    if (reusedVertex == null) reusedVertex = graph.getVertex(document);
+    else reusedVertex.rebind(document);
+    return reusedVertex;
+  }
+
   public void remove() {
     throw new UnsupportedOperationException();
   }
@@ -32,18 +32,36 @@ class OrientElementScanIterable<T extends Element> implements CloseableIterable<
   private final String elementClass;
   private final OrientBaseGraph graph;
   private final boolean polymorphic;
+  private final boolean reuseElements;
 
   public OrientElementScanIterable(
       final OrientBaseGraph graph, final String elementClass, final boolean polymorphic) {
+    this(graph, elementClass, polymorphic, false);
+  }
+
+  /**
+   * @param reuseElements if true the same record and the same element instance are reused at every
+   *     step of the iteration
+   */
+  public OrientElementScanIterable(
+      final OrientBaseGraph graph,
+      final String elementClass,
+      final boolean polymorphic,
+      final boolean reuseElements) {
     this.graph = graph;
     this.elementClass = elementClass;
     this.polymorphic = polymorphic;
+    this.reuseElements = reuseElements;
   }
 
   public Iterator<T> iterator() {
     final ODatabaseDocumentInternal rawGraph = this.graph.getRawGraph();
-    return new OrientElementIterator<T>(
-        this.graph, new ORecordIteratorClass<ORecord>(rawGraph, elementClass, polymorphic));
+    final ORecordIteratorClass<ORecord> iterator =
+        new ORecordIteratorClass<ORecord>(rawGraph, elementClass, polymorphic);
+    if (reuseElements) {
+      iterator.setReuseSameRecord(true);
+    }
+    return new OrientElementIterator<T>(this.graph, iterator, reuseElements);
   }
 
   public void close() {}
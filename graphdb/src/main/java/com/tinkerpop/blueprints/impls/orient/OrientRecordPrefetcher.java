@@ -0,0 +1,83 @@
+/*
+ *
+ *  *  Copyright 2010-2016 OrientDB LTD (http://orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://orientdb.com
+ *
+ */
+
+package com.tinkerpop.blueprints.impls.orient;
+
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
+import com.tinkerpop.blueprints.Direction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads in the local cache, with one call to the storage, the records of a batch of connections
+ * read ahead by the vertex and edge iterators.
+ */
+final class OrientRecordPrefetcher {
+  /** Size of the batches of connections read ahead. */
+  static final int PREFETCH_SIZE = 64;
+
+  private OrientRecordPrefetcher() {}
+
+  /** Loads the records of the batch that are not loaded yet. */
+  static void prefetch(final List<Object> batch) {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (db == null) return;
+
+    db.prefetchRecords(toLoad(batch));
+  }
+
+  /**
+   * Loads the records of the batch and, for the ones that are edges, the vertices at the given side
+   * of the edges.
+   */
+  static void prefetch(final List<Object> batch, final Direction vertexSide) {
+    final ODatabaseDocumentInternal db = ODatabaseRecordThreadLocal.instance().getIfDefined();
+    if (db == null) return;
+
+    db.prefetchRecords(toLoad(batch));
+
+    final List<Object> vertices = new ArrayList<>(batch.size());
+    for (Object item : batch) {
+      if (!(item instanceof OIdentifiable)) continue;
+
+      final ORecord record = ((OIdentifiable) item).getRecord();
+      if (!(record instanceof ODocument)) continue;
+
+      final OImmutableClass klass = ODocumentInternal.getImmutableSchemaClass((ODocument) record);
+      if (klass != null && klass.isEdgeType())
+        vertices.add(OrientEdge.getConnection((ODocument) record, vertexSide));
+    }
+    db.prefetchRecords(toLoad(vertices));
+  }
+
+  private static List<OIdentifiable> toLoad(final List<Object> batch) {
+    final List<OIdentifiable> result = new ArrayList<>(batch.size());
+    for (Object item : batch)
+      if (item instanceof OIdentifiable && !(item instanceof ORecord))
+        result.add((OIdentifiable) item);
+    return result;
+  }
+}
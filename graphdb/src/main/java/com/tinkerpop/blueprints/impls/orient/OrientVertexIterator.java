@@ -25,6 +25,7 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ridbag.ORidBag;
 import com.orientechnologies.orient.core.iterator.OLazyWrapperIterator;
+import com.orientechnologies.orient.core.iterator.OReadAheadIterator;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
 import com.orientechnologies.orient.core.record.ORecord;
@@ -48,10 +49,15 @@ public class OrientVertexIterator extends OLazyWrapperIterator<Vertex> {
       final OPair<Direction, String> connection,
       final String[] iLabels,
       final int iSize) {
-    super(iterator, iSize, iMultiValue);
+    super(
+        new OReadAheadIterator(iterator, OrientRecordPrefetcher.PREFETCH_SIZE), iSize, iMultiValue);
     this.vertex = orientVertex;
     this.connection = connection;
     this.iLabels = iLabels;
+    // EDGES OF THE BATCH AND THE VERTICES AT THEIR OTHER SIDE ARE LOADED TOGETHER
+    ((OReadAheadIterator) this.iterator)
+        .setBatchListener(
+            batch -> OrientRecordPrefetcher.prefetch(batch, connection.getKey().opposite()));
   }
 
   @Override
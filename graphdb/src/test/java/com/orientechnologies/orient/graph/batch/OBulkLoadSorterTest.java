@@ -0,0 +1,97 @@
+package com.orientechnologies.orient.graph.batch;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OBulkLoadSorterTest {
+
+  @Test
+  public void testMergeOfSpilledRuns() throws Exception {
+    try (OBulkLoadSorter sorter = new OBulkLoadSorter(100 * OBulkLoadSorter.ENTRY_SIZE, null)) {
+      final Random random = new Random(42);
+      final int[] links = new int[500];
+      for (int i = 0; i < 5_000; i++) {
+        final int owner = random.nextInt(links.length);
+        // TARGET IS DERIVED FROM THE OWNER, SO IT CAN BE CHECKED AFTER THE MERGE
+        sorter.addLink(owner, 1, owner * 10L);
+        links[owner]++;
+      }
+      sorter.addProperties(7, new byte[] {1, 2, 3});
+
+      Assert.assertTrue(sorter.getRunsCount() > 1);
+
+      final int[] merged = new int[links.length];
+      boolean properties = false;
+      long previous = -1;
+      try (OBulkLoadSorter.Cursor cursor = sorter.cursor()) {
+        while (cursor.next()) {
+          final long owner = cursor.owner();
+          Assert.assertTrue(owner >= previous);
+          previous = owner;
+
+          if (cursor.field() == OBulkLoadSorter.PROPERTIES) {
+            Assert.assertEquals(7, owner);
+            Assert.assertArrayEquals(new byte[] {1, 2, 3}, cursor.payload());
+            properties = true;
+          } else {
+            Assert.assertEquals(owner * 10L, cursor.target());
+            merged[(int) owner]++;
+          }
+        }
+      }
+
+      Assert.assertTrue(properties);
+      Assert.assertArrayEquals(links, merged);
+    }
+  }
+
+  @Test
+  public void testOrderOfProperties() throws Exception {
+    try (OBulkLoadSorter sorter = new OBulkLoadSorter(100 * OBulkLoadSorter.ENTRY_SIZE, null)) {
+      for (int i = 0; i < 1_000; i++) {
+        sorter.addLink(i % 3, 1, i);
+        sorter.addProperties(i % 3, new byte[] {(byte) (i % 100)});
+      }
+
+      Assert.assertTrue(sorter.getRunsCount() > 1);
+
+      try (OBulkLoadSorter.Cursor cursor = sorter.cursor()) {
+        for (int owner = 0; owner < 3; owner++) {
+          // PROPERTIES COME FIRST, IN THE ORDER IN WHICH THEY WERE ADDED
+          for (int i = owner; i < 1_000; i += 3) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(owner, cursor.owner());
+            Assert.assertEquals(OBulkLoadSorter.PROPERTIES, cursor.field());
+            Assert.assertArrayEquals(new byte[] {(byte) (i % 100)}, cursor.payload());
+          }
+          for (int i = owner; i < 1_000; i += 3) {
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(owner, cursor.owner());
+            Assert.assertEquals(1, cursor.field());
+          }
+        }
+        Assert.assertFalse(cursor.next());
+      }
+    }
+  }
+
+  @Test
+  public void testSpillBySize() throws Exception {
+    try (OBulkLoadSorter sorter = new OBulkLoadSorter(100 * OBulkLoadSorter.ENTRY_SIZE, null)) {
+      // FEW ENTRIES WITH BIG PAYLOADS DO NOT FIT IN MEMORY
+      for (int i = 0; i < 10; i++) {
+        sorter.addProperties(i, new byte[OBulkLoadSorter.ENTRY_SIZE * 40]);
+      }
+      Assert.assertTrue(sorter.getRunsCount() >= 4);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    try (OBulkLoadSorter sorter = new OBulkLoadSorter(100 * OBulkLoadSorter.ENTRY_SIZE, null);
+        OBulkLoadSorter.Cursor cursor = sorter.cursor()) {
+      Assert.assertFalse(cursor.next());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.orientechnologies.orient.graph.batch;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OGraphBulkLoaderTest {
+
+  @Test
+  public void testMultipleClasses() {
+    String dbUrl = "memory:OGraphBulkLoaderTest_multipleClasses";
+    OGraphBulkLoader loader = new OGraphBulkLoader(dbUrl, "admin", "admin");
+    loader.setParallel(2);
+    // FORCES SPILL OF THE ADJACENCY ENTRIES TO TEMPORARY RUNS
+    loader.setMaxMemory(32 * OBulkLoadSorter.ENTRY_SIZE);
+    loader.begin();
+
+    for (long i = 0; i < 100; i++) {
+      loader.createVertex("BulkPerson", i, Collections.singletonMap("name", "person" + i));
+      loader.createEdge("BulkKnows", "BulkPerson", i, "BulkPerson", (i + 1) % 100, null);
+      loader.createEdge("BulkLivesIn", "BulkPerson", i, "BulkCity", i % 10, null);
+    }
+    loader.createVertex("BulkCity", 3, Collections.singletonMap("name", "city3"));
+    loader.createEdge(
+        "BulkVisited", "BulkPerson", 0, "BulkCity", 20, Collections.singletonMap("year", 2020));
+    for (long i = 1; i < 50; i++) {
+      loader.createEdge(
+          "BulkVisited", "BulkPerson", i, "BulkCity", i % 10, Collections.singletonMap("year", i));
+    }
+    // THE LAST PROPERTIES WIN
+    loader.createVertex("BulkPerson", 5, Collections.singletonMap("name", "renamed"));
+    Assert.assertTrue(loader.getSpilledRunsCount() > 0);
+    loader.end();
+
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx(dbUrl);
+    db.open("admin", "admin");
+    try {
+      List<ODocument> result =
+          db.query(new OSQLSynchQuery<ODocument>("select count(*) as count from BulkPerson"));
+      Assert.assertEquals(100L, (long) result.get(0).<Long>field("count"));
+
+      // CITIES 10..19 ARE NOT USED, SO THEIR RECORDS ARE DELETED
+      result = db.query(new OSQLSynchQuery<ODocument>("select count(*) as count from BulkCity"));
+      Assert.assertEquals(11L, (long) result.get(0).<Long>field("count"));
+
+      result =
+          db.query(
+              new OSQLSynchQuery<ODocument>(
+                  "select out('BulkKnows').uid as knows, out('BulkLivesIn').name as city,"
+                      + " in('BulkKnows').size() as known from BulkPerson where uid = 3"));
+      Assert.assertEquals(1, result.size());
+      Assert.assertEquals(Collections.singletonList(4L), result.get(0).field("knows"));
+      Assert.assertEquals(Collections.singletonList("city3"), result.get(0).field("city"));
+      Assert.assertEquals(1, (int) result.get(0).<Integer>field("known"));
+
+      result =
+          db.query(
+              new OSQLSynchQuery<ODocument>(
+                  "select outE('BulkVisited').year as year, out('BulkVisited').uid as city"
+                      + " from BulkPerson where uid = 0"));
+      Assert.assertEquals(Collections.singletonList(2020), result.get(0).field("year"));
+      Assert.assertEquals(Collections.singletonList(20L), result.get(0).field("city"));
+
+      result =
+          db.query(new OSQLSynchQuery<ODocument>("select count(*) as count from BulkVisited"));
+      Assert.assertEquals(50L, (long) result.get(0).<Long>field("count"));
+
+      result =
+          db.query(
+              new OSQLSynchQuery<ODocument>(
+                  "select name, outE('BulkVisited').year as year, out('BulkVisited').uid as city"
+                      + " from BulkPerson where uid = 5"));
+      Assert.assertEquals("renamed", result.get(0).field("name"));
+      Assert.assertEquals(Collections.singletonList(5L), result.get(0).field("year"));
+      Assert.assertEquals(Collections.singletonList(5L), result.get(0).field("city"));
+    } finally {
+      db.drop();
+    }
+  }
+}
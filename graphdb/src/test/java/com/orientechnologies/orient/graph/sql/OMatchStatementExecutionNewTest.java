@@ -2287,6 +2287,77 @@ public class OMatchStatementExecutionNewTest {
     return db.query(query.toString());
   }
 
+  @Test
+  public void testCycleIntersection() {
+    db.command(new OCommandSQL("CREATE class CycleV extends V")).execute();
+    db.command(new OCommandSQL("CREATE class CycleE extends E")).execute();
+    for (int i = 0; i < 4; i++) {
+      db.command(new OCommandSQL("CREATE VERTEX CycleV set uid = ?")).execute(i);
+    }
+    // the closing edge {2, 0} is doubled, so the cycle has to be returned twice
+    int[][] edges = {{0, 1}, {1, 2}, {2, 0}, {2, 0}, {1, 3}, {3, 1}};
+    for (int[] edge : edges) {
+      db.command(
+              new OCommandSQL(
+                  "CREATE EDGE CycleE from (select from CycleV where uid = ?) to (select from CycleV where uid = ?)"))
+          .execute(edge[0], edge[1]);
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append("match ");
+    query.append("{class:CycleV, as: a, where: (uid = 0)}");
+    query.append("  .out('CycleE'){as: b}");
+    query.append("  .out('CycleE'){as: c}");
+    query.append("  .out('CycleE'){as: a}");
+    query.append("return a.uid as a, b.uid as b, c.uid as c");
+
+    OResultSet result = db.query(query.toString());
+    Assert.assertTrue(result.getExecutionPlan().get().prettyPrint(0, 3).contains("INTERSECT"));
+    for (int i = 0; i < 2; i++) {
+      Assert.assertTrue(result.hasNext());
+      OResult item = result.next();
+      Assert.assertEquals(0, (int) item.getProperty("a"));
+      Assert.assertEquals(1, (int) item.getProperty("b"));
+      Assert.assertEquals(2, (int) item.getProperty("c"));
+    }
+    Assert.assertFalse(result.hasNext());
+    result.close();
+  }
+
+  @Test
+  public void testCycleWithMatchedFilterIsNotIntersected() {
+    db.command(new OCommandSQL("CREATE class CycleMatchedV extends V")).execute();
+    db.command(new OCommandSQL("CREATE class CycleMatchedE extends E")).execute();
+    for (int i = 0; i < 3; i++) {
+      db.command(new OCommandSQL("CREATE VERTEX CycleMatchedV set uid = ?")).execute(i);
+    }
+    int[][] edges = {{0, 1}, {1, 2}, {2, 0}};
+    for (int[] edge : edges) {
+      db.command(
+              new OCommandSQL(
+                  "CREATE EDGE CycleMatchedE from (select from CycleMatchedV where uid = ?) to (select from CycleMatchedV where uid = ?)"))
+          .execute(edge[0], edge[1]);
+    }
+
+    StringBuilder query = new StringBuilder();
+    query.append("match ");
+    query.append("{class:CycleMatchedV, as: a, where: (uid = 0)}");
+    query.append("  .out('CycleMatchedE'){as: b}");
+    query.append("  .out('CycleMatchedE'){as: c}");
+    query.append("  .out('CycleMatchedE'){as: a, where: ($matched.c.uid = 2)}");
+    query.append("return a.uid as a, b.uid as b, c.uid as c");
+
+    OResultSet result = db.query(query.toString());
+    Assert.assertFalse(result.getExecutionPlan().get().prettyPrint(0, 3).contains("INTERSECT"));
+    Assert.assertTrue(result.hasNext());
+    OResult item = result.next();
+    Assert.assertEquals(0, (int) item.getProperty("a"));
+    Assert.assertEquals(1, (int) item.getProperty("b"));
+    Assert.assertEquals(2, (int) item.getProperty("c"));
+    Assert.assertFalse(result.hasNext());
+    result.close();
+  }
+
   @Test
   public void testQuotedClassName() {
     String className = "testQuotedClassName";
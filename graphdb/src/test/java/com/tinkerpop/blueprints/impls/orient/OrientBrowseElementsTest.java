@@ -0,0 +1,82 @@
+package com.tinkerpop.blueprints.impls.orient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class OrientBrowseElementsTest {
+  private OrientGraph graph;
+
+  @Before
+  public void setUp() {
+    graph =
+        (OrientGraph)
+            new OrientGraph("memory:" + OrientBrowseElementsTest.class.getSimpleName())
+                .setWarnOnForceClosingTx(false);
+    graph.createVertexType("Person");
+    graph.createEdgeType("Knows");
+
+    Vertex hub = graph.addVertex("class:Person", "name", "hub");
+    for (int i = 0; i < 100; i++) {
+      Vertex friend = graph.addVertex("class:Person", "name", "friend" + i);
+      graph.addEdge(null, hub, friend, "Knows");
+    }
+    graph.commit();
+  }
+
+  @After
+  public void tearDown() {
+    graph.drop();
+  }
+
+  @Test
+  public void testBrowseVerticesReusesTheSameInstance() {
+    Set<String> names = new HashSet<String>();
+    Vertex first = null;
+    for (Vertex vertex : graph.browseVerticesOfClass("Person", true)) {
+      if (first == null) first = vertex;
+      assertSame(first, vertex);
+      names.add(vertex.<String>getProperty("name"));
+    }
+    assertEquals(101, names.size());
+  }
+
+  @Test
+  public void testBrowseEdges() {
+    Set<Object> targets = new HashSet<Object>();
+    for (Edge edge : graph.browseEdgesOfClass("Knows", true)) {
+      targets.add(edge.getVertex(Direction.IN).getId());
+    }
+    assertEquals(100, targets.size());
+  }
+
+  @Test
+  public void testBatchedAdjacency() {
+    graph.getRawGraph().getLocalCache().clear();
+
+    Vertex hub = graph.getVertices("Person.name", "hub").iterator().next();
+    Set<String> names = new HashSet<String>();
+    for (Vertex friend : hub.getVertices(Direction.OUT, "Knows")) {
+      names.add(friend.<String>getProperty("name"));
+    }
+    assertEquals(100, names.size());
+
+    int edges = 0;
+    for (Edge edge : hub.getEdges(Direction.OUT, "Knows")) {
+      assertEquals(hub.getId(), edge.getVertex(Direction.OUT).getId());
+      edges++;
+    }
+    assertEquals(100, edges);
+  }
+}
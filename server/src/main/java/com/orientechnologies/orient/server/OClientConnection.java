@@ -22,6 +22,7 @@ package com.orientechnologies.orient.server;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.exception.OSystemException;
 import com.orientechnologies.orient.client.binary.OBinaryRequestExecutor;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.metadata.security.OToken;
@@ -29,6 +30,7 @@ import com.orientechnologies.orient.core.security.OParsedToken;
 import com.orientechnologies.orient.core.sql.executor.OExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OInternalExecutionPlan;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.core.sql.parser.OPreparedStatement;
 import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinary;
 import com.orientechnologies.orient.enterprise.channel.binary.OTokenSecurityException;
 import com.orientechnologies.orient.server.network.protocol.ONetworkProtocol;
@@ -39,6 +41,8 @@ import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -64,6 +68,21 @@ public class OClientConnection {
   private OParsedToken token;
   private boolean disconnectOnAfter;
   private OBinaryRequestExecutor executor;
+  private final Map<String, Integer> preparedStatementIds = new HashMap<>();
+  /** Prepared statements in order of use, the least recently used ones are dropped first. */
+  private final Map<Integer, OPreparedStatement> preparedStatements =
+      new LinkedHashMap<Integer, OPreparedStatement>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, OPreparedStatement> eldest) {
+          if (size()
+              > OGlobalConfiguration.NETWORK_BINARY_MAX_PREPARED_STATEMENTS.getValueAsInteger()) {
+            preparedStatementIds.remove(eldest.getValue().getText());
+            return true;
+          }
+          return false;
+        }
+      };
+  private int nextPreparedStatementId;
 
   public OClientConnection(final int id, final ONetworkProtocol protocol) {
     this.id = id;
@@ -74,6 +93,10 @@ public class OClientConnection {
   }
 
   public void close() {
+    synchronized (preparedStatements) {
+      preparedStatements.clear();
+      preparedStatementIds.clear();
+    }
     if (getDatabase() != null) {
       if (!getDatabase().isClosed()) {
         getDatabase().activateOnCurrentThread();
@@ -101,6 +124,42 @@ public class OClientConnection {
     lock.unlock();
   }
 
+  /**
+   * Keeps a prepared statement for the next requests of this connection.
+   *
+   * @return the handle of the statement, the same one already returned if a statement with the same
+   *     text was prepared before
+   */
+  public int addPreparedStatement(OPreparedStatement statement) {
+    synchronized (preparedStatements) {
+      Integer id = preparedStatementIds.get(statement.getText());
+      if (id == null) {
+        id = nextPreparedStatementId++;
+        preparedStatementIds.put(statement.getText(), id);
+        preparedStatements.put(id, statement);
+      } else {
+        // MARKS IT AS RECENTLY USED
+        preparedStatements.get(id);
+      }
+      return id;
+    }
+  }
+
+  public OPreparedStatement getPreparedStatement(int id) {
+    synchronized (preparedStatements) {
+      return preparedStatements.get(id);
+    }
+  }
+
+  public void removePreparedStatement(int id) {
+    synchronized (preparedStatements) {
+      OPreparedStatement statement = preparedStatements.remove(id);
+      if (statement != null) {
+        preparedStatementIds.remove(statement.getText());
+      }
+    }
+  }
+
   @Override
   public String toString() {
     Object address;
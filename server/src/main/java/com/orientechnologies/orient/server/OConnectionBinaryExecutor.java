@@ -24,17 +24,24 @@ import com.orientechnologies.orient.core.db.record.ORecordOperation;
 import com.orientechnologies.orient.core.db.tool.ODatabaseImport;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.OPreparedStatementNotFoundException;
 import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
 import com.orientechnologies.orient.core.exception.OSecurityAccessException;
+import com.orientechnologies.orient.core.exception.OSecurityException;
 import com.orientechnologies.orient.core.fetch.OFetchContext;
 import com.orientechnologies.orient.core.fetch.OFetchHelper;
 import com.orientechnologies.orient.core.fetch.OFetchListener;
 import com.orientechnologies.orient.core.fetch.OFetchPlan;
 import com.orientechnologies.orient.core.fetch.remote.ORemoteFetchContext;
 import com.orientechnologies.orient.core.fetch.remote.ORemoteFetchListener;
+import com.orientechnologies.orient.core.hook.ORecordHook;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OImmutableClass;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.metadata.security.OSecurityInternal;
 import com.orientechnologies.orient.core.metadata.security.OSecurityUser;
 import com.orientechnologies.orient.core.query.live.OLiveQueryHookV2;
 import com.orientechnologies.orient.core.record.ORecord;
@@ -44,18 +51,22 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentInternal;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializerFactory;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultInternal;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OLocalResultSetLifecycleDecorator;
+import com.orientechnologies.orient.core.sql.parser.OPreparedStatement;
 import com.orientechnologies.orient.core.sql.query.OSQLAsynchQuery;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import com.orientechnologies.orient.core.storage.OPhysicalPosition;
+import com.orientechnologies.orient.core.storage.ORawBuffer;
 import com.orientechnologies.orient.core.storage.ORecordMetadata;
 import com.orientechnologies.orient.core.storage.cluster.OOfflineClusterException;
 import com.orientechnologies.orient.core.storage.config.OClusterBasedStorageConfiguration;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.OCommittedChanges;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationsManager;
 import com.orientechnologies.orient.core.storage.index.sbtree.OTreeInternal;
 import com.orientechnologies.orient.core.storage.index.sbtreebonsai.local.OSBTreeBonsai;
@@ -289,8 +300,17 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
 
     boolean loadTombstones = false;
     loadTombstones = request.isLoadTumbstone();
+    final ORawBuffer storedRecord = readStoredRecord(request);
     OReadRecordResponse response;
-    if (rid.getClusterId() == 0 && rid.getClusterPosition() == 0) {
+    if (storedRecord != null) {
+      response =
+          new OReadRecordResponse(
+              storedRecord.recordType,
+              storedRecord.version,
+              storedRecord.buffer,
+              Collections.emptySet(),
+              true);
+    } else if (rid.getClusterId() == 0 && rid.getClusterPosition() == 0) {
       // @COMPATIBILITY 0.9.25
       // SEND THE DB CONFIGURATION INSTEAD SINCE IT WAS ON RECORD 0:0
       OFetchHelper.checkFetchPlanValid(fetchPlanString);
@@ -338,6 +358,69 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     return response;
   }
 
+  /**
+   * Reads the record as it is stored, to send it without deserializing and serializing it again,
+   * if the client accepts this format and nothing that runs on load of the record can change or
+   * hide it: the checks that do not depend on the content of the record are done here, the others
+   * disable the pass-through. Hooks registered for the reads, eg. auditing or custom hooks of the
+   * server configuration, disable it as well.
+   *
+   * @return the stored record or null if it has to be loaded
+   */
+  private ORawBuffer readStoredRecord(OReadRecordRequest request) {
+    final ORecordId rid = request.getRid();
+    final ODatabaseDocumentInternal database = connection.getDatabase();
+    if (!request.isStoredFormat()
+        || !request.getFetchPlan().isEmpty()
+        || !rid.isPersistent()
+        || !(database.getSerializer() instanceof ORecordSerializerBinary)
+        || database.getTransaction().isActive()
+        || database.getLocalCache().findRecord(rid) != null
+        || hasReadHooks(database)) {
+      return null;
+    }
+
+    final OImmutableClass clazz =
+        (OImmutableClass)
+            database
+                .getMetadata()
+                .getImmutableSchemaSnapshot()
+                .getClassByClusterId(rid.getClusterId());
+    if (clazz == null || clazz.isRestricted() || clazz.isTriggered()) {
+      return null;
+    }
+
+    try {
+      database.checkSecurity(
+          ORule.ResourceGeneric.CLUSTER,
+          ORole.PERMISSION_READ,
+          database.getClusterNameById(rid.getClusterId()));
+      database.checkSecurity(ORule.ResourceGeneric.CLASS, ORole.PERMISSION_READ, clazz.getName());
+    } catch (OSecurityException e) {
+      // LOAD IT TO REPORT THE ERROR
+      return null;
+    }
+
+    final OSecurityInternal security = database.getSharedContext().getSecurity();
+    if (security.isReadRestrictedBySecurityPolicy(database, "database.class." + clazz.getName())
+        || !security.getAllFilteredProperties(database).isEmpty()) {
+      return null;
+    }
+
+    return database.getStorage().readRecord(rid, null, false, false, null).getResult();
+  }
+
+  private static boolean hasReadHooks(ODatabaseDocumentInternal database) {
+    for (ORecordHook hook : database.getHooks().keySet()) {
+      for (ORecordHook.SCOPE scope : hook.getScopes()) {
+        if (scope == ORecordHook.SCOPE.READ) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   @Override
   public OBinaryResponse executeReadRecordIfNotLastest(
       OReadRecordIfVersionIsNotLatestRequest request) {
@@ -429,7 +512,24 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
 
   @Override
   public OBinaryResponse executeUpdateRecord(OUpdateRecordRequest request) {
+    final int newVersion = updateRecord(request).getVersion();
 
+    if (request.getMode() < 2) {
+      Map<UUID, OBonsaiCollectionPointer> changedIds;
+      OSBTreeCollectionManager collectionManager =
+          connection.getDatabase().getSbTreeCollectionManager();
+      if (collectionManager != null) {
+        changedIds = new HashMap<>(collectionManager.changedIds());
+        collectionManager.clearChangedIds();
+      } else changedIds = new HashMap<>();
+
+      return new OUpdateRecordResponse(newVersion, changedIds);
+    }
+    return null;
+  }
+
+  /** Saves the content of the request in the record, returning the saved record instance. */
+  private ORecord updateRecord(OUpdateRecordRequest request) {
     ODatabaseDocumentInternal database = connection.getDatabase();
     final ORecord newRecord = request.getContent();
     ORecordInternal.setIdentity(newRecord, request.getRid());
@@ -467,20 +567,7 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
       // FORCE INDEX MANAGER UPDATE. THIS HAPPENS FOR DIRECT CHANGES FROM REMOTE LIKE IN GRAPH
       database.getMetadata().getIndexManagerInternal().reload();
     }
-    final int newVersion = currentRecord.getVersion();
-
-    if (request.getMode() < 2) {
-      Map<UUID, OBonsaiCollectionPointer> changedIds;
-      OSBTreeCollectionManager collectionManager =
-          connection.getDatabase().getSbTreeCollectionManager();
-      if (collectionManager != null) {
-        changedIds = new HashMap<>(collectionManager.changedIds());
-        collectionManager.clearChangedIds();
-      } else changedIds = new HashMap<>();
-
-      return new OUpdateRecordResponse(newVersion, changedIds);
-    }
-    return null;
+    return currentRecord;
   }
 
   @Override
@@ -651,6 +738,36 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     List<OCommit37Response.OUpdatedRecordResponse> updatedRecords = new ArrayList<>();
     List<OCommit37Response.ODeletedRecordResponse> deletedRecords = new ArrayList<>();
 
+    if (!transaction.isActive()) {
+      List<OBatchOperationsResponse.OFailedOperationResponse> failedOperations = new ArrayList<>();
+      int groupSize =
+          Math.max(1, OGlobalConfiguration.NETWORK_BINARY_BATCH_GROUP_SIZE.getValueAsInteger());
+      for (int begin = 0; begin < operations.size(); begin += groupSize) {
+        List<ORecordOperationRequest> group =
+            operations.subList(begin, Math.min(begin + groupSize, operations.size()));
+        try {
+          executeBatchGroup(group, createdRecords, updatedRecords, deletedRecords);
+        } catch (RuntimeException e) {
+          // APPLY THE OPERATIONS OF THE GROUP ONE BY ONE TO FIND THE FAILED ONES
+          for (int i = 0; i < group.size(); i++) {
+            try {
+              executeBatchGroup(
+                  Collections.singletonList(group.get(i)),
+                  createdRecords,
+                  updatedRecords,
+                  deletedRecords);
+            } catch (RuntimeException ex) {
+              String message = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+              failedOperations.add(
+                  new OBatchOperationsResponse.OFailedOperationResponse(begin + i, message));
+            }
+          }
+        }
+      }
+      return new OBatchOperationsResponse(
+          transaction.getId(), createdRecords, updatedRecords, deletedRecords, failedOperations);
+    }
+
     for (ORecordOperationRequest operation : operations) {
 
       final ORecord record;
@@ -716,6 +833,89 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
         database.getTransaction().getId(), createdRecords, updatedRecords, deletedRecords);
   }
 
+  /**
+   * Applies a group of batch operations in a single atomic operation, adding their results only if
+   * all of them succeed.
+   */
+  private void executeBatchGroup(
+      List<ORecordOperationRequest> operations,
+      List<OCommit37Response.OCreatedRecordResponse> createdRecords,
+      List<OCommit37Response.OUpdatedRecordResponse> updatedRecords,
+      List<OCommit37Response.ODeletedRecordResponse> deletedRecords) {
+    ODatabaseDocumentInternal database = connection.getDatabase();
+    List<ORecordId> createdIds = new ArrayList<>();
+    List<ORecord> created = new ArrayList<>();
+    List<ORecordId> updatedIds = new ArrayList<>();
+    List<ORecord> updated = new ArrayList<>();
+    List<ORecordId> deleted = new ArrayList<>();
+
+    database.begin();
+    try {
+      for (ORecordOperationRequest operation : operations) {
+        final ORecord record;
+        switch (operation.getType()) {
+          case ORecordOperation.CREATED:
+            record =
+                Orient.instance()
+                    .getRecordFactoryManager()
+                    .newInstance(
+                        operation.getRecordType(), operation.getId().getClusterId(), database);
+            connection.getData().getSerializer().fromStream(operation.getRecord(), record, null);
+            executeCreateRecord(
+                new OCreateRecordRequest(
+                    record, (ORecordId) operation.getId().copy(), operation.getRecordType()));
+            createdIds.add((ORecordId) operation.getId());
+            created.add(record);
+            break;
+          case ORecordOperation.UPDATED:
+            record =
+                Orient.instance()
+                    .getRecordFactoryManager()
+                    .newInstance(
+                        operation.getRecordType(), operation.getId().getClusterId(), database);
+            connection.getData().getSerializer().fromStream(operation.getRecord(), record, null);
+            updatedIds.add((ORecordId) operation.getId());
+            updated.add(
+                updateRecord(
+                    new OUpdateRecordRequest(
+                        (ORecordId) operation.getId(),
+                        record,
+                        operation.getVersion(),
+                        true,
+                        operation.getRecordType())));
+            break;
+          case ORecordOperation.DELETED:
+            executeDeleteRecord(
+                new ODeleteRecordRequest((ORecordId) operation.getId(), operation.getVersion()));
+            deleted.add((ORecordId) operation.getId());
+            break;
+        }
+      }
+      database.commit();
+    } catch (RuntimeException e) {
+      if (database.getTransaction().isActive()) {
+        database.rollback(true);
+      }
+      throw e;
+    }
+
+    // THE IDENTITIES AND THE VERSIONS ARE FINAL ONLY AFTER THE COMMIT
+    for (int i = 0; i < created.size(); i++) {
+      ORecord record = created.get(i);
+      createdRecords.add(
+          new OCommit37Response.OCreatedRecordResponse(
+              createdIds.get(i), (ORecordId) record.getIdentity(), record.getVersion()));
+    }
+    for (int i = 0; i < updated.size(); i++) {
+      updatedRecords.add(
+          new OCommit37Response.OUpdatedRecordResponse(
+              updatedIds.get(i), updated.get(i).getVersion()));
+    }
+    for (ORecordId rid : deleted) {
+      deletedRecords.add(new OCommit37Response.ODeletedRecordResponse(rid));
+    }
+  }
+
   @Override
   public OBinaryResponse executeCommit(final OCommitRequest request) {
     final OTransactionOptimisticProxy tx =
@@ -1351,12 +1551,20 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
       }
     }
 
+    return createQueryResponse(database, rs, request.getRecordsPerPage(), metadataListener);
+  }
+
+  private OQueryResponse createQueryResponse(
+      ODatabaseDocumentInternal database,
+      OResultSet rs,
+      int recordsPerPage,
+      OQueryMetadataUpdateListener metadataListener) {
     // copy the result-set to make sure that the execution is successful
     Stream<OResult> stream = rs.stream();
     if (database
         .getActiveQueries()
         .containsKey(((OLocalResultSetLifecycleDecorator) rs).getQueryId())) {
-      stream = stream.limit(request.getRecordsPerPage());
+      stream = stream.limit(recordsPerPage);
     }
     List<OResultInternal> rsCopy =
         stream.map((r) -> (OResultInternal) r).collect(Collectors.toList());
@@ -1378,6 +1586,124 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
         metadataListener.isUpdated());
   }
 
+  @Override
+  public OBinaryResponse executePrepareStatement(OPrepareStatementRequest request) {
+    OPreparedStatement statement =
+        new OPreparedStatement(request.getStatement(), connection.getDatabase());
+    return new OPrepareStatementResponse(connection.addPreparedStatement(statement));
+  }
+
+  @Override
+  public OBinaryResponse executePreparedStatement(OExecutePreparedStatementRequest request) {
+    OPreparedStatement statement = connection.getPreparedStatement(request.getStatementId());
+    if (statement == null) {
+      throw new OPreparedStatementNotFoundException(
+          String.format(
+              "No prepared statement with id '%d' found probably expired session",
+              request.getStatementId()));
+    }
+    ODatabaseDocumentInternal database = connection.getDatabase();
+    OQueryMetadataUpdateListener metadataListener = new OQueryMetadataUpdateListener();
+    database.getSharedContext().registerListener(metadataListener);
+    if (database.getTransaction().isActive()) {
+      ((OTransactionOptimistic) database.getTransaction()).resetChangesTracking();
+    }
+    OResultSet rs = database.query(statement, request.getInputParameters());
+    return createQueryResponse(database, rs, request.getRecordsPerPage(), metadataListener);
+  }
+
+  @Override
+  public OBinaryResponse executeClosePreparedStatement(OClosePreparedStatementRequest request) {
+    connection.removePreparedStatement(request.getStatementId());
+    return new OClosePreparedStatementResponse();
+  }
+
+  @Override
+  public OBinaryResponse executeReadChanges(OReadChangesRequest request) {
+    ODatabaseDocumentInternal database = connection.getDatabase();
+    database.checkSecurity(ORule.ResourceGeneric.DATABASE, ORole.PERMISSION_READ);
+    if (!(database.getStorage() instanceof OAbstractPaginatedStorage)) {
+      throw new ODatabaseException(
+          "Changes can not be read from storage " + database.getStorage().getName());
+    }
+    OAbstractPaginatedStorage storage = (OAbstractPaginatedStorage) database.getStorage();
+    List<OCommittedChanges> changes = storage.readChanges(request.getFrom(), request.getLimit());
+    Map<Integer, Boolean> readableClusters = new HashMap<>();
+    List<OCommittedChanges> visible = new ArrayList<>(changes.size());
+    for (OCommittedChanges change : changes) {
+      Set<ORID> rids = new HashSet<>();
+      for (ORID rid : change.getRids()) {
+        if (isChangeVisible(database, rid, readableClusters)) {
+          rids.add(rid);
+        }
+      }
+      // OPERATIONS WITHOUT VISIBLE RECORDS ARE KEPT, THE CLIENT CONTINUES FROM THEIR LSN
+      visible.add(new OCommittedChanges(change.getLsn(), Collections.unmodifiableSet(rids)));
+    }
+    return new OReadChangesResponse(visible);
+  }
+
+  /**
+   * Checks if the current user can see the change of a record: the cluster and the class of the
+   * record have to be readable. The records of the classes whose visibility depends on their
+   * content (restricted classes and classes with a read security policy) are visible only if they
+   * can be loaded now, so their deletions are not reported.
+   */
+  private static boolean isChangeVisible(
+      ODatabaseDocumentInternal database, ORID rid, Map<Integer, Boolean> readableClusters) {
+    Boolean readable = readableClusters.get(rid.getClusterId());
+    if (readable == null) {
+      readable = isClusterReadable(database, rid.getClusterId());
+      readableClusters.put(rid.getClusterId(), readable);
+    }
+    if (readable) {
+      return true;
+    }
+    if (isContentFiltered(database, rid.getClusterId())) {
+      try {
+        return database.load(rid) != null;
+      } catch (OSecurityException | ORecordNotFoundException e) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if all the records of the cluster can be read by the current user regardless of
+   *     their content
+   */
+  private static boolean isClusterReadable(ODatabaseDocumentInternal database, int clusterId) {
+    final OImmutableClass clazz =
+        (OImmutableClass)
+            database.getMetadata().getImmutableSchemaSnapshot().getClassByClusterId(clusterId);
+    try {
+      database.checkSecurity(
+          ORule.ResourceGeneric.CLUSTER,
+          ORole.PERMISSION_READ,
+          database.getClusterNameById(clusterId));
+      if (clazz != null) {
+        database.checkSecurity(
+            ORule.ResourceGeneric.CLASS, ORole.PERMISSION_READ, clazz.getName());
+      }
+    } catch (OSecurityException e) {
+      return false;
+    }
+    return !isContentFiltered(database, clusterId);
+  }
+
+  private static boolean isContentFiltered(ODatabaseDocumentInternal database, int clusterId) {
+    final OImmutableClass clazz =
+        (OImmutableClass)
+            database.getMetadata().getImmutableSchemaSnapshot().getClassByClusterId(clusterId);
+    return clazz != null
+        && (clazz.isRestricted()
+            || database
+                .getSharedContext()
+                .getSecurity()
+                .isReadRestrictedBySecurityPolicy(database, "database.class." + clazz.getName()));
+  }
+
   @Override
   public OBinaryResponse closeQuery(OCloseQueryRequest oQueryRequest) {
     String queryId = oQueryRequest.getQueryId();
@@ -1698,6 +2024,15 @@ public final class OConnectionBinaryExecutor implements OBinaryRequestExecutor {
     return new OSubscribeSequencesResponse();
   }
 
+  @Override
+  public OBinaryResponse executeSubscribeRecordInvalidation(
+      OSubscribeRecordInvalidationRequest request) {
+    OPushManager manager = server.getPushManager();
+    manager.subscribeRecordInvalidation(
+        connection.getDatabase(), (ONetworkProtocolBinary) connection.getProtocol());
+    return new OSubscribeRecordInvalidationResponse();
+  }
+
   @Override
   public OBinaryResponse executeUnsubscribeLiveQuery(OUnsubscribeLiveQueryRequest request) {
     ODatabaseDocumentInternal database = connection.getDatabase();
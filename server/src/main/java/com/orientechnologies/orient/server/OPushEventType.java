@@ -10,7 +10,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 public class OPushEventType {
-  private final ConcurrentMap<String, OBinaryPushRequest<?>> databases = new ConcurrentHashMap<>();
+  protected final ConcurrentMap<String, OBinaryPushRequest<?>> databases =
+      new ConcurrentHashMap<>();
   protected final ConcurrentMap<String, Set<WeakReference<ONetworkProtocolBinary>>> listeners =
       new ConcurrentHashMap<>();
 
@@ -26,6 +27,11 @@ public class OPushEventType {
     return databases.remove(database);
   }
 
+  public synchronized boolean hasListeners(String database) {
+    Set<WeakReference<ONetworkProtocolBinary>> pushSockets = listeners.get(database);
+    return pushSockets != null && !pushSockets.isEmpty();
+  }
+
   public synchronized void subscribe(String database, ONetworkProtocolBinary protocol) {
     Set<WeakReference<ONetworkProtocolBinary>> pushSockets = listeners.get(database);
     if (pushSockets == null) {
@@ -7,12 +7,14 @@ import com.orientechnologies.orient.client.remote.message.OBinaryPushResponse;
 import com.orientechnologies.orient.client.remote.message.OPushDistributedConfigurationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushFunctionsRequest;
 import com.orientechnologies.orient.client.remote.message.OPushIndexManagerRequest;
+import com.orientechnologies.orient.client.remote.message.OPushRecordInvalidationRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSchemaRequest;
 import com.orientechnologies.orient.client.remote.message.OPushSequencesRequest;
 import com.orientechnologies.orient.client.remote.message.OPushStorageConfigurationRequest;
 import com.orientechnologies.orient.core.config.OStorageConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OIndexManagerAbstract;
 import com.orientechnologies.orient.core.index.OIndexManagerShared;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
@@ -36,6 +38,7 @@ public class OPushManager implements OMetadataUpdateListener {
   protected final OPushEventType indexManager = new OPushEventType();
   protected final OPushEventType functions = new OPushEventType();
   protected final OPushEventType sequences = new OPushEventType();
+  protected final OPushEventType recordInvalidation = new ORecordInvalidationEventType();
   private Set<String> registerDatabase = new HashSet<>();
   private final ExecutorService executor;
 
@@ -81,6 +84,7 @@ public class OPushManager implements OMetadataUpdateListener {
     indexManager.cleanListeners();
     functions.cleanListeners();
     sequences.cleanListeners();
+    recordInvalidation.cleanListeners();
   }
 
   private void cleanListeners(Map<String, Set<WeakReference<ONetworkProtocolBinary>>> toClean) {
@@ -132,6 +136,11 @@ public class OPushManager implements OMetadataUpdateListener {
     genericSubscribe(sequences, database, protocol);
   }
 
+  public synchronized void subscribeRecordInvalidation(
+      ODatabaseDocumentInternal database, ONetworkProtocolBinary protocol) {
+    genericSubscribe(recordInvalidation, database, protocol);
+  }
+
   @Override
   public void onSchemaUpdate(String database, OSchemaShared schema) {
     OPushSchemaRequest request = new OPushSchemaRequest(schema.toNetworkStream());
@@ -163,6 +172,19 @@ public class OPushManager implements OMetadataUpdateListener {
     storageConfigurations.send(database, request, this);
   }
 
+  @Override
+  public boolean isRecordsUpdateListened(String database) {
+    return recordInvalidation.hasListeners(database);
+  }
+
+  @Override
+  public void onRecordsUpdate(String database, Set<ORID> rids) {
+    if (recordInvalidation.hasListeners(database)) {
+      OPushRecordInvalidationRequest request = new OPushRecordInvalidationRequest(rids);
+      recordInvalidation.send(database, request, this);
+    }
+  }
+
   public void genericNotify(
       Map<String, Set<WeakReference<ONetworkProtocolBinary>>> context,
       String database,
@@ -178,13 +200,14 @@ public class OPushManager implements OMetadataUpdateListener {
               }
             }
             if (clients != null) {
+              // THE PENDING REQUEST IS TAKEN ONCE AND SENT TO ALL THE CLIENTS
+              OBinaryPushRequest<?> request = pack.getRequest(database);
               Iterator<WeakReference<ONetworkProtocolBinary>> iter = clients.iterator();
               while (iter.hasNext()) {
                 WeakReference<ONetworkProtocolBinary> ref = iter.next();
                 ONetworkProtocolBinary protocolBinary = ref.get();
                 if (protocolBinary != null) {
                   try {
-                    OBinaryPushRequest<?> request = pack.getRequest(database);
                     if (request != null) {
                       OBinaryPushResponse response = protocolBinary.push(request);
                     }
@@ -206,4 +229,24 @@ public class OPushManager implements OMetadataUpdateListener {
           .info(this, "Cannot send push request to client for database '%s'", database);
     }
   }
+
+  /**
+   * Merges the records of a new invalidation into the one waiting to be sent, so that no record is
+   * lost when commits happen faster than the pushes.
+   */
+  private static class ORecordInvalidationEventType extends OPushEventType {
+    @Override
+    public synchronized void send(
+        String database, OBinaryPushRequest<?> request, OPushManager pushManager) {
+      OBinaryPushRequest<?> prev = databases.get(database);
+      if (prev != null) {
+        databases.put(
+            database,
+            ((OPushRecordInvalidationRequest) prev)
+                .merge((OPushRecordInvalidationRequest) request));
+      } else {
+        super.send(database, request, pushManager);
+      }
+    }
+  }
 }
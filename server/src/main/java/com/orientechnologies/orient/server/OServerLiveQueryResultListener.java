@@ -96,7 +96,7 @@ class OServerLiveQueryResultListener implements OLiveQueryBatchResultListener {
     try {
       protocol.push(new OLiveQueryPushRequest(monitorId, OLiveQueryPushRequest.HAS_MORE, events));
     } catch (IOException e) {
-      sharedContext.getLiveQueryOpsV2().getSubscribers().remove(monitorId);
+      sharedContext.getLiveQueryOpsV2().removeSubscriber(monitorId);
       throw OException.wrapException(
           new OLiveQueryInterruptedException("Live query interrupted by socket close"), e);
     }
@@ -1,7 +1,11 @@
 package com.orientechnologies.orient.server.network.protocol.binary;
 
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
 import com.orientechnologies.orient.core.serialization.serializer.record.ORecordSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkFactory;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
 
 /** Created by tglman on 29/12/16. */
 public class HandshakeInfo {
@@ -12,6 +16,7 @@ public class HandshakeInfo {
   private byte encoding;
   private byte errorEncoding;
   private ORecordSerializer serializer;
+  private OCompression compression;
 
   public HandshakeInfo(
       short protocolVersion,
@@ -25,6 +30,9 @@ public class HandshakeInfo {
     this.encoding = encoding;
     this.errorEncoding = errorEncoding;
     this.serializer = ORecordSerializerNetworkFactory.INSTANCE.forProtocol(protocolVersion);
+    if (encoding == OChannelBinaryProtocol.ENCODING_GZIP) {
+      this.compression = OCompressionFactory.INSTANCE.getCompression(OGZIPCompression.NAME, null);
+    }
   }
 
   public short getProtocolVersion() {
@@ -62,4 +70,9 @@ public class HandshakeInfo {
   public byte getErrorEncoding() {
     return errorEncoding;
   }
+
+  /** @return the compression of the responses asked with the encoding, null if none */
+  public OCompression getCompression() {
+    return compression;
+  }
 }
@@ -43,6 +43,8 @@ public class ONetworkBinaryProtocolFactory {
         return ONetworkBinaryProtocolFactory::createRequest37;
       case 38:
         return ONetworkBinaryProtocolFactory::createRequest38;
+      case 39:
+        return ONetworkBinaryProtocolFactory::createRequest39;
       default:
         return ONetworkBinaryProtocolFactory::createRequest;
     }
@@ -407,4 +409,29 @@ public class ONetworkBinaryProtocolFactory {
         return createRequest37(requestType);
     }
   }
+
+  /**
+   * Protocol 39
+   *
+   * @param requestType
+   * @return
+   */
+  public static OBinaryRequest<? extends OBinaryResponse> createRequest39(int requestType) {
+    switch (requestType) {
+      case OChannelBinaryProtocol.REQUEST_PREPARE_STATEMENT:
+        return new OPrepareStatementRequest();
+
+      case OChannelBinaryProtocol.REQUEST_EXECUTE_PREPARED_STATEMENT:
+        return new OExecutePreparedStatementRequest();
+
+      case OChannelBinaryProtocol.REQUEST_CLOSE_PREPARED_STATEMENT:
+        return new OClosePreparedStatementRequest();
+
+      case OChannelBinaryProtocol.REQUEST_READ_CHANGES:
+        return new OReadChangesRequest();
+
+      default:
+        return createRequest38(requestType);
+    }
+  }
 }
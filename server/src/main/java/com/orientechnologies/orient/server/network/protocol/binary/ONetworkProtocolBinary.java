@@ -91,6 +91,7 @@ import java.util.logging.Level;
 public class ONetworkProtocolBinary extends ONetworkProtocol {
   protected final Level logClientExceptions;
   protected final boolean logClientFullStackTrace;
+  private final int compressionThreshold;
   protected OChannelBinary channel;
   protected volatile int requestType;
   protected int clientTxId;
@@ -121,6 +122,10 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
             .getContextConfiguration()
             .getValueAsBoolean(
                 OGlobalConfiguration.SERVER_LOG_DUMP_CLIENT_EXCEPTION_FULLSTACKTRACE);
+    compressionThreshold =
+        server
+            .getContextConfiguration()
+            .getValueAsInteger(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD);
   }
 
   /** Internal varialbe injection useful for testing. */
@@ -387,11 +392,7 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
             if (response != null) {
               beginResponse();
               try {
-                sendOk(connection, clientTxId);
-                response.write(
-                    channel,
-                    connection.getData().protocolVersion,
-                    connection.getData().getSerializer());
+                writeResponse(connection, clientTxId, response);
               } finally {
                 endResponse();
               }
@@ -846,8 +847,57 @@ public class ONetworkProtocolBinary extends ONetworkProtocol {
     if (connection != null) connection.getData().commandInfo = iCommandInfo;
   }
 
+  /**
+   * Sends the response, with its content compressed if compression has been negotiated in the
+   * handshake and the content is big enough.
+   */
+  private void writeResponse(
+      OClientConnection connection, final int iClientTxId, OBinaryResponse response)
+      throws IOException {
+    final int protocolVersion = connection.getData().protocolVersion;
+    final ORecordSerializer serializer = connection.getData().getSerializer();
+    if (!isCompressionNegotiated()) {
+      sendOk(connection, iClientTxId);
+      response.write(channel, protocolVersion, serializer);
+      return;
+    }
+
+    byte[] content;
+    channel.beginBufferOutput();
+    try {
+      response.write(channel, protocolVersion, serializer);
+    } finally {
+      content = channel.endBufferOutput();
+    }
+
+    if (content.length < compressionThreshold) {
+      sendOk(connection, iClientTxId);
+      channel.writeRaw(content);
+    } else {
+      sendOk(connection, iClientTxId, OChannelBinaryProtocol.RESPONSE_STATUS_OK_COMPRESSED);
+      channel.writeCompressed(handshakeInfo.getCompression(), content);
+    }
+  }
+
+  /**
+   * Responses are compressed only for clients which asked for it in the handshake and speak at
+   * least the protocol 39, as older clients do not know the {@link
+   * OChannelBinaryProtocol#RESPONSE_STATUS_OK_COMPRESSED} status.
+   */
+  private boolean isCompressionNegotiated() {
+    return compressionThreshold > 0
+        && handshakeInfo != null
+        && handshakeInfo.getCompression() != null
+        && handshakeInfo.getProtocolVersion() >= OChannelBinaryProtocol.PROTOCOL_VERSION_39;
+  }
+
   protected void sendOk(OClientConnection connection, final int iClientTxId) throws IOException {
-    channel.writeByte(OChannelBinaryProtocol.RESPONSE_STATUS_OK);
+    sendOk(connection, iClientTxId, OChannelBinaryProtocol.RESPONSE_STATUS_OK);
+  }
+
+  protected void sendOk(OClientConnection connection, final int iClientTxId, final byte status)
+      throws IOException {
+    channel.writeByte(status);
     channel.writeInt(iClientTxId);
     okSent = true;
     if (handshakeInfo != null) {
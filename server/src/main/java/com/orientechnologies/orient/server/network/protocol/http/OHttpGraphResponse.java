@@ -350,10 +350,13 @@ public class OHttpGraphResponse extends OHttpResponse {
     writeLine(null);
 
     final OChunkedResponse chunkedOutput = new OChunkedResponse(this);
-    iWriter.call(chunkedOutput);
-    chunkedOutput.close();
-
-    flush();
+    try {
+      iWriter.call(chunkedOutput);
+    } finally {
+      // TERMINATE THE CHUNKED BODY ALSO IF THE WRITER FAILED, OR THE CLIENT WAITS FOR MORE CHUNKS
+      chunkedOutput.close();
+      flush();
+    }
   }
 
   @Override
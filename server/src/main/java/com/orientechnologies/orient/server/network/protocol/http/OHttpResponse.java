@@ -28,6 +28,7 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.record.OElement;
 import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.OCBORWriter;
 import com.orientechnologies.orient.core.serialization.serializer.OJSONWriter;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.server.OClientConnection;
@@ -36,6 +37,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -330,6 +332,19 @@ public abstract class OHttpResponse {
               return null;
             }
           });
+    } else if (accept != null && accept.contains(OHttpUtils.CONTENT_CBOR)) {
+      if (isStreaming()) {
+        streamRecords(it, iFetchPlan, iFormat, accept, () -> iAdditionalProperties);
+      } else {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeRecordsOnCBOR(() -> iAdditionalProperties, it, buffer);
+        sendStream(
+            OHttpUtils.STATUS_OK_CODE,
+            OHttpUtils.STATUS_OK_DESCRIPTION,
+            OHttpUtils.CONTENT_CBOR,
+            new ByteArrayInputStream(buffer.toByteArray()),
+            buffer.size());
+      }
     } else {
       if (iFormat == null) iFormat = JSON_FORMAT;
       else iFormat = JSON_FORMAT + "," + iFormat;
@@ -342,19 +357,18 @@ public abstract class OHttpResponse {
             OHttpUtils.CONTENT_JSON,
             null,
             iArgument -> {
-              try {
-                OutputStreamWriter writer = new OutputStreamWriter(iArgument);
-                writeRecordsOnStream(iFetchPlan, sendFormat, iAdditionalProperties, it, writer);
-                writer.flush();
-              } catch (IOException e) {
-                OLogManager.instance()
-                    .error(this, "Error during writing of records to the HTTP response", e);
-              }
+              final OutputStreamWriter writer = new OutputStreamWriter(iArgument);
+              writeStream(
+                  () ->
+                      writeRecordsOnStream(
+                          iFetchPlan, sendFormat, () -> iAdditionalProperties, it, writer),
+                  e -> writeJSONError(writer, e),
+                  writer);
               return null;
             });
       } else {
         final StringWriter buffer = new StringWriter();
-        writeRecordsOnStream(iFetchPlan, iFormat, iAdditionalProperties, it, buffer);
+        writeRecordsOnStream(iFetchPlan, iFormat, () -> iAdditionalProperties, it, buffer);
         send(
             OHttpUtils.STATUS_OK_CODE,
             OHttpUtils.STATUS_OK_DESCRIPTION,
@@ -365,11 +379,176 @@ public abstract class OHttpResponse {
     }
   }
 
+  /**
+   * Writes the records with a chunked response while they are pulled from the iterator, so the
+   * whole result is never kept in memory and the writes block as soon as the client stops reading.
+   * The additional properties are computed after the last record has been written. If the client
+   * accepts <code>application/x-ndjson</code> each record is written on its own line and the
+   * additional properties are not sent. If the client accepts <code>application/cbor</code> the
+   * response is the binary CBOR encoding of the JSON one.
+   */
+  public void streamRecords(
+      final Iterator<?> iRecords,
+      final String iFetchPlan,
+      String iFormat,
+      final String accept,
+      final Supplier<Map<String, Object>> iAdditionalProperties)
+      throws IOException {
+    if (iFormat == null) iFormat = JSON_FORMAT;
+    else iFormat = JSON_FORMAT + "," + iFormat;
+
+    final String sendFormat = iFormat;
+    final boolean ndjson = accept != null && accept.contains(OHttpUtils.CONTENT_NDJSON);
+    if (!ndjson && accept != null && accept.contains(OHttpUtils.CONTENT_CBOR)) {
+      sendStream(
+          OHttpUtils.STATUS_OK_CODE,
+          OHttpUtils.STATUS_OK_DESCRIPTION,
+          OHttpUtils.CONTENT_CBOR,
+          null,
+          iArgument -> {
+            writeStream(
+                () -> writeRecordsOnCBOR(iAdditionalProperties, iRecords, iArgument),
+                e -> writeCBORError(iArgument, e),
+                iArgument);
+            return null;
+          });
+      return;
+    }
+
+    sendStream(
+        OHttpUtils.STATUS_OK_CODE,
+        OHttpUtils.STATUS_OK_DESCRIPTION,
+        ndjson ? OHttpUtils.CONTENT_NDJSON : OHttpUtils.CONTENT_JSON,
+        null,
+        iArgument -> {
+          final OutputStreamWriter writer = new OutputStreamWriter(iArgument, utf8);
+          writeStream(
+              () -> {
+                if (ndjson) {
+                  writeRecordLinesOnStream(iFetchPlan, sendFormat, iRecords, writer);
+                } else {
+                  writeRecordsOnStream(
+                      iFetchPlan, sendFormat, iAdditionalProperties, iRecords, writer);
+                }
+              },
+              e -> writeJSONError(writer, e),
+              writer);
+          return null;
+        });
+  }
+
+  /** Part of a streamed response that can fail with an I/O error. */
+  private interface OStreamPart {
+    void write() throws IOException;
+  }
+
+  /** Error marker of a streamed response, written after the content sent so far. */
+  private interface OStreamError {
+    void write(RuntimeException e) throws IOException;
+  }
+
+  /**
+   * Writes the body of a streamed response. The status has already been sent, so a failure while
+   * the records are written is reported by appending an error object in the format of the
+   * response, after which the client finds an incomplete document instead of a truncated but valid
+   * one. A closed connection is not an error of the server and is logged at debug level.
+   */
+  private void writeStream(
+      final OStreamPart body, final OStreamError onError, final Flushable out) {
+    try {
+      try {
+        body.write();
+      } catch (RuntimeException e) {
+        OLogManager.instance()
+            .error(this, "Error during streaming of records to the HTTP response", e);
+        onError.write(e);
+      }
+      out.flush();
+    } catch (IOException e) {
+      OLogManager.instance()
+          .debug(this, "Client closed the connection during streaming of the HTTP response", e);
+    }
+  }
+
+  private static void writeJSONError(final Writer writer, final RuntimeException e)
+      throws IOException {
+    writer.write("\n{\"errors\":[{\"code\":");
+    writer.write(String.valueOf(OHttpUtils.STATUS_INTERNALERROR_CODE));
+    writer.write(",\"reason\":");
+    writer.write(OJSONWriter.writeValue(OHttpUtils.STATUS_INTERNALERROR_DESCRIPTION));
+    writer.write(",\"content\":");
+    writer.write(OJSONWriter.writeValue(String.valueOf(e.getMessage())));
+    writer.write("}]}\n");
+  }
+
+  private static void writeCBORError(final OutputStream out, final RuntimeException e)
+      throws IOException {
+    new OCBORWriter(out)
+        .beginMap()
+        .writeString("errors")
+        .beginArray()
+        .beginMap()
+        .writeAttribute("code", OHttpUtils.STATUS_INTERNALERROR_CODE)
+        .writeAttribute("reason", OHttpUtils.STATUS_INTERNALERROR_DESCRIPTION)
+        .writeAttribute("content", String.valueOf(e.getMessage()))
+        .end()
+        .end()
+        .end();
+  }
+
+  private void writeRecordsOnCBOR(
+      Supplier<Map<String, Object>> iAdditionalPropertiesSupplier,
+      Iterator<?> it,
+      OutputStream out)
+      throws IOException {
+    final OCBORWriter cbor = new OCBORWriter(out);
+    cbor.beginMap();
+
+    // WRITE RECORDS
+    cbor.writeString("result").beginArray();
+    while (it.hasNext()) {
+      Object entry = it.next();
+      if (entry instanceof OIdentifiable && !(entry instanceof OResult)) {
+        entry = ((OIdentifiable) entry).getRecord();
+      }
+      if (entry instanceof OResult) {
+        cbor.writeResult((OResult) entry);
+      } else if (entry instanceof OElement) {
+        cbor.writeElement((OElement) entry);
+      } else if (entry != null) {
+        cbor.writeValue(entry);
+      }
+      checkConnection();
+    }
+    cbor.end();
+
+    final Map<String, Object> iAdditionalProperties = iAdditionalPropertiesSupplier.get();
+    if (iAdditionalProperties != null) {
+      for (Map.Entry<String, Object> entry : iAdditionalProperties.entrySet()) {
+        cbor.writeAttribute(entry.getKey(), entry.getValue());
+      }
+    }
+
+    cbor.end();
+  }
+
+  private void writeRecordLinesOnStream(
+      String iFetchPlan, String iFormat, Iterator<?> it, Writer buffer) throws IOException {
+    final String format = iFetchPlan != null ? iFormat + ",fetchPlan:" + iFetchPlan : iFormat;
+    while (it.hasNext()) {
+      final Object entry = it.next();
+      if (entry != null && formatValue(entry, buffer, format)) {
+        buffer.append('\n');
+      }
+      checkConnection();
+    }
+  }
+
   private void writeRecordsOnStream(
       String iFetchPlan,
       String iFormat,
-      Map<String, Object> iAdditionalProperties,
-      Iterator<Object> it,
+      Supplier<Map<String, Object>> iAdditionalPropertiesSupplier,
+      Iterator<?> it,
       Writer buffer)
       throws IOException {
     final OJSONWriter json = new OJSONWriter(buffer, iFormat);
@@ -382,6 +561,7 @@ public abstract class OHttpResponse {
     formatMultiValue(it, buffer, format);
     json.endCollection(-1, true);
 
+    final Map<String, Object> iAdditionalProperties = iAdditionalPropertiesSupplier.get();
     if (iAdditionalProperties != null) {
       for (Map.Entry<String, Object> entry : iAdditionalProperties.entrySet()) {
 
@@ -405,7 +585,6 @@ public abstract class OHttpResponse {
       final Iterator<?> iIterator, final Writer buffer, final String format) throws IOException {
     if (iIterator != null) {
       int counter = 0;
-      String objectJson;
 
       while (iIterator.hasNext()) {
         final Object entry = iIterator.next();
@@ -414,34 +593,39 @@ public abstract class OHttpResponse {
             buffer.append(", ");
           }
 
-          if (entry instanceof OResult) {
-            objectJson = ((OResult) entry).toJSON();
-            buffer.append(objectJson);
-          } else if (entry instanceof OIdentifiable) {
-            ORecord rec = ((OIdentifiable) entry).getRecord();
-            if (rec != null) {
-              try {
-                objectJson = rec.toJSON(format);
-
-                buffer.append(objectJson);
-              } catch (Exception e) {
-                OLogManager.instance()
-                    .error(this, "Error transforming record " + rec.getIdentity() + " to JSON", e);
-              }
-            }
-          } else if (OMultiValue.isMultiValue(entry)) {
-            buffer.append("[");
-            formatMultiValue(OMultiValue.getMultiValueIterator(entry), buffer, format);
-            buffer.append("]");
-          } else {
-            buffer.append(OJSONWriter.writeValue(entry, format));
-          }
+          formatValue(entry, buffer, format);
         }
         checkConnection();
       }
     }
   }
 
+  private boolean formatValue(final Object entry, final Writer buffer, final String format)
+      throws IOException {
+    if (entry instanceof OResult) {
+      buffer.append(((OResult) entry).toJSON());
+    } else if (entry instanceof OIdentifiable) {
+      ORecord rec = ((OIdentifiable) entry).getRecord();
+      if (rec == null) {
+        return false;
+      }
+      try {
+        buffer.append(rec.toJSON(format));
+      } catch (Exception e) {
+        OLogManager.instance()
+            .error(this, "Error transforming record " + rec.getIdentity() + " to JSON", e);
+        return false;
+      }
+    } else if (OMultiValue.isMultiValue(entry)) {
+      buffer.append("[");
+      formatMultiValue(OMultiValue.getMultiValueIterator(entry), buffer, format);
+      buffer.append("]");
+    } else {
+      buffer.append(OJSONWriter.writeValue(entry, format));
+    }
+    return true;
+  }
+
   public void writeRecord(final ORecord iRecord) throws IOException {
     writeRecord(iRecord, null, null);
   }
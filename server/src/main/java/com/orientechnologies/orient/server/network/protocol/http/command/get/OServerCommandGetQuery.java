@@ -63,6 +63,23 @@ public class OServerCommandGetQuery extends OServerCommandAuthenticatedDbAbstrac
       if (localFetchPlan != null) {
         fetchPlan = localFetchPlan;
       }
+
+      if (iRequest.getHeader("TE") != null) iResponse.setStreaming(true);
+
+      if (OServerCommandPostCommand.isStreamed(iResponse, accept)) {
+        try {
+          iResponse.streamRecords(
+              OServerCommandPostCommand.limit(result, limit),
+              fetchPlan,
+              null,
+              accept,
+              () -> getAdditionalContent(result));
+        } finally {
+          result.close();
+        }
+        return false;
+      }
+
       int i = 0;
       List response = new ArrayList();
       while (result.hasNext()) {
@@ -73,19 +90,9 @@ public class OServerCommandGetQuery extends OServerCommandAuthenticatedDbAbstrac
         i++;
       }
 
-      Map<String, Object> additionalContent = new HashMap<>();
-
-      result
-          .getExecutionPlan()
-          .ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
-
+      Map<String, Object> additionalContent = getAdditionalContent(result);
       result.close();
 
-      String format = null;
-      if (fetchPlan != null) {
-        format = "fetchPlan:" + fetchPlan;
-      }
-
       iResponse.writeRecords(response, fetchPlan, null, accept, additionalContent);
 
     } finally {
@@ -95,6 +102,14 @@ public class OServerCommandGetQuery extends OServerCommandAuthenticatedDbAbstrac
     return false;
   }
 
+  private static Map<String, Object> getAdditionalContent(OResultSet result) {
+    Map<String, Object> additionalContent = new HashMap<>();
+    result
+        .getExecutionPlan()
+        .ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
+    return additionalContent;
+  }
+
   @Override
   public String[] getNames() {
     return NAMES;
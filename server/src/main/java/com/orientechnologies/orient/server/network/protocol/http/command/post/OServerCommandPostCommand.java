@@ -27,6 +27,7 @@ import com.orientechnologies.orient.core.db.ODatabaseStats;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.OSQLEngine;
+import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
 import com.orientechnologies.orient.core.sql.parser.OFetchPlan;
 import com.orientechnologies.orient.core.sql.parser.OLimit;
@@ -36,6 +37,7 @@ import com.orientechnologies.orient.core.sql.parser.OStatement;
 import com.orientechnologies.orient.core.sql.parser.OTraverseStatement;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpRequest;
 import com.orientechnologies.orient.server.network.protocol.http.OHttpResponse;
+import com.orientechnologies.orient.server.network.protocol.http.OHttpUtils;
 import com.orientechnologies.orient.server.network.protocol.http.command.OServerCommandAuthenticatedDbAbstract;
 import java.util.*;
 
@@ -107,6 +109,31 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
       if (localFetchPlan != null) {
         fetchPlan = localFetchPlan;
       }
+
+      String format = null;
+      if (fetchPlan != null) {
+        format = "fetchPlan:" + fetchPlan;
+      }
+
+      if (iRequest.getHeader("TE") != null) iResponse.setStreaming(true);
+
+      if (isStreamed(iResponse, accept, mode)) {
+        // WRITE EVERY RESULT AS SOON AS IT IS PRODUCED BY THE EXECUTION PLAN
+        final ODatabaseDocument database = db;
+        final boolean executionPlan = returnExecutionPlan;
+        try {
+          iResponse.streamRecords(
+              limit(result, limit),
+              null,
+              format,
+              accept,
+              () -> getAdditionalContent(result, database, begin, executionPlan));
+        } finally {
+          result.close();
+        }
+        return false;
+      }
+
       int i = 0;
       List response = new ArrayList();
       TimerTask commandInterruptTimer = null;
@@ -136,26 +163,10 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
           commandInterruptTimer.cancel();
         }
       }
-      Map<String, Object> additionalContent = new HashMap<>();
-      if (returnExecutionPlan) {
-        result
-            .getExecutionPlan()
-            .ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
-      }
-
+      Map<String, Object> additionalContent =
+          getAdditionalContent(result, db, begin, returnExecutionPlan);
       result.close();
-      long elapsedMs = System.currentTimeMillis() - begin;
 
-      String format = null;
-      if (fetchPlan != null) {
-        format = "fetchPlan:" + fetchPlan;
-      }
-
-      if (iRequest.getHeader("TE") != null) iResponse.setStreaming(true);
-
-      additionalContent.put("elapsedMs", elapsedMs);
-      ODatabaseStats dbStats = ((ODatabaseInternal) db).getStats();
-      additionalContent.put("dbStats", dbStats.toResult().toElement());
       iResponse.writeResult(response, format, accept, additionalContent, mode);
 
     } finally {
@@ -168,6 +179,53 @@ public class OServerCommandPostCommand extends OServerCommandAuthenticatedDbAbst
     return false;
   }
 
+  private static Map<String, Object> getAdditionalContent(
+      OResultSet result, ODatabaseDocument db, long begin, boolean returnExecutionPlan) {
+    Map<String, Object> additionalContent = new HashMap<>();
+    if (returnExecutionPlan) {
+      result
+          .getExecutionPlan()
+          .ifPresent(x -> additionalContent.put("executionPlan", x.toResult().toElement()));
+    }
+
+    additionalContent.put("elapsedMs", System.currentTimeMillis() - begin);
+    ODatabaseStats dbStats = ((ODatabaseInternal) db).getStats();
+    additionalContent.put("dbStats", dbStats.toResult().toElement());
+    return additionalContent;
+  }
+
+  /**
+   * Tells if the results can be streamed to the client while they are fetched, instead of being
+   * collected before the response is sent. CSV always needs the complete result to compute the
+   * columns.
+   */
+  public static boolean isStreamed(OHttpResponse response, String accept) {
+    return isStreamed(response, accept, null);
+  }
+
+  /**
+   * Tells if the results of the command in the given mode can be streamed. The "graph" mode needs
+   * the complete result to collect the vertices and the edges, so it is never streamed.
+   */
+  public static boolean isStreamed(OHttpResponse response, String accept, String mode) {
+    if ("graph".equalsIgnoreCase(mode)) {
+      return false;
+    }
+    if (accept != null && accept.contains(OHttpUtils.CONTENT_CSV)) {
+      return false;
+    }
+    return response.isStreaming()
+        || (accept != null && accept.contains(OHttpUtils.CONTENT_NDJSON));
+  }
+
+  /** Returns a lazy iterator on the first <code>limit</code> results, or on all if negative. */
+  public static Iterator<OResult> limit(OResultSet result, int limit) {
+    if (limit < 0) {
+      return result;
+    }
+    return result.stream().limit(limit).iterator();
+  }
+
   public static String getFetchPlanFromStatement(OStatement statement) {
     if (statement instanceof OSelectStatement) {
       OFetchPlan fp = ((OSelectStatement) statement).getFetchPlan();
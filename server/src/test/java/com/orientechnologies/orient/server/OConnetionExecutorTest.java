@@ -7,11 +7,18 @@ import static org.junit.Assert.assertTrue;
 import com.orientechnologies.orient.client.remote.OBinaryResponse;
 import com.orientechnologies.orient.client.remote.message.OBatchOperationsRequest;
 import com.orientechnologies.orient.client.remote.message.OBatchOperationsResponse;
+import com.orientechnologies.orient.client.remote.message.OReadRecordRequest;
+import com.orientechnologies.orient.client.remote.message.OReadRecordResponse;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.hook.ORecordHook;
+import com.orientechnologies.orient.core.hook.ORecordHookAbstract;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerBinary;
 import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
 import com.orientechnologies.orient.core.sql.executor.OResult;
 import com.orientechnologies.orient.core.sql.executor.OResultSet;
@@ -102,4 +109,80 @@ public class OConnetionExecutorTest {
     assertEquals("update", results.get(0).getProperty("name"));
     query.close();
   }
+
+  @Test
+  public void testBatchOperationsNoTXPartialFailure() {
+    ODocument toUpdate = database.save(new ODocument("test").field("name", "foo"));
+
+    OConnectionBinaryExecutor executor = new OConnectionBinaryExecutor(connection, server);
+
+    ODocument missing = new ODocument("test").field("name", "missing");
+    ORecordInternal.setIdentity(
+        missing, new ORecordId(toUpdate.getIdentity().getClusterId(), 1000));
+    ORecordInternal.setVersion(missing, 1);
+    toUpdate.field("name", "update");
+
+    List<ORecordOperation> operations = new ArrayList<>();
+    ODocument toInsert = new ODocument("test").field("name", "insert");
+    operations.add(new ORecordOperation(toInsert, ORecordOperation.CREATED));
+    operations.add(new ORecordOperation(missing, ORecordOperation.UPDATED));
+    operations.add(new ORecordOperation(toUpdate, ORecordOperation.UPDATED));
+
+    OBatchOperationsResponse batchResponse =
+        (OBatchOperationsResponse) new OBatchOperationsRequest(10, operations).execute(executor);
+    assertFalse(database.getTransaction().isActive());
+
+    assertEquals(1, batchResponse.getFailed().size());
+    assertEquals(1, batchResponse.getFailed().get(0).getIndex());
+    assertEquals(1, batchResponse.getCreated().size());
+    assertEquals(1, batchResponse.getUpdated().size());
+
+    assertEquals(2, database.countClass("test"));
+    OResultSet query = database.query("select from test where name = 'update'");
+    assertEquals(1, query.stream().count());
+    query.close();
+  }
+
+  @Test
+  public void testReadRecordStoredFormat() {
+    ODocument doc = database.save(new ODocument("test").field("name", "foo"));
+    database.getLocalCache().clear();
+
+    OConnectionBinaryExecutor executor = new OConnectionBinaryExecutor(connection, server);
+
+    OReadRecordRequest request =
+        new OReadRecordRequest(false, (ORecordId) doc.getIdentity(), "", false, true);
+    OReadRecordResponse response = (OReadRecordResponse) request.execute(executor);
+    assertTrue(response.isStoredFormat());
+
+    ODocument read = new ODocument();
+    ORecordSerializerBinary.INSTANCE.fromStream(response.getRecord(), read, null);
+    assertEquals("foo", read.field("name"));
+    assertEquals("test", read.getClassName());
+  }
+
+  @Test
+  public void testReadRecordStoredFormatWithReadHook() {
+    ODocument doc = database.save(new ODocument("test").field("name", "foo"));
+    database.getLocalCache().clear();
+
+    ORecordHook hook =
+        new ORecordHookAbstract() {
+          @Override
+          public DISTRIBUTED_EXECUTION_MODE getDistributedExecutionMode() {
+            return DISTRIBUTED_EXECUTION_MODE.TARGET_NODE;
+          }
+        };
+    database.registerHook(hook);
+    try {
+      OConnectionBinaryExecutor executor = new OConnectionBinaryExecutor(connection, server);
+
+      OReadRecordRequest request =
+          new OReadRecordRequest(false, (ORecordId) doc.getIdentity(), "", false, true);
+      OReadRecordResponse response = (OReadRecordResponse) request.execute(executor);
+      assertFalse(response.isStoredFormat());
+    } finally {
+      database.unregisterHook(hook);
+    }
+  }
 }
@@ -0,0 +1,62 @@
+package com.orientechnologies.orient.server.network.protocol.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.orientechnologies.orient.client.remote.OBinaryRequest;
+import com.orientechnologies.orient.client.remote.OBinaryResponse;
+import com.orientechnologies.orient.client.remote.message.OClosePreparedStatementRequest;
+import com.orientechnologies.orient.client.remote.message.OExecutePreparedStatementRequest;
+import com.orientechnologies.orient.client.remote.message.OPrepareStatementRequest;
+import com.orientechnologies.orient.client.remote.message.OReadChangesRequest;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class ONetworkBinaryProtocolFactoryTest {
+
+  @Test
+  public void testPreparedStatementRequestsNeedProtocol39() {
+    assertNotCreatedBefore39(OChannelBinaryProtocol.REQUEST_PREPARE_STATEMENT);
+    assertNotCreatedBefore39(OChannelBinaryProtocol.REQUEST_EXECUTE_PREPARED_STATEMENT);
+    assertNotCreatedBefore39(OChannelBinaryProtocol.REQUEST_CLOSE_PREPARED_STATEMENT);
+
+    assertCreatedBy39(
+        OChannelBinaryProtocol.REQUEST_PREPARE_STATEMENT, OPrepareStatementRequest.class);
+    assertCreatedBy39(
+        OChannelBinaryProtocol.REQUEST_EXECUTE_PREPARED_STATEMENT,
+        OExecutePreparedStatementRequest.class);
+    assertCreatedBy39(
+        OChannelBinaryProtocol.REQUEST_CLOSE_PREPARED_STATEMENT,
+        OClosePreparedStatementRequest.class);
+  }
+
+  @Test
+  public void testReadChangesRequestNeedsProtocol39() {
+    assertNotCreatedBefore39(OChannelBinaryProtocol.REQUEST_READ_CHANGES);
+
+    assertCreatedBy39(OChannelBinaryProtocol.REQUEST_READ_CHANGES, OReadChangesRequest.class);
+  }
+
+  private static void assertNotCreatedBefore39(byte requestType) {
+    for (short version : new short[] {37, 38}) {
+      try {
+        ONetworkBinaryProtocolFactory.matchProtocol(version).apply((int) requestType);
+        fail("Request " + requestType + " created for protocol " + version);
+      } catch (ODatabaseException e) {
+        // EXPECTED
+      }
+    }
+  }
+
+  private static void assertCreatedBy39(byte requestType, Class<?> requestClass) {
+    final Function<Integer, OBinaryRequest<? extends OBinaryResponse>> factory =
+        ONetworkBinaryProtocolFactory.matchProtocol(
+            (short) OChannelBinaryProtocol.PROTOCOL_VERSION_39);
+    final OBinaryRequest<? extends OBinaryResponse> request = factory.apply((int) requestType);
+    assertTrue(requestClass.isInstance(request));
+    assertEquals(OChannelBinaryProtocol.PROTOCOL_VERSION_39, request.requiredProtocolVersion());
+  }
+}
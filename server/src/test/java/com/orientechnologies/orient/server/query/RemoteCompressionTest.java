@@ -0,0 +1,155 @@
+package com.orientechnologies.orient.server.query;
+
+import static com.orientechnologies.orient.core.config.OGlobalConfiguration.NETWORK_BINARY_COMPRESSION_THRESHOLD;
+import static org.junit.Assert.assertEquals;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.binary.OChannelBinaryAsynchClient;
+import com.orientechnologies.orient.client.remote.message.OOpen37Request;
+import com.orientechnologies.orient.client.remote.message.OOpen37Response;
+import com.orientechnologies.orient.client.remote.message.OQueryRequest;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.record.binary.ORecordSerializerNetworkV37;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.enterprise.channel.binary.OChannelBinaryProtocol;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteCompressionTest {
+
+  private static final String SERVER_DIRECTORY = "./target/compression";
+  private OServer server;
+  private OrientDB orientDB;
+  private ODatabaseDocument session;
+  private int oldThreshold;
+
+  @Before
+  public void before() throws Exception {
+    oldThreshold = NETWORK_BINARY_COMPRESSION_THRESHOLD.getValueAsInteger();
+    NETWORK_BINARY_COMPRESSION_THRESHOLD.setValue(100);
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION, true)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteCompressionTest.class.getSimpleName());
+    session = orientDB.open(RemoteCompressionTest.class.getSimpleName(), "admin", "admin");
+    session.createClass("Some");
+  }
+
+  @Test
+  public void testQueryAndLoad() {
+    for (int i = 0; i < 100; i++) {
+      session.save(new ODocument("Some").field("name", "name" + i));
+    }
+
+    final Set<String> names = new HashSet<>();
+    try (OResultSet result = session.query("select from Some")) {
+      result.stream().forEach(item -> names.add(item.getProperty("name")));
+    }
+    assertEquals(100, names.size());
+
+    final ODocument doc = session.save(new ODocument("Some").field("name", "last"));
+    session.getLocalCache().clear();
+    assertEquals("last", session.<ODocument>load(doc.getIdentity()).field("name"));
+  }
+
+  @Test
+  public void testCompressedStatus() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      session.save(new ODocument("Some").field("name", "name" + i));
+    }
+
+    // THE PAGE OF 100 RECORDS IS ABOVE THE THRESHOLD OF 100 BYTES
+    assertEquals(
+        OChannelBinaryProtocol.RESPONSE_STATUS_OK_COMPRESSED,
+        queryResponseStatus(OChannelBinaryProtocol.CURRENT_PROTOCOL_VERSION));
+  }
+
+  @Test
+  public void testNotCompressedForOlderProtocol() throws Exception {
+    for (int i = 0; i < 100; i++) {
+      session.save(new ODocument("Some").field("name", "name" + i));
+    }
+
+    assertEquals(
+        OChannelBinaryProtocol.RESPONSE_STATUS_OK,
+        queryResponseStatus(OChannelBinaryProtocol.PROTOCOL_VERSION_38));
+  }
+
+  /**
+   * Opens a raw channel which asks for compressed responses in the handshake and returns the status
+   * byte of the response of a query of all the records of the class.
+   */
+  private byte queryResponseStatus(int protocolVersion) throws Exception {
+    final OContextConfiguration config = new OContextConfiguration();
+    config.setValue(OGlobalConfiguration.NETWORK_BINARY_COMPRESSION, true);
+    final OChannelBinaryAsynchClient channel =
+        new OChannelBinaryAsynchClient("localhost", 2424, config, protocolVersion);
+    try {
+      final OOpen37Request open =
+          new OOpen37Request(RemoteCompressionTest.class.getSimpleName(), "admin", "admin");
+      channel.writeByte(open.getCommand());
+      channel.writeInt(-1);
+      channel.writeBytes(null);
+      open.write(channel, null);
+      channel.flush();
+
+      final OOpen37Response opened = open.createResponse();
+      try {
+        channel.beginResponse(-1, true);
+        opened.read(channel, null);
+      } finally {
+        channel.endResponse();
+      }
+
+      final OQueryRequest query =
+          new OQueryRequest(
+              "sql",
+              "select from Some",
+              new Object[] {},
+              OQueryRequest.QUERY,
+              ORecordSerializerNetworkV37.INSTANCE,
+              100);
+      channel.writeByte(query.getCommand());
+      channel.writeInt(opened.getSessionId());
+      channel.writeBytes(opened.getSessionToken());
+      query.write(channel, null);
+      channel.flush();
+
+      return channel.readByte();
+    } finally {
+      channel.close();
+    }
+  }
+
+  @After
+  public void after() {
+    session.close();
+    orientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+    NETWORK_BINARY_COMPRESSION_THRESHOLD.setValue(oldThreshold);
+  }
+}
@@ -0,0 +1,153 @@
+package com.orientechnologies.orient.server.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.OStorageRemote;
+import com.orientechnologies.orient.client.remote.OStorageRemoteNearCache;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.OrientDB;
+import com.orientechnologies.orient.core.db.OrientDBConfig;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.executor.OResultSet;
+import com.orientechnologies.orient.server.OServer;
+import java.io.File;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteNearCacheTest {
+
+  private static final String SERVER_DIRECTORY = "./target/near-cache";
+  private OServer server;
+  private OrientDB orientDB;
+  private ODatabaseDocumentInternal database;
+
+  private OrientDB secondOrientDB;
+  private ODatabaseDocumentInternal secondDatabase;
+
+  @Before
+  public void before() throws Exception {
+    server = new OServer(false);
+    server.setServerRootDirectory(SERVER_DIRECTORY);
+    server.startup(getClass().getResourceAsStream("orientdb-server-config.xml"));
+    server.activate();
+
+    final OrientDBConfig config =
+        OrientDBConfig.builder()
+            .addConfig(OGlobalConfiguration.CLIENT_NEAR_CACHE_SIZE, 100)
+            .build();
+    orientDB = new OrientDB("remote:localhost", "root", "root", config);
+    orientDB.execute(
+        "create database ? memory users (admin identified by 'admin' role admin)",
+        RemoteNearCacheTest.class.getSimpleName());
+    database =
+        (ODatabaseDocumentInternal)
+            orientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+    database.command("create class Person").close();
+
+    secondOrientDB = new OrientDB("remote:localhost", config);
+    secondDatabase =
+        (ODatabaseDocumentInternal)
+            secondOrientDB.open(RemoteNearCacheTest.class.getSimpleName(), "admin", "admin");
+  }
+
+  @After
+  public void after() {
+    database.activateOnCurrentThread();
+    database.close();
+    orientDB.close();
+    secondDatabase.activateOnCurrentThread();
+    secondDatabase.close();
+    secondOrientDB.close();
+    server.shutdown();
+
+    Orient.instance().shutdown();
+    OFileUtils.deleteRecursively(new File(SERVER_DIRECTORY));
+    Orient.instance().startup();
+  }
+
+  @Test
+  public void testInvalidationOnUpdate() throws InterruptedException {
+    database.activateOnCurrentThread();
+    ODocument doc = database.save(new ODocument("Person").field("name", "John"));
+
+    secondDatabase.activateOnCurrentThread();
+    ODocument loaded = secondDatabase.load(doc.getIdentity());
+    assertEquals("John", loaded.field("name"));
+    assertNotNull(getNearCache(secondDatabase).get(doc.getIdentity(), "admin"));
+
+    database.activateOnCurrentThread();
+    doc.field("name", "Jane");
+    database.save(doc);
+
+    secondDatabase.activateOnCurrentThread();
+    waitInvalidation(secondDatabase, doc.getIdentity());
+    secondDatabase.getLocalCache().clear();
+    loaded = secondDatabase.load(doc.getIdentity());
+    assertEquals("Jane", loaded.field("name"));
+  }
+
+  @Test
+  public void testQueryResultsAndDelete() throws InterruptedException {
+    database.activateOnCurrentThread();
+    ODocument doc = database.save(new ODocument("Person").field("name", "John"));
+
+    secondDatabase.activateOnCurrentThread();
+    try (OResultSet result = secondDatabase.query("select from Person")) {
+      assertEquals(doc.getIdentity(), result.next().getIdentity().get());
+    }
+    assertNotNull(getNearCache(secondDatabase).get(doc.getIdentity(), "admin"));
+
+    database.activateOnCurrentThread();
+    database.delete(doc.getIdentity());
+
+    secondDatabase.activateOnCurrentThread();
+    waitInvalidation(secondDatabase, doc.getIdentity());
+    secondDatabase.getLocalCache().clear();
+    assertNull(secondDatabase.load(doc.getIdentity()));
+  }
+
+  @Test
+  public void testCachedRecordsAreServedOnlyToTheirUser() {
+    database.activateOnCurrentThread();
+    database.command("create user reader identified by 'reader' role reader").close();
+    ODocument doc = database.save(new ODocument("Person").field("name", "John"));
+
+    secondDatabase.activateOnCurrentThread();
+    secondDatabase.load(doc.getIdentity());
+    assertNotNull(getNearCache(secondDatabase).get(doc.getIdentity(), "admin"));
+
+    ODatabaseDocumentInternal readerDatabase =
+        (ODatabaseDocumentInternal)
+            secondOrientDB.open(RemoteNearCacheTest.class.getSimpleName(), "reader", "reader");
+    try {
+      assertNull(getNearCache(readerDatabase).get(doc.getIdentity(), "reader"));
+      ODocument loaded = readerDatabase.load(doc.getIdentity());
+      assertEquals("John", loaded.field("name"));
+      assertNotNull(getNearCache(readerDatabase).get(doc.getIdentity(), "reader"));
+    } finally {
+      readerDatabase.close();
+    }
+  }
+
+  private static OStorageRemoteNearCache getNearCache(ODatabaseDocumentInternal db) {
+    return ((OStorageRemote) db.getStorage()).getNearCache();
+  }
+
+  private static void waitInvalidation(ODatabaseDocumentInternal db, ORID rid)
+      throws InterruptedException {
+    // Invalidations are pushed in background, they are not guaranteed to arrive before the commit
+    // returns.
+    for (int i = 0; i < 100 && getNearCache(db).contains(rid); i++) {
+      Thread.sleep(100);
+    }
+    assertFalse(getNearCache(db).contains(rid));
+  }
+}
@@ -6,11 +6,13 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import com.orientechnologies.common.io.OFileUtils;
+import com.orientechnologies.orient.client.remote.ORemotePreparedStatement;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.OrientDB;
 import com.orientechnologies.orient.core.db.OrientDBConfig;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentRemote;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.exception.OSerializationException;
 import com.orientechnologies.orient.core.id.ORecordId;
@@ -90,6 +92,43 @@ public class RemoteQuerySupportTest {
     }
   }
 
+  @Test
+  public void testPrefetchInterleavedWithOtherRequests() {
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", "value");
+      session.save(doc);
+    }
+    OResultSet res = session.query("select from Some");
+    for (int i = 0; i < 150; i++) {
+      assertTrue(res.hasNext());
+      OResult item = res.next();
+      session.getLocalCache().clear();
+      ORecord loaded = session.load(item.getIdentity().get());
+      assertEquals(((ODocument) loaded).getProperty("prop"), "value");
+    }
+    Assert.assertFalse(res.hasNext());
+  }
+
+  @Test
+  public void testCloseWithPrefetchedPage() {
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", "value");
+      session.save(doc);
+    }
+    OResultSet res = session.query("select from Some");
+    for (int i = 0; i < 6; i++) {
+      assertTrue(res.hasNext());
+      res.next();
+    }
+    res.close();
+
+    try (OResultSet count = session.query("select count(*) as count from Some")) {
+      assertEquals(150L, (long) count.next().<Long>getProperty("count"));
+    }
+  }
+
   @Test
   public void testCommandInsertWithPageOverflow() {
     for (int i = 0; i < 150; i++) {
@@ -106,6 +145,63 @@ public class RemoteQuerySupportTest {
     }
   }
 
+  @Test
+  public void testPreparedStatement() {
+    for (int i = 0; i < 150; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", "value" + (i % 3));
+      session.save(doc);
+    }
+    ODatabaseDocumentRemote remote = (ODatabaseDocumentRemote) session;
+    ORemotePreparedStatement statement = remote.prepare("select from Some where prop = ?");
+    for (int k = 0; k < 3; k++) {
+      String value = "value" + k;
+      try (OResultSet res = remote.query(statement, value)) {
+        assertEquals(50, res.stream().filter(x -> value.equals(x.getProperty("prop"))).count());
+      }
+    }
+
+    ORemotePreparedStatement named = remote.prepare("select from Some where prop = :prop");
+    Map<String, Object> params = new HashMap<>();
+    params.put("prop", "value1");
+    try (OResultSet res = remote.query(named, params)) {
+      assertEquals(50, res.stream().count());
+    }
+    remote.close(named);
+
+    // a closed statement is prepared again when executed
+    try (OResultSet res = remote.query(named, params)) {
+      assertEquals(50, res.stream().count());
+    }
+  }
+
+  @Test
+  public void testEvictedPreparedStatement() {
+    for (int i = 0; i < 30; i++) {
+      ODocument doc = new ODocument("Some");
+      doc.setProperty("prop", "value" + (i % 3));
+      session.save(doc);
+    }
+    int oldMaxStatements =
+        OGlobalConfiguration.NETWORK_BINARY_MAX_PREPARED_STATEMENTS.getValueAsInteger();
+    OGlobalConfiguration.NETWORK_BINARY_MAX_PREPARED_STATEMENTS.setValue(1);
+    try {
+      ODatabaseDocumentRemote remote = (ODatabaseDocumentRemote) session;
+      ORemotePreparedStatement first = remote.prepare("select from Some where prop = ?");
+      ORemotePreparedStatement second = remote.prepare("select count(*) from Some");
+      try (OResultSet res = remote.query(second)) {
+        assertEquals(30L, (long) res.next().<Long>getProperty("count(*)"));
+      }
+
+      // the server dropped the first statement, the client prepares it again
+      try (OResultSet res = remote.query(first, "value1")) {
+        assertEquals(10, res.stream().count());
+      }
+    } finally {
+      OGlobalConfiguration.NETWORK_BINARY_MAX_PREPARED_STATEMENTS.setValue(oldMaxStatements);
+    }
+  }
+
   @Test(expected = ODatabaseException.class)
   public void testQueryKilledSession() {
     for (int i = 0; i < 150; i++) {
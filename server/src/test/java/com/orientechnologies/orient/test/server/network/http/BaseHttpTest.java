@@ -153,6 +153,14 @@ public abstract class BaseHttpTest {
     return this;
   }
 
+  protected BaseHttpTest post(final String url, Header[] headers) throws IOException {
+    request = new HttpPost(getBaseURL() + "/" + url);
+    request.setHeaders(headers);
+
+    response = null;
+    return this;
+  }
+
   protected BaseHttpTest put(final String url) throws IOException {
     request = new HttpPut(getBaseURL() + "/" + url);
     response = null;
@@ -6,7 +6,9 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
+import org.apache.http.message.BasicHeader;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -123,6 +125,54 @@ public class HttpGraphTest extends BaseHttpDatabaseTest {
     Assert.assertEquals(1, edges.size());
   }
 
+  @Test
+  public void getGraphResultStreamed() throws IOException {
+    Assert.assertEquals(
+        post("command/" + getDatabaseName() + "/sql/")
+            .payload("create class Bar extends V", CONTENT.TEXT)
+            .getResponse()
+            .getStatusLine()
+            .getStatusCode(),
+        200);
+    Assert.assertEquals(
+        post("command/" + getDatabaseName() + "/sql/")
+            .payload("create class BarEdge extends E", CONTENT.TEXT)
+            .getResponse()
+            .getStatusLine()
+            .getStatusCode(),
+        200);
+
+    final String script =
+        "begin;let $v1 = create vertex Bar set name = 'bar1';"
+            + "let $v2 = create vertex Bar set name = 'bar2';"
+            + "create edge BarEdge from $v1 to $v2;commit;";
+    final String scriptPayload =
+        "{ \"operations\" : [{ \"type\" : \"script\", \"language\" : \"SQL\",  \"script\" : \"%s\"}]}";
+    Assert.assertEquals(
+        post("batch/" + getDatabaseName() + "/sql/")
+            .payload(String.format(scriptPayload, script), CONTENT.JSON)
+            .getResponse()
+            .getStatusLine()
+            .getStatusCode(),
+        200);
+
+    final String payload =
+        new ODocument().field("command", "select from BarEdge").field("mode", "graph").toJSON();
+    final HttpResponse response =
+        post(
+                "command/" + getDatabaseName() + "/sql/",
+                new Header[] {new BasicHeader("TE", "chunked")})
+            .payload(payload, CONTENT.JSON)
+            .getResponse();
+    Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+
+    final ODocument result = new ODocument().fromJSON(response.getEntity().getContent());
+    final Map<String, Object> res = result.field("graph");
+    Assert.assertNotNull(res);
+    Assert.assertEquals(2, ((Collection) res.get("vertices")).size());
+    Assert.assertEquals(1, ((Collection) res.get("edges")).size());
+  }
+
   @Override
   public String getDatabaseName() {
     return "httpgraph";
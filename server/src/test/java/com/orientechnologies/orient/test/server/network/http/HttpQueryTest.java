@@ -1,7 +1,14 @@
 package com.orientechnologies.orient.test.server.network.http;
 
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -43,6 +50,53 @@ public class HttpQueryTest extends BaseHttpDatabaseTest {
         200);
   }
 
+  @Test
+  public void queryStreamed() throws IOException {
+    Assert.assertEquals(
+        get(
+                "query/"
+                    + getDatabaseName()
+                    + "/sql/"
+                    + URLEncoder.encode("select from OUSer", "UTF8")
+                    + "/1",
+                new Header[] {new BasicHeader("TE", "chunked")})
+            .setUserName("admin")
+            .setUserPassword("admin")
+            .getResponse()
+            .getStatusLine()
+            .getStatusCode(),
+        200);
+
+    final ODocument result = new ODocument().fromJSON(getResponse().getEntity().getContent());
+    Assert.assertEquals(1, ((Collection<?>) result.field("result")).size());
+    Assert.assertTrue(result.containsField("executionPlan"));
+  }
+
+  @Test
+  public void queryNdjson() throws IOException {
+    Assert.assertEquals(
+        get(
+                "query/"
+                    + getDatabaseName()
+                    + "/sql/"
+                    + URLEncoder.encode("select name from OUSer where name = 'admin'", "UTF8"),
+                new Header[] {new BasicHeader("Accept", "application/x-ndjson")})
+            .setUserName("admin")
+            .setUserPassword("admin")
+            .getResponse()
+            .getStatusLine()
+            .getStatusCode(),
+        200);
+
+    final BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                getResponse().getEntity().getContent(), StandardCharsets.UTF_8));
+    final ODocument line = new ODocument().fromJSON(reader.readLine());
+    Assert.assertEquals("admin", line.field("name"));
+    Assert.assertNull(reader.readLine());
+  }
+
   @Override
   public String getDatabaseName() {
     return "httpquery";